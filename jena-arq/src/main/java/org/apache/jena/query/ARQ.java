@@ -315,6 +315,14 @@ public class ARQ
      *  Default is "true" - total sort if avoided by default when ORDER BY is used with LIMIT.
      */  
     public static final Symbol optTopNSorting = ARQConstants.allocSymbol("optTopNSorting") ;
+
+    /** 
+     *  Context key controlling whether FILTER and BIND expressions are compiled
+     *  (see {@link org.apache.jena.sparql.expr.compile.ExprCompiler}) before execution,
+     *  rather than interpreted for each solution.
+     *  Must be explicitly set "true" to operate.
+     */  
+    public static final Symbol optExprCompile = ARQConstants.allocSymbol("optExprCompile") ;
     
     /** 
      *  Context key controlling whether a DISTINCT-ORDER BY query is done by replacing the distinct with a reduced.
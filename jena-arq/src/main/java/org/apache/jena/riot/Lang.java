@@ -81,6 +81,9 @@ public class Lang
     //** The RDF syntax "RDF Thrift" : see http://jena.apache.org/documentation/io */ 
     public static Lang RDFTHRIFT ;
 
+    //** The RDF syntax "RDF Thrift" in independently compressed blocks : see {@link org.apache.jena.riot.thrift.ThriftBlocks} */ 
+    public static Lang RDFTHRIFT_BLOCKS ;
+
     /** "CSV" - CSV data read into an RDF model with simple conversion : See Jena-625 */
     public static Lang CSV ;
 
@@ -19,6 +19,7 @@
 package org.apache.jena.riot ;
 
 import static org.apache.jena.riot.RDFLanguages.THRIFT ;
+import static org.apache.jena.riot.RDFLanguages.THRIFT_BLOCKS ;
 
 import java.util.Objects;
 
@@ -38,6 +39,8 @@ public class RDFFormat {
     public static final RDFFormatVariant ASCII          = new RDFFormatVariant("ascii") ;
     /** Use UTF-8 output (N-triples, N-Quads) */
     public static final RDFFormatVariant UTF8           = new RDFFormatVariant("utf-8") ;
+    /** Canonical blank node labels and sorted lines (N-Triples) */
+    public static final RDFFormatVariant CANONICAL      = new RDFFormatVariant("canonical") ;
     /** Variant for RDF Thrift using values */
     public static final RDFFormatVariant ValueEncoding  = new RDFFormatVariant("Value") ;
     
@@ -51,6 +54,12 @@ public class RDFFormat {
     public static final RDFFormat        NTRIPLES       = NTRIPLES_UTF8 ;
     public static final RDFFormat        NT             = NTRIPLES ;
     public static final RDFFormat        NTRIPLES_ASCII = new RDFFormat(Lang.NTRIPLES, ASCII) ;
+    /**
+     * N-Triples with canonical blank node labels and the lines in order, so
+     * isomorphic graphs are written the same way.
+     * @see org.apache.jena.riot.writer.NTriplesWriterCanonical
+     */
+    public static final RDFFormat        NTRIPLES_CANONICAL = new RDFFormat(Lang.NTRIPLES, CANONICAL) ;
 
     public static final RDFFormat        NQUADS_UTF8    = new RDFFormat(Lang.NQUADS, UTF8) ;
     public static final RDFFormat        NQUADS         = NQUADS_UTF8 ;
@@ -101,6 +110,19 @@ public class RDFFormat {
      */
     public static final RDFFormat RDF_THRIFT_VALUES     = new RDFFormat(THRIFT, ValueEncoding) ;
 
+    /**
+     * RDF Thrift output in independently compressed blocks, each with its own
+     * dictionary of RDF terms, followed by a block index. Blocks are encoded and
+     * decoded in parallel and a file can be read starting at any block.
+     *
+     * @see org.apache.jena.riot.thrift.ThriftBlocks
+     */
+    public static final RDFFormat RDF_THRIFT_BLOCKS     = new RDFFormat(THRIFT_BLOCKS) ;
+    /**
+     * {@link #RDF_THRIFT_BLOCKS} using value encoding (see {@link #RDF_THRIFT_VALUES}).
+     */
+    public static final RDFFormat RDF_THRIFT_BLOCKS_VALUES = new RDFFormat(THRIFT_BLOCKS, ValueEncoding) ;
+
     /**
      * The "null" output format (a sink that prints nothing, usually quite
      * efficiently)
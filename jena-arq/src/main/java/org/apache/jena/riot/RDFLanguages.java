@@ -49,6 +49,7 @@ public class RDFLanguages
     public static final String strLangCSV        = "CSV";
     public static final String strLangTriX       = "TriX";
     public static final String strLangRDFTHRIFT  = "RDF-THRIFT";
+    public static final String strLangRDFTHRIFTBLOCKS  = "RDF-THRIFT-BLOCKS";
     
     /*
      * ".owl" is not a formally registered file extension for OWL 
@@ -130,6 +131,12 @@ public class RDFLanguages
                                                      .addAltNames("RDF_THRIFT", "RDFTHRIFT", "RDF/THRIFT", "TRDF")
                                                      .addFileExtensions("rt", "trdf")
                                                      .build() ;
+
+    /** RDF Thrift written as independently compressed blocks, with a block index : see {@link org.apache.jena.riot.thrift.ThriftBlocks} */ 
+    public static final Lang THRIFT_BLOCKS = LangBuilder.create(strLangRDFTHRIFTBLOCKS, contentTypeRDFThriftBlocks)
+                                                     .addAltNames("RDF_THRIFT_BLOCKS", "RDFTHRIFTBLOCKS", "TRDFB")
+                                                     .addFileExtensions("trdfb")
+                                                     .build() ;
     
     /** Text */
     public static final Lang TEXT       = LangBuilder.create("text", contentTypeTextPlain)
@@ -183,6 +190,7 @@ public class RDFLanguages
         Lang.NQ         = RDFLanguages.NQ ;
         Lang.TRIG       = RDFLanguages.TRIG ;
         Lang.RDFTHRIFT  = RDFLanguages.THRIFT ;
+        Lang.RDFTHRIFT_BLOCKS = RDFLanguages.THRIFT_BLOCKS ;
         Lang.CSV        = RDFLanguages.CSV ;
         Lang.TRIX       = RDFLanguages.TRIX ;
         Lang.RDFNULL    = RDFLanguages.RDFNULL ;
@@ -201,6 +209,7 @@ public class RDFLanguages
         register(TRIG) ;
         register(NQUADS) ;
         register(THRIFT) ;
+        register(THRIFT_BLOCKS) ;
         register(CSV) ;
         register(TRIX) ;
         register(RDFNULL) ;
@@ -36,6 +36,7 @@ import org.apache.jena.riot.system.ErrorHandlerFactory ;
 import org.apache.jena.riot.system.ParserProfile ;
 import org.apache.jena.riot.system.StreamRDF ;
 import org.apache.jena.riot.thrift.BinRDF ;
+import org.apache.jena.riot.thrift.ThriftBlocks ;
 import org.apache.jena.sparql.util.Context ;
 
 /** The registry of languages and parsers.
@@ -88,12 +89,14 @@ public class RDFParserRegistry
         registerLangTriples(RDFJSON,    parserFactory) ;
         registerLangTriples(CSV,        parserFactory) ;
         registerLangTriples(THRIFT,     parserFactoryThrift) ;
+        registerLangTriples(THRIFT_BLOCKS, parserFactoryThrift) ;
         registerLangTriples(TRIX,       parserFactoryTriX) ;
         
         registerLangQuads(JSONLD,       parserFactoryJsonLD) ;
         registerLangQuads(NQUADS,       parserFactory) ;
         registerLangQuads(TRIG,         parserFactory) ;
         registerLangQuads(THRIFT,       parserFactoryThrift) ;
+        registerLangQuads(THRIFT_BLOCKS, parserFactoryThrift) ;
         registerLangQuads(TRIX,         parserFactoryTriX) ;
     }
 
@@ -202,13 +205,22 @@ public class RDFParserRegistry
     private static class ReaderRIOTFactoryThrift implements ReaderRIOTFactory {
         @Override
         public ReaderRIOT create(Lang language) {
-            return new ReaderRDFThrift() ;
+            return new ReaderRDFThrift(THRIFT_BLOCKS.equals(language)) ;
         }}
     
     private static class ReaderRDFThrift implements ReaderRIOT {
+        private final boolean blocks ;
+        
+        ReaderRDFThrift(boolean blocks) {
+            this.blocks = blocks ;
+        }
+        
         @Override
         public void read(InputStream in, String baseURI, ContentType ct, StreamRDF output, Context context) {
-            BinRDF.inputStreamToStream(in, output) ;
+            if ( blocks )
+                ThriftBlocks.inputStreamToStream(in, output) ;
+            else
+                BinRDF.inputStreamToStream(in, output) ;
         }
 
         @Override
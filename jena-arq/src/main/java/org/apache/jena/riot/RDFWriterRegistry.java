@@ -58,6 +58,8 @@ public class RDFWriterRegistry
                 return new NTriplesWriter() ;
             if ( Objects.equals(RDFFormat.NTRIPLES_ASCII, serialization) )
                 return new NTriplesWriter(CharSpace.ASCII) ;
+            if ( Objects.equals(RDFFormat.NTRIPLES_CANONICAL, serialization) )
+                return new NTriplesWriterCanonical() ;
             
             if ( Objects.equals(RDFFormat.RDFJSON, serialization) )
                 return new RDFJSONWriter() ;
@@ -155,6 +157,7 @@ public class RDFWriterRegistry
          register(Lang.NQUADS,      RDFFormat.NQUADS) ;
          register(Lang.RDFNULL,     RDFFormat.RDFNULL) ;
          register(Lang.RDFTHRIFT,   RDFFormat.RDF_THRIFT) ;
+         register(Lang.RDFTHRIFT_BLOCKS, RDFFormat.RDF_THRIFT_BLOCKS) ;
          register(Lang.TRIX,        RDFFormat.TRIX) ;
 
          // Writer factories.
@@ -164,6 +167,7 @@ public class RDFWriterRegistry
 
          register(RDFFormat.NTRIPLES,       wgfactory) ;
          register(RDFFormat.NTRIPLES_ASCII, wgfactory) ;
+         register(RDFFormat.NTRIPLES_CANONICAL, wgfactory) ;
          
          register(RDFFormat.JSONLD,         wgJsonldfactory) ;
          register(RDFFormat.JSONLD_FLAT,    wgJsonldfactory) ;
@@ -185,6 +189,8 @@ public class RDFWriterRegistry
          
          register(RDFFormat.RDF_THRIFT,     wgThriftFactory) ;
          register(RDFFormat.RDF_THRIFT_VALUES, wgThriftFactory) ;
+         register(RDFFormat.RDF_THRIFT_BLOCKS, wgThriftFactory) ;
+         register(RDFFormat.RDF_THRIFT_BLOCKS_VALUES, wgThriftFactory) ;
 
          register(RDFFormat.TRIX, wgTriXFactory) ;
 
@@ -203,6 +209,8 @@ public class RDFWriterRegistry
          
          register(RDFFormat.RDF_THRIFT,     wdsThriftFactory) ;
          register(RDFFormat.RDF_THRIFT_VALUES, wdsThriftFactory) ;
+         register(RDFFormat.RDF_THRIFT_BLOCKS, wdsThriftFactory) ;
+         register(RDFFormat.RDF_THRIFT_BLOCKS_VALUES, wdsThriftFactory) ;
          
          register(RDFFormat.TRIX, wdsTriXFactory) ;
      }
@@ -76,6 +76,9 @@ public class WebContent
     public static final String      contentTypeRDFThrift         = "application/rdf+thrift" ;
     public static final ContentType ctRDFTHRIFT                  = ContentType.create(contentTypeRDFThrift) ;
 
+    public static final String      contentTypeRDFThriftBlocks   = "application/rdf+thrift-blocks" ;
+    public static final ContentType ctRDFTHRIFTBLOCKS            = ContentType.create(contentTypeRDFThriftBlocks) ;
+
     public static final String      contentTypeNQuadsAlt1        = "text/n-quads" ;
     public static final ContentType ctNQuadsAlt1                 = ContentType.create(contentTypeNQuadsAlt1) ;
 
@@ -24,6 +24,8 @@ import java.util.concurrent.ArrayBlockingQueue;
 import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.CancellationException;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongFieldUpdater;
+import java.util.concurrent.locks.LockSupport;
 
 import org.apache.jena.atlas.lib.Closeable;
 import org.apache.jena.riot.RiotException;
@@ -45,6 +47,15 @@ import org.apache.jena.riot.system.PrefixMapFactory;
  * write operations, within limits.
  * </p>
  * <p>
+ * By default the buffer is a blocking queue, which may be shared by several
+ * producer threads. Where there is exactly one producer and one consumer the
+ * {@link #PipedRDFIterator(int, int, int, int)} constructor creates an
+ * iterator whose buffer is a lock-free ring instead: the producer publishes
+ * each item without taking a lock, and the consumer takes every item published
+ * so far in one go and hands the slots back to the producer in batches. A side
+ * that has to wait on the ring spins briefly, then yields, then parks.
+ * </p>
+ * <p>
  * Inspired by Java's {@link java.io.PipedInputStream} and
  * {@link java.io.PipedOutputStream}
  * </p>
@@ -74,8 +85,49 @@ public class PipedRDFIterator<T> implements Iterator<T>, Closeable {
      */
     public static final int DEFAULT_MAX_POLLS = 10;
 
+    /**
+     * Constant for the default number of slots the consumer frees before
+     * handing them back to the producer, when the buffer is a ring
+     */
+    public static final int DEFAULT_BATCH_SIZE = 256;
+
+    // Wait strategy: busy spins, then yields, then parks for at most MAX_PARK_NANOS
+    // at a time. Parking is bounded so a wake up that races with parking is never
+    // lost for long.
+    private static final int SPINS = 100;
+    private static final int YIELDS = 10;
+    private static final long MAX_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    @SuppressWarnings("rawtypes")
+    private static final AtomicLongFieldUpdater<PipedRDFIterator> TAIL = AtomicLongFieldUpdater.newUpdater(PipedRDFIterator.class, "tail");
+    @SuppressWarnings("rawtypes")
+    private static final AtomicLongFieldUpdater<PipedRDFIterator> HEAD = AtomicLongFieldUpdater.newUpdater(PipedRDFIterator.class, "head");
+
+    // The buffer is either the blocking queue or, for a single producer and a
+    // single consumer, the ring.
     private final BlockingQueue<T> queue;
 
+    // The ring: a power of two size so a position is mapped to a slot with the mask.
+    private final Object[] buffer;
+    private final int mask;
+    private final int batchSize;
+
+    // Positions published by the producer (next slot to write) and by the consumer
+    // (next slot to read). Each side writes only its own.
+    private volatile long tail = 0;
+    private volatile long head = 0;
+
+    // Producer side state.
+    private long writePosition = 0;
+    private long cachedHead = 0;
+    private volatile Thread waitingProducer;
+
+    // Consumer side state.
+    private long readPosition = 0;
+    private long cachedTail = 0;
+    private int unreleased = 0;
+    private volatile Thread waitingConsumer;
+
     @SuppressWarnings("unchecked")
     private final T endMarker = (T) new Object();
 
@@ -199,13 +251,66 @@ public class PipedRDFIterator<T> implements Iterator<T>, Closeable {
      *            Max poll attempts
      */
     public PipedRDFIterator(int bufferSize, boolean fair, int pollTimeout, int maxPolls) {
+        checkArgs(pollTimeout, maxPolls);
+        this.queue = new ArrayBlockingQueue<>(bufferSize, fair);
+        this.buffer = null;
+        this.mask = 0;
+        this.batchSize = 0;
+        this.pollTimeout = pollTimeout;
+        this.maxPolls = maxPolls;
+    }
+
+    /**
+     * Creates a new piped RDF iterator for exactly one producer thread and one
+     * consumer thread
+     * <p>
+     * The buffer is a lock-free ring rather than a blocking queue. Only one
+     * thread may write to the iterator and only one thread may read from it at
+     * a time; items written by several producers working concurrently will be
+     * lost or corrupted. Use one of the other constructors if more than one
+     * thread may produce data.
+     * </p>
+     * <p>
+     * The {@code pollTimeout} and {@code maxPolls} parameters are as for
+     * {@link #PipedRDFIterator(int, boolean, int, int)}. The
+     * {@code batchSize} parameter controls how often the consumer hands free
+     * slots back to the producer. Larger batches mean less traffic between the
+     * two threads; the batch size is capped at a quarter of the buffer size so
+     * that the producer is not kept waiting for long when the buffer is full.
+     * </p>
+     * 
+     * @param bufferSize
+     *            Buffer size, rounded up to a power of two
+     * @param pollTimeout
+     *            Poll timeout in milliseconds
+     * @param maxPolls
+     *            Max poll attempts
+     * @param batchSize
+     *            Number of slots freed by the consumer before they are handed
+     *            back to the producer
+     */
+    public PipedRDFIterator(int bufferSize, int pollTimeout, int maxPolls, int batchSize) {
+        if (bufferSize <= 0 || bufferSize > (1 << 30))
+            throw new IllegalArgumentException("Buffer size must be > 0 and <= 2^30");
+        checkArgs(pollTimeout, maxPolls);
+        if (batchSize <= 0)
+            throw new IllegalArgumentException("Batch size must be > 0");
+        int capacity = Integer.highestOneBit(bufferSize);
+        if (capacity < bufferSize)
+            capacity <<= 1;
+        this.queue = null;
+        this.buffer = new Object[capacity];
+        this.mask = capacity - 1;
+        this.batchSize = Math.max(1, Math.min(batchSize, capacity / 4));
+        this.pollTimeout = pollTimeout;
+        this.maxPolls = maxPolls;
+    }
+
+    private static void checkArgs(int pollTimeout, int maxPolls) {
         if (pollTimeout <= 0)
             throw new IllegalArgumentException("Poll Timeout must be > 0");
         if (maxPolls <= 0)
             throw new IllegalArgumentException("Max Poll attempts must be > 0");
-        this.queue = new ArrayBlockingQueue<>(bufferSize, fair);
-        this.pollTimeout = pollTimeout;
-        this.maxPolls = maxPolls;
     }
 
     @Override
@@ -237,11 +342,7 @@ public class PipedRDFIterator<T> implements Iterator<T>, Closeable {
         int attempts = 0;
         while (true) {
             attempts++;
-            try {
-                slot = queue.poll(this.pollTimeout, TimeUnit.MILLISECONDS);
-            } catch (InterruptedException e) {
-                throw new CancellationException();
-            }
+            slot = poll(this.pollTimeout);
 
             if (null != slot)
                 break;
@@ -313,10 +414,131 @@ public class PipedRDFIterator<T> implements Iterator<T>, Closeable {
         checkStateForReceive();
         producerThread = Thread.currentThread();
 
-        try {
-            queue.put(t);
-        } catch (InterruptedException e) {
-            throw new CancellationException();
+        if (queue != null) {
+            // Wait for space a poll timeout at a time so that a producer is
+            // not left blocked forever if the consumer closes the pipe.
+            try {
+                while (!queue.offer(t, pollTimeout, TimeUnit.MILLISECONDS))
+                    checkStateForReceive();
+            } catch (InterruptedException e) {
+                throw new CancellationException();
+            }
+            return;
+        }
+
+        long position = writePosition;
+        if (position - cachedHead > mask) {
+            cachedHead = head;
+            if (position - cachedHead > mask)
+                awaitSpace(position);
+        }
+        buffer[(int) position & mask] = t;
+        writePosition = position + 1;
+        // An ordered write: the item is visible before the new tail.
+        TAIL.lazySet(this, position + 1);
+        Thread consumer = waitingConsumer;
+        if (consumer != null)
+            LockSupport.unpark(consumer);
+    }
+
+    /** Wait until the consumer has freed the slot for {@code position}. */
+    private void awaitSpace(long position) {
+        int waits = 0;
+        while (true) {
+            cachedHead = head;
+            if (position - cachedHead <= mask)
+                return;
+            checkStateForReceive();
+            if (waits < SPINS)
+                waits++;
+            else if (waits < SPINS + YIELDS) {
+                waits++;
+                Thread.yield();
+            } else {
+                waitingProducer = Thread.currentThread();
+                if (position - head > mask)
+                    LockSupport.parkNanos(this, MAX_PARK_NANOS);
+                waitingProducer = null;
+            }
+            if (Thread.interrupted())
+                throw new CancellationException();
+        }
+    }
+
+    /**
+     * Take the next item, waiting up to {@code timeout} milliseconds for one;
+     * returns null if there is none.
+     */
+    @SuppressWarnings("unchecked")
+    private T poll(long timeout) {
+        if (queue != null) {
+            try {
+                return queue.poll(timeout, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                throw new CancellationException();
+            }
+        }
+        long position = readPosition;
+        if (position == cachedTail) {
+            cachedTail = tail;
+            if (position == cachedTail && !awaitData(position, timeout))
+                return null;
+        }
+        int idx = (int) position & mask;
+        T item = (T) buffer[idx];
+        buffer[idx] = null;
+        readPosition = position + 1;
+        if (++unreleased >= batchSize)
+            release();
+        return item;
+    }
+
+    /** Hand the slots read so far back to the producer. */
+    private void release() {
+        unreleased = 0;
+        HEAD.lazySet(this, readPosition);
+        Thread producer = waitingProducer;
+        if (producer != null)
+            LockSupport.unpark(producer);
+    }
+
+    /**
+     * Wait for the producer to publish the item at {@code position}. Returns false
+     * on timeout, or early if no more items can arrive because the producer died,
+     * is this thread, or the pipe was closed.
+     */
+    private boolean awaitData(long position, long timeout) {
+        // The producer may be waiting for the slots read so far.
+        release();
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeout);
+        int waits = 0;
+        while (true) {
+            if ((cachedTail = tail) != position)
+                return true;
+            if (threadReused || closedByConsumer)
+                return false;
+            Thread producer = producerThread;
+            if (producer != null && !producer.isAlive()) {
+                // Everything the producer wrote is visible once it is seen to have
+                // terminated.
+                return (cachedTail = tail) != position;
+            }
+            if (waits < SPINS)
+                waits++;
+            else if (waits < SPINS + YIELDS) {
+                waits++;
+                Thread.yield();
+            } else {
+                long remaining = deadline - System.nanoTime();
+                if (remaining <= 0)
+                    return false;
+                waitingConsumer = Thread.currentThread();
+                if (tail == position)
+                    LockSupport.parkNanos(this, Math.min(remaining, MAX_PARK_NANOS));
+                waitingConsumer = null;
+            }
+            if (Thread.interrupted())
+                throw new CancellationException();
         }
     }
 
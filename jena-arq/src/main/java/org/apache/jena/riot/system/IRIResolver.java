@@ -23,6 +23,7 @@ import java.util.concurrent.Callable ;
 import org.apache.jena.atlas.lib.Cache ;
 import org.apache.jena.atlas.lib.CacheFactory ;
 import org.apache.jena.atlas.lib.IRILib ;
+import org.apache.jena.atlas.lib.Pair ;
 import org.apache.jena.iri.IRI ;
 import org.apache.jena.iri.IRIException ;
 import org.apache.jena.iri.IRIFactory ;
@@ -79,6 +80,93 @@ public abstract class IRIResolver
         parseIRIex(iriStr) ;
     }
 
+    /**
+     * Test whether a string is an absolute http: or https: IRI of a simple, common
+     * form that is known to be free of violations and to resolve to itself.
+     * The form is a lowercase DNS host name with no user or port, then path,
+     * query and fragment characters with no percent encoding and no "." or ".."
+     * segments.
+     * <p>
+     * This is a conservative test, to skip the full IRI parser and its checks:
+     * a false result says nothing about the string.
+     */
+    public static boolean isSimpleHttpIRI(String iriStr) {
+        int len = iriStr.length() ;
+        int i ;
+        if ( iriStr.startsWith("http://") )
+            i = 7 ;
+        else if ( iriStr.startsWith("https://") )
+            i = 8 ;
+        else
+            return false ;
+
+        // Host: labels of a-z, 0-9 and '-', not starting or ending with '-', no
+        // "--", the last label starting with a letter.
+        int labelStart = i ;
+        char prev = '.' ;
+        for ( ; i < len ; i++ ) {
+            char ch = iriStr.charAt(i) ;
+            if ( ch == '/' || ch == '?' || ch == '#' )
+                break ;
+            if ( ch == '.' ) {
+                if ( prev == '.' || prev == '-' )
+                    return false ;
+                labelStart = i+1 ;
+            } else if ( ch == '-' ) {
+                if ( prev == '.' || prev == '-' )
+                    return false ;
+            } else if ( !(ch >= 'a' && ch <= 'z') && !(ch >= '0' && ch <= '9') )
+                return false ;
+            prev = ch ;
+        }
+        if ( prev == '.' || prev == '-' )
+            return false ;
+        char first = iriStr.charAt(labelStart) ;
+        if ( first < 'a' || first > 'z' )
+            return false ;
+
+        // Path, query and fragment.
+        boolean inPath = true ;
+        boolean inFragment = false ;
+        for ( ; i < len ; i++ ) {
+            char ch = iriStr.charAt(i) ;
+            if ( ch >= 128 || !simpleIRIChars[ch] )
+                return false ;
+            if ( ch == '#' ) {
+                if ( inFragment )
+                    return false ;
+                inFragment = true ;
+                inPath = false ;
+            } else if ( ch == '?' )
+                inPath = false ;
+            else if ( inPath && ch == '/' && i+1 < len ) {
+                // Empty, "." and ".." segments.
+                char ch1 = iriStr.charAt(i+1) ;
+                if ( ch1 == '/' )
+                    return false ;
+                if ( ch1 == '.' ) {
+                    int j = ( i+2 < len && iriStr.charAt(i+2) == '.' ) ? i+3 : i+2 ;
+                    if ( j == len || iriStr.charAt(j) == '/' || iriStr.charAt(j) == '?' || iriStr.charAt(j) == '#' )
+                        return false ;
+                }
+            }
+        }
+        return true ;
+    }
+
+    // Unreserved characters, sub-delims and ":@/?#", without '%'.
+    private static final boolean[] simpleIRIChars = new boolean[128] ;
+    static {
+        for ( char ch = 'a' ; ch <= 'z' ; ch++ )
+            simpleIRIChars[ch] = true ;
+        for ( char ch = 'A' ; ch <= 'Z' ; ch++ )
+            simpleIRIChars[ch] = true ;
+        for ( char ch = '0' ; ch <= '9' ; ch++ )
+            simpleIRIChars[ch] = true ;
+        for ( char ch : "-._~!$&'()*+,;=:@/?#".toCharArray() )
+            simpleIRIChars[ch] = true ;
+    }
+
     /** Parse an IRI (does not resolve it) */
     public static IRI parseIRI(String iriStr) {
         return iriFactory.create(iriStr) ;
@@ -314,7 +402,23 @@ public abstract class IRIResolver
         throw new RiotException(msg) ;
     }
 
-    private static final int CacheSize = 1000 ;
+    /** Number of resolved IRIs kept in the cache shared by all resolvers. */
+    private static final int CacheSize = 10000 ;
+
+    // Resolved IRIs, keyed by the base (null for none) and the string to resolve.
+    // Shared between resolvers and parsers; thread safe.
+    private static final Cache<Pair<String, String>, IRI> resolvedIRIs = CacheFactory.createCache(CacheSize) ;
+
+    /** Resolve against a base (null for none), using the cache of resolved IRIs. */
+    private static IRI resolveCached(final IRI base, String baseStr, final String relStr) {
+        Callable<IRI> filler = new Callable<IRI>() {
+            @Override
+            public IRI call() throws Exception {
+                return base == null ? iriFactory.create(relStr) : base.create(relStr) ;
+            }
+        } ;
+        return resolvedIRIs.getOrFill(Pair.create(baseStr, relStr), filler) ;
+    }
 
     /**
      * A resolver that does not resolve IRIs against base. Can generate relative
@@ -325,8 +429,6 @@ public abstract class IRIResolver
         protected IRIResolverNoOp()
         {}
 
-        private Cache<String, IRI> resolvedIRIs = CacheFactory.createCache(CacheSize) ;
-
         @Override
         protected IRI getBaseIRI() {
             return null ;
@@ -339,16 +441,7 @@ public abstract class IRIResolver
 
         @Override
         public IRI resolveSilent(final String uriStr) {
-            if ( resolvedIRIs == null ) 
-                return iriFactory.create(uriStr) ;
-            Callable<IRI> filler = new Callable<IRI>() {
-                @Override
-                public IRI call() throws Exception {
-                    return iriFactory.create(uriStr) ;
-                }
-            } ;
-            IRI iri = resolvedIRIs.getOrFill(uriStr, filler) ;
-            return iri ;
+            return resolveCached(null, null, uriStr) ;
         }
 
         @Override
@@ -361,9 +454,7 @@ public abstract class IRIResolver
     static class IRIResolverNormal extends IRIResolver
     {
         final private IRI          base ;
-        // Not static - contains relative IRIs
-        // Could split into absolute (static, global cached) and relative.
-        private Cache<String, IRI> resolvedIRIs = CacheFactory.createCache(CacheSize) ;
+        final private String       baseStr ;
 
         /**
          * Construct an IRIResolver with base as the current working directory.
@@ -389,6 +480,7 @@ public abstract class IRIResolver
                 base = chooseBaseURI() ;
             else
                 base = globalResolver.resolveSilent(baseS) ;
+            baseStr = base.toString() ;
         }
 
         public IRIResolverNormal(IRI baseIRI)
@@ -396,6 +488,7 @@ public abstract class IRIResolver
             if (baseIRI == null)
                 baseIRI = chooseBaseURI() ;
             base = baseIRI ;
+            baseStr = base.toString() ;
         }
 
         /**
@@ -430,15 +523,15 @@ public abstract class IRIResolver
 
         @Override
         public IRI resolveSilent(final String relURI) {
-            if ( resolvedIRIs == null ) 
-                return iriFactory.create(relURI) ;
-            Callable<IRI> filler = new Callable<IRI>() {
-                @Override
-                public IRI call() throws Exception {
-                    return base.create(relURI) ;
-                }
-            } ;
-            return resolvedIRIs.getOrFill(relURI, filler) ;
+            return resolveCached(base, baseStr, relURI) ;
+        }
+
+        @Override
+        public String resolveToString(String relURI) {
+            // Already absolute, and known to be good.
+            if ( isSimpleHttpIRI(relURI) )
+                return relURI ;
+            return resolve(relURI).toString() ;
         }
     }
     
@@ -22,6 +22,7 @@ import org.apache.jena.datatypes.RDFDatatype ;
 import org.apache.jena.datatypes.xsd.XSDDatatype ;
 import org.apache.jena.graph.Node ;
 import org.apache.jena.graph.NodeFactory ;
+import org.apache.jena.graph.NodeInterner ;
 import org.apache.jena.graph.Triple ;
 import org.apache.jena.iri.IRI ;
 import org.apache.jena.riot.RiotException ;
@@ -40,6 +41,8 @@ public class ParserProfileBase implements ParserProfile {
     protected Prologue     prologue ;
     protected LabelToNode  labelMapping ;
     protected boolean      strictMode = SysRIOT.strictMode ;
+    // Interns the nodes of the triples and quads of one parse; null for none.
+    protected NodeInterner interner = NodeInterner.forParse() ;
 
     public ParserProfileBase(Prologue prologue, ErrorHandler errorHandler) {
         this(prologue, errorHandler, SyntaxLabels.createLabelToNode()) ;
@@ -91,13 +94,27 @@ public class ParserProfileBase implements ParserProfile {
         return prologue.getResolver().resolve(uriStr) ;
     }
 
+    /** The interner for the nodes of this parse, or null if nodes are not interned per parse. */
+    public NodeInterner getNodeInterner() {
+        return interner ;
+    }
+
+    /** Set the interner for the nodes of this parse; null for none. */
+    public void setNodeInterner(NodeInterner interner) {
+        this.interner = interner ;
+    }
+
     @Override
     public Quad createQuad(Node g, Node s, Node p, Node o, long line, long col) {
+        if ( interner != null )
+            return new Quad(interner.intern(g), interner.intern(s), interner.intern(p), interner.intern(o)) ;
         return new Quad(g, s, p, o) ;
     }
 
     @Override
     public Triple createTriple(Node s, Node p, Node o, long line, long col) {
+        if ( interner != null )
+            return new Triple(interner.intern(s), interner.intern(p), interner.intern(o)) ;
         return new Triple(s, p, o) ;
     }
 
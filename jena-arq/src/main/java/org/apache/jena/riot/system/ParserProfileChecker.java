@@ -55,6 +55,10 @@ public class ParserProfileChecker extends ParserProfileBase // implements
 
     @Override
     public String resolveIRI(String uriStr, long line, long col) {
+        // Common, simple absolute IRIs have no violations and resolve to themselves.
+        // Strict mode always uses the full IRI checking.
+        if ( !strictMode && IRIResolver.isSimpleHttpIRI(uriStr) )
+            return uriStr ;
         // Go via code that checks.
         return makeIRI(uriStr, line, col).toString() ;
     }
@@ -31,6 +31,7 @@ import org.apache.jena.graph.Triple ;
 import org.apache.jena.riot.* ;
 import org.apache.jena.riot.out.CharSpace ;
 import org.apache.jena.riot.thrift.BinRDF ;
+import org.apache.jena.riot.thrift.ThriftBlocks ;
 import org.apache.jena.riot.writer.StreamWriterTriX ;
 import org.apache.jena.riot.writer.WriterStreamRDFBlocks ;
 import org.apache.jena.riot.writer.WriterStreamRDFFlat ;
@@ -85,6 +86,14 @@ public class StreamRDFWriter {
         }
     } ;
     
+    private static StreamRDFWriterFactory streamWriterFactoryThriftBlocks = new StreamRDFWriterFactory() {
+        @Override
+        public StreamRDF create(OutputStream output, RDFFormat format) {
+            boolean withValues = RDFFormat.RDF_THRIFT_BLOCKS_VALUES.equals(format) ; 
+            return ThriftBlocks.streamToOutputStream(output, withValues) ;
+        }
+    } ;
+    
     private static StreamRDFWriterFactory streamWriterFactoryTriX = new StreamRDFWriterFactory() {
         @Override
         public StreamRDF create(OutputStream output, RDFFormat format) {
@@ -121,6 +130,7 @@ public class StreamRDFWriter {
         register(Lang.NTRIPLES,     RDFFormat.NTRIPLES) ;
         register(Lang.NQUADS,       RDFFormat.NQUADS) ;
         register(Lang.RDFTHRIFT,    RDFFormat.RDF_THRIFT) ;
+        register(Lang.RDFTHRIFT_BLOCKS, RDFFormat.RDF_THRIFT_BLOCKS) ;
         register(Lang.TRIX,         RDFFormat.TRIX) ;
         
         register(RDFFormat.TURTLE_BLOCKS,   streamWriterFactoryBlocks) ;
@@ -138,6 +148,8 @@ public class StreamRDFWriter {
 
         register(RDFFormat.RDF_THRIFT,          streamWriterFactoryThrift) ;
         register(RDFFormat.RDF_THRIFT_VALUES,   streamWriterFactoryThrift) ;
+        register(RDFFormat.RDF_THRIFT_BLOCKS,          streamWriterFactoryThriftBlocks) ;
+        register(RDFFormat.RDF_THRIFT_BLOCKS_VALUES,   streamWriterFactoryThriftBlocks) ;
         
         register(RDFFormat.TRIX,            streamWriterFactoryTriX) ;
     }
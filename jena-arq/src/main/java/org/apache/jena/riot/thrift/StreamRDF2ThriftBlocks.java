@@ -0,0 +1,165 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.jena.riot.thrift;
+
+import java.io.BufferedOutputStream ;
+import java.io.DataOutputStream ;
+import java.io.IOException ;
+import java.io.OutputStream ;
+import java.util.ArrayDeque ;
+import java.util.ArrayList ;
+import java.util.Deque ;
+import java.util.List ;
+import java.util.concurrent.CompletableFuture ;
+
+import org.apache.jena.atlas.io.IO ;
+import org.apache.jena.graph.Triple ;
+import org.apache.jena.riot.system.StreamRDF ;
+import org.apache.jena.riot.thrift.ThriftBlocks.BlockEntry ;
+import org.apache.jena.riot.thrift.ThriftBlocks.EncodedBlock ;
+import org.apache.jena.sparql.core.Quad ;
+
+/** Encode StreamRDF as RDF Thrift blocks.
+ *  Blocks are encoded and compressed in parallel and written in order.
+ *  The block index is written when the outermost {@link #finish()} is called.
+ *  Usually used via {@link ThriftBlocks} functions. 
+ * 
+ * @see ThriftBlocks
+ */ 
+public class StreamRDF2ThriftBlocks implements StreamRDF, AutoCloseable 
+{
+    private final DataOutputStream out ;
+    private final boolean encodeValues ;
+    private final int blockSize ;
+    
+    private List<Object> rows = new ArrayList<>() ;
+    private List<String> prefixes = new ArrayList<>() ;
+    private final Deque<CompletableFuture<EncodedBlock>> pending = new ArrayDeque<>() ;
+    private final List<BlockEntry> index = new ArrayList<>() ;
+    private long offset = 0 ;
+    private int depth = 0 ;
+    private boolean finished = false ;
+
+    public StreamRDF2ThriftBlocks(OutputStream out, boolean encodeValues, int blockSize) {
+        if ( blockSize <= 0 )
+            throw new IllegalArgumentException("Block size must be positive: "+blockSize) ;
+        if ( ! ( out instanceof BufferedOutputStream ) )
+            out = new BufferedOutputStream(out, TRDF.OutputBufferSize) ;
+        this.out = new DataOutputStream(out) ;
+        this.encodeValues = encodeValues ;
+        this.blockSize = blockSize ;
+    }
+
+    @Override
+    public void start() {
+        depth++ ;
+    }
+
+    @Override
+    public void triple(Triple triple) {
+        add(triple) ;
+    }
+
+    @Override
+    public void quad(Quad quad) {
+        if ( quad.getGraph() == null || quad.isDefaultGraph() )
+            add(quad.asTriple()) ;
+        else
+            add(quad) ;
+    }
+
+    private void add(Object row) {
+        rows.add(row) ;
+        if ( rows.size() >= blockSize )
+            endBlock() ;
+    }
+    
+    @Override
+    public void base(String base) {
+        // Ignore.
+    }
+
+    @Override
+    public void prefix(String prefix, String iri) {
+        prefixes.add(prefix) ;
+        prefixes.add(iri) ;
+    }
+
+    /** Pass the current block to be encoded, writing out blocks that have been encoded. */
+    private void endBlock() {
+        final List<String> blockPrefixes = prefixes ;
+        final List<Object> blockRows = rows ;
+        prefixes = new ArrayList<>() ;
+        rows = new ArrayList<>(blockSize) ;
+        pending.add(CompletableFuture.supplyAsync(()->ThriftBlocks.encodeBlock(blockPrefixes, blockRows, encodeValues))) ;
+        while ( pending.size() > ThriftBlocks.WINDOW )
+            write(ThriftBlocks.await(pending.removeFirst())) ;
+    }
+
+    private void write(EncodedBlock block) {
+        try {
+            if ( offset == 0 )
+                writeHeader() ;
+            index.add(new BlockEntry(offset, block.rowCount)) ;
+            out.write(ThriftBlocks.BLOCK) ;
+            out.writeInt(block.rawLength) ;
+            out.writeInt(block.rowCount) ;
+            out.writeInt(block.length) ;
+            out.write(block.bytes, 0, block.length) ;
+            offset += 13 + block.length ;
+        } catch (IOException ex) { IO.exception(ex) ; }
+    }
+    
+    private void writeHeader() throws IOException {
+        out.write(ThriftBlocks.MAGIC) ;
+        offset = ThriftBlocks.MAGIC.length ;
+    }
+    
+    @Override
+    public void close() {
+        finish() ;
+    }
+    
+    @Override
+    public void finish() {
+        if ( finished )
+            return ;
+        if ( --depth > 0 )
+            return ;
+        finished = true ;
+        if ( ! rows.isEmpty() || ! prefixes.isEmpty() )
+            endBlock() ;
+        while ( ! pending.isEmpty() )
+            write(ThriftBlocks.await(pending.removeFirst())) ;
+        try {
+            if ( offset == 0 )
+                writeHeader() ;
+            long indexOffset = offset ;
+            out.write(ThriftBlocks.INDEX) ;
+            out.writeInt(index.size()) ;
+            for ( BlockEntry e : index ) {
+                out.writeLong(e.offset) ;
+                out.writeInt(e.rowCount) ;
+            }
+            out.writeLong(indexOffset) ;
+            out.write(ThriftBlocks.MAGIC) ;
+            out.flush() ;
+        } catch (IOException ex) { IO.exception(ex) ; }
+    }
+}
@@ -0,0 +1,431 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.jena.riot.thrift;
+
+import java.io.* ;
+import java.nio.channels.Channels ;
+import java.nio.channels.FileChannel ;
+import java.nio.file.Paths ;
+import java.nio.file.StandardOpenOption ;
+import java.util.* ;
+import java.util.concurrent.CancellationException ;
+import java.util.concurrent.CompletableFuture ;
+import java.util.concurrent.CompletionException ;
+import java.util.concurrent.ForkJoinPool ;
+import java.util.zip.DataFormatException ;
+import java.util.zip.Deflater ;
+import java.util.zip.Inflater ;
+
+import org.apache.jena.atlas.io.IO ;
+import org.apache.jena.graph.Node ;
+import org.apache.jena.graph.Triple ;
+import org.apache.jena.riot.system.StreamRDF ;
+import org.apache.jena.riot.thrift.wire.RDF_PrefixDecl ;
+import org.apache.jena.riot.thrift.wire.RDF_Term ;
+import org.apache.jena.sparql.core.Quad ;
+import org.apache.thrift.TException ;
+import org.apache.thrift.protocol.TProtocol ;
+import org.apache.thrift.transport.TMemoryBuffer ;
+import org.apache.thrift.transport.TMemoryInputTransport ;
+
+/** RDF Thrift written as a sequence of independently compressed blocks.
+ * <p>
+ * Each block holds the prefix declarations and the triples and quads sent to the
+ * stream since the previous block. Within a block, each distinct RDF term is
+ * written once, in a dictionary at the start of the block, and the rows refer to
+ * terms by their position in the dictionary. The block is then compressed with
+ * deflate. No state is carried from one block to the next so blocks are encoded
+ * and decoded in parallel, and a file can be read starting at any block.
+ * <p>
+ * File layout (integers are big-endian):
+ * <pre>
+ *   header  : MAGIC
+ *   block   : 'B' (int)rawLength (int)rowCount (int)length (byte[length])deflated
+ *   ...
+ *   index   : 'I' (int)blockCount ( (long)offset (int)rowCount )*
+ *   trailer : (long)offsetOfIndex MAGIC
+ * </pre>
+ * The uncompressed block is, in Thrift compact encoding:
+ * <pre>
+ *   (i32)N RDF_PrefixDecl*N
+ *   (i32)N RDF_Term*N
+ *   (i32)N ( (i32)g (i32)s (i32)p (i32)o )*N     g is -1 for a triple
+ * </pre>
+ * @see StreamRDF2ThriftBlocks
+ */
+public class ThriftBlocks {
+    /** File header and the last bytes of the trailer. */
+    static final byte[] MAGIC           = { 'R', 'D', 'F', 'T', 'B', 'L', 'K', 1 } ;
+    static final int    BLOCK           = 'B' ;
+    static final int    INDEX           = 'I' ;
+    static final int    NO_GRAPH        = -1 ;
+    static final int    TRAILER_LENGTH  = 8 + MAGIC.length ;
+    
+    /** Largest uncompressed block that is written or read. */
+    static final int MAX_BLOCK_LENGTH = 256*1024*1024 ;
+    
+    /** Default number of triples and quads in a block. */
+    public static final int DefaultBlockSize = 50*1000 ;
+    
+    /** Number of blocks being encoded or decoded at any one time. */ 
+    static final int WINDOW = Math.max(2, 2*ForkJoinPool.getCommonPoolParallelism()) ;
+    
+    /** An entry in the block index. */
+    public static final class BlockEntry {
+        /** Offset of the block in the file. */
+        public final long offset ;
+        /** Number of triples and quads in the block. */
+        public final int rowCount ;
+        
+        public BlockEntry(long offset, int rowCount) {
+            this.offset = offset ;
+            this.rowCount = rowCount ;
+        }
+        
+        @Override
+        public String toString() {
+            return "Block["+offset+", "+rowCount+"]" ;
+        }
+    }
+    
+    /** 
+     * Create an {@link StreamRDF} for output.
+     * The {@code OutputStream} is flushed, not closed, when {@link StreamRDF#finish()} is called.
+     * Call {@link StreamRDF#start()}...{@link StreamRDF#finish()}.
+     * @param out OutputStream
+     * @param withValues - whether to encode numeric values as values.
+     * @return StreamRDF A stream to send to. 
+     */
+    public static StreamRDF streamToOutputStream(OutputStream out, boolean withValues) {
+        return new StreamRDF2ThriftBlocks(out, withValues, DefaultBlockSize) ;
+    }
+
+    /**
+     * Decode the contents of the input stream and send to the {@link StreamRDF}.
+     * Blocks are decoded in parallel; the stream receives triples and quads in the order they were written. 
+     * @param in InputStream
+     * @param dest StreamRDF
+     */
+    public static void inputStreamToStream(InputStream in, StreamRDF dest) {
+        DataInputStream data = new DataInputStream(new BufferedInputStream(in, TRDF.InputBufferSize)) ;
+        try { readHeader(data) ; }
+        catch (IOException ex) { IO.exception(ex) ; }
+        dest.start() ;
+        readBlocks(data, dest) ;
+        dest.finish() ;
+    }
+
+    /**
+     * Decode a file and send to the {@link StreamRDF}.
+     * @param filename The file.
+     * @param dest Sink
+     */
+    public static void fileToStream(String filename, StreamRDF dest) {
+        try ( InputStream in = IO.openFile(filename) ) {
+            inputStreamToStream(in, dest) ;
+        } catch (IOException ex) { IO.exception(ex) ; }
+    }
+
+    /**
+     * Decode a file, starting at a block, and send to the {@link StreamRDF}.
+     * Prefix declarations made in earlier blocks are not sent. 
+     * @param filename The file.
+     * @param block The first block, as an entry of {@link #readIndex(String)}.
+     * @param dest Sink
+     */
+    public static void fileToStream(String filename, BlockEntry block, StreamRDF dest) {
+        try ( FileChannel channel = FileChannel.open(Paths.get(filename), StandardOpenOption.READ) ) {
+            channel.position(block.offset) ;
+            InputStream in = Channels.newInputStream(channel) ;
+            DataInputStream data = new DataInputStream(new BufferedInputStream(in, TRDF.InputBufferSize)) ;
+            dest.start() ;
+            readBlocks(data, dest) ;
+            dest.finish() ;
+        } catch (IOException ex) { IO.exception(ex) ; }
+    }
+
+    /**
+     * Read the block index of a file. 
+     * @param filename The file.
+     * @return The blocks of the file, in order.
+     */
+    public static List<BlockEntry> readIndex(String filename) {
+        try ( RandomAccessFile file = new RandomAccessFile(filename, "r") ) {
+            long length = file.length() ;
+            if ( length < MAGIC.length + TRAILER_LENGTH )
+                throw new RiotThriftException("Not an RDF Thrift blocks file: "+filename) ;
+            file.seek(length - TRAILER_LENGTH) ;
+            long indexOffset = file.readLong() ;
+            checkMagic(file) ;
+            if ( indexOffset < MAGIC.length || indexOffset >= length - TRAILER_LENGTH )
+                throw new RiotThriftException("Bad index offset: "+indexOffset) ;
+            file.seek(indexOffset) ;
+            if ( file.read() != INDEX )
+                throw new RiotThriftException("No block index at offset "+indexOffset) ;
+            int count = file.readInt() ;
+            // Each entry is 12 bytes.
+            if ( count < 0 || count > (length - indexOffset)/12 )
+                throw new RiotThriftException("Bad block index: "+count+" blocks") ;
+            List<BlockEntry> blocks = new ArrayList<>(count) ;
+            for ( int i = 0 ; i < count ; i++ ) {
+                long offset = file.readLong() ;
+                int rowCount = file.readInt() ;
+                blocks.add(new BlockEntry(offset, rowCount)) ;
+            }
+            return blocks ;
+        } catch (IOException ex) { IO.exception(ex) ; return null ; }
+    }
+
+    private static void readHeader(DataInput data) throws IOException {
+        checkMagic(data) ;
+    }
+    
+    private static void checkMagic(DataInput data) throws IOException {
+        byte[] bytes = new byte[MAGIC.length] ;
+        try { data.readFully(bytes) ; }
+        catch (EOFException ex) { throw new RiotThriftException("Not an RDF Thrift blocks file: too short") ; }
+        if ( ! Arrays.equals(MAGIC, bytes) )
+            throw new RiotThriftException("Not an RDF Thrift blocks file: bad magic number") ;
+    }
+
+    /** Read blocks, up to the block index, and decode them in parallel. */
+    private static void readBlocks(DataInputStream data, StreamRDF dest) {
+        Deque<CompletableFuture<DecodedBlock>> pending = new ArrayDeque<>() ;
+        try {
+            for ( ;; ) {
+                int marker = data.read() ;
+                if ( marker == INDEX )
+                    break ;
+                if ( marker == -1 )
+                    throw new RiotThriftException("Truncated file: no block index") ;
+                if ( marker != BLOCK )
+                    throw new RiotThriftException("Bad block marker: "+marker) ;
+                int rawLength = data.readInt() ;
+                int rowCount = data.readInt() ;
+                int length = data.readInt() ;
+                checkBlock(rawLength, rowCount, length) ;
+                byte[] bytes = new byte[length] ;
+                data.readFully(bytes) ;
+                pending.add(CompletableFuture.supplyAsync(()->decodeBlock(bytes, rawLength, rowCount))) ;
+                while ( pending.size() > WINDOW )
+                    await(pending.removeFirst()).send(dest) ;
+            }
+            while ( ! pending.isEmpty() )
+                await(pending.removeFirst()).send(dest) ;
+        }
+        catch (EOFException ex) { throw new RiotThriftException("Truncated file") ; }
+        catch (IOException ex) { IO.exception(ex) ; }
+        finally {
+            pending.forEach(f->f.cancel(false)) ;
+        }
+    }
+
+    /** Check the lengths of a block, as read from the file, before allocating space for it. */
+    private static void checkBlock(int rawLength, int rowCount, int length) {
+        if ( rawLength < 0 || rawLength > MAX_BLOCK_LENGTH )
+            throw new RiotThriftException("Corrupt block: bad length "+rawLength) ;
+        // A row is at least 4 bytes.
+        if ( rowCount < 0 || rowCount > rawLength/4 )
+            throw new RiotThriftException("Corrupt block: bad row count "+rowCount) ;
+        // Deflate expands incompressible data by a few bytes in every 16K.
+        if ( length < 0 || length > rawLength + rawLength/1000 + 64 )
+            throw new RiotThriftException("Corrupt block: bad compressed length "+length) ;
+    }
+
+    /** Wait for a block, passing on any exception from encoding or decoding it. */  
+    static <X> X await(CompletableFuture<X> future) {
+        try { return future.join() ; }
+        catch (CompletionException | CancellationException ex) {
+            if ( ex.getCause() instanceof RuntimeException )
+                throw (RuntimeException)ex.getCause() ;
+            if ( ex.getCause() instanceof Error )
+                throw (Error)ex.getCause() ;
+            throw new RiotThriftException(ex) ;
+        }
+    }
+    
+    /** The compressed form of a block. */
+    static final class EncodedBlock {
+        final byte[] bytes ;
+        final int length ;
+        final int rawLength ;
+        final int rowCount ;
+        
+        EncodedBlock(byte[] bytes, int length, int rawLength, int rowCount) {
+            this.bytes = bytes ;
+            this.length = length ;
+            this.rawLength = rawLength ;
+            this.rowCount = rowCount ;
+        }
+    }
+
+    /** Encode prefixes (prefix, IRI pairs) and rows ({@link Triple}s and {@link Quad}s) as a compressed block.*/
+    static EncodedBlock encodeBlock(List<String> prefixes, List<Object> rows, boolean encodeValues) {
+        Map<Node, Integer> dictionary = new HashMap<>() ;
+        List<Node> terms = new ArrayList<>() ;
+        int[] slots = new int[4*rows.size()] ;
+        int idx = 0 ;
+        for ( Object row : rows ) {
+            if ( row instanceof Triple ) {
+                Triple t = (Triple)row ;
+                slots[idx++] = NO_GRAPH ;
+                slots[idx++] = termId(t.getSubject(), dictionary, terms) ;
+                slots[idx++] = termId(t.getPredicate(), dictionary, terms) ;
+                slots[idx++] = termId(t.getObject(), dictionary, terms) ;
+            } else {
+                Quad q = (Quad)row ;
+                slots[idx++] = termId(q.getGraph(), dictionary, terms) ;
+                slots[idx++] = termId(q.getSubject(), dictionary, terms) ;
+                slots[idx++] = termId(q.getPredicate(), dictionary, terms) ;
+                slots[idx++] = termId(q.getObject(), dictionary, terms) ;
+            }
+        }
+        
+        TMemoryBuffer buffer = new TMemoryBuffer(64*1024) ;
+        TProtocol protocol = TRDF.protocol(buffer) ;
+        try {
+            protocol.writeI32(prefixes.size()/2) ;
+            for ( int i = 0 ; i < prefixes.size() ; i += 2 )
+                new RDF_PrefixDecl(prefixes.get(i), prefixes.get(i+1)).write(protocol) ;
+            protocol.writeI32(terms.size()) ;
+            RDF_Term term = new RDF_Term() ;
+            for ( Node n : terms ) {
+                ThriftConvert.toThrift(n, null, term, encodeValues) ;
+                term.write(protocol) ;
+                term.clear() ;
+            }
+            protocol.writeI32(rows.size()) ;
+            for ( int i = 0 ; i < idx ; i++ )
+                protocol.writeI32(slots[i]) ;
+        } catch (TException ex) { TRDF.exception(ex) ; }
+        
+        byte[] raw = buffer.getArray() ;
+        int rawLength = buffer.length() ;
+        if ( rawLength > MAX_BLOCK_LENGTH )
+            throw new RiotThriftException("Block too large ("+rawLength+" bytes): use a smaller block size") ;
+        Deflater deflater = new Deflater() ;
+        try {
+            deflater.setInput(raw, 0, rawLength) ;
+            deflater.finish() ;
+            byte[] bytes = new byte[rawLength/2+64] ;
+            int length = 0 ;
+            while ( ! deflater.finished() ) {
+                if ( length == bytes.length )
+                    bytes = Arrays.copyOf(bytes, 2*bytes.length) ;
+                length += deflater.deflate(bytes, length, bytes.length-length) ;
+            }
+            return new EncodedBlock(bytes, length, rawLength, rows.size()) ;
+        } finally { deflater.end() ; }
+    }
+    
+    private static int termId(Node node, Map<Node, Integer> dictionary, List<Node> terms) {
+        Integer x = dictionary.get(node) ;
+        if ( x != null )
+            return x ;
+        int id = terms.size() ;
+        terms.add(node) ;
+        dictionary.put(node, id) ;
+        return id ;
+    }
+
+    /** The decoded form of a block. */
+    static final class DecodedBlock {
+        final List<String> prefixes ;
+        final Object[] rows ;
+        
+        DecodedBlock(List<String> prefixes, Object[] rows) {
+            this.prefixes = prefixes ;
+            this.rows = rows ;
+        }
+        
+        void send(StreamRDF dest) {
+            for ( int i = 0 ; i < prefixes.size() ; i += 2 )
+                dest.prefix(prefixes.get(i), prefixes.get(i+1)) ;
+            for ( Object row : rows ) {
+                if ( row instanceof Triple )
+                    dest.triple((Triple)row) ;
+                else
+                    dest.quad((Quad)row) ;
+            }
+        }
+    }
+
+    static DecodedBlock decodeBlock(byte[] bytes, int rawLength, int rowCount) {
+        byte[] raw = new byte[rawLength] ;
+        Inflater inflater = new Inflater() ;
+        try {
+            inflater.setInput(bytes) ;
+            int n = 0 ;
+            while ( n < rawLength && ! inflater.finished() ) {
+                int x = inflater.inflate(raw, n, rawLength-n) ;
+                if ( x == 0 && ( inflater.needsInput() || inflater.needsDictionary() ) )
+                    break ;
+                n += x ;
+            }
+            if ( n != rawLength )
+                throw new RiotThriftException("Corrupt block: expected "+rawLength+" bytes, got "+n) ;
+        } catch (DataFormatException ex) {
+            throw new RiotThriftException("Corrupt block: "+ex.getMessage()) ;
+        } finally { inflater.end() ; }
+
+        TProtocol protocol = TRDF.protocol(new TMemoryInputTransport(raw)) ;
+        try {
+            // Each prefix declaration and term is at least one byte.
+            int numPrefixes = protocol.readI32() ;
+            if ( numPrefixes < 0 || numPrefixes > rawLength )
+                throw new RiotThriftException("Corrupt block: bad prefix count "+numPrefixes) ;
+            List<String> prefixes = new ArrayList<>(2*numPrefixes) ;
+            RDF_PrefixDecl prefixDecl = new RDF_PrefixDecl() ;
+            for ( int i = 0 ; i < numPrefixes ; i++ ) {
+                prefixDecl.read(protocol) ;
+                prefixes.add(prefixDecl.getPrefix()) ;
+                prefixes.add(prefixDecl.getUri()) ;
+                prefixDecl.clear() ;
+            }
+            int numTerms = protocol.readI32() ;
+            if ( numTerms < 0 || numTerms > rawLength )
+                throw new RiotThriftException("Corrupt block: bad term count "+numTerms) ;
+            Node[] terms = new Node[numTerms] ;
+            RDF_Term term = new RDF_Term() ;
+            for ( int i = 0 ; i < numTerms ; i++ ) {
+                term.read(protocol) ;
+                terms[i] = ThriftConvert.convert(term) ;
+                term.clear() ;
+            }
+            int numRows = protocol.readI32() ;
+            if ( numRows != rowCount )
+                throw new RiotThriftException("Corrupt block: expected "+rowCount+" rows, got "+numRows) ;
+            Object[] rows = new Object[numRows] ;
+            for ( int i = 0 ; i < numRows ; i++ ) {
+                int g = protocol.readI32() ;
+                Node s = term(terms, protocol.readI32()) ;
+                Node p = term(terms, protocol.readI32()) ;
+                Node o = term(terms, protocol.readI32()) ;
+                rows[i] = ( g == NO_GRAPH ) ? Triple.create(s, p, o) : Quad.create(term(terms, g), s, p, o) ;
+            }
+            return new DecodedBlock(prefixes, rows) ;
+        } catch (TException ex) { TRDF.exception(ex) ; return null ; }
+    }
+
+    private static Node term(Node[] terms, int idx) {
+        if ( idx < 0 || idx >= terms.length )
+            throw new RiotThriftException("Corrupt block: bad term reference "+idx+" ("+terms.length+" terms)") ;
+        return terms[idx] ;
+    }
+}
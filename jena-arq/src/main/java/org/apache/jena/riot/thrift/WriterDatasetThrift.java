@@ -18,13 +18,12 @@
 
 package org.apache.jena.riot.thrift;
 
-import static org.apache.jena.riot.RDFLanguages.THRIFT ;
-
 import java.io.OutputStream ;
 import java.io.Writer ;
 
 import org.apache.jena.riot.Lang ;
 import org.apache.jena.riot.RDFFormat ;
+import org.apache.jena.riot.RDFLanguages ;
 import org.apache.jena.riot.WriterDatasetRIOT ;
 import org.apache.jena.riot.system.PrefixMap ;
 import org.apache.jena.riot.system.StreamOps ;
@@ -36,12 +35,16 @@ import org.apache.jena.sparql.util.Context ;
 public class WriterDatasetThrift implements WriterDatasetRIOT
 {
     private final boolean withValues ;
+    private final boolean blocks ;
+    private final Lang lang ;
     public WriterDatasetThrift(RDFFormat fmt) {
-        this.withValues = RDFFormat.RDF_THRIFT_VALUES.equals(fmt) ;
+        this.withValues = RDFFormat.RDF_THRIFT_VALUES.equals(fmt) || RDFFormat.RDF_THRIFT_BLOCKS_VALUES.equals(fmt) ;
+        this.lang = fmt.getLang() ;
+        this.blocks = RDFLanguages.THRIFT_BLOCKS.equals(lang) ;
     }
     @Override
     public Lang getLang() {
-        return THRIFT ;
+        return lang ;
     }
     @Override
     public void write(Writer out, DatasetGraph dsg, PrefixMap prefixMap, String baseURI, Context context) {
@@ -49,7 +52,9 @@ public class WriterDatasetThrift implements WriterDatasetRIOT
     }
     @Override
     public void write(OutputStream out, DatasetGraph dsg, PrefixMap prefixMap, String baseURI, Context context) {
-        StreamRDF stream = BinRDF.streamToOutputStream(out, withValues) ;
+        StreamRDF stream = blocks
+            ? ThriftBlocks.streamToOutputStream(out, withValues)
+            : BinRDF.streamToOutputStream(out, withValues) ;
         stream.start();
         StreamOps.sendDatasetToStream(dsg, stream, prefixMap) ;
         stream.finish();
@@ -18,8 +18,6 @@
 
 package org.apache.jena.riot.thrift;
 
-import static org.apache.jena.riot.RDFLanguages.THRIFT ;
-
 import java.io.OutputStream ;
 import java.io.Writer ;
 
@@ -27,6 +25,7 @@ import org.apache.jena.atlas.lib.NotImplemented ;
 import org.apache.jena.graph.Graph ;
 import org.apache.jena.riot.Lang ;
 import org.apache.jena.riot.RDFFormat ;
+import org.apache.jena.riot.RDFLanguages ;
 import org.apache.jena.riot.WriterGraphRIOT ;
 import org.apache.jena.riot.system.PrefixMap ;
 import org.apache.jena.riot.system.StreamOps ;
@@ -37,12 +36,16 @@ import org.apache.jena.sparql.util.Context ;
 public class WriterGraphThrift implements WriterGraphRIOT
 {
     private final boolean withValues ;
+    private final boolean blocks ;
+    private final Lang lang ;
     public WriterGraphThrift(RDFFormat fmt) {
-        this.withValues = RDFFormat.RDF_THRIFT_VALUES.equals(fmt) ;
+        this.withValues = RDFFormat.RDF_THRIFT_VALUES.equals(fmt) || RDFFormat.RDF_THRIFT_BLOCKS_VALUES.equals(fmt) ;
+        this.lang = fmt.getLang() ;
+        this.blocks = RDFLanguages.THRIFT_BLOCKS.equals(lang) ;
     }
     @Override
     public Lang getLang() {
-        return THRIFT ;
+        return lang ;
     }
     @Override
     public void write(Writer out, Graph graph, PrefixMap prefixMap, String baseURI, Context context) {
@@ -50,7 +53,9 @@ public class WriterGraphThrift implements WriterGraphRIOT
     }
     @Override
     public void write(OutputStream out, Graph graph, PrefixMap prefixMap, String baseURI, Context context) {
-        StreamRDF stream = BinRDF.streamToOutputStream(out, withValues) ;
+        StreamRDF stream = blocks
+            ? ThriftBlocks.streamToOutputStream(out, withValues)
+            : BinRDF.streamToOutputStream(out, withValues) ;
         stream.start() ;
         StreamOps.graphToStream(graph, stream) ;
         stream.finish() ;
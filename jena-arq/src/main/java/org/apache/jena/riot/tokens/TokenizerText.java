@@ -428,11 +428,46 @@ public final class TokenizerText implements Tokenizer
 
     
     private static final boolean VeryVeryLaxIRI = false ;
+
+    // Fast paths: runs of ASCII characters that need no checking or escape
+    // processing are copied in bulk by PeekReader.readRun. Any other character
+    // goes through the general code.
+
+    // Characters in an IRI other than delimiters, escapes, spaces and controls.
+    private static final boolean[] runIRI = new boolean[128] ;
+    // Characters in a short string other than the delimiter, escapes and newlines.
+    private static final boolean[] runString1 = new boolean[128] ;
+    private static final boolean[] runString2 = new boolean[128] ;
+    // Long strings may also contain newlines.
+    private static final boolean[] runLongString1 = new boolean[128] ;
+    private static final boolean[] runLongString2 = new boolean[128] ;
+    // Name characters, other than '.', ':' and PLX, in a prefixed name.
+    private static final boolean[] runPName = new boolean[128] ;
+    static {
+        for ( int ch = 0x21 ; ch < 0x7F ; ch++ )
+            runIRI[ch] = true ;
+        for ( char ch : new char[]{'<', '>', '"', '{', '}', '|', '^', '`', '\\'} )
+            runIRI[ch] = false ;
+
+        for ( int ch = 0x20 ; ch < 0x7F ; ch++ ) {
+            runString1[ch] = ( ch != CH_QUOTE1 && ch != CH_RSLASH ) ;
+            runString2[ch] = ( ch != CH_QUOTE2 && ch != CH_RSLASH ) ;
+        }
+        runString1[TAB] = runString2[TAB] = true ;
+        System.arraycopy(runString1, 0, runLongString1, 0, 128) ;
+        System.arraycopy(runString2, 0, runLongString2, 0, 128) ;
+        runLongString1[NL] = runLongString1[CR] = true ;
+        runLongString2[NL] = runLongString2[CR] = true ;
+
+        for ( int ch = 0 ; ch < 128 ; ch++ )
+            runPName[ch] = isA2ZN(ch) || ch == '_' || ch == '-' ;
+    }
     
     // [8]  IRIREF  ::= '<' ([^#x00-#x20<>"{}|^`\] | UCHAR)* '>'
     private String readIRI() {
         stringBuilder.setLength(0) ;
         for (;;) {
+            reader.readRun(stringBuilder, runIRI) ;
             int ch = reader.readChar() ;
             switch(ch) {
                 case EOF:
@@ -572,6 +607,8 @@ public final class TokenizerText implements Tokenizer
         int chDot = 0 ;
 
         for (;;) {
+            if ( chDot == 0 )
+                reader.readRun(stringBuilder, runPName) ;
             ch = reader.peekChar() ;
             boolean valid = false ;
 
@@ -656,8 +693,11 @@ public final class TokenizerText implements Tokenizer
         stringBuilder.setLength(0) ;
         // Assumes first delimiter char read already.
         // Reads terminating delimiter 
+        boolean[] run = ( endCh == CH_QUOTE1 ) ? runString1 : ( endCh == CH_QUOTE2 ) ? runString2 : null ;
 
         for (;;) {
+            if ( run != null )
+                reader.readRun(stringBuilder, run) ;
             int ch = reader.readChar() ;
             if ( ch == EOF ) {
                 // if ( endNL ) return stringBuilder.toString() ;
@@ -679,7 +719,10 @@ public final class TokenizerText implements Tokenizer
 
     private String readLongString(int quoteChar, boolean endNL) {
         stringBuilder.setLength(0) ;
+        boolean[] run = ( quoteChar == CH_QUOTE1 ) ? runLongString1 : ( quoteChar == CH_QUOTE2 ) ? runLongString2 : null ;
         for (;;) {
+            if ( run != null )
+                reader.readRun(stringBuilder, run) ;
             int ch = reader.readChar() ;
             if ( ch == EOF ) {
                 if ( endNL )
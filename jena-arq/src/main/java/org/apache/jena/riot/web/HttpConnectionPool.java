@@ -0,0 +1,246 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.jena.riot.web;
+
+import java.io.IOException ;
+import java.io.InputStream ;
+import java.io.OutputStream ;
+import java.util.concurrent.Executors ;
+import java.util.concurrent.ScheduledExecutorService ;
+import java.util.concurrent.TimeUnit ;
+import java.util.zip.GZIPOutputStream ;
+
+import org.apache.http.* ;
+import org.apache.http.client.HttpClient ;
+import org.apache.http.client.protocol.RequestAcceptEncoding ;
+import org.apache.http.client.protocol.ResponseContentEncoding ;
+import org.apache.http.conn.ClientConnectionManager ;
+import org.apache.http.conn.ConnectionKeepAliveStrategy ;
+import org.apache.http.conn.params.ConnManagerPNames ;
+import org.apache.http.entity.HttpEntityWrapper ;
+import org.apache.http.impl.client.DefaultConnectionKeepAliveStrategy ;
+import org.apache.http.impl.client.SystemDefaultHttpClient ;
+import org.apache.http.impl.conn.PoolingClientConnectionManager ;
+import org.apache.http.impl.conn.SchemeRegistryFactory ;
+import org.apache.http.message.BasicHeader ;
+import org.apache.http.pool.PoolStats ;
+import org.apache.http.protocol.HTTP ;
+import org.apache.http.protocol.HttpContext ;
+
+/**
+ * The pool of HTTP connections shared by the HTTP clients that ARQ creates for
+ * {@link HttpOp} operations, remote queries and updates, SERVICE and the
+ * graph store protocol client, when no {@link HttpClient} is provided and
+ * no default client is set with {@link HttpOp#setDefaultHttpClient}.
+ * <p>
+ * Each operation gets its own lightweight {@link HttpClient}, with its own
+ * parameters and credentials, over the shared connection pool, so connections
+ * to the same server are kept alive and reused across operations.
+ * Idle connections are closed by a background thread.
+ * <p>
+ * Clients ask for gzip or deflate compressed responses and decompress them.
+ * Compressing request bodies is off by default as not all servers accept it.
+ * <p>
+ * Settings apply to the pool when it is next created, or immediately for the
+ * connection limits. The pool is created on first use and may be closed with
+ * {@link #shutdown()}; it is recreated if needed again.
+ */
+public class HttpConnectionPool
+{
+    private static int maxPerRoute   = Integer.parseInt(System.getProperty("http.maxConnections", "20")) ;
+    private static int maxTotal      = 5*maxPerRoute ;
+    private static long idleTimeout  = 60*1000 ;
+    private static long keepAlive    = 60*1000 ;
+    private static long leaseTimeout = 10*1000 ;
+    private static boolean compressRequests = false ;
+
+    private static PoolingClientConnectionManager connectionManager = null ;
+    private static ScheduledExecutorService evictor = null ;
+
+    /** Return the pool, creating it if necessary. */
+    public static synchronized PoolingClientConnectionManager get() {
+        if ( connectionManager == null ) {
+            connectionManager = new PoolingClientConnectionManager(SchemeRegistryFactory.createSystemDefault()) ;
+            connectionManager.setDefaultMaxPerRoute(maxPerRoute) ;
+            connectionManager.setMaxTotal(maxTotal) ;
+            evictor = Executors.newSingleThreadScheduledExecutor((r) -> {
+                Thread t = new Thread(r, "HttpConnectionPool") ;
+                t.setDaemon(true) ;
+                return t ;
+            }) ;
+            final PoolingClientConnectionManager connmgr = connectionManager ;
+            long period = Math.max(idleTimeout/4, 1000) ;
+            evictor.scheduleWithFixedDelay(() -> {
+                connmgr.closeExpiredConnections() ;
+                connmgr.closeIdleConnections(idleTimeout, TimeUnit.MILLISECONDS) ;
+            }, period, period, TimeUnit.MILLISECONDS) ;
+        }
+        return connectionManager ;
+    }
+
+    /** Close all connections in the pool. */
+    public static synchronized void shutdown() {
+        if ( connectionManager == null )
+            return ;
+        evictor.shutdownNow() ;
+        connectionManager.shutdown() ;
+        evictor = null ;
+        connectionManager = null ;
+    }
+
+    /** Create an {@link HttpClient} that uses the pool and handles compressed responses.
+     * Closing the connection manager of the client closes the shared pool; it is not necessary
+     * to close the client.
+     */
+    public static HttpClient createHttpClient() {
+        return createHttpClient(true) ;
+    }
+
+    /** Create an {@link HttpClient} that uses the pool and, optionally, handles compressed responses. */
+    public static HttpClient createHttpClient(boolean compression) {
+        return new PooledHttpClient(get(), compression) ;
+    }
+
+    /** Statistics for the pool: connections leased, available for reuse and waited for. */
+    public static PoolStats getStats() {
+        return get().getTotalStats() ;
+    }
+
+    public static int getMaxPerRoute()      { return maxPerRoute ; }
+
+    /** Set the maximum number of connections to one server (default 20, or the system property "http.maxConnections"). */
+    public static synchronized void setMaxPerRoute(int max) {
+        maxPerRoute = max ;
+        if ( connectionManager != null )
+            connectionManager.setDefaultMaxPerRoute(max) ;
+    }
+
+    public static int getMaxTotal()         { return maxTotal ; }
+
+    /** Set the maximum number of connections in the pool (default five times the maximum per route). */
+    public static synchronized void setMaxTotal(int max) {
+        maxTotal = max ;
+        if ( connectionManager != null )
+            connectionManager.setMaxTotal(max) ;
+    }
+
+    public static long getIdleTimeout()     { return idleTimeout ; }
+
+    /** Set the time, in milliseconds, after which an unused connection is closed. */
+    public static synchronized void setIdleTimeout(long millis) {
+        idleTimeout = millis ;
+    }
+
+    public static long getKeepAlive()       { return keepAlive ; }
+
+    /** Set the longest time, in milliseconds, that a connection is kept for reuse when
+     * the server does not say how long it will keep the connection open.
+     */
+    public static synchronized void setKeepAlive(long millis) {
+        keepAlive = millis ;
+    }
+
+    public static long getLeaseTimeout()    { return leaseTimeout ; }
+
+    /** Set the time, in milliseconds, to wait for a connection when the pool is fully in use. */
+    public static synchronized void setLeaseTimeout(long millis) {
+        leaseTimeout = millis ;
+    }
+
+    public static boolean getCompressRequests() { return compressRequests ; }
+
+    /** Set whether request bodies are sent gzip compressed (default false). */
+    public static void setCompressRequests(boolean compress) {
+        compressRequests = compress ;
+    }
+
+    private static class PooledHttpClient extends SystemDefaultHttpClient {
+        private final ClientConnectionManager connmgr ;
+
+        PooledHttpClient(ClientConnectionManager connmgr, boolean compression) {
+            super() ;
+            this.connmgr = connmgr ;
+            getParams().setLongParameter(ConnManagerPNames.TIMEOUT, leaseTimeout) ;
+            if ( compression ) {
+                addRequestInterceptor(new RequestAcceptEncoding()) ;
+                addResponseInterceptor(new ResponseContentEncoding()) ;
+            }
+            addRequestInterceptor(new RequestCompressContent()) ;
+        }
+
+        @Override
+        protected ClientConnectionManager createClientConnectionManager() {
+            return connmgr ;
+        }
+
+        @Override
+        protected ConnectionKeepAliveStrategy createConnectionKeepAliveStrategy() {
+            ConnectionKeepAliveStrategy dft = new DefaultConnectionKeepAliveStrategy() ;
+            return (response, context) -> {
+                long x = dft.getKeepAliveDuration(response, context) ;
+                return ( x > 0 ) ? x : keepAlive ;
+            } ;
+        }
+    }
+
+    /** Compress request bodies if {@link #setCompressRequests} is set. */
+    private static class RequestCompressContent implements HttpRequestInterceptor {
+        @Override
+        public void process(HttpRequest request, HttpContext context) {
+            if ( ! compressRequests || ! ( request instanceof HttpEntityEnclosingRequest ) )
+                return ;
+            HttpEntityEnclosingRequest r = (HttpEntityEnclosingRequest)request ;
+            HttpEntity entity = r.getEntity() ;
+            if ( entity == null || entity.getContentEncoding() != null || request.containsHeader(HttpHeaders.CONTENT_ENCODING) )
+                return ;
+            r.setEntity(new GzipCompressingEntity(entity)) ;
+            // Set by the request content interceptor before this one.
+            request.removeHeaders(HTTP.CONTENT_LEN) ;
+            request.setHeader(HTTP.TRANSFER_ENCODING, HTTP.CHUNK_CODING) ;
+            request.setHeader(HttpHeaders.CONTENT_ENCODING, "gzip") ;
+        }
+    }
+
+    /*package*/ static class GzipCompressingEntity extends HttpEntityWrapper {
+        GzipCompressingEntity(HttpEntity entity) {
+            super(entity) ;
+        }
+
+        @Override
+        public Header getContentEncoding()  { return new BasicHeader(HttpHeaders.CONTENT_ENCODING, "gzip") ; }
+
+        @Override
+        public long getContentLength()      { return -1 ; }
+
+        @Override
+        public boolean isChunked()          { return true ; }
+
+        @Override
+        public InputStream getContent() {
+            throw new UnsupportedOperationException() ;
+        }
+
+        @Override
+        public void writeTo(OutputStream out) throws IOException {
+            GZIPOutputStream gzip = new GZIPOutputStream(out) ;
+            try {
+                wrappedEntity.writeTo(gzip) ;
+            } finally { gzip.finish() ; }
+        }
+    }
+}
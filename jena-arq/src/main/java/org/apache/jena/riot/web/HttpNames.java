@@ -31,6 +31,8 @@ public class HttpNames
     public static final String hContentLocation     = "Content-Location" ;
     public static final String hContentRange        = "Content-Range" ;
     public static final String hContentType         = "Content-Type" ;
+    public static final String hETag                = "ETag" ;
+    public static final String hIfNoneMatch         = "If-None-Match" ;
     public static final String hPragma              = "Pragma" ;
     public static final String hCacheControl        = "Cache-Control" ;
     public static final String hRetryAfter          = "Retry-After" ;
@@ -20,6 +20,7 @@ package org.apache.jena.riot.web;
 
 import static java.lang.String.format ;
 
+import java.io.FilterInputStream ;
 import java.io.IOException ;
 import java.io.InputStream ;
 import java.net.URI ;
@@ -34,6 +35,7 @@ import org.apache.http.client.HttpClient ;
 import org.apache.http.client.entity.UrlEncodedFormEntity ;
 import org.apache.http.client.methods.* ;
 import org.apache.http.conn.ClientConnectionManager ;
+import org.apache.http.conn.ConnectionReleaseTrigger ;
 import org.apache.http.entity.ContentType ;
 import org.apache.http.entity.InputStreamEntity ;
 import org.apache.http.entity.StringEntity ;
@@ -162,7 +164,24 @@ public class HttpOp {
 
             HttpEntity entity = response.getEntity();
             String ct = (entity.getContentType() == null) ? null : entity.getContentType().getValue();
-            stream = new TypedInputStream(entity.getContent(), ct);
+            stream = new TypedInputStream(abortOnClose(entity.getContent()), ct);
+        }
+
+        /**
+         * Closing the stream before the end of the response aborts the connection,
+         * rather than reading the rest of the response so that the connection can
+         * be reused. At the end of the response, the connection has already been
+         * returned to the connection pool, and abort does nothing.
+         */
+        private static InputStream abortOnClose(final InputStream input) {
+            if (!(input instanceof ConnectionReleaseTrigger))
+                return input;
+            return new FilterInputStream(input) {
+                @Override
+                public void close() throws IOException {
+                    ((ConnectionReleaseTrigger)input).abortConnection();
+                }
+            };
         }
 
         @Override
@@ -220,9 +239,9 @@ public class HttpOp {
      * the
      * </p>
      * <p>
-     * Set to "null" to create a new HttpClient for each call (default
-     * behaviour, more reliable, but slower when many HTTP operation are
-     * attempted).
+     * Set to "null" to use a new HttpClient for each call (default
+     * behaviour). These clients share the connections of
+     * {@link HttpConnectionPool}.
      * <p>
      * See the Apache Http Client documentation for more details.
      * 
@@ -1132,8 +1151,8 @@ public class HttpOp {
      * the default client with authentication regardless.
      * </p>
      * <p>
-     * In all other cases it creates a fresh instance of a
-     * {@link SystemDefaultHttpClient} each time.
+     * In all other cases it creates a fresh client each time, using the shared
+     * {@link HttpConnectionPool}.
      * </p>
      * 
      * @param client
@@ -1150,8 +1169,8 @@ public class HttpOp {
         if (defaultHttpClient != null && (auth == null || useDefaultClientWithAuthentication))
             return defaultHttpClient;
 
-        // Otherwise use a fresh client each time
-        return new SystemDefaultHttpClient();
+        // Otherwise use a fresh client each time, over the shared connection pool
+        return HttpConnectionPool.createHttpClient();
     }
 
     private static AbstractHttpClient asAbstractClient(HttpClient client) {
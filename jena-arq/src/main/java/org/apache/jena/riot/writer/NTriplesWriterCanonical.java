@@ -0,0 +1,137 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.jena.riot.writer;
+
+import java.io.OutputStream ;
+import java.io.Writer ;
+import java.util.List ;
+import java.util.Map ;
+import java.util.stream.Collectors ;
+import java.util.stream.Stream ;
+
+import org.apache.jena.atlas.io.AWriter ;
+import org.apache.jena.atlas.io.IO ;
+import org.apache.jena.atlas.io.IndentedLineBuffer ;
+import org.apache.jena.graph.Graph ;
+import org.apache.jena.graph.Node ;
+import org.apache.jena.graph.Triple ;
+import org.apache.jena.graph.impl.HashGraphMatcher ;
+import org.apache.jena.riot.Lang ;
+import org.apache.jena.riot.out.CharSpace ;
+import org.apache.jena.riot.out.NodeFormatter ;
+import org.apache.jena.riot.out.NodeFormatterNT ;
+import org.apache.jena.riot.system.PrefixMap ;
+import org.apache.jena.sparql.util.Context ;
+
+/**
+ * N-Triples in a canonical form: blank nodes have the labels given by
+ * {@link HashGraphMatcher#canonicalLabels} and the lines are sorted. Isomorphic
+ * graphs are written as the same text, so the output can be compared with
+ * ordinary text tools.
+ */
+public class NTriplesWriterCanonical extends WriterGraphRIOTBase
+{
+    /** Graphs of at least this many triples are formatted and sorted in parallel. */
+    public static int parallelThreshold = 10000 ;
+
+    /** The lines of the canonical N-Triples for a graph, in order, without line ends. */
+    public static List<String> lines(Graph graph)
+    {
+        return lines(graph, CharSpace.UTF8) ;
+    }
+
+    /** The lines of the canonical N-Triples for a graph, in order, without line ends. */
+    public static List<String> lines(Graph graph, CharSpace charSpace)
+    {
+        Map<Node, String> labels = HashGraphMatcher.canonicalLabels(graph) ;
+        NodeFormatter formatter = new NodeFormatterNT(charSpace) {
+            @Override
+            public void formatBNode(AWriter w, Node n)
+            {
+                // The labels are already legal N-Triples labels.
+                w.print("_:") ;
+                w.print(labels.get(n)) ;
+            }
+        } ;
+        List<Triple> triples = graph.find(null, null, null).toList() ;
+        Stream<Triple> stream = triples.size() >= parallelThreshold ? triples.parallelStream() : triples.stream() ;
+        return stream.map(t -> line(formatter, t)).sorted().collect(Collectors.toList()) ;
+    }
+
+    private static String line(NodeFormatter formatter, Triple t)
+    {
+        IndentedLineBuffer x = new IndentedLineBuffer() ;
+        formatter.format(x, t.getSubject()) ;
+        x.print(" ") ;
+        formatter.format(x, t.getPredicate()) ;
+        x.print(" ") ;
+        formatter.format(x, t.getObject()) ;
+        x.print(" .") ;
+        return x.asString() ;
+    }
+
+    public static void write(OutputStream out, Graph graph)
+    {
+        write(IO.wrapUTF8(out), graph, CharSpace.UTF8) ;
+    }
+
+    public static void write(Writer out, Graph graph)
+    {
+        write(IO.wrap(out), graph, CharSpace.UTF8) ;
+    }
+
+    private static void write(AWriter w, Graph graph, CharSpace charSpace)
+    {
+        for ( String line : lines(graph, charSpace) )
+        {
+            w.print(line) ;
+            w.print("\n") ;
+        }
+        w.flush() ;
+    }
+
+    private final CharSpace charSpace ;
+
+    public NTriplesWriterCanonical()
+    { this(CharSpace.UTF8) ; }
+
+    public NTriplesWriterCanonical(CharSpace charSpace)
+    {
+        this.charSpace = charSpace ;
+    }
+
+    @Override
+    public Lang getLang()
+    {
+        return Lang.NTRIPLES ;
+    }
+
+    @Override
+    public void write(Writer out, Graph graph, PrefixMap prefixMap, String baseURI, Context context)
+    {
+        write(IO.wrap(out), graph, charSpace) ;
+    }
+
+    @Override
+    public void write(OutputStream out, Graph graph, PrefixMap prefixMap, String baseURI, Context context)
+    {
+        AWriter w = ( charSpace == CharSpace.ASCII ) ? IO.wrapASCII(out) : IO.wrapUTF8(out) ;
+        write(w, graph, charSpace) ;
+    }
+}
@@ -18,7 +18,13 @@
 
 package org.apache.jena.sparql.core;
 
+import java.util.HashSet ;
 import java.util.Iterator ;
+import java.util.List ;
+import java.util.Set ;
+import java.util.Spliterator ;
+import java.util.Spliterators ;
+import java.util.function.Consumer ;
 
 import org.apache.jena.atlas.iterator.Iter ;
 import org.apache.jena.atlas.lib.Sync ;
@@ -129,6 +135,85 @@ public class GraphView extends GraphBase implements Sync
         return WrappedIterator.createNoRemove(iter) ;
     }
     
+    /** Whether duplicates from the quads of a union graph are always adjacent. */
+    protected boolean unionDuplicatesAdjacent() {
+        return false ;
+    }
+
+    @Override
+    public void forEach(Node s, Node p, Node o, Consumer<? super Triple> action) {
+        checkOpen() ;
+        Node g = graphNode(gn) ;
+        Iterator<Quad> iter = getDataset().find(g, s, p, o) ;
+        try {
+            if ( ! Quad.isUnionGraph(g) ) {
+                while ( iter.hasNext() )
+                    action.accept(iter.next().asTriple()) ;
+            } else if ( unionDuplicatesAdjacent() ) {
+                Triple previous = null ;
+                while ( iter.hasNext() ) {
+                    Triple t = iter.next().asTriple() ;
+                    if ( ! t.equals(previous) )
+                        action.accept(t) ;
+                    previous = t ;
+                }
+            } else {
+                Set<Triple> seen = new HashSet<>() ;
+                while ( iter.hasNext() ) {
+                    Triple t = iter.next().asTriple() ;
+                    if ( seen.add(t) )
+                        action.accept(t) ;
+                }
+            }
+        } finally { Iter.close(iter) ; }
+    }
+
+    @Override
+    public Spliterator<Triple> spliterator(Node s, Node p, Node o) {
+        Node g = graphNode(gn) ;
+        if ( Quad.isUnionGraph(g) )
+            return super.spliterator(s, p, o) ;
+        checkOpen() ;
+        Iterator<Quad> iter = getDataset().find(g, s, p, o) ;
+        return new Spliterators.AbstractSpliterator<Triple>(Long.MAX_VALUE, Spliterator.DISTINCT | Spliterator.NONNULL) {
+            @Override
+            public boolean tryAdvance(Consumer<? super Triple> action) {
+                if ( ! iter.hasNext() ) {
+                    Iter.close(iter) ;
+                    return false ;
+                }
+                action.accept(iter.next().asTriple()) ;
+                return true ;
+            }
+
+            @Override
+            public void forEachRemaining(Consumer<? super Triple> action) {
+                try {
+                    while ( iter.hasNext() )
+                        action.accept(iter.next().asTriple()) ;
+                } finally { Iter.close(iter) ; }
+            }
+        } ;
+    }
+
+    @Override
+    protected void performAddAll(List<Triple> triples) {
+        Node g = graphNode(gn) ;
+        if ( Quad.isUnionGraph(g) )
+            throw new GraphViewException("Can't update the default union graph of a dataset") ; 
+        for ( Triple t : triples )
+            dsg.add(g, t.getSubject(), t.getPredicate(), t.getObject()) ;
+    }
+
+    @Override
+    protected void performDeleteAll(List<Triple> triples) {
+        Node g = graphNode(gn) ;
+        if ( Quad.isUnionGraph(g) )
+            throw new GraphViewException("Can't update the default union graph of a dataset") ; 
+        for ( Triple t : triples )
+            dsg.delete(g, t.getSubject(), t.getPredicate(), t.getObject()) ;
+    }
+
     @Override
     public void performAdd( Triple t ) { 
         Node g = graphNode(gn) ;
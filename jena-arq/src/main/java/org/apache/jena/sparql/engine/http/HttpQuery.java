@@ -28,7 +28,6 @@ import org.apache.http.client.HttpClient ;
 import org.apache.http.conn.params.ConnManagerPNames ;
 import org.apache.http.impl.client.AbstractHttpClient ;
 import org.apache.http.impl.client.DecompressingHttpClient ;
-import org.apache.http.impl.client.SystemDefaultHttpClient ;
 import org.apache.http.params.CoreConnectionPNames ;
 import org.apache.http.protocol.BasicHttpContext ;
 import org.apache.http.protocol.HttpContext ;
@@ -39,6 +38,7 @@ import org.apache.jena.atlas.web.auth.SimpleAuthenticator ;
 import org.apache.jena.query.ARQ ;
 import org.apache.jena.query.QueryExecException ;
 import org.apache.jena.riot.WebContent ;
+import org.apache.jena.riot.web.HttpConnectionPool ;
 import org.apache.jena.riot.web.HttpOp ;
 import org.apache.jena.shared.JenaException ;
 import org.slf4j.Logger ;
@@ -426,12 +426,12 @@ public class HttpQuery extends Params {
         this.client = HttpOp.getDefaultHttpClient();
         if (this.client == null || (this.authenticator != null && !HttpOp.getUseDefaultClientWithAuthentication())) {
             // If no configured default or authentication is in-use and the user has not configured
-            // to use authentication with the default client use a fresh SystemDefaultHttpClient instance
-            this.client = new SystemDefaultHttpClient();
-        } else {
-            // When using the configured default client we don't want to shut it down at the end of a request
-            this.requireClientShutdown = false;
+            // to use authentication with the default client use a fresh client over the shared
+            // connection pool. Compression is handled by the caller.
+            this.client = HttpConnectionPool.createHttpClient(false);
         }
+        // Neither the configured default client nor the shared pool is shut down at the end of a request
+        this.requireClientShutdown = false;
     }
 
     private InputStream execCommon(TypedInputStream stream) throws QueryExceptionHTTP {
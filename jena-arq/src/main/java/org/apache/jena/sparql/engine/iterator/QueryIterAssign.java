@@ -18,6 +18,9 @@
 
 package org.apache.jena.sparql.engine.iterator;
 
+import java.util.HashMap ;
+import java.util.Map ;
+
 import org.apache.jena.atlas.io.IndentedWriter ;
 import org.apache.jena.atlas.lib.Lib ;
 import org.apache.jena.graph.Node ;
@@ -30,6 +33,10 @@ import org.apache.jena.sparql.engine.binding.Binding ;
 import org.apache.jena.sparql.engine.binding.BindingFactory ;
 import org.apache.jena.sparql.engine.binding.BindingMap ;
 import org.apache.jena.sparql.expr.Expr ;
+import org.apache.jena.sparql.expr.ExprEvalException ;
+import org.apache.jena.sparql.expr.NodeValue ;
+import org.apache.jena.sparql.expr.compile.CompiledExpr ;
+import org.apache.jena.sparql.expr.compile.ExprCompiler ;
 import org.apache.jena.sparql.serializer.SerializationContext ;
 
 /** Extend each solution by a (var, expression) */ 
@@ -38,6 +45,8 @@ public class QueryIterAssign extends QueryIterProcessBinding
 {
     private VarExprList exprs ;
     private final boolean mustBeNewVar ;
+    // Null if expressions are interpreted.
+    private final Map<Var, CompiledExpr> compiled ;
     
     public QueryIterAssign(QueryIterator input, Var var, Expr expr, ExecutionContext qCxt)
     {
@@ -53,6 +62,34 @@ public class QueryIterAssign extends QueryIterProcessBinding
         super(input, qCxt) ;
         this.exprs = exprs ;
         this.mustBeNewVar = mustBeNewVar ;
+        this.compiled = ExprCompiler.isEnabled(qCxt.getContext()) ? compile(exprs) : null ;
+    }
+    
+    private static Map<Var, CompiledExpr> compile(VarExprList exprs)
+    {
+        Map<Var, CompiledExpr> compiled = new HashMap<>() ;
+        for ( Var v : exprs.getVars() )
+        {
+            Expr expr = exprs.getExpr(v) ;
+            if ( expr != null )
+                compiled.put(v, ExprCompiler.compile(expr)) ;
+        }
+        return compiled ;
+    }
+    
+    /** As {@link VarExprList#get}, using the compiled expressions */ 
+    private Node get(Var v, Binding binding)
+    {
+        CompiledExpr expr = compiled.get(v) ;
+        if ( expr == null )
+            return binding.get(v) ;
+        try {
+            NodeValue nv = expr.eval(binding, getExecContext()) ;
+            if ( nv == null )
+                return null ;
+            return nv.asNode() ;
+        } catch (ExprEvalException ex) { }
+        return null ;
     }
     
     @Override
@@ -64,7 +101,7 @@ public class QueryIterAssign extends QueryIterProcessBinding
             // Not this, where expressions do not see the new bindings.
             // Node n = exprs.get(v, bind, funcEnv) ;
             // which gives (Lisp) "let" semantics, not "let*" semantics 
-            Node n = exprs.get(v, b, getExecContext()) ;
+            Node n = ( compiled != null ) ? get(v, b) : exprs.get(v, b, getExecContext()) ;
             
             if ( n == null )
                 // Expression failed to evaluate - no assignment
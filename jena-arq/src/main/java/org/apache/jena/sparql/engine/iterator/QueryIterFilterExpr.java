@@ -26,6 +26,8 @@ import org.apache.jena.sparql.engine.QueryIterator ;
 import org.apache.jena.sparql.engine.binding.Binding ;
 import org.apache.jena.sparql.expr.Expr ;
 import org.apache.jena.sparql.expr.ExprException ;
+import org.apache.jena.sparql.expr.compile.CompiledCondition ;
+import org.apache.jena.sparql.expr.compile.ExprCompiler ;
 import org.apache.jena.sparql.serializer.SerializationContext ;
 import org.apache.jena.sparql.util.ExprUtils ;
 
@@ -35,18 +37,23 @@ import org.apache.jena.sparql.util.ExprUtils ;
 public class QueryIterFilterExpr extends QueryIterProcessBinding
 {
     private final Expr expr ;
+    private final CompiledCondition condition ;
     
     public QueryIterFilterExpr(QueryIterator input, Expr expr, ExecutionContext context)
     {
         super(input, context) ;
         this.expr = expr ;
+        this.condition = ExprCompiler.isEnabled(context.getContext()) ? ExprCompiler.compileCondition(expr) : null ;
     }
     
     @Override
     public Binding accept(Binding binding)
     {
         try {
-            if ( expr.isSatisfied(binding, super.getExecContext()) )
+            boolean b = ( condition != null ) 
+                ? condition.isSatisfied(binding, super.getExecContext())
+                : expr.isSatisfied(binding, super.getExecContext()) ;
+            if ( b )
                 return binding ;
             return null ;
         } catch (ExprException ex)
@@ -92,6 +92,12 @@ public class E_Regex extends ExprFunctionN
         return b ?  NodeValue.TRUE : NodeValue.FALSE ; 
     }
 
+    /** The regular expression engine for a constant pattern and flags, else null. */
+    public RegexEngine getRegexEngine()
+    {
+        return regexEngine ;
+    }
+
     public static RegexEngine makeRegexEngine(NodeValue vPattern, NodeValue vFlags)
     {
         if ( ! vPattern.isString() )
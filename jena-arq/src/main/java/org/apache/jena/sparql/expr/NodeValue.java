@@ -62,7 +62,7 @@ import org.apache.jena.atlas.logging.Log ;
 import org.apache.jena.datatypes.DatatypeFormatException ;
 import org.apache.jena.datatypes.RDFDatatype ;
 import org.apache.jena.datatypes.TypeMapper ;
-import org.apache.jena.datatypes.xsd.XSDDateTime ;
+import org.apache.jena.datatypes.xsd.impl.XSDBaseNumericType ;
 import org.apache.jena.graph.Node ;
 import org.apache.jena.graph.NodeFactory ;
 import org.apache.jena.graph.impl.LiteralLabel ;
@@ -1054,92 +1054,69 @@ public abstract class NodeValue extends ExprNode
 
             // Order here is promotion order integer-decimal-float-double
             
+            // The literal has already been parsed by its own datatype (it is
+            // well-formed, checked in nodeToNodeValue) so, for the built-in
+            // XSD types below, the lexical form is known to be valid and the
+            // value is reused rather than validating the lexical form again.
+            
+            if ( datatype instanceof XSDBaseNumericType && ! datatype.equals(XSDdecimal) ) {
+                // XSD integer and derived types (int, byte, positiveInteger etc).
+                // The parsed value is an Integer, Long or BigInteger.
+                Object value = lit.getValue() ;
+                if ( value instanceof BigInteger )
+                    return new NodeValueInteger((BigInteger)value, node) ;
+                if ( value instanceof Integer || value instanceof Long )
+                    return new NodeValueInteger(BigInteger.valueOf(((Number)value).longValue()), node) ;
+            }
+            
             if ( ! datatype.equals(XSDdecimal) ) {
-                // XSD integer and derived types 
+                // Other XSD integer and derived types 
                 if ( XSDinteger.isValidLiteral(lit) )
                 {
                     String s = node.getLiteralLexicalForm() ;
                     if ( s.startsWith("+") )
                         // BigInteger does not accept leading "+"
                         s = s.substring(1) ;
-                    // Includes subtypes (int, byte, postiveInteger etc).
                     // NB Known to be valid for type by now
                     BigInteger integer = new BigInteger(s) ;
                     return new NodeValueInteger(integer, node) ;
                 }
             }
             
-            if ( datatype.equals(XSDdecimal) && XSDdecimal.isValidLiteral(lit) ) {
+            if ( datatype.equals(XSDdecimal) ) {
+                // Not lit.getValue() because that may be a narrower type e.g. Integer.
                 BigDecimal decimal = new BigDecimal(lit.getLexicalForm()) ;
                 return new NodeValueDecimal(decimal, node) ;
             }
 
-            if ( datatype.equals(XSDfloat) && XSDfloat.isValidLiteral(lit) ) {
+            if ( datatype.equals(XSDfloat) ) {
                 // NB If needed, call to floatValue, then assign to double.
                 // Gets 1.3f != 1.3d right
                 float f = ((Number)lit.getValue()).floatValue() ;
                 return new NodeValueFloat(f, node) ;
             }
 
-            if ( datatype.equals(XSDdouble) && XSDdouble.isValidLiteral(lit) ) {
+            if ( datatype.equals(XSDdouble) ) {
                 double d = ((Number)lit.getValue()).doubleValue() ;
                 return new NodeValueDouble(d, node) ;
             }
 
-            if ( (datatype.equals(XSDdateTime) || datatype.equals(XSDdateTimeStamp)) && XSDdateTime.isValid(lex) ) {
-                XSDDateTime dateTime = (XSDDateTime)lit.getValue() ;
+            if ( datatype.equals(XSDdateTime) || datatype.equals(XSDdateTimeStamp) )
                 return new NodeValueDT(lex, node) ;
-            }
-
-            if ( datatype.equals(XSDdate) && XSDdate.isValidLiteral(lit) ) {
-                // Jena datatype support works on masked dataTimes.
-                XSDDateTime dateTime = (XSDDateTime)lit.getValue() ;
-                return new NodeValueDT(lex, node) ;
-            }
 
-            if ( datatype.equals(XSDtime) && XSDtime.isValidLiteral(lit) ) {
-                // Jena datatype support works on masked dataTimes.
-                XSDDateTime time = (XSDDateTime)lit.getValue() ;
+            // Jena datatype support works on masked dataTimes.
+            if ( datatype.equals(XSDdate) || datatype.equals(XSDtime) ||
+                 datatype.equals(XSDgYear) || datatype.equals(XSDgYearMonth) ||
+                 datatype.equals(XSDgMonth) || datatype.equals(XSDgMonthDay) ||
+                 datatype.equals(XSDgDay) )
                 return new NodeValueDT(lex, node) ;
-            }
 
-            if ( datatype.equals(XSDgYear) && XSDgYear.isValidLiteral(lit) ) {
-                XSDDateTime time = (XSDDateTime)lit.getValue() ;
-                return new NodeValueDT(lex, node) ;
-            }
-            if ( datatype.equals(XSDgYearMonth) && XSDgYearMonth.isValidLiteral(lit) ) {
-                XSDDateTime time = (XSDDateTime)lit.getValue() ;
-                return new NodeValueDT(lex, node) ;
-            }
-            if ( datatype.equals(XSDgMonth) && XSDgMonth.isValidLiteral(lit) ) {
-                XSDDateTime time = (XSDDateTime)lit.getValue() ;
-                return new NodeValueDT(lex, node) ;
-            }
-
-            if ( datatype.equals(XSDgMonthDay) && XSDgMonthDay.isValidLiteral(lit) ) {
-                XSDDateTime time = (XSDDateTime)lit.getValue() ;
-                return new NodeValueDT(lex, node) ;
-            }
-            if ( datatype.equals(XSDgDay) && XSDgDay.isValidLiteral(lit) ) {
-                XSDDateTime time = (XSDDateTime)lit.getValue() ;
-                return new NodeValueDT(lex, node) ;
-            }
-
-            if ( datatype.equals(XSDduration) && XSDduration.isValid(lex) ) {
-                Duration duration = xmlDatatypeFactory.newDuration(lex) ;
-                return new NodeValueDuration(duration, node) ;
-            }
-            
-            if ( datatype.equals(XSDyearMonthDuration) && XSDyearMonthDuration.isValid(lex) ) {
-                Duration duration = xmlDatatypeFactory.newDuration(lex) ;
-                return new NodeValueDuration(duration, node) ;
-            }
-            if ( datatype.equals(XSDdayTimeDuration) && XSDdayTimeDuration.isValid(lex) ) {
+            if ( datatype.equals(XSDduration) || datatype.equals(XSDyearMonthDuration) || datatype.equals(XSDdayTimeDuration) ) {
                 Duration duration = xmlDatatypeFactory.newDuration(lex) ;
                 return new NodeValueDuration(duration, node) ;
             }
             
-            if ( datatype.equals(XSDboolean) && XSDboolean.isValidLiteral(lit) ) {
+            if ( datatype.equals(XSDboolean) ) {
                 boolean b = (Boolean) lit.getValue();
                 return new NodeValueBoolean(b, node) ;
             }
@@ -0,0 +1,366 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.jena.sparql.expr.compile ;
+
+import java.math.BigInteger ;
+
+import org.apache.jena.datatypes.RDFDatatype ;
+import org.apache.jena.datatypes.xsd.XSDDatatype ;
+import org.apache.jena.graph.Node ;
+import org.apache.jena.query.ARQ ;
+import org.apache.jena.sparql.core.Var ;
+import org.apache.jena.sparql.engine.binding.Binding ;
+import org.apache.jena.sparql.expr.* ;
+import org.apache.jena.sparql.expr.nodevalue.XSDFuncOp ;
+import org.apache.jena.sparql.function.FunctionEnv ;
+import org.apache.jena.sparql.util.Context ;
+
+/** Prepare expressions for repeated evaluation, as in FILTER and BIND.
+ * <p>
+ * The expression is constant folded, then turned into a tree of lambdas.
+ * Common forms have specialized implementations that work directly on the
+ * {@link Node} in the binding, without creating {@link NodeValue}s:
+ * <ul>
+ * <li>{@code &&}, {@code ||}, {@code !} and {@code BOUND}</li>
+ * <li>comparisons ({@code = != < <= > >=}) of a variable and a constant integer,
+ *     double, string or IRI</li>
+ * <li>{@code REGEX} of a variable, or {@code STR} of a variable, with a constant
+ *     pattern which is compiled once</li>
+ * </ul>
+ * Whenever the fast path does not apply to the actual term (e.g. an unusual
+ * datatype or an ill-formed literal), the original expression is evaluated,
+ * so results are exactly as for interpretation.
+ * Everything else is evaluated by the original expression.
+ * <p>
+ * Used by FILTER and BIND/LET execution when {@link ARQ#optExprCompile} is set.
+ */
+public class ExprCompiler
+{
+    /** Whether expression compilation is enabled in this context. */
+    public static boolean isEnabled(Context context) {
+        return context != null && context.isTrue(ARQ.optExprCompile) ;
+    }
+
+    /** Compile an expression for evaluation to a {@link NodeValue}. */
+    public static CompiledExpr compile(Expr expr) {
+        return compile$(ExprLib.foldConstants(expr)) ;
+    }
+
+    /** Compile an expression for use as a condition (effective boolean value). */
+    public static CompiledCondition compileCondition(Expr expr) {
+        return condition$(ExprLib.foldConstants(expr)) ;
+    }
+
+    // ---- Values
+
+    private static CompiledExpr compile$(Expr expr) {
+        if ( expr.isConstant() ) {
+            NodeValue nv = expr.getConstant() ;
+            return (binding, env) -> nv ;
+        }
+        if ( isCondition(expr) ) {
+            CompiledCondition c = condition$(expr) ;
+            return (binding, env) -> NodeValue.booleanReturn(c.test(binding, env)) ;
+        }
+        if ( expr instanceof E_Add || expr instanceof E_Subtract ||
+             expr instanceof E_Multiply || expr instanceof E_Divide ) {
+            // Arithmetic : no special forms, so evaluate the compiled arguments.
+            ExprFunction2 func = (ExprFunction2)expr ;
+            CompiledExpr arg1 = compile$(func.getArg1()) ;
+            CompiledExpr arg2 = compile$(func.getArg2()) ;
+            return (binding, env) -> func.eval(arg1.eval(binding, env), arg2.eval(binding, env)) ;
+        }
+        // Interpret.
+        return expr::eval ;
+    }
+
+    private static boolean isCondition(Expr expr) {
+        return expr instanceof E_LogicalAnd || expr instanceof E_LogicalOr || expr instanceof E_LogicalNot ||
+               expr instanceof E_Bound || expr instanceof E_Regex ||
+               compareOp(expr) != NoOp ;
+    }
+
+    // ---- Conditions
+
+    private static CompiledCondition condition$(Expr expr) {
+        if ( expr.isConstant() ) {
+            NodeValue nv = expr.getConstant() ;
+            try {
+                boolean b = XSDFuncOp.booleanEffectiveValue(nv) ;
+                return (binding, env) -> b ;
+            } catch (ExprEvalException ex) {
+                // Always an error.
+                return (binding, env) -> XSDFuncOp.booleanEffectiveValue(nv) ;
+            }
+        }
+        if ( expr instanceof E_LogicalAnd )
+            return and(condition$(((E_LogicalAnd)expr).getArg1()), condition$(((E_LogicalAnd)expr).getArg2())) ;
+        if ( expr instanceof E_LogicalOr )
+            return or(condition$(((E_LogicalOr)expr).getArg1()), condition$(((E_LogicalOr)expr).getArg2())) ;
+        if ( expr instanceof E_LogicalNot ) {
+            CompiledCondition c = condition$(((E_LogicalNot)expr).getArg()) ;
+            return (binding, env) -> ! c.test(binding, env) ;
+        }
+        if ( expr instanceof E_Bound && ((E_Bound)expr).getArg().isVariable() ) {
+            Var var = ((E_Bound)expr).getArg().asVar() ;
+            return (binding, env) -> binding.get(var) != null ;
+        }
+        if ( expr instanceof E_Regex ) {
+            CompiledCondition c = regex((E_Regex)expr) ;
+            if ( c != null )
+                return c ;
+        }
+        int op = compareOp(expr) ;
+        if ( op != NoOp ) {
+            CompiledCondition c = compare((ExprFunction2)expr, op) ;
+            if ( c != null )
+                return c ;
+        }
+        if ( isCondition(expr) )
+            // No specialized form (e.g. comparing two variables).
+            return (binding, env) -> interpret(expr, binding, env) ;
+        CompiledExpr ce = compile$(expr) ;
+        return (binding, env) -> XSDFuncOp.booleanEffectiveValue(ce.eval(binding, env)) ;
+    }
+
+    /** SPARQL {@code &&} : false if either side is false, else an error if either side is an error. */
+    private static CompiledCondition and(CompiledCondition left, CompiledCondition right) {
+        return (binding, env) -> {
+            ExprEvalException error = null ;
+            try {
+                if ( ! left.test(binding, env) )
+                    return false ;
+            } catch (ExprEvalException ex) { error = ex ; }
+            // Left is true or an error.
+            if ( ! right.test(binding, env) )
+                return false ;
+            if ( error != null )
+                throw error ;
+            return true ;
+        } ;
+    }
+
+    /** SPARQL {@code ||} : true if either side is true, else an error if either side is an error. */
+    private static CompiledCondition or(CompiledCondition left, CompiledCondition right) {
+        return (binding, env) -> {
+            ExprEvalException error = null ;
+            try {
+                if ( left.test(binding, env) )
+                    return true ;
+            } catch (ExprEvalException ex) { error = ex ; }
+            // Left is false or an error.
+            if ( right.test(binding, env) )
+                return true ;
+            if ( error != null )
+                throw error ;
+            return false ;
+        } ;
+    }
+
+    // ---- REGEX
+
+    /** REGEX(?var, "pattern", "flags") or REGEX(STR(?var), ...) with a constant pattern. */
+    private static CompiledCondition regex(E_Regex expr) {
+        Expr arg = expr.getArg(1) ;
+        // The pattern, compiled once when the expression was created.
+        RegexEngine regexEngine = expr.getRegexEngine() ;
+        if ( regexEngine == null )
+            return null ;
+        boolean isStr = false ;
+        if ( arg instanceof E_Str ) {
+            arg = ((E_Str)arg).getArg() ;
+            isStr = true ;
+        }
+        if ( ! arg.isVariable() )
+            return null ;
+        Var var = arg.asVar() ;
+        boolean strOfArg = isStr ;
+        return (binding, env) -> {
+            Node n = binding.get(var) ;
+            if ( n != null ) {
+                if ( strOfArg && n.isURI() )
+                    return regexEngine.match(n.getURI()) ;
+                if ( n.isLiteral() && ( strOfArg || isStringLiteral(n) ) )
+                    return regexEngine.match(n.getLiteralLexicalForm()) ;
+            }
+            return interpret(expr, binding, env) ;
+        } ;
+    }
+
+    // ---- Comparisons
+
+    private static final int NoOp = 0 ;
+    private static final int EQ = 1 ;
+    private static final int NE = 2 ;
+    private static final int LT = 3 ;
+    private static final int LE = 4 ;
+    private static final int GT = 5 ;
+    private static final int GE = 6 ;
+
+    /** Result of a fast comparison that did not apply. */
+    private static final int NoCompare = Integer.MIN_VALUE ;
+
+    private static int compareOp(Expr expr) {
+        if ( expr instanceof E_Equals )             return EQ ;
+        if ( expr instanceof E_NotEquals )          return NE ;
+        if ( expr instanceof E_LessThan )           return LT ;
+        if ( expr instanceof E_LessThanOrEqual )    return LE ;
+        if ( expr instanceof E_GreaterThan )        return GT ;
+        if ( expr instanceof E_GreaterThanOrEqual ) return GE ;
+        return NoOp ;
+    }
+
+    /** The operator with the arguments swapped (c < ?x is ?x > c). */
+    private static int swap(int op) {
+        switch (op) {
+            case LT : return GT ;
+            case LE : return GE ;
+            case GT : return LT ;
+            case GE : return LE ;
+            default : return op ;
+        }
+    }
+
+    private static boolean result(int op, int cmp) {
+        switch (op) {
+            case EQ : return cmp == Expr.CMP_EQUAL ;
+            case NE : return cmp != Expr.CMP_EQUAL ;
+            case LT : return cmp == Expr.CMP_LESS ;
+            case LE : return cmp == Expr.CMP_LESS || cmp == Expr.CMP_EQUAL ;
+            case GT : return cmp == Expr.CMP_GREATER ;
+            case GE : return cmp == Expr.CMP_GREATER || cmp == Expr.CMP_EQUAL ;
+            default : throw new IllegalStateException("Operator: "+op) ;
+        }
+    }
+
+    /** Compare a node to a constant, returning a CMP_* value or NoCompare. */
+    private interface NodeCompare { int compare(Node n) ; }
+
+    private static CompiledCondition compare(ExprFunction2 expr, int op) {
+        Expr arg1 = expr.getArg1() ;
+        Expr arg2 = expr.getArg2() ;
+        Var var ;
+        NodeValue constant ;
+        if ( arg1.isVariable() && arg2.isConstant() ) {
+            var = arg1.asVar() ;
+            constant = arg2.getConstant() ;
+        } else if ( arg2.isVariable() && arg1.isConstant() ) {
+            var = arg2.asVar() ;
+            constant = arg1.getConstant() ;
+            op = swap(op) ;
+        } else
+            return null ;
+
+        NodeCompare nodeCompare = nodeCompare(constant, op) ;
+        if ( nodeCompare == null )
+            return null ;
+        int op$ = op ;
+        return (binding, env) -> {
+            Node n = binding.get(var) ;
+            if ( n != null ) {
+                int x = nodeCompare.compare(n) ;
+                if ( x != NoCompare )
+                    return result(op$, x) ;
+            }
+            return interpret(expr, binding, env) ;
+        } ;
+    }
+
+    private static NodeCompare nodeCompare(NodeValue constant, int op) {
+        if ( constant.isInteger() ) {
+            BigInteger value = constant.getInteger() ;
+            if ( value.bitLength() >= 64 )
+                return null ;
+            long k = value.longValue() ;
+            return (n) -> compareInteger(n, k) ;
+        }
+        if ( constant.isDouble() && ! constant.isFloat() ) {
+            double d = constant.getDouble() ;
+            return (n) -> compareDouble(n, d) ;
+        }
+        if ( constant.isString() && isStringLiteral(constant.asNode()) ) {
+            String s = constant.getString() ;
+            return (n) -> isStringLiteral(n) ? Integer.signum(n.getLiteralLexicalForm().compareTo(s)) : NoCompare ;
+        }
+        if ( constant.isIRI() && ( op == EQ || op == NE ) ) {
+            Node iri = constant.asNode() ;
+            return (n) -> n.isURI() ? ( n.equals(iri) ? Expr.CMP_EQUAL : Expr.CMP_LESS ) : NoCompare ;
+        }
+        return null ;
+    }
+
+    private static int compareInteger(Node n, long k) {
+        if ( ! n.isLiteral() )
+            return NoCompare ;
+        RDFDatatype dt = n.getLiteralDatatype() ;
+        if ( isIntegerType(dt) ) {
+            if ( ! n.getLiteral().isWellFormed() )
+                return NoCompare ;
+            Object v = n.getLiteralValue() ;
+            if ( v instanceof Integer || v instanceof Long || v instanceof Short || v instanceof Byte )
+                return Integer.signum(Long.compare(((Number)v).longValue(), k)) ;
+            if ( v instanceof BigInteger )
+                return Integer.signum(((BigInteger)v).compareTo(BigInteger.valueOf(k))) ;
+            return NoCompare ;
+        }
+        if ( XSDDatatype.XSDdouble.equals(dt) ) {
+            // Integer promoted to double.
+            if ( ! n.getLiteral().isWellFormed() )
+                return NoCompare ;
+            return Integer.signum(Double.compare(((Number)n.getLiteralValue()).doubleValue(), k)) ;
+        }
+        return NoCompare ;
+    }
+
+    private static int compareDouble(Node n, double d) {
+        if ( ! n.isLiteral() )
+            return NoCompare ;
+        RDFDatatype dt = n.getLiteralDatatype() ;
+        if ( ! isIntegerType(dt) && ! XSDDatatype.XSDdouble.equals(dt) )
+            return NoCompare ;
+        if ( ! n.getLiteral().isWellFormed() )
+            return NoCompare ;
+        Object v = n.getLiteralValue() ;
+        if ( ! ( v instanceof Number ) )
+            return NoCompare ;
+        return Integer.signum(Double.compare(((Number)v).doubleValue(), d)) ;
+    }
+
+    private static boolean isIntegerType(RDFDatatype dt) {
+        return XSDDatatype.XSDinteger.equals(dt) || XSDDatatype.XSDint.equals(dt) ||
+               XSDDatatype.XSDlong.equals(dt) || XSDDatatype.XSDshort.equals(dt) ||
+               XSDDatatype.XSDbyte.equals(dt) ;
+    }
+
+    /** Simple literal or xsd:string, no language tag */
+    private static boolean isStringLiteral(Node n) {
+        if ( ! n.isLiteral() )
+            return false ;
+        String lang = n.getLiteralLanguage() ;
+        if ( lang != null && ! lang.isEmpty() )
+            return false ;
+        RDFDatatype dt = n.getLiteralDatatype() ;
+        return dt == null || XSDDatatype.XSDstring.equals(dt) ;
+    }
+
+    /** Fallback - evaluate the original expression. */
+    private static boolean interpret(Expr expr, Binding binding, FunctionEnv env) {
+        return XSDFuncOp.booleanEffectiveValue(expr.eval(binding, env)) ;
+    }
+}
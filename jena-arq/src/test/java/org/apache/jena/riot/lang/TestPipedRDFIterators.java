@@ -68,8 +68,12 @@ public class TestPipedRDFIterators {
 
     private void test_streamed_triples(int bufferSize, final int generateSize, boolean fair) throws InterruptedException,
             ExecutionException, TimeoutException {
+        this.test_streamed_triples(new PipedRDFIterator<Triple>(bufferSize, fair), generateSize);
+    }
+
+    private void test_streamed_triples(final PipedRDFIterator<Triple> it, final int generateSize) throws InterruptedException,
+            ExecutionException, TimeoutException {
 
-        final PipedRDFIterator<Triple> it = new PipedRDFIterator<>(bufferSize, fair);
         final PipedTriplesStream out = new PipedTriplesStream(it);
 
         // Create a runnable that will generate triples
@@ -210,6 +214,76 @@ public class TestPipedRDFIterators {
         this.test_streamed_triples(10000, 100000, false);
     }
 
+    /**
+     * Test that the single producer ring hands slots back in batches for a
+     * range of batch sizes
+     * 
+     * @throws ExecutionException
+     * @throws InterruptedException
+     * @throws TimeoutException
+     */
+    @Test
+    public void streamed_triples_iterator_08() throws InterruptedException, ExecutionException, TimeoutException {
+        for (int batchSize : new int[] { 1, 7, 64, 5000 }) {
+            this.test_streamed_triples(new PipedRDFIterator<Triple>(1000, PipedRDFIterator.DEFAULT_POLL_TIMEOUT,
+                    PipedRDFIterator.DEFAULT_MAX_POLLS, batchSize), 100000);
+        }
+    }
+
+    /**
+     * Test that several producers can write to the default iterator at once
+     * 
+     * @throws ExecutionException
+     * @throws InterruptedException
+     * @throws TimeoutException
+     */
+    @Test
+    public void streamed_triples_iterator_09() throws InterruptedException, ExecutionException, TimeoutException {
+        final int producers = 4;
+        final int generateSize = 25000;
+        final PipedRDFIterator<Triple> it = new PipedRDFIterator<>(100);
+        final PipedTriplesStream out = new PipedTriplesStream(it);
+
+        final Future<?>[] fs = new Future<?>[producers];
+        for (int p = 0; p < producers; p++) {
+            final int base = p * generateSize;
+            fs[p] = executor.submit(new Runnable() {
+                @Override
+                public void run() {
+                    out.start();
+                    for (int i = 1; i <= generateSize; i++) {
+                        Triple t = new Triple(org.apache.jena.graph.NodeFactory.createAnon(),
+                                org.apache.jena.graph.NodeFactory.createURI("http://predicate"), NodeFactoryExtra.intToNode(base + i));
+                        out.triple(t);
+                    }
+                }
+            });
+        }
+
+        // Finish once every producer is done
+        Future<?> finisher = executor.submit(new Callable<Void>() {
+            @Override
+            public Void call() throws Exception {
+                for (Future<?> f : fs)
+                    f.get();
+                out.finish();
+                return null;
+            }
+        });
+
+        // Every value must arrive exactly once
+        boolean[] seen = new boolean[producers * generateSize + 1];
+        int count = 0;
+        while (it.hasNext()) {
+            int i = Integer.parseInt(it.next().getObject().getLiteralLexicalForm());
+            Assert.assertFalse("Duplicate " + i, seen[i]);
+            seen[i] = true;
+            count++;
+        }
+        Assert.assertEquals(producers * generateSize, count);
+        finisher.get(10, TimeUnit.SECONDS);
+    }
+
     private void test_streamed_quads(int bufferSize, final int generateSize, boolean fair) throws InterruptedException,
             ExecutionException, TimeoutException {
 
@@ -683,6 +757,58 @@ public class TestPipedRDFIterators {
         }
     }
 
+    /**
+     * Tests a scenario where the consumer closes the iterator while the
+     * producer is waiting for space in the buffer
+     */
+    @Test
+    public void streamed_state_bad_06() {
+        test_close_while_producer_waits(new PipedRDFIterator<Triple>(1));
+    }
+
+    /**
+     * As {@link #streamed_state_bad_06()} with the single producer ring
+     */
+    @Test
+    public void streamed_state_bad_07() {
+        test_close_while_producer_waits(new PipedRDFIterator<Triple>(1, PipedRDFIterator.DEFAULT_POLL_TIMEOUT,
+                PipedRDFIterator.DEFAULT_MAX_POLLS, PipedRDFIterator.DEFAULT_BATCH_SIZE));
+    }
+
+    private void test_close_while_producer_waits(final PipedRDFIterator<Triple> iter) {
+        final PipedTriplesStream stream = new PipedTriplesStream(iter);
+
+        Runnable producer = new Runnable() {
+            @Override
+            public void run() {
+                stream.start();
+                for (int i = 0; i < 100; i++) {
+                    stream.triple(Triple.create(org.apache.jena.graph.NodeFactory.createURI("urn:s"),
+                            org.apache.jena.graph.NodeFactory.createURI("urn:p"), NodeFactoryExtra.intToNode(i)));
+                }
+                stream.finish();
+            }
+        };
+
+        Future<?> f = executor.submit(producer);
+        Assert.assertTrue(iter.hasNext());
+        iter.next();
+        iter.close();
+
+        // The producer should be told the pipe is closed rather than wait
+        // forever
+        try {
+            f.get(3, TimeUnit.SECONDS);
+            Assert.fail("Expected an error");
+        } catch (ExecutionException e) {
+            Assert.assertTrue(e.getCause() instanceof RiotException);
+        } catch (TimeoutException e) {
+            Assert.fail("A timeout occurred indicating the producer deadlocked");
+        } catch (InterruptedException e) {
+            Assert.fail("An interrupt occurred");
+        }
+    }
+
     /**
      * Check we can safely call hasNext() multiple times after the stream is
      * exhausted
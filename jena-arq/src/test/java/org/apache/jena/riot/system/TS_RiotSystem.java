@@ -29,7 +29,9 @@ import org.junit.runners.Suite.SuiteClasses ;
 @RunWith(Suite.class)
 @SuiteClasses({ 
     TestChecker.class
+    , TestIRIResolver.class
     , TestStreamRDF.class
+    , TestParserNodeInterning.class
     // Prefix Map implementations
     , TestPrefixMap.class
     , TestPrefixMapWrapper.class
@@ -55,6 +55,8 @@ public class TestFormatRegistration extends BaseTest
         add("TRIX",     x, RDFFormat.TRIX,       true, true) ;
         add("TRDF",     x, RDFFormat.RDF_THRIFT, true, true) ;
         add("TRDF",     x, RDFFormat.RDF_THRIFT_VALUES, true, true) ;
+        add("TRDFB",    x, RDFFormat.RDF_THRIFT_BLOCKS, true, true) ;
+        add("TRDFB",    x, RDFFormat.RDF_THRIFT_BLOCKS_VALUES, true, true) ;
         return x ;
     }
     
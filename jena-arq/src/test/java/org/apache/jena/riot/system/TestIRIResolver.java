@@ -0,0 +1,122 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.jena.riot.system;
+
+import java.util.Iterator ;
+import java.util.Random ;
+
+import org.apache.jena.atlas.junit.BaseTest ;
+import org.apache.jena.iri.IRI ;
+import org.apache.jena.iri.Violation ;
+import org.junit.Test ;
+
+/** Tests for the IRIResolver cache and fast path */
+public class TestIRIResolver extends BaseTest
+{
+    @Test public void simple_01() { simple("http://example.org/") ; }
+    @Test public void simple_02() { simple("http://example.org") ; }
+    @Test public void simple_03() { simple("https://www.example.org/path/to/x.ttl") ; }
+    @Test public void simple_04() { simple("http://example.org/ns#Type") ; }
+    @Test public void simple_05() { simple("http://example.org/a/b?x=1&y=(2)#frag") ; }
+    @Test public void simple_06() { simple("http://xmlns.com/foaf/0.1/name") ; }
+    @Test public void simple_07() { simple("http://a-b.example/~user/a.b/c..d/.e") ; }
+    @Test public void simple_08() { simple("http://localhost/") ; }
+
+    @Test public void notSimple_01() { notSimple("ftp://example.org/") ; }
+    @Test public void notSimple_02() { notSimple("http://Example.org/") ; }
+    @Test public void notSimple_03() { notSimple("http://example.org:8080/") ; }
+    @Test public void notSimple_04() { notSimple("http://user@example.org/") ; }
+    @Test public void notSimple_05() { notSimple("http://example.org/a%20b") ; }
+    @Test public void notSimple_06() { notSimple("http://example.org/a/../b") ; }
+    @Test public void notSimple_07() { notSimple("http://example.org/a/./b") ; }
+    @Test public void notSimple_08() { notSimple("http://example.org/a/..") ; }
+    @Test public void notSimple_09() { notSimple("http://example.org//a") ; }
+    @Test public void notSimple_10() { notSimple("http://ex_ample.org/") ; }
+    @Test public void notSimple_11() { notSimple("http://-example.org/") ; }
+    @Test public void notSimple_12() { notSimple("http://example-.org/") ; }
+    @Test public void notSimple_13() { notSimple("http://example..org/") ; }
+    @Test public void notSimple_14() { notSimple("http://127.0.0.1/") ; }
+    @Test public void notSimple_15() { notSimple("http:///a") ; }
+    @Test public void notSimple_16() { notSimple("http://example.org/a b") ; }
+    @Test public void notSimple_17() { notSimple("http://example.org/a#b#c") ; }
+    @Test public void notSimple_18() { notSimple("http://example.org/é") ; }
+    @Test public void notSimple_19() { notSimple("relative/iri") ; }
+    @Test public void notSimple_20() { notSimple("http://example.org/a/.") ; }
+
+    // Anything that passes the fast path must be passed by the full IRI checks.
+    @Test public void simple_random() {
+        Random random = new Random(1234) ;
+        String hostChars = "abcz09-." ;
+        String pathChars = "aZ09-._~!$&'()*+,;=:@/?#%" ;
+        int count = 0 ;
+        for ( int i = 0 ; i < 20000 ; i++ ) {
+            StringBuilder sb = new StringBuilder(random.nextBoolean() ? "http://" : "https://") ;
+            sb.append('e') ;
+            int n = random.nextInt(8) ;
+            for ( int j = 0 ; j < n ; j++ )
+                sb.append(hostChars.charAt(random.nextInt(hostChars.length()))) ;
+            sb.append('/') ;
+            n = random.nextInt(12) ;
+            for ( int j = 0 ; j < n ; j++ )
+                sb.append(pathChars.charAt(random.nextInt(pathChars.length()))) ;
+            String s = sb.toString() ;
+            if ( IRIResolver.isSimpleHttpIRI(s) ) {
+                count++ ;
+                checkFull(s) ;
+            }
+        }
+        assertTrue(count > 1000) ;
+    }
+
+    @Test public void resolve_01() {
+        IRIResolver r1 = IRIResolver.create("http://example/base/") ;
+        IRIResolver r2 = IRIResolver.create("http://example/base/") ;
+        IRI iri1 = r1.resolve("x") ;
+        assertEquals("http://example/base/x", iri1.toString()) ;
+        // Shared between resolvers.
+        assertSame(iri1, r2.resolve("x")) ;
+        assertEquals("http://example/base/x", r1.resolveToString("x")) ;
+    }
+
+    @Test public void resolve_02() {
+        IRIResolver r1 = IRIResolver.create("http://example/base1/") ;
+        IRIResolver r2 = IRIResolver.create("http://example/base2/") ;
+        assertEquals("http://example/base1/x", r1.resolve("x").toString()) ;
+        assertEquals("http://example/base2/x", r2.resolve("x").toString()) ;
+        assertEquals("http://example/other", r2.resolveToString("http://example/other")) ;
+    }
+
+    private static void simple(String iriStr) {
+        assertTrue(iriStr, IRIResolver.isSimpleHttpIRI(iriStr)) ;
+        checkFull(iriStr) ;
+    }
+
+    private static void notSimple(String iriStr) {
+        assertFalse(iriStr, IRIResolver.isSimpleHttpIRI(iriStr)) ;
+    }
+
+    private static void checkFull(String iriStr) {
+        IRI iri = IRIResolver.parseIRI(iriStr) ;
+        if ( iri.hasViolation(true) ) {
+            Iterator<Violation> iter = iri.violations(true) ;
+            fail(iriStr+" : "+iter.next().getShortMessage()) ;
+        }
+        assertEquals(iriStr, IRIResolver.resolveString(iriStr, "http://example/base/")) ;
+        assertEquals(iriStr, IRIResolver.create("http://example/base/").resolveSilent(iriStr).toString()) ;
+    }
+}
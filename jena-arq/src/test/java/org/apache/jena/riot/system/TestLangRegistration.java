@@ -49,6 +49,7 @@ public class TestLangRegistration extends BaseTest
         add("TRIG",     x, Lang.TRIG,       false, true) ;
         add("TRIX",     x, Lang.TRIX,       true, true) ;
         add("TRDF",     x, Lang.RDFTHRIFT,  true, true) ;
+        add("TRDFB",    x, Lang.RDFTHRIFT_BLOCKS, true, true) ;
         return x ;
     }
     
@@ -0,0 +1,94 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.jena.riot.system;
+
+import java.io.StringReader ;
+import java.util.ArrayList ;
+import java.util.List ;
+
+import org.apache.jena.atlas.junit.BaseTest ;
+import org.apache.jena.atlas.lib.StrUtils ;
+import org.apache.jena.graph.Node ;
+import org.apache.jena.graph.NodeInterner ;
+import org.apache.jena.graph.Triple ;
+import org.apache.jena.riot.Lang ;
+import org.apache.jena.riot.RDFDataMgr ;
+import org.apache.jena.sparql.sse.SSE ;
+import org.junit.After ;
+import org.junit.Before ;
+import org.junit.Test ;
+
+/** Interning of nodes by parsers. */
+public class TestParserNodeInterning extends BaseTest {
+    private static String data = StrUtils.strjoinNL
+        ("<http://example/s> <http://example/p> <http://example/o> .",
+         "<http://example/o> <http://example/p> \"v\" .",
+         "<http://example/s> <http://example/p> \"v\" .") ;
+
+    private NodeInterner.Scope scope ;
+
+    @Before public void before() { scope = NodeInterner.getScope() ; }
+    @After public void after()   { NodeInterner.setScope(scope) ; }
+
+    private static List<Triple> parse(Lang lang) {
+        List<Triple> triples = new ArrayList<>() ;
+        StreamRDF dest = new StreamRDFBase() {
+            @Override public void triple(Triple triple) { triples.add(triple) ; }
+        } ;
+        RDFDataMgr.parse(dest, new StringReader(data), null, lang) ;
+        return triples ;
+    }
+
+    @Test public void intern_parse_01() {
+        NodeInterner.setScope(NodeInterner.Scope.PARSE) ;
+        for ( Lang lang : new Lang[]{Lang.NTRIPLES, Lang.TURTLE} ) {
+            List<Triple> x = parse(lang) ;
+            assertEquals(3, x.size()) ;
+            assertSame(x.get(0).getSubject(), x.get(2).getSubject()) ;
+            assertSame(x.get(0).getObject(), x.get(1).getSubject()) ;
+            assertSame(x.get(0).getPredicate(), x.get(1).getPredicate()) ;
+            assertSame(x.get(1).getObject(), x.get(2).getObject()) ;
+            // Separate parses do not share nodes.
+            assertNotSame(x.get(0).getSubject(), parse(lang).get(0).getSubject()) ;
+        }
+    }
+
+    @Test public void intern_parse_02() {
+        NodeInterner.setScope(NodeInterner.Scope.NONE) ;
+        List<Triple> x = parse(Lang.NTRIPLES) ;
+        assertNotSame(x.get(0).getSubject(), x.get(2).getSubject()) ;
+        assertEquals(x.get(0).getSubject(), x.get(2).getSubject()) ;
+    }
+
+    @Test public void intern_parse_03() {
+        NodeInterner.setScope(NodeInterner.Scope.PARSE) ;
+        ParserProfileBase profile = (ParserProfileBase)RiotLib.profile(Lang.NTRIPLES, null) ;
+        NodeInterner interner = profile.getNodeInterner() ;
+        assertNotNull(interner) ;
+        Node s = SSE.parseNode("<http://example/s>") ;
+        Node p = SSE.parseNode("<http://example/p>") ;
+        Triple t1 = profile.createTriple(s, p, SSE.parseNode("1"), -1, -1) ;
+        Triple t2 = profile.createTriple(SSE.parseNode("<http://example/s>"), p, SSE.parseNode("1"), -1, -1) ;
+        assertSame(t1.getSubject(), t2.getSubject()) ;
+        assertSame(t1.getObject(), t2.getObject()) ;
+        assertEquals(3, interner.hits()) ;
+        assertEquals(3, interner.misses()) ;
+        profile.setNodeInterner(null) ;
+        assertNull(profile.getNodeInterner()) ;
+    }
+}
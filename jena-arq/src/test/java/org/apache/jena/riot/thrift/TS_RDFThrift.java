@@ -27,6 +27,7 @@ import org.junit.runners.Suite ;
     , TestThriftSetup.class
     , TestStreamRDFThrift.class
     , TestResultSetThrift.class
+    , TestThriftBlocks.class
     //, TestPatchThrift.class
     
 } )
@@ -0,0 +1,226 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.jena.riot.thrift;
+
+import java.io.ByteArrayInputStream ;
+import java.io.ByteArrayOutputStream ;
+import java.io.FileOutputStream ;
+import java.io.IOException ;
+import java.io.OutputStream ;
+import java.util.Arrays ;
+import java.util.Collections ;
+import java.util.List ;
+import java.util.zip.DataFormatException ;
+import java.util.zip.Deflater ;
+import java.util.zip.Inflater ;
+
+import org.apache.jena.atlas.junit.BaseTest ;
+import org.apache.jena.atlas.lib.FileOps ;
+import org.apache.jena.graph.Graph ;
+import org.apache.jena.graph.Node ;
+import org.apache.jena.graph.NodeFactory ;
+import org.apache.jena.graph.Triple ;
+import org.apache.jena.riot.Lang ;
+import org.apache.jena.riot.RDFDataMgr ;
+import org.apache.jena.riot.RDFFormat ;
+import org.apache.jena.riot.RIOT ;
+import org.apache.jena.riot.system.StreamRDF ;
+import org.apache.jena.riot.system.StreamRDFLib ;
+import org.apache.jena.sparql.core.DatasetGraph ;
+import org.apache.jena.sparql.core.DatasetGraphFactory ;
+import org.apache.jena.sparql.graph.GraphFactory ;
+import org.apache.jena.sparql.util.IsoMatcher ;
+import org.junit.BeforeClass ;
+import org.junit.Test ;
+
+public class TestThriftBlocks extends BaseTest {
+
+    private static final String DIR = "target/thrift-blocks-testing" ;
+    
+    @BeforeClass public static void beforeClassInit() {
+        RIOT.init() ;
+        FileOps.ensureDir(DIR) ;
+    }
+    
+    static Node p = NodeFactory.createURI("http://example/p") ;
+    
+    /** A graph of n triples, with some repeated terms. */
+    static Graph graph(int n) {
+        Graph graph = GraphFactory.createGraphMem() ;
+        for ( int i = 0 ; i < n ; i++ ) {
+            Node s = NodeFactory.createURI("http://example/s"+(i/10)) ;
+            Node o = ( i%3 == 0 ) ? NodeFactory.createAnon() : NodeFactory.createLiteral(Integer.toString(i)) ;
+            graph.add(Triple.create(s, p, o)) ;
+        }
+        return graph ;
+    }
+    
+    static byte[] write(Graph graph, int blockSize) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream() ;
+        write(out, graph, blockSize) ;
+        return out.toByteArray() ;
+    }
+
+    static void write(OutputStream out, Graph graph, int blockSize) {
+        StreamRDF stream = new StreamRDF2ThriftBlocks(out, false, blockSize) ;
+        stream.start() ;
+        stream.prefix("ex", "http://example/") ;
+        graph.find(null, null, null).forEachRemaining(stream::triple) ;
+        stream.finish() ;
+    }
+    
+    static Graph read(byte[] bytes) {
+        Graph g = GraphFactory.createGraphMem() ;
+        ThriftBlocks.inputStreamToStream(new ByteArrayInputStream(bytes), StreamRDFLib.graph(g)) ;
+        return g ;
+    }
+    
+    @Test public void blocks_01() {
+        // Empty
+        Graph g1 = graph(0) ;
+        Graph g2 = read(write(g1, 10)) ;
+        assertTrue(g2.isEmpty()) ;
+        assertEquals("http://example/", g2.getPrefixMapping().getNsPrefixURI("ex")) ;
+    }
+
+    @Test public void blocks_02() {
+        // One block
+        Graph g1 = graph(50) ;
+        Graph g2 = read(write(g1, 100)) ;
+        sameTerms(g1, g2) ;
+    }
+
+    @Test public void blocks_03() {
+        // Many blocks, last block is partial.
+        Graph g1 = graph(1005) ;
+        Graph g2 = read(write(g1, 10)) ;
+        sameTerms(g1, g2) ;
+    }
+
+    @Test public void blocks_04() {
+        // Exact number of blocks.
+        Graph g1 = graph(100) ;
+        Graph g2 = read(write(g1, 10)) ;
+        sameTerms(g1, g2) ;
+    }
+
+    @Test public void blocks_05() {
+        // Datasets, by RDFFormat.
+        DatasetGraph dsg1 = TestStreamRDFThrift.datasetGraph ;
+        ByteArrayOutputStream out = new ByteArrayOutputStream() ;
+        RDFDataMgr.write(out, dsg1, RDFFormat.RDF_THRIFT_BLOCKS) ;
+        DatasetGraph dsg2 = DatasetGraphFactory.createMem() ;
+        RDFDataMgr.read(dsg2, new ByteArrayInputStream(out.toByteArray()), Lang.RDFTHRIFT_BLOCKS) ;
+        assertTrue(IsoMatcher.isomorphic(dsg1, dsg2)) ;
+    }
+
+    @Test public void blocks_06() {
+        // Values
+        Graph g1 = TestStreamRDFThrift.graph ;
+        ByteArrayOutputStream out = new ByteArrayOutputStream() ;
+        RDFDataMgr.write(out, g1, RDFFormat.RDF_THRIFT_BLOCKS_VALUES) ;
+        Graph g2 = read(out.toByteArray()) ;
+        assertTrue(IsoMatcher.isomorphic(g1, g2)) ;
+    }
+
+    @Test public void blocks_index_01() throws IOException {
+        String fn = DIR+"/blocks-index.trdfb" ;
+        Graph g1 = graph(95) ;
+        try ( OutputStream out = new FileOutputStream(fn) ) {
+            write(out, g1, 10) ;
+        }
+        List<ThriftBlocks.BlockEntry> index = ThriftBlocks.readIndex(fn) ;
+        assertEquals(10, index.size()) ;
+        assertEquals(5, index.get(9).rowCount) ;
+        
+        // From the start
+        Graph g2 = GraphFactory.createGraphMem() ;
+        ThriftBlocks.fileToStream(fn, index.get(0), StreamRDFLib.graph(g2)) ;
+        sameTerms(g1, g2) ;
+        
+        // Seek to the last block.
+        Graph g3 = GraphFactory.createGraphMem() ;
+        ThriftBlocks.fileToStream(fn, index.get(9), StreamRDFLib.graph(g3)) ;
+        assertEquals(5, g3.size()) ;
+        g3.find(null, null, null).forEachRemaining(t->assertTrue(g1.contains(t))) ;
+        FileOps.delete(fn) ;
+    }
+
+    @Test(expected=RiotThriftException.class)
+    public void blocks_bad_01() {
+        read(new byte[]{ 1, 2, 3 }) ;
+    }
+
+    @Test(expected=RiotThriftException.class)
+    public void blocks_bad_02() {
+        // Truncated.
+        byte[] bytes = write(graph(100), 10) ;
+        read(Arrays.copyOf(bytes, bytes.length/2)) ;
+    }
+
+    // Block lengths are at MAGIC.length+1 (raw), +5 (rows) and +9 (compressed).
+    @Test(expected=RiotThriftException.class)
+    public void blocks_bad_03() {
+        // Negative length.
+        byte[] bytes = write(graph(100), 10) ;
+        bytes[ThriftBlocks.MAGIC.length+1] = (byte)0x80 ;
+        read(bytes) ;
+    }
+
+    @Test(expected=RiotThriftException.class)
+    public void blocks_bad_04() {
+        // Huge compressed length.
+        byte[] bytes = write(graph(100), 10) ;
+        bytes[ThriftBlocks.MAGIC.length+9] = (byte)0x7F ;
+        read(bytes) ;
+    }
+
+    @Test(expected=RiotThriftException.class)
+    public void blocks_bad_05() {
+        // Row count larger than the block can hold.
+        byte[] bytes = write(graph(100), 10) ;
+        bytes[ThriftBlocks.MAGIC.length+5] = (byte)0x10 ;
+        read(bytes) ;
+    }
+
+    @Test(expected=RiotThriftException.class)
+    public void blocks_bad_06() throws DataFormatException {
+        // Object term reference outside the term table of the block.
+        Triple t = Triple.create(NodeFactory.createURI("http://example/s"), p, NodeFactory.createLiteral("o")) ;
+        ThriftBlocks.EncodedBlock block = ThriftBlocks.encodeBlock(Collections.emptyList(), Collections.singletonList(t), false) ;
+        byte[] raw = new byte[block.rawLength] ;
+        Inflater inflater = new Inflater() ;
+        inflater.setInput(block.bytes, 0, block.length) ;
+        inflater.inflate(raw) ;
+        inflater.end() ;
+        raw[raw.length-1] = 100 ;
+        Deflater deflater = new Deflater() ;
+        deflater.setInput(raw) ;
+        deflater.finish() ;
+        byte[] bytes = new byte[raw.length+64] ;
+        int length = deflater.deflate(bytes) ;
+        deflater.end() ;
+        ThriftBlocks.decodeBlock(Arrays.copyOf(bytes, length), raw.length, 1) ;
+    }
+
+    static void sameTerms(Graph g1, Graph g2) {
+        assertEquals(g1.size(), g2.size()) ;
+        g1.find(null, null, null).forEachRemaining(t->assertTrue(g2.contains(t))) ;
+    }
+}
@@ -0,0 +1,74 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.jena.riot.web;
+
+import java.io.ByteArrayInputStream ;
+import java.io.ByteArrayOutputStream ;
+import java.util.zip.GZIPInputStream ;
+
+import org.apache.http.client.HttpClient ;
+import org.apache.http.entity.StringEntity ;
+import org.apache.jena.atlas.io.IO ;
+import org.apache.jena.atlas.junit.BaseTest ;
+import org.junit.AfterClass ;
+import org.junit.Test ;
+
+public class TestHttpConnectionPool extends BaseTest
+{
+    @AfterClass public static void afterClass() {
+        HttpConnectionPool.shutdown() ;
+    }
+
+    @Test public void pool_01() {
+        HttpClient client1 = HttpConnectionPool.createHttpClient() ;
+        HttpClient client2 = HttpConnectionPool.createHttpClient(false) ;
+        assertNotSame(client1, client2) ;
+        assertSame(HttpConnectionPool.get(), client1.getConnectionManager()) ;
+        assertSame(HttpConnectionPool.get(), client2.getConnectionManager()) ;
+        assertEquals(0, HttpConnectionPool.getStats().getLeased()) ;
+    }
+
+    @Test public void pool_02() {
+        int max = HttpConnectionPool.getMaxPerRoute() ;
+        try {
+            HttpConnectionPool.setMaxPerRoute(3) ;
+            assertEquals(3, HttpConnectionPool.get().getDefaultMaxPerRoute()) ;
+        } finally { HttpConnectionPool.setMaxPerRoute(max) ; }
+        assertEquals(max, HttpConnectionPool.get().getDefaultMaxPerRoute()) ;
+    }
+
+    @Test public void pool_03() {
+        HttpConnectionPool.get() ;
+        HttpConnectionPool.shutdown() ;
+        HttpConnectionPool.shutdown() ;
+        assertNotNull(HttpConnectionPool.get()) ;
+        assertEquals(HttpConnectionPool.getMaxTotal(), HttpConnectionPool.getStats().getMax()) ;
+    }
+
+    @Test public void compress_01() throws Exception {
+        String x = "Hello World Hello World Hello World" ;
+        StringEntity entity = new StringEntity(x, "UTF-8") ;
+        HttpConnectionPool.GzipCompressingEntity gz = new HttpConnectionPool.GzipCompressingEntity(entity) ;
+        assertEquals("gzip", gz.getContentEncoding().getValue()) ;
+        assertEquals(-1, gz.getContentLength()) ;
+        ByteArrayOutputStream out = new ByteArrayOutputStream() ;
+        gz.writeTo(out) ;
+        GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(out.toByteArray())) ;
+        assertEquals(x, IO.readWholeFileAsUTF8(in)) ;
+    }
+}
@@ -34,6 +34,7 @@ import org.junit.runners.Suite.SuiteClasses ;
     , TestRDFJSON.class
     , TestTurtleWriter.class
     , TestTriXWriter.class
+    , TestNTriplesWriterCanonical.class
 })
 
 public class TS_RiotWriter
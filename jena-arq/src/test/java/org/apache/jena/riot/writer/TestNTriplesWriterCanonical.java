@@ -0,0 +1,96 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.jena.riot.writer;
+
+import java.io.ByteArrayOutputStream ;
+import java.io.StringReader ;
+import java.util.Arrays ;
+import java.util.List ;
+
+import org.apache.jena.atlas.junit.BaseTest ;
+import org.apache.jena.atlas.lib.StrUtils ;
+import org.apache.jena.graph.Graph ;
+import org.apache.jena.riot.Lang ;
+import org.apache.jena.riot.RDFDataMgr ;
+import org.apache.jena.riot.RDFFormat ;
+import org.apache.jena.sparql.graph.GraphFactory ;
+import org.junit.Test ;
+
+public class TestNTriplesWriterCanonical extends BaseTest
+{
+    private static Graph parse(String ttl)
+    {
+        Graph g = GraphFactory.createDefaultGraph() ;
+        RDFDataMgr.read(g, new StringReader("PREFIX : <http://example/> "+ttl), null, Lang.TURTLE) ;
+        return g ;
+    }
+
+    private static String write(Graph g)
+    {
+        ByteArrayOutputStream out = new ByteArrayOutputStream() ;
+        RDFDataMgr.write(out, g, RDFFormat.NTRIPLES_CANONICAL) ;
+        return StrUtils.fromUTF8bytes(out.toByteArray()) ;
+    }
+
+    @Test public void canonical_01()
+    {
+        Graph g = parse(":s :p _:a . _:a :q \"x\" . :s :r 1 .") ;
+        List<String> x = NTriplesWriterCanonical.lines(g) ;
+        assertEquals(Arrays.asList("<http://example/s> <http://example/p> _:c14n0 .",
+                                   "<http://example/s> <http://example/r> \"1\"^^<http://www.w3.org/2001/XMLSchema#integer> .",
+                                   "_:c14n0 <http://example/q> \"x\" ."), x) ;
+        assertEquals(StrUtils.strjoin("\n", x)+"\n", write(g)) ;
+    }
+
+    @Test public void canonical_02()
+    {
+        // The same graph, written with other labels and in another order.
+        String ttl1 = ":s :p _:a . _:a :next _:b . _:b :next _:c . _:c :next _:a . _:b :q \"b\" ." ;
+        String ttl2 = "_:z :next _:x . :s :p _:y . _:x :next _:y . _:y :next _:z . _:z :q \"b\" ." ;
+        assertEquals(write(parse(ttl1)), write(parse(ttl2))) ;
+        String ttl3 = "_:z :next _:x . :s :p _:y . _:x :next _:y . _:y :next _:z . _:x :q \"b\" ." ;
+        assertNotEquals(write(parse(ttl1)), write(parse(ttl3))) ;
+    }
+
+    @Test public void canonical_03()
+    {
+        // Symmetric blank nodes.
+        String ttl1 = "_:a :p _:b . _:b :p _:a . _:c :p _:d . _:d :p _:c . _:e :q _:e ." ;
+        String ttl2 = "_:e :p _:d . _:d :p _:e . _:x :q _:x . _:b :p _:a . _:a :p _:b ." ;
+        assertEquals(write(parse(ttl1)), write(parse(ttl2))) ;
+        Graph g = parse(write(parse(ttl1))) ;
+        assertTrue(g.isIsomorphicWith(parse(ttl2))) ;
+    }
+
+    @Test public void canonical_04()
+    {
+        NTriplesWriterCanonical.parallelThreshold = 1 ;
+        try {
+            StringBuilder sb1 = new StringBuilder() ;
+            StringBuilder sb2 = new StringBuilder() ;
+            for ( int i = 0 ; i < 200 ; i++ ) {
+                sb1.append(String.format("_:a%d :p _:a%d . _:a%d :v %d . ", i, (i * 7) % 200, i, i % 13)) ;
+                sb2.append(String.format("_:b%d :v %d . _:b%d :p _:b%d . ", 199 - i, (199 - i) % 13, 199 - i, ((199 - i) * 7) % 200)) ;
+            }
+            assertEquals(write(parse(sb1.toString())), write(parse(sb2.toString()))) ;
+        } finally {
+            NTriplesWriterCanonical.parallelThreshold = 10000 ;
+        }
+    }
+}
@@ -51,6 +51,8 @@ public class TestRiotWriterDataset extends AbstractWriterTest
             , { RDFFormat.NQUADS_ASCII}
             , { RDFFormat.RDF_THRIFT }
             , { RDFFormat.RDF_THRIFT_VALUES }
+            , { RDFFormat.RDF_THRIFT_BLOCKS }
+            , { RDFFormat.RDF_THRIFT_BLOCKS_VALUES }
             , { RDFFormat.TRIX }
         }) ; 
     }
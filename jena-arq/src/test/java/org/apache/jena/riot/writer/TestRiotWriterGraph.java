@@ -42,6 +42,7 @@ public class TestRiotWriterGraph extends AbstractWriterTest
             , { RDFFormat.NTRIPLES_UTF8 }
             , { RDFFormat.NTRIPLES_ASCII }
             , { RDFFormat.NTRIPLES }
+            , { RDFFormat.NTRIPLES_CANONICAL }
             , { RDFFormat.TURTLE }
             , { RDFFormat.TURTLE_PRETTY }
             , { RDFFormat.TURTLE_BLOCKS }
@@ -65,6 +66,8 @@ public class TestRiotWriterGraph extends AbstractWriterTest
             
             , { RDFFormat.RDF_THRIFT }
             , { RDFFormat.RDF_THRIFT_VALUES }
+            , { RDFFormat.RDF_THRIFT_BLOCKS }
+            , { RDFFormat.RDF_THRIFT_BLOCKS_VALUES }
             , { RDFFormat.TRIX }
         }) ; 
     }
@@ -51,6 +51,7 @@ public class TestWriterRegistration extends BaseTest
     @Test public void registration_26a() { testregistration(RDFFormat.NQUADS_UTF8) ; }
     @Test public void registration_25b() { testregistration(RDFFormat.NTRIPLES_ASCII) ; }
     @Test public void registration_26b() { testregistration(RDFFormat.NQUADS_ASCII) ; }
+    @Test public void registration_25c() { testregistration(RDFFormat.NTRIPLES_CANONICAL) ; }
 
     @Test public void registration_27() { testregistration(RDFFormat.TRIG_PRETTY) ; }
     @Test public void registration_28() { testregistration(RDFFormat.TRIG) ; }
@@ -18,7 +18,8 @@
 
 package org.apache.jena.sparql.core;
 
-import java.util.Iterator ;
+import java.util.* ;
+import java.util.stream.Collectors ;
 
 import org.apache.jena.atlas.iterator.Iter ;
 import org.apache.jena.atlas.junit.BaseTest ;
@@ -105,6 +106,46 @@ public abstract class AbstractTestGraphOverDataset extends BaseTest
         assertEquals(2, g.size()) ;
     }
 
+    @Test public void graphDSG_forEach_1()
+    {
+        Graph g = makeNamedGraph(baseDSG, gn1) ;
+        List<Triple> x = new ArrayList<>() ;
+        g.forEach(null, null, null, x::add) ;
+        assertEquals(Arrays.asList(SSE.parseTriple("(<s> <p> 1)")), x) ;
+    }
+
+    @Test public void graphDSG_forEach_union_1()
+    {
+        Graph g = makeNamedGraph(baseDSG, Quad.unionGraph) ;
+        List<Triple> x = new ArrayList<>() ;
+        g.forEach(null, null, null, x::add) ;
+        // <s> <p> 2 is in two graphs.
+        assertEquals(2, x.size()) ;
+        assertEquals(g.find(null, null, null).toSet(), new HashSet<>(x)) ;
+    }
+
+    @Test public void graphDSG_stream_1()
+    {
+        Graph g = makeDefaultGraph(baseDSG) ;
+        Set<Triple> x = g.stream(null, null, null).collect(Collectors.toSet()) ;
+        assertEquals(g.find(null, null, null).toSet(), x) ;
+        x = makeNamedGraph(baseDSG, Quad.unionGraph).stream(null, null, null).parallel().collect(Collectors.toSet()) ;
+        assertEquals(2, x.size()) ;
+    }
+
+    @Test public void graphDSG_addAll_1()
+    {
+        Graph g = makeNamedGraph(baseDSG, gn3) ;
+        List<Triple> triples = Arrays.asList(SSE.parseTriple("(<s> <p> 9)"), SSE.parseTriple("(<s> <p> 10)")) ;
+        g.addAll(triples) ;
+        assertTrue(baseDSG.contains(SSE.parseQuad("(<g3> <s> <p> 9)"))) ;
+        assertTrue(baseDSG.contains(SSE.parseQuad("(<g3> <s> <p> 10)"))) ;
+        assertEquals(3, g.size()) ;
+        g.deleteAll(triples) ;
+        assertFalse(baseDSG.contains(SSE.parseQuad("(<g3> <s> <p> 9)"))) ;
+        assertEquals(1, g.size()) ;
+    }
+
     // ---- contains
     
     @Test public void graphDSG_contains_1()
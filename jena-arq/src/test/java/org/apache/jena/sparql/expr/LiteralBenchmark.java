@@ -0,0 +1,138 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.jena.sparql.expr;
+
+import java.io.ByteArrayInputStream ;
+import java.nio.charset.StandardCharsets ;
+
+import org.apache.jena.graph.Graph ;
+import org.apache.jena.graph.Triple ;
+import org.apache.jena.query.* ;
+import org.apache.jena.rdf.model.Model ;
+import org.apache.jena.rdf.model.ModelFactory ;
+import org.apache.jena.riot.Lang ;
+import org.apache.jena.riot.RDFDataMgr ;
+import org.apache.jena.riot.system.StreamRDFBase ;
+import org.apache.jena.shared.impl.JenaParameters ;
+
+/**
+ * Timing harness for typed literals. Parses N-Triples with many typed
+ * literals, without using their values, and runs FILTERs which compare the
+ * values, with the values of literals computed lazily and eagerly.
+ * This is a measurement tool rather than a test.
+ * <pre>
+ *   LiteralBenchmark [triples] [repeats]
+ * </pre>
+ */
+public class LiteralBenchmark {
+
+    static final String NS = "http://example/" ;
+
+    static final String[] queries = {
+        "SELECT (count(*) AS ?c) { ?s <"+NS+"int> ?o FILTER(?o > 5000) }",
+        "SELECT (count(*) AS ?c) { ?s <"+NS+"decimal> ?o FILTER(?o < 100.5) }",
+        "SELECT (count(*) AS ?c) { ?s <"+NS+"double> ?o FILTER(?o >= 1.0e3) }",
+        "SELECT (count(*) AS ?c) { ?s <"+NS+"dateTime> ?o FILTER(?o > '2010-06-01T00:00:00Z'^^<http://www.w3.org/2001/XMLSchema#dateTime>) }",
+    } ;
+
+    public static void main(String[] args) {
+        int triples = args.length > 0 ? Integer.parseInt(args[0]) : 200000 ;
+        int repeats = args.length > 1 ? Integer.parseInt(args[1]) : 5 ;
+        byte[] data = createData(triples) ;
+        boolean lazy = JenaParameters.enableLazyLiteralValues ;
+        try {
+            for ( boolean b : new boolean[] {false, true} ) {
+                JenaParameters.enableLazyLiteralValues = b ;
+                timeParse(b, data, repeats) ;
+                timeFilters(b, data, repeats) ;
+            }
+        } finally {
+            JenaParameters.enableLazyLiteralValues = lazy ;
+        }
+    }
+
+    /** Time parsing to a sink which looks only at the lexical forms, best of the repeats */
+    static void timeParse(boolean lazy, byte[] data, int repeats) {
+        long best = Long.MAX_VALUE ;
+        long count = 0 ;
+        for ( int i = 0 ; i < repeats ; i++ ) {
+            long[] length = {0} ;
+            long t1 = System.nanoTime() ;
+            RDFDataMgr.parse(new StreamRDFBase() {
+                @Override
+                public void triple(Triple triple) {
+                    length[0] += triple.getObject().getLiteralLexicalForm().length() ;
+                }
+            }, new ByteArrayInputStream(data), Lang.NTRIPLES) ;
+            long t2 = System.nanoTime() ;
+            best = Math.min(best, t2 - t1) ;
+            count = length[0] ;
+        }
+        System.out.printf("parse    lazy=%-5s %8.1fms  (%d chars)\n", lazy, best / 1e6, count) ;
+    }
+
+    /** Time loading into a memory graph and then the FILTER queries, best of the repeats */
+    static void timeFilters(boolean lazy, byte[] data, int repeats) {
+        long bestLoad = Long.MAX_VALUE ;
+        long bestQuery = Long.MAX_VALUE ;
+        long total = 0 ;
+        for ( int i = 0 ; i < repeats ; i++ ) {
+            long t1 = System.nanoTime() ;
+            Model model = ModelFactory.createDefaultModel() ;
+            Graph graph = model.getGraph() ;
+            RDFDataMgr.read(graph, new ByteArrayInputStream(data), Lang.NTRIPLES) ;
+            long t2 = System.nanoTime() ;
+            total = 0 ;
+            for ( String qs : queries ) {
+                try ( QueryExecution qExec = QueryExecutionFactory.create(qs, model) ) {
+                    total += qExec.execSelect().next().getLiteral("c").getLong() ;
+                }
+            }
+            long t3 = System.nanoTime() ;
+            bestLoad = Math.min(bestLoad, t2 - t1) ;
+            bestQuery = Math.min(bestQuery, t3 - t2) ;
+        }
+        System.out.printf("load     lazy=%-5s %8.1fms\n", lazy, bestLoad / 1e6) ;
+        System.out.printf("filters  lazy=%-5s %8.1fms  (%d matches)\n", lazy, bestQuery / 1e6, total) ;
+    }
+
+    /** N-Triples with integer, decimal, double and dateTime objects */
+    static byte[] createData(int triples) {
+        StringBuilder sb = new StringBuilder() ;
+        String xsd = "http://www.w3.org/2001/XMLSchema#" ;
+        for ( int i = 0 ; i < triples ; i++ ) {
+            String s = "<"+NS+"s"+(i / 4)+">" ;
+            switch (i % 4) {
+                case 0 :
+                    sb.append(s).append(" <"+NS+"int> \"").append(i % 10000).append("\"^^<"+xsd+"int> .\n") ;
+                    break ;
+                case 1 :
+                    sb.append(s).append(" <"+NS+"decimal> \"").append(i % 1000).append('.').append(i % 7).append("\"^^<"+xsd+"decimal> .\n") ;
+                    break ;
+                case 2 :
+                    sb.append(s).append(" <"+NS+"double> \"").append(i % 2000).append(".5e0\"^^<"+xsd+"double> .\n") ;
+                    break ;
+                default :
+                    sb.append(s).append(" <"+NS+"dateTime> \"").append(2000 + i % 20).append(String.format("-%02d-%02dT%02d:%02d:00Z", 1 + i % 12, 1 + i % 28, i % 24, i % 60))
+                      .append("\"^^<"+xsd+"dateTime> .\n") ;
+            }
+        }
+        return sb.toString().getBytes(StandardCharsets.UTF_8) ;
+    }
+}
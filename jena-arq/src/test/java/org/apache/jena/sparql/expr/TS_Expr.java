@@ -43,6 +43,7 @@ import org.junit.runners.Suite.SuiteClasses ;
     , TestExprLib.class
     , TestExprTransform.class
     , TestCustomAggregates.class
+    , TestExprCompiler.class
 })
 
 public class TS_Expr
@@ -0,0 +1,144 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.jena.sparql.expr;
+
+import org.apache.jena.atlas.junit.BaseTest ;
+import org.apache.jena.graph.Node ;
+import org.apache.jena.query.ARQ ;
+import org.apache.jena.query.Dataset ;
+import org.apache.jena.query.DatasetFactory ;
+import org.apache.jena.query.QueryExecution ;
+import org.apache.jena.query.QueryExecutionFactory ;
+import org.apache.jena.query.ResultSetFactory ;
+import org.apache.jena.query.ResultSetRewindable ;
+import org.apache.jena.sparql.core.Var ;
+import org.apache.jena.sparql.engine.binding.Binding ;
+import org.apache.jena.sparql.engine.binding.BindingFactory ;
+import org.apache.jena.sparql.expr.compile.CompiledCondition ;
+import org.apache.jena.sparql.expr.compile.CompiledExpr ;
+import org.apache.jena.sparql.expr.compile.ExprCompiler ;
+import org.apache.jena.sparql.function.FunctionEnvBase ;
+import org.apache.jena.sparql.resultset.ResultSetCompare ;
+import org.apache.jena.sparql.sse.SSE ;
+import org.apache.jena.sparql.util.ExprUtils ;
+import org.apache.jena.util.FileUtils ;
+import org.junit.Test ;
+
+/** Compiled expressions give the same answers as interpreted expressions. */
+public class TestExprCompiler extends BaseTest
+{
+    // Values for ?x (null is unbound), covering the fast paths and the fallbacks.
+    private static String[] values = {
+        null, "30", "31", "-5", "'30'^^xsd:int", "'300'^^xsd:byte", "'abc'^^xsd:integer",
+        "99999999999999999999999", "30.0", "'30.5e0'^^xsd:double", "'NaN'^^xsd:double", "'1.5'^^xsd:float",
+        "'abc'", "'ABC'", "'abc'@en", "'abc'^^xsd:string", "'abc'^^<http://example/dt>",
+        "<http://example/abc>", "<http://example/x>", "_:b", "true", "'2015-01-01'^^xsd:date"
+    } ;
+
+    @Test public void compile_cmp_01()      { test("?x = 30") ; }
+    @Test public void compile_cmp_02()      { test("?x != 30") ; }
+    @Test public void compile_cmp_03()      { test("?x < 30") ; }
+    @Test public void compile_cmp_04()      { test("?x <= 30") ; }
+    @Test public void compile_cmp_05()      { test("?x > 30") ; }
+    @Test public void compile_cmp_06()      { test("?x >= 30") ; }
+    @Test public void compile_cmp_07()      { test("30 < ?x") ; }
+    @Test public void compile_cmp_08()      { test("30 >= ?x") ; }
+    @Test public void compile_cmp_09()      { test("?x > 30.5e0") ; }
+    @Test public void compile_cmp_10()      { test("?x = 30.0e0") ; }
+    @Test public void compile_cmp_11()      { test("?x > 30.0") ; }
+    @Test public void compile_cmp_12()      { test("?x < 99999999999999999999999") ; }
+    @Test public void compile_cmp_13()      { test("?x = 'abc'") ; }
+    @Test public void compile_cmp_14()      { test("?x != 'abc'") ; }
+    @Test public void compile_cmp_15()      { test("?x < 'abd'") ; }
+    @Test public void compile_cmp_16()      { test("?x = 'abc'@en") ; }
+    @Test public void compile_cmp_17()      { test("?x = <http://example/abc>") ; }
+    @Test public void compile_cmp_18()      { test("?x != <http://example/abc>") ; }
+    @Test public void compile_cmp_19()      { test("?x > (10+20)") ; }
+    @Test public void compile_cmp_20()      { test("?x = ?x") ; }
+
+    @Test public void compile_regex_01()    { test("regex(?x, '^a')") ; }
+    @Test public void compile_regex_02()    { test("regex(?x, '^a', 'i')") ; }
+    @Test public void compile_regex_03()    { test("regex(str(?x), 'abc')") ; }
+    @Test public void compile_regex_04()    { test("regex(str(?x), '^http:')") ; }
+
+    @Test public void compile_logic_01()    { test("?x > 30 && ?x < 40") ; }
+    @Test public void compile_logic_02()    { test("?x > 30 || ?x = 'abc'") ; }
+    @Test public void compile_logic_03()    { test("! ( ?x > 30 )") ; }
+    @Test public void compile_logic_04()    { test("bound(?x)") ; }
+    @Test public void compile_logic_05()    { test("! bound(?x) || ?x = 30") ; }
+    @Test public void compile_logic_06()    { test("?x < 0 || ?z") ; }
+    @Test public void compile_logic_07()    { test("?z && ?x < 0") ; }
+    @Test public void compile_logic_08()    { test("true && ?x") ; }
+
+    @Test public void compile_value_01()    { test("?x + 1") ; }
+    @Test public void compile_value_02()    { test("?x * (2+3)") ; }
+    @Test public void compile_value_03()    { test("str(?x)") ; }
+    @Test public void compile_value_04()    { test("coalesce(?z, ?x)") ; }
+    @Test public void compile_value_05()    { test("if(?x > 30, 'big', 'small')") ; }
+    @Test public void compile_value_06()    { test("1/0") ; }
+    @Test public void compile_value_07()    { test("?x") ; }
+
+    @Test public void compile_query_01() {
+        testQuery("SELECT * { ?s ?p ?o FILTER(?o > 1 && regex(str(?p), 'p$')) }") ;
+    }
+
+    @Test public void compile_query_02() {
+        testQuery("SELECT * { ?s ?p ?o BIND(?o * 2 AS ?z) FILTER(?z >= 4) }") ;
+    }
+
+    private static void test(String exprString) {
+        Expr expr = ExprUtils.parse(exprString) ;
+        CompiledCondition condition = ExprCompiler.compileCondition(expr) ;
+        CompiledExpr compiled = ExprCompiler.compile(expr) ;
+        Var x = Var.alloc("x") ;
+        for ( String v : values ) {
+            Binding binding = ( v == null ) ? BindingFactory.binding() : BindingFactory.binding(x, SSE.parseNode(v)) ;
+            String label = exprString+" :: "+v ;
+            boolean b1 = expr.isSatisfied(binding, new FunctionEnvBase()) ;
+            boolean b2 = condition.isSatisfied(binding, new FunctionEnvBase()) ;
+            assertEquals(label, b1, b2) ;
+            assertEquals(label, eval(expr::eval, binding), eval(compiled, binding)) ;
+        }
+    }
+
+    /** Evaluate, returning the node or null for an error. */
+    private static Node eval(CompiledExpr expr, Binding binding) {
+        try {
+            return expr.eval(binding, new FunctionEnvBase()).asNode() ;
+        } catch (ExprEvalException ex) { return null ; }
+    }
+
+    private static String data = "PREFIX : <http://example/> :s :p 1 ; :p 2 ; :q 3 ; :p 'abc' ; :p :o ." ;
+
+    private static void testQuery(String queryString) {
+        Dataset ds = DatasetFactory.createMem() ;
+        ds.getDefaultModel().read(new java.io.StringReader(data), null, FileUtils.langTurtle) ;
+        ResultSetRewindable rs1 = exec(queryString, ds, false) ;
+        ResultSetRewindable rs2 = exec(queryString, ds, true) ;
+        assertTrue(ResultSetCompare.equalsByTerm(rs1, rs2)) ;
+        assertTrue(rs1.size() > 0) ;
+    }
+
+    private static ResultSetRewindable exec(String queryString, Dataset ds, boolean compile) {
+        try ( QueryExecution qExec = QueryExecutionFactory.create(queryString, ds) ) {
+            qExec.getContext().set(ARQ.optExprCompile, compile) ;
+            return ResultSetFactory.makeRewindable(qExec.execSelect()) ;
+        }
+    }
+}
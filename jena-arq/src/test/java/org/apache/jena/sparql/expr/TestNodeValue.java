@@ -65,6 +65,20 @@ public class TestNodeValue extends BaseTest
         assertTrue("Not same integer: "+v1+" & "+v2, v1.getInteger().equals(v2.getInteger())) ; 
     }
     
+    @Test public void testInt4()
+    {
+        // Derived integer types, from the value of the literal.
+        NodeValue v1 = NodeValue.makeNode("+007", XSDDatatype.XSDbyte) ;
+        assertTrue("Not an integer: "+v1, v1.isInteger()) ;
+        assertEquals(7, v1.getInteger().intValue()) ;
+        assertEquals("+007", v1.asNode().getLiteralLexicalForm()) ;
+        NodeValue v2 = NodeValue.makeNode("18446744073709551615", XSDDatatype.XSDunsignedLong) ;
+        assertTrue("Not an integer: "+v2, v2.isInteger()) ;
+        assertEquals("18446744073709551615", v2.getInteger().toString()) ;
+        NodeValue v3 = NodeValue.makeNode("300", XSDDatatype.XSDbyte) ;
+        assertFalse("Ill-formed byte is an integer: "+v3, v3.isInteger()) ;
+    }
+
     @Test public void testFloat1()
     {
         NodeValue v = NodeValue.makeFloat(5) ;
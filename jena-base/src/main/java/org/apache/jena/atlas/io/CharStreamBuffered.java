@@ -21,7 +21,14 @@ package org.apache.jena.atlas.io;
 import static org.apache.jena.atlas.io.IO.EOF ;
 
 import java.io.IOException ;
+import java.io.InputStream ;
 import java.io.Reader ;
+import java.nio.ByteBuffer ;
+import java.nio.CharBuffer ;
+import java.nio.charset.CharacterCodingException ;
+import java.nio.charset.CharsetDecoder ;
+import java.nio.charset.CoderResult ;
+import java.nio.charset.StandardCharsets ;
 
 /** Buffering reader without the (hidden) sync overhead in BufferedReader
  * 
@@ -53,6 +60,17 @@ public final class CharStreamBuffered extends CharStreamReader
         chars = new char[buffSize] ;
     }
 
+    /** Decode UTF-8 from an {@code InputStream} straight into the buffer,
+     * without a {@code Reader} and its locking and small internal buffer.
+     */
+    public CharStreamBuffered(InputStream in, int buffSize)
+    {
+        super() ;
+        // Room for any one character: four bytes, two chars (a surrogate pair).
+        source = new SourceUTF8(in, Math.max(buffSize, 4)) ;
+        chars = new char[Math.max(buffSize, 2)] ;
+    }
+
     // Local adapter/encapsulation
     private interface Source
     { 
@@ -78,6 +96,55 @@ public final class CharStreamBuffered extends CharStreamReader
         }
     }
     
+    static final class SourceUTF8 implements Source
+    {
+        final InputStream input ;
+        final CharsetDecoder decoder = StandardCharsets.UTF_8.newDecoder() ;
+        final ByteBuffer bytes ;
+        boolean eof = false ;
+
+        SourceUTF8(InputStream in, int buffSize)
+        {
+            input = in ;
+            bytes = ByteBuffer.allocate(buffSize) ;
+        }
+
+        @Override
+        public void close()
+        {
+            try { input.close() ; } catch (IOException ex) { IO.exception(ex) ; }
+        }
+
+        @Override
+        public int fill(char[] array)
+        {
+            try {
+                CharBuffer out = CharBuffer.wrap(array) ;
+                for (;;)
+                {
+                    // The byte buffer is in write mode between calls.
+                    bytes.flip() ;
+                    CoderResult r = decoder.decode(bytes, out, eof) ;
+                    bytes.compact() ;
+                    if ( r.isError() )
+                        r.throwException() ;
+                    if ( out.position() > 0 )
+                        return out.position() ;
+                    if ( eof )
+                        return -1 ;
+                    // Nothing, or only part of a multi-byte character, so far.
+                    int x = input.read(bytes.array(), bytes.position(), bytes.remaining()) ;
+                    if ( x < 0 )
+                        eof = true ;
+                    else
+                        bytes.position(bytes.position()+x) ;
+                }
+            }
+            catch (CharacterCodingException ex) { IO.exception(ex) ; return -1 ; }
+            catch (IOException ex) { IO.exception(ex) ; return -1 ; }
+        }
+    }
+
 //    /** Faster?? for ASCII */
 //    static final class SourceASCII implements Source
 //    {
@@ -149,6 +216,27 @@ public final class CharStreamBuffered extends CharStreamReader
             return EOF ;
     }
 
+    /** Append the characters from the buffer, up to the first one that is not an
+     * ASCII character marked in {@code accept} or is a newline, or to the end of
+     * the buffer. Returns the number of characters appended.
+     */
+    /*package*/ final int appendRun(StringBuilder sb, boolean[] accept)
+    {
+        int start = idx ;
+        int i = idx ;
+        while ( i < buffLen )
+        {
+            char ch = chars[i] ;
+            if ( ch >= accept.length || !accept[ch] || ch == '\n' )
+                break ;
+            i++ ;
+        }
+        if ( i > start )
+            sb.append(chars, start, i-start) ;
+        idx = i ;
+        return i-start ;
+    }
+
     private int fillArray()
     {
         int x = source.fill(chars) ;
@@ -40,6 +40,8 @@ public final class PeekReader extends Reader {
     // Using a Reader here seems to have zero cost or benefit but CharStream
     // allows fast String handling.
     private final CharStream source ;
+    // The source if it is buffered, for reading runs of characters in bulk.
+    private final CharStreamBuffered buffered ;
 
     private static final int PUSHBACK_SIZE = 10 ;
     static final byte        CHAR0         = (char)0 ;
@@ -77,17 +79,8 @@ public final class PeekReader extends Reader {
     public static PeekReader makeUTF8(InputStream in) {
         // This is the best route to make a PeekReader because it avoids
         // chances of wrong charset for a Reader say.
-        PeekReader pr ;
-        if ( true ) {
-            Reader r = IO.asUTF8(in) ;
-            // This adds reader-level buffering
-            pr = make(r) ;
-        } else {
-            // This is a bit slower - reason unknown.
-            InputStreamBuffered in2 = new InputStreamBuffered(in) ;
-            CharStream r = new InStreamUTF8(in2) ;
-            pr = new PeekReader(r) ;
-        }
+        // Decode the bytes directly into the PeekReader buffer.
+        PeekReader pr = new PeekReader(new CharStreamBuffered(in, CharStreamBuffered.CB_SIZE)) ;
         // Skip BOM.
         int ch = pr.peekChar() ;
         if ( ch == Chars.BOM )
@@ -121,6 +114,7 @@ public final class PeekReader extends Reader {
 
     private PeekReader(CharStream stream) {
         this.source = stream ;
+        this.buffered = (stream instanceof CharStreamBuffered) ? (CharStreamBuffered)stream : null ;
         this.pushbackChars = new char[PUSHBACK_SIZE] ;
         this.idxPushback = -1 ;
 
@@ -169,6 +163,39 @@ public final class PeekReader extends Reader {
         unreadChar(ch) ;
     }
 
+    /**
+     * Read characters while they are ASCII characters marked in {@code accept},
+     * appending them to the {@code StringBuilder}. The first character not accepted
+     * is not read. Returns the number of characters read.
+     * <p>
+     * This is the same as a loop of {@code peekChar} and {@code readChar} but
+     * copies from the input buffer in bulk where it can. {@code accept} is
+     * indexed by character, with entries for characters up to 127 at most.
+     */
+    public final int readRun(StringBuilder sb, boolean[] accept) {
+        int count = 0 ;
+        for (;;) {
+            int ch = peekChar() ;
+            if ( ch < 0 || ch >= accept.length || !accept[ch] )
+                return count ;
+            if ( buffered == null || idxPushback >= 0 || ch == '\n' ) {
+                // One character at a time.
+                readChar() ;
+                sb.append((char)ch) ;
+                count++ ;
+                continue ;
+            }
+            // The current character, then a run from the buffer, then the next
+            // character becomes the current one.
+            sb.append((char)ch) ;
+            int n = 1 + buffered.appendRun(sb, accept) ;
+            posn += n ;
+            colNum += n ;
+            count += n ;
+            advanceAndSet() ;
+        }
+    }
+
     // Reader operations
     @Override
     public final void close() throws IOException {
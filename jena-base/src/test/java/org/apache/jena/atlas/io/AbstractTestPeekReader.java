@@ -193,6 +193,68 @@ public abstract class AbstractTestPeekReader extends BaseTest
         contains(r, "320") ;
     }
 
+    static boolean[] letters = new boolean[128] ;
+    static {
+        for ( char ch = 'a' ; ch <= 'z' ; ch++ )
+            letters[ch] = true ;
+        letters['\n'] = true ;
+    }
+
+    @Test public void run1()
+    {
+        PeekReader r = make("abcde fg") ;
+        StringBuilder sb = new StringBuilder() ;
+        assertEquals(5, r.readRun(sb, letters)) ;
+        assertEquals("abcde", sb.toString()) ;
+        checkLineCol(r, INIT_LINE, INIT_COL+5) ;
+        assertEquals(5, r.getPosition()) ;
+        assertEquals(' ', r.readChar()) ;
+        contains(r, "fg") ;
+    }
+
+    @Test public void run2()
+    {
+        PeekReader r = make("abc") ;
+        StringBuilder sb = new StringBuilder() ;
+        assertEquals(3, r.readRun(sb, letters)) ;
+        assertEquals("abc", sb.toString()) ;
+        assertTrue(r.eof()) ;
+        assertEquals(0, r.readRun(sb, letters)) ;
+    }
+
+    @Test public void run3()
+    {
+        PeekReader r = make("ABC") ;
+        StringBuilder sb = new StringBuilder() ;
+        assertEquals(0, r.readRun(sb, letters)) ;
+        assertEquals("", sb.toString()) ;
+        checkLineCol(r, INIT_LINE, INIT_COL) ;
+        contains(r, "ABC") ;
+    }
+
+    @Test public void run4()
+    {
+        // Newlines update the line count.
+        PeekReader r = make("ab\ncd\nefghijk.") ;
+        StringBuilder sb = new StringBuilder() ;
+        assertEquals(13, r.readRun(sb, letters)) ;
+        assertEquals("ab\ncd\nefghijk", sb.toString()) ;
+        checkLineCol(r, INIT_LINE+2, INIT_COL+7) ;
+        contains(r, ".") ;
+    }
+
+    @Test public void run5()
+    {
+        // Pushback characters are part of the run.
+        PeekReader r = make("cde") ;
+        r.pushbackChar('b') ;
+        r.pushbackChar('a') ;
+        StringBuilder sb = new StringBuilder() ;
+        assertEquals(5, r.readRun(sb, letters)) ;
+        assertEquals("abcde", sb.toString()) ;
+        checkLineCol(r, INIT_LINE, INIT_COL+3) ;
+    }
+
     private void checkLineCol(PeekReader r, long lineNum, long colNum)
     {
         assertEquals("Line", lineNum, r.getLineNum()) ; 
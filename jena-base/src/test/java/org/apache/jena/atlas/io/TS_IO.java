@@ -32,6 +32,7 @@ import org.junit.runners.Suite ;
     // Peek readers.
     , TestPeekReaderSource.class
     , TestPeekReaderCharSequence.class
+    , TestPeekReaderUTF8.class
     , TestPeekInputStreamSource.class
 
     // Writers
@@ -0,0 +1,72 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.jena.atlas.io;
+
+import java.io.ByteArrayInputStream ;
+
+import org.apache.jena.atlas.RuntimeIOException ;
+import org.apache.jena.atlas.lib.StrUtils ;
+import org.junit.Test ;
+
+public class TestPeekReaderUTF8 extends AbstractTestPeekReader
+{
+    @Override
+    PeekReader make(String contents, int size)
+    {
+        byte[] b = StrUtils.asUTF8bytes(contents) ;
+        return PeekReader.make((CharStream)new CharStreamBuffered(new ByteArrayInputStream(b), size)) ;
+    }
+
+    @Test public void utf8_1()
+    {
+        // Two, three and four byte characters across buffer boundaries.
+        String s = "a\u00E9b\u20ACc\uD83D\uDE00d\u00E9" ;
+        for ( int size = 1 ; size < 10 ; size++ )
+        {
+            PeekReader r = make(s, size) ;
+            StringBuilder sb = new StringBuilder() ;
+            int ch ;
+            while ( (ch = r.readChar()) != -1 )
+                sb.append((char)ch) ;
+            assertEquals(s, sb.toString()) ;
+        }
+    }
+
+    @Test public void utf8_2()
+    {
+        PeekReader r = PeekReader.makeUTF8(new ByteArrayInputStream(StrUtils.asUTF8bytes("\uFEFFabc"))) ;
+        assertEquals('a', r.readChar()) ;
+    }
+
+    @Test(expected=RuntimeIOException.class)
+    public void utf8_bad_1()
+    {
+        byte[] b = { 'a', (byte)0xC3, 'b' } ;
+        PeekReader r = PeekReader.make((CharStream)new CharStreamBuffered(new ByteArrayInputStream(b), 2)) ;
+        while ( r.readChar() != -1 ) {}
+    }
+
+    @Test(expected=RuntimeIOException.class)
+    public void utf8_bad_2()
+    {
+        // Truncated at the end.
+        byte[] b = { 'a', (byte)0xE2, (byte)0x82 } ;
+        PeekReader r = PeekReader.make((CharStream)new CharStreamBuffered(new ByteArrayInputStream(b), 8)) ;
+        while ( r.readChar() != -1 ) {}
+    }
+}
@@ -18,10 +18,17 @@
 
 package org.apache.jena.graph;
 
+import java.util.Collection ;
+import java.util.Spliterator ;
+import java.util.function.Consumer ;
+import java.util.stream.Stream ;
+import java.util.stream.StreamSupport ;
+
 import org.apache.jena.graph.impl.GraphBase ;
 import org.apache.jena.shared.AddDeniedException ;
 import org.apache.jena.shared.DeleteDeniedException ;
 import org.apache.jena.shared.PrefixMapping ;
+import org.apache.jena.util.iterator.ClosableSpliterator ;
 import org.apache.jena.util.iterator.ExtendedIterator ;
 import org.apache.jena.util.iterator.NullIterator ;
 
@@ -101,6 +108,66 @@ public interface Graph
 /** Returns an iterator over Triple.
 	   */
 	ExtendedIterator<Triple> find(Node s,Node p,Node o);
+
+    /**
+        Apply <code>action</code> to every triple that matches (s, p, o). This
+        is equivalent to iterating over <code>find(s, p, o)</code> but there is no
+        iterator to close, and implementations may traverse their own storage
+        directly rather than building an iterator.
+    */
+    default void forEach( Node s, Node p, Node o, Consumer<? super Triple> action )
+        {
+        ExtendedIterator<Triple> it = find( s, p, o );
+        try { while (it.hasNext()) action.accept( it.next() ); }
+        finally { it.close(); }
+        }
+
+    /**
+        Answer a spliterator over the triples that match (s, p, o). Its estimated
+        size is taken from the statistics handler if there is one. It does not
+        report DISTINCT, since <code>find</code> on some graphs, such as unions,
+        can deliver a triple more than once. Implementations with their own
+        storage may return spliterators that split for parallel streams. The
+        underlying iterator is closed when the spliterator is exhausted.
+    */
+    default Spliterator<Triple> spliterator( Node s, Node p, Node o )
+        {
+        GraphStatisticsHandler stats = getStatisticsHandler();
+        long estimate = stats == null ? -1 : stats.getStatistic( s, p, o );
+        return new ClosableSpliterator<>( find( s, p, o ), estimate < 0 ? Long.MAX_VALUE : estimate,
+            Spliterator.NONNULL );
+        }
+
+    /**
+        Answer a sequential stream of the triples that match (s, p, o), from
+        {@link #spliterator(Node, Node, Node)}; use <code>.parallel()</code> for
+        a parallel stream. Closing the stream releases any resources held.
+    */
+    default Stream<Triple> stream( Node s, Node p, Node o )
+        {
+        Spliterator<Triple> spliterator = spliterator( s, p, o );
+        Stream<Triple> stream = StreamSupport.stream( spliterator, false );
+        if (spliterator instanceof ClosableSpliterator)
+            stream = stream.onClose( ((ClosableSpliterator<Triple>) spliterator)::close );
+        return stream;
+        }
+
+    /**
+        Add all the triples of <code>triples</code> to this graph. Implementations
+        may do this in one batch, with one event for the whole collection.
+        @throws AddDeniedException if the triples cannot be added
+    */
+    default void addAll( Collection<Triple> triples ) throws AddDeniedException
+        { for (Triple t: triples) add( t ); }
+
+    /**
+        Delete all the triples of <code>triples</code> from this graph.
+        Implementations may do this in one batch, with one event for the whole
+        collection.
+        @throws DeleteDeniedException if the triples cannot be removed
+    */
+    default void deleteAll( Collection<Triple> triples ) throws DeleteDeniedException
+        { for (Triple t: triples) delete( t ); }
     
 	/**
 	 * Compare this graph with another using the method
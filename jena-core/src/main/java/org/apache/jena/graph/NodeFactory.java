@@ -43,12 +43,12 @@ public class NodeFactory {
 
     /** make a literal node with the specified literal value */
     public static Node createLiteral(LiteralLabel lit) {
-        return Node.create(Node.makeLiteral, lit) ;
+        return NodeInterner.internGlobal(Node.create(Node.makeLiteral, lit)) ;
     }
 
     /** make a URI node with the specified URIref string */
     public static Node createURI(String uri) {
-        return Node.create(Node.makeURI, uri) ;
+        return NodeInterner.internGlobal(Node.create(Node.makeURI, uri)) ;
     }
 
     /** make a variable node with a given name */
@@ -0,0 +1,229 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.jena.graph ;
+
+import java.lang.ref.Reference ;
+import java.lang.ref.ReferenceQueue ;
+import java.lang.ref.WeakReference ;
+import java.util.concurrent.ConcurrentHashMap ;
+import java.util.concurrent.atomic.LongAdder ;
+
+/**
+ * Interning of URI and literal nodes so that equal nodes created many times (for
+ * example, the same IRI in every triple read by a parser) share one instance on the
+ * heap.
+ * <p>
+ * An interner holds its nodes weakly: a node is kept only while something else, such
+ * as a graph, refers to it. Interners are safe for concurrent use.
+ * <p>
+ * The {@link Scope} decides which interner, if any, is used:
+ * <ul>
+ * <li>{@link Scope#NONE} - no interning (the default).</li>
+ * <li>{@link Scope#GLOBAL} - {@link NodeFactory} interns every URI and literal node
+ * in the {@linkplain #global() global interner}.</li>
+ * <li>{@link Scope#PARSE} - each parse has its own interner for the nodes of the
+ * triples it produces; see {@link #forParse()}.</li>
+ * <li>{@link Scope#GRAPH} - each in-memory graph has its own interner for the nodes
+ * of the triples added to it; see {@link #forGraph()}.</li>
+ * </ul>
+ */
+public class NodeInterner {
+    /** Where nodes are interned. */
+    public enum Scope { NONE, GLOBAL, PARSE, GRAPH }
+
+    private static volatile Scope scope = Scope.NONE ;
+    private static final NodeInterner global = new NodeInterner() ;
+
+    /** Set the scope of node interning. This affects nodes, parsers and graphs created afterwards. */
+    public static void setScope(Scope newScope) {
+        scope = newScope == null ? Scope.NONE : newScope ;
+    }
+
+    /** The current scope of node interning. */
+    public static Scope getScope() {
+        return scope ;
+    }
+
+    /** The interner used by {@link NodeFactory} when the scope is {@link Scope#GLOBAL}. */
+    public static NodeInterner global() {
+        return global ;
+    }
+
+    /** Intern a node in the global interner if the scope is {@link Scope#GLOBAL}. */
+    public static Node internGlobal(Node node) {
+        return scope == Scope.GLOBAL ? global.intern(node) : node ;
+    }
+
+    /** A new interner for a parse if the scope is {@link Scope#PARSE}, else null. */
+    public static NodeInterner forParse() {
+        return scope == Scope.PARSE ? new NodeInterner() : null ;
+    }
+
+    /** A new interner for a graph if the scope is {@link Scope#GRAPH}, else null. */
+    public static NodeInterner forGraph() {
+        return scope == Scope.GRAPH ? new NodeInterner() : null ;
+    }
+
+    // The map is from a key to itself. Keys compare by their nodes; a key whose
+    // node has been collected is only equal to itself, and is removed when it
+    // comes off the reference queue.
+    private final ConcurrentHashMap<Object, Ref> map = new ConcurrentHashMap<>() ;
+    private final ReferenceQueue<Node>           queue = new ReferenceQueue<>() ;
+    private final LongAdder                      hits = new LongAdder() ;
+    private final LongAdder                      misses = new LongAdder() ;
+
+    public NodeInterner() {}
+
+    /**
+     * Return the interned node equal to the argument. URI and literal nodes are
+     * interned; other nodes are returned unchanged.
+     */
+    public Node intern(Node node) {
+        if ( node == null || !(node.isURI() || node.isLiteral()) )
+            return node ;
+        expunge() ;
+        Ref ref = map.get(new Probe(node)) ;
+        Node x = ref == null ? null : ref.get() ;
+        if ( x != null ) {
+            hits.increment() ;
+            return x ;
+        }
+        Ref newRef = new Ref(node, queue) ;
+        for ( ;; ) {
+            ref = map.putIfAbsent(newRef, newRef) ;
+            if ( ref == null ) {
+                misses.increment() ;
+                return node ;
+            }
+            x = ref.get() ;
+            if ( x != null ) {
+                hits.increment() ;
+                return x ;
+            }
+            // Collected after the lookup - the stale key no longer matches.
+            map.remove(ref, ref) ;
+        }
+    }
+
+    /** Return a triple with interned nodes; this is the argument if its nodes are already interned. */
+    public Triple intern(Triple triple) {
+        Node s = intern(triple.getSubject()) ;
+        Node p = intern(triple.getPredicate()) ;
+        Node o = intern(triple.getObject()) ;
+        if ( s == triple.getSubject() && p == triple.getPredicate() && o == triple.getObject() )
+            return triple ;
+        return new Triple(s, p, o) ;
+    }
+
+    /** The number of calls of {@link #intern(Node)} that returned an existing node. */
+    public long hits() {
+        return hits.sum() ;
+    }
+
+    /** The number of calls of {@link #intern(Node)} that added a node. */
+    public long misses() {
+        return misses.sum() ;
+    }
+
+    /** The proportion of interned nodes that were already present, or 0 if nothing has been interned. */
+    public double hitRate() {
+        long h = hits() ;
+        long total = h + misses() ;
+        return total == 0 ? 0 : (double)h / total ;
+    }
+
+    /** The number of nodes held, including any collected nodes not yet removed. */
+    public int size() {
+        expunge() ;
+        return map.size() ;
+    }
+
+    /** Forget all nodes and reset the counts. */
+    public void clear() {
+        map.clear() ;
+        while ( queue.poll() != null ) {}
+        hits.reset() ;
+        misses.reset() ;
+    }
+
+    @Override
+    public String toString() {
+        return "NodeInterner[size=" + map.size() + ", hits=" + hits() + ", misses=" + misses() + "]" ;
+    }
+
+    private void expunge() {
+        for ( Reference<? extends Node> r ; (r = queue.poll()) != null ; )
+            map.remove(r, r) ;
+    }
+
+    private static Node nodeOf(Object obj) {
+        if ( obj instanceof Ref )
+            return ((Ref)obj).get() ;
+        if ( obj instanceof Probe )
+            return ((Probe)obj).node ;
+        return null ;
+    }
+
+    private static boolean sameNode(Object key, Node node, Object other) {
+        if ( key == other )
+            return true ;
+        if ( node == null )
+            return false ;
+        Node x = nodeOf(other) ;
+        return x != null && node.equals(x) ;
+    }
+
+    /** A key in the map. */
+    private static final class Ref extends WeakReference<Node> {
+        private final int hash ;
+
+        Ref(Node node, ReferenceQueue<Node> queue) {
+            super(node, queue) ;
+            this.hash = node.hashCode() ;
+        }
+
+        @Override
+        public int hashCode() {
+            return hash ;
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            return sameNode(this, get(), other) ;
+        }
+    }
+
+    /** A key used to look up a node. */
+    private static final class Probe {
+        private final Node node ;
+
+        Probe(Node node) {
+            this.node = node ;
+        }
+
+        @Override
+        public int hashCode() {
+            return node.hashCode() ;
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            return sameNode(this, node, other) ;
+        }
+    }
+}
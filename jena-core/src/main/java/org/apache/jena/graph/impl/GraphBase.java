@@ -18,6 +18,10 @@
 
 package org.apache.jena.graph.impl;
 
+import java.util.ArrayList ;
+import java.util.Collection ;
+import java.util.List ;
+
 import org.apache.jena.graph.* ;
 import org.apache.jena.shared.AddDeniedException ;
 import org.apache.jena.shared.ClosedException ;
@@ -214,6 +218,51 @@ public abstract class GraphBase implements GraphWithPerform
     public void performDelete( Triple t ) 
         { throw new DeleteDeniedException( "GraphBase::delete" ); }
 
+    /**
+        Add all the triples, using performAddAll, and notify the event manager
+        once with the list of triples.
+    */
+    @Override
+    public void addAll( Collection<Triple> triples )
+        {
+        checkOpen();
+        List<Triple> list = asList( triples );
+        performAddAll( list );
+        getEventManager().notifyAddList( this, list );
+        }
+
+    /**
+        Add all the triples to the triple store without notification. The default
+        implementation uses performAdd on each triple; subclasses may override to
+        do the work in one batch.
+    */
+    protected void performAddAll( List<Triple> triples )
+        { for (Triple t: triples) performAdd( t ); }
+
+    /**
+        Delete all the triples, using performDeleteAll, and notify the event
+        manager once with the list of triples.
+    */
+    @Override
+    public void deleteAll( Collection<Triple> triples )
+        {
+        checkOpen();
+        List<Triple> list = asList( triples );
+        performDeleteAll( list );
+        getEventManager().notifyDeleteList( this, list );
+        }
+
+    /**
+        Remove all the triples from the triple store without notification. The
+        default implementation uses performDelete on each triple; subclasses may
+        override to do the work in one batch.
+    */
+    protected void performDeleteAll( List<Triple> triples )
+        { for (Triple t: triples) performDelete( t ); }
+
+    private static List<Triple> asList( Collection<Triple> triples )
+        { return triples instanceof List ? (List<Triple>) triples : new ArrayList<>( triples ); }
+
     /**
         Remove all the statements from this graph.
      */
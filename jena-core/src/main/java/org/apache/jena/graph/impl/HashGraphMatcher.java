@@ -0,0 +1,865 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.jena.graph.impl;
+
+import java.util.* ;
+import java.util.function.Function ;
+import java.util.stream.Collectors ;
+import java.util.stream.IntStream ;
+
+import org.apache.jena.graph.Graph ;
+import org.apache.jena.graph.Node ;
+import org.apache.jena.graph.Triple ;
+import org.apache.jena.util.iterator.ExtendedIterator ;
+
+/**
+ * Graph isomorphism and canonical blank node labelling by colour refinement.
+ * <p>
+ * Every blank node is given a colour, a 64 bit hash. Each round of refinement
+ * recolours every blank node from its own colour and the triples it is in, using the
+ * colours of the other blank nodes in those triples; rounds continue until the
+ * number of distinct colours stops growing. Rounds are computed in parallel when
+ * there are at least a threshold number of blank nodes,
+ * {@link #DEFAULT_PARALLEL_THRESHOLD} unless the caller gives another.
+ * <p>
+ * When refinement leaves several blank nodes with the same colour, one of them is
+ * given a new colour and refinement continues, backtracking over the choices if
+ * necessary. Choices between blank nodes which can be swapped without changing the
+ * graph are not explored, and the parts of the graph connected by blank nodes are
+ * matched separately, so graphs with many interchangeable blank nodes, or many small
+ * blank node structures, do not need a deep search. Large, highly symmetric
+ * structures may still be slow. Like {@link GraphMatcher}, terms are compared by term
+ * equality, not by value.
+ * <p>
+ * {@link #equals} and {@link #match} have the same contract as those of
+ * {@link GraphMatcher}, so callers can use either.
+ */
+public class HashGraphMatcher {
+    /** The default number of blank nodes at which refinement rounds are computed in parallel. */
+    public static final int DEFAULT_PARALLEL_THRESHOLD = 10000 ;
+
+    private static final long PRIME      = 0x9E3779B97F4A7C15L ;
+    private static final long INITIAL    = 0x2545F4914F6CDD1DL ;
+    private static final long SELF       = 0x5851F42D4C957F2DL ;
+    private static final long BLANK      = 0x14057B7EF767814FL ;
+    private static final long INDIVIDUAL = 0x3C6EF372FE94F82BL ;
+
+    /** Are the two graphs isomorphic? */
+    public static boolean equals(Graph g1, Graph g2) {
+        return equals(g1, g2, DEFAULT_PARALLEL_THRESHOLD) ;
+    }
+
+    /** Are the two graphs isomorphic? Work is done in parallel from
+     *  <code>parallelThreshold</code> blank nodes. */
+    public static boolean equals(Graph g1, Graph g2, int parallelThreshold) {
+        if ( g1 == g2 )
+            return true ;
+        return match(g1, g2, parallelThreshold) != null ;
+    }
+
+    /**
+     * Return an isomorphism between the two graphs, as pairs of blank nodes: the first
+     * from <code>g1</code>, the second the corresponding blank node in <code>g2</code>.
+     * @return null if the graphs are not isomorphic.
+     */
+    public static Node[][] match(Graph g1, Graph g2) {
+        return match(g1, g2, DEFAULT_PARALLEL_THRESHOLD) ;
+    }
+
+    /** As {@link #match(Graph, Graph)}, working in parallel from
+     *  <code>parallelThreshold</code> blank nodes. */
+    public static Node[][] match(Graph g1, Graph g2, int parallelThreshold) {
+        return create(g1, parallelThreshold).matchGraph(create(g2, parallelThreshold)) ;
+    }
+
+    /** A hash code for the graph which is the same for isomorphic graphs. */
+    public static int hashCode(Graph g) {
+        HashGraphMatcher m = create(g, DEFAULT_PARALLEL_THRESHOLD) ;
+        long h = m.groundHash + m.graphHash(m.refine(m.initial()).colours) ;
+        return (int)(h ^ (h >>> 32)) ;
+    }
+
+    /**
+     * Canonical labels for the blank nodes of a graph. Isomorphic graphs have the
+     * same triples once each blank node is replaced by its label. Labels are
+     * <code>c14n0</code>, <code>c14n1</code>, ...
+     */
+    public static Map<Node, String> canonicalLabels(Graph g) {
+        return canonicalLabels(g, DEFAULT_PARALLEL_THRESHOLD) ;
+    }
+
+    /** As {@link #canonicalLabels(Graph)}, working in parallel from
+     *  <code>parallelThreshold</code> blank nodes. */
+    public static Map<Node, String> canonicalLabels(Graph g, int parallelThreshold) {
+        return create(g, parallelThreshold).canonicalLabels() ;
+    }
+
+    private final Graph graph ;
+    private final int parallelThreshold ;
+    private final Node[] bnodes ;
+    /** The triples with at least one blank node. */
+    private final Triple[] triples ;
+    /** For each position of each triple, the blank node there or -1. */
+    private final int[] terms ;
+    /** For each position of each triple, the hash of the term if it is not a blank node. */
+    private final long[] constants ;
+    /** The triples of each blank node: adj[adjStart[b]] to adj[adjStart[b+1]-1]. */
+    private final int[] adjStart ;
+    private final int[] adj ;
+    private final long groundCount ;
+    private final long groundHash ;
+    private Set<Triple> tripleSet = null ;
+
+    private static HashGraphMatcher create(Graph graph, int parallelThreshold) {
+        List<Triple> withBlanks = new ArrayList<>() ;
+        long[] ground = new long[2] ;
+        graph.forEach(Node.ANY, Node.ANY, Node.ANY, t -> {
+            if ( hasBlank(t) )
+                withBlanks.add(t) ;
+            else {
+                ground[0]++ ;
+                ground[1] += tripleHash(hash(t.getSubject()), hash(t.getPredicate()), hash(t.getObject())) ;
+            }
+        }) ;
+        return new HashGraphMatcher(graph, parallelThreshold, withBlanks, ground[0], ground[1]) ;
+    }
+
+    /** The structure of some triples of a graph, those with blank nodes, and a summary of the others. */
+    private HashGraphMatcher(Graph graph, int parallelThreshold, List<Triple> withBlanks, long groundCount, long groundHash) {
+        this.graph = graph ;
+        this.parallelThreshold = parallelThreshold ;
+        this.groundCount = groundCount ;
+        this.groundHash = groundHash ;
+        Map<Node, Integer> index = new HashMap<>() ;
+        for ( Triple t : withBlanks ) {
+            for ( int pos = 0 ; pos < 3 ; pos++ ) {
+                Node n = term(t, pos) ;
+                if ( n.isBlank() && !index.containsKey(n) )
+                    index.put(n, index.size()) ;
+            }
+        }
+
+        int n = index.size() ;
+        bnodes = new Node[n] ;
+        for ( Map.Entry<Node, Integer> e : index.entrySet() )
+            bnodes[e.getValue()] = e.getKey() ;
+        triples = withBlanks.toArray(new Triple[withBlanks.size()]) ;
+        terms = new int[3 * triples.length] ;
+        constants = new long[3 * triples.length] ;
+        adjStart = new int[n + 1] ;
+        for ( int t = 0 ; t < triples.length ; t++ ) {
+            for ( int pos = 0 ; pos < 3 ; pos++ ) {
+                Node x = term(triples[t], pos) ;
+                int i = 3 * t + pos ;
+                if ( x.isBlank() ) {
+                    terms[i] = index.get(x) ;
+                    if ( firstOccurrence(t, pos) )
+                        adjStart[terms[i] + 1]++ ;
+                } else {
+                    terms[i] = -1 ;
+                    constants[i] = hash(x) ;
+                }
+            }
+        }
+        for ( int b = 0 ; b < n ; b++ )
+            adjStart[b + 1] += adjStart[b] ;
+        adj = new int[adjStart[n]] ;
+        int[] fill = Arrays.copyOf(adjStart, n) ;
+        for ( int t = 0 ; t < triples.length ; t++ ) {
+            for ( int pos = 0 ; pos < 3 ; pos++ ) {
+                int b = terms[3 * t + pos] ;
+                if ( b >= 0 && firstOccurrence(t, pos) )
+                    adj[fill[b]++] = t ;
+            }
+        }
+    }
+
+    private static boolean hasBlank(Triple t) {
+        return t.getSubject().isBlank() || t.getPredicate().isBlank() || t.getObject().isBlank() ;
+    }
+
+    private static Node term(Triple t, int pos) {
+        switch (pos) {
+            case 0 : return t.getSubject() ;
+            case 1 : return t.getPredicate() ;
+            default : return t.getObject() ;
+        }
+    }
+
+    private boolean firstOccurrence(int t, int pos) {
+        for ( int k = 0 ; k < pos ; k++ )
+            if ( terms[3 * t + k] == terms[3 * t + pos] )
+                return false ;
+        return true ;
+    }
+
+    private static long mix(long h) {
+        h = (h ^ (h >>> 30)) * 0xBF58476D1CE4E5B9L ;
+        h = (h ^ (h >>> 27)) * 0x94D049BB133111EBL ;
+        return h ^ (h >>> 31) ;
+    }
+
+    private static long hash(Node n) {
+        return mix(n.hashCode() * PRIME + (n.isLiteral() ? 1 : 2)) ;
+    }
+
+    private static long tripleHash(long s, long p, long o) {
+        return mix(mix(mix(s) * PRIME + p) * PRIME + o) ;
+    }
+
+    // ---- Colouring
+
+    /** The colours of the blank nodes, with the colours in order and the number of distinct colours. */
+    private static final class Colouring {
+        final long[] colours ;
+        final long[] sorted ;
+        final int classes ;
+        final int parallelThreshold ;
+
+        Colouring(long[] colours, int parallelThreshold) {
+            this.colours = colours ;
+            this.parallelThreshold = parallelThreshold ;
+            this.sorted = colours.clone() ;
+            if ( sorted.length >= parallelThreshold )
+                Arrays.parallelSort(sorted) ;
+            else
+                Arrays.sort(sorted) ;
+            int x = 0 ;
+            for ( int i = 0 ; i < sorted.length ; i++ )
+                if ( i == 0 || sorted[i] != sorted[i - 1] )
+                    x++ ;
+            this.classes = x ;
+        }
+
+        boolean isDiscrete() {
+            return classes == colours.length ;
+        }
+
+        boolean sameShape(Colouring other) {
+            return Arrays.equals(sorted, other.sorted) ;
+        }
+
+        /** The classes with more than one member, in colour order, each in index order. */
+        List<int[]> cells() {
+            Map<Long, int[]> cells = new LinkedHashMap<>() ;
+            for ( int i = 0 ; i < sorted.length ; ) {
+                int j = i + 1 ;
+                while ( j < sorted.length && sorted[j] == sorted[i] )
+                    j++ ;
+                if ( j - i > 1 )
+                    cells.put(sorted[i], new int[j - i]) ;
+                i = j ;
+            }
+            Map<Long, Integer> fill = new HashMap<>() ;
+            for ( int b = 0 ; b < colours.length ; b++ ) {
+                int[] cell = cells.get(colours[b]) ;
+                if ( cell != null )
+                    cell[fill.merge(colours[b], 1, Integer::sum) - 1] = b ;
+            }
+            return new ArrayList<>(cells.values()) ;
+        }
+
+        /** Give each of the nodes a colour of its own. */
+        Colouring individualise(int... nodes) {
+            long[] x = colours.clone() ;
+            for ( int k = 0 ; k < nodes.length ; k++ )
+                x[nodes[k]] = mix(x[nodes[k]] ^ (INDIVIDUAL + k)) ;
+            return new Colouring(x, parallelThreshold) ;
+        }
+    }
+
+    private Colouring initial() {
+        long[] x = new long[bnodes.length] ;
+        Arrays.fill(x, INITIAL) ;
+        return new Colouring(x, parallelThreshold) ;
+    }
+
+    private long[] round(long[] colours) {
+        long[] next = new long[colours.length] ;
+        IntStream range = IntStream.range(0, colours.length) ;
+        if ( colours.length >= parallelThreshold )
+            range = range.parallel() ;
+        range.forEach(b -> next[b] = recolour(b, colours)) ;
+        return next ;
+    }
+
+    private long recolour(int b, long[] colours) {
+        long h = 0 ;
+        for ( int k = adjStart[b] ; k < adjStart[b + 1] ; k++ )
+            h += tripleHash(adj[k], b, colours) ;
+        return mix(colours[b] * PRIME + h) ;
+    }
+
+    /** The hash of a triple with blank nodes, as seen from blank node <code>self</code>. */
+    private long tripleHash(int t, int self, long[] colours) {
+        return tripleHash(termHash(3 * t, self, colours), termHash(3 * t + 1, self, colours),
+                          termHash(3 * t + 2, self, colours)) ;
+    }
+
+    private long termHash(int i, int self, long[] colours) {
+        int b = terms[i] ;
+        if ( b < 0 )
+            return constants[i] ;
+        return b == self ? SELF : colours[b] ^ BLANK ;
+    }
+
+    /** The hash of the triples with blank nodes. */
+    private long graphHash(long[] colours) {
+        IntStream range = IntStream.range(0, triples.length) ;
+        if ( bnodes.length >= parallelThreshold )
+            range = range.parallel() ;
+        return range.mapToLong(t -> tripleHash(t, -1, colours)).sum() ;
+    }
+
+    /** Refine until the number of classes does not grow. */
+    private Colouring refine(Colouring c) {
+        for ( ;; ) {
+            Colouring next = new Colouring(round(c.colours), parallelThreshold) ;
+            if ( next.classes <= c.classes )
+                return c ;
+            c = next ;
+        }
+    }
+
+    /**
+     * Refine the colourings of two graphs together, so that they have the same number
+     * of rounds, or return null if they stop corresponding.
+     */
+    private static Colouring[] refine(HashGraphMatcher m1, Colouring c1, HashGraphMatcher m2, Colouring c2) {
+        for ( ;; ) {
+            if ( !c1.sameShape(c2) )
+                return null ;
+            Colouring n1 = new Colouring(m1.round(c1.colours), m1.parallelThreshold) ;
+            Colouring n2 = new Colouring(m2.round(c2.colours), m2.parallelThreshold) ;
+            if ( n1.classes <= c1.classes && n2.classes <= c2.classes )
+                return new Colouring[] { c1, c2 } ;
+            c1 = n1 ;
+            c2 = n2 ;
+        }
+    }
+
+    // ---- Automorphisms
+
+    private Set<Triple> tripleSet() {
+        if ( tripleSet == null )
+            tripleSet = new HashSet<>(Arrays.asList(triples)) ;
+        return tripleSet ;
+    }
+
+    /** Does swapping two blank nodes leave the graph unchanged? */
+    private boolean swappable(int x, int y) {
+        if ( adjStart[x + 1] - adjStart[x] != adjStart[y + 1] - adjStart[y] )
+            return false ;
+        Set<Triple> set = tripleSet() ;
+        for ( int b : new int[] { x, y } ) {
+            for ( int k = adjStart[b] ; k < adjStart[b + 1] ; k++ ) {
+                Triple t = triples[adj[k]] ;
+                Triple swapped = Triple.create(swap(t.getSubject(), x, y), swap(t.getPredicate(), x, y),
+                                               swap(t.getObject(), x, y)) ;
+                if ( !set.contains(swapped) )
+                    return false ;
+            }
+        }
+        return true ;
+    }
+
+    private Node swap(Node n, int x, int y) {
+        if ( n.equals(bnodes[x]) )
+            return bnodes[y] ;
+        if ( n.equals(bnodes[y]) )
+            return bnodes[x] ;
+        return n ;
+    }
+
+    private boolean swappableWithAny(int y, List<Integer> others) {
+        for ( int x : others )
+            if ( swappable(x, y) )
+                return true ;
+        return false ;
+    }
+
+    /** The smallest cell, the first in colour order if there are several. */
+    private static int[] target(List<int[]> cells) {
+        int[] best = null ;
+        for ( int[] cell : cells )
+            if ( best == null || cell.length < best.length )
+                best = cell ;
+        return best ;
+    }
+
+    /** The members of the cells which are symmetric. */
+    private int[] symmetricMembers(List<int[]> cells) {
+        List<Integer> x = new ArrayList<>() ;
+        for ( int[] cell : cells )
+            if ( isSymmetric(cell) )
+                for ( int b : cell )
+                    x.add(b) ;
+        return x.stream().mapToInt(Integer::intValue).toArray() ;
+    }
+
+    /** The members of the cells which correspond to the symmetric cells of another
+     *  graph, or null if some of them are not symmetric or some others are. */
+    private int[] symmetricMembers(List<int[]> cells, List<int[]> template, HashGraphMatcher m) {
+        List<Integer> x = new ArrayList<>() ;
+        for ( int i = 0 ; i < cells.size() ; i++ ) {
+            boolean sym = m.isSymmetric(template.get(i)) ;
+            if ( sym != isSymmetric(cells.get(i)) )
+                return null ;
+            if ( sym )
+                for ( int b : cells.get(i) )
+                    x.add(b) ;
+        }
+        return x.stream().mapToInt(Integer::intValue).toArray() ;
+    }
+
+    /** Can any permutation of the class be made without changing the graph? */
+    private boolean isSymmetric(int[] members) {
+        for ( int i = 1 ; i < members.length ; i++ )
+            if ( !swappable(members[0], members[i]) )
+                return false ;
+        return true ;
+    }
+
+    // ---- Components
+
+    /**
+     * The parts of the graph connected by blank nodes: two blank nodes are in the same
+     * component if they are in the same triple. Components are matched and labelled
+     * separately, so a graph of many small components does not need a deep search.
+     */
+    private List<HashGraphMatcher> components() {
+        int[] parent = new int[bnodes.length] ;
+        for ( int i = 0 ; i < parent.length ; i++ )
+            parent[i] = i ;
+        for ( int t = 0 ; t < triples.length ; t++ ) {
+            int first = -1 ;
+            for ( int pos = 0 ; pos < 3 ; pos++ ) {
+                int b = terms[3 * t + pos] ;
+                if ( b < 0 )
+                    continue ;
+                if ( first < 0 )
+                    first = b ;
+                else
+                    parent[root(parent, b)] = root(parent, first) ;
+            }
+        }
+        Map<Integer, List<Triple>> parts = new LinkedHashMap<>() ;
+        for ( int t = 0 ; t < triples.length ; t++ ) {
+            int b = terms[3 * t] >= 0 ? terms[3 * t] : terms[3 * t + 1] >= 0 ? terms[3 * t + 1] : terms[3 * t + 2] ;
+            parts.computeIfAbsent(root(parent, b), x -> new ArrayList<>()).add(triples[t]) ;
+        }
+        if ( parts.size() == 1 )
+            return Collections.singletonList(this) ;
+        List<HashGraphMatcher> x = new ArrayList<>() ;
+        for ( List<Triple> part : parts.values() )
+            x.add(new HashGraphMatcher(graph, parallelThreshold, part, 0, 0)) ;
+        return x ;
+    }
+
+    /** A summary of a component which is the same for isomorphic components. */
+    private static final class Signature {
+        final long[] colours ;
+        final long hash ;
+        final int triples ;
+
+        Signature(HashGraphMatcher m) {
+            Colouring c = m.refine(m.initial()) ;
+            this.colours = c.sorted ;
+            this.hash = m.graphHash(c.colours) ;
+            this.triples = m.triples.length ;
+        }
+
+        @Override
+        public int hashCode() {
+            return Long.hashCode(hash) ^ triples ;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if ( !(obj instanceof Signature) )
+                return false ;
+            Signature other = (Signature)obj ;
+            return hash == other.hash && triples == other.triples && Arrays.equals(colours, other.colours) ;
+        }
+    }
+
+    private static <X> List<X> mapParts(List<HashGraphMatcher> parts, Function<HashGraphMatcher, X> f) {
+        if ( parts.size() > 1 )
+            return parts.parallelStream().map(f).collect(Collectors.toList()) ;
+        return Collections.singletonList(f.apply(parts.get(0))) ;
+    }
+
+    // ---- Isomorphism
+
+    private Node[][] matchGraph(HashGraphMatcher other) {
+        if ( groundCount != other.groundCount || groundHash != other.groundHash
+             || triples.length != other.triples.length || bnodes.length != other.bnodes.length )
+            return null ;
+        if ( !groundTriplesIn(other.graph) )
+            return null ;
+        List<Node[]> result = new ArrayList<>() ;
+        if ( bnodes.length > 0 ) {
+            List<HashGraphMatcher> parts1 = components() ;
+            List<HashGraphMatcher> parts2 = other.components() ;
+            if ( parts1.size() != parts2.size() )
+                return null ;
+            List<Signature> signatures1 = mapParts(parts1, Signature::new) ;
+            List<Signature> signatures2 = mapParts(parts2, Signature::new) ;
+            Map<Signature, List<HashGraphMatcher>> candidates = new HashMap<>() ;
+            for ( int i = 0 ; i < parts2.size() ; i++ )
+                candidates.computeIfAbsent(signatures2.get(i), x -> new LinkedList<>()).add(parts2.get(i)) ;
+            // Isomorphism is an equivalence, so each component can take the first candidate which matches.
+            for ( int i = 0 ; i < parts1.size() ; i++ ) {
+                HashGraphMatcher part = parts1.get(i) ;
+                List<HashGraphMatcher> x = candidates.get(signatures1.get(i)) ;
+                if ( x == null || !matchPart(part, x, result) )
+                    return null ;
+            }
+        }
+        return result.toArray(new Node[result.size()][]) ;
+    }
+
+    private static boolean matchPart(HashGraphMatcher part, List<HashGraphMatcher> candidates, List<Node[]> result) {
+        for ( Iterator<HashGraphMatcher> iter = candidates.iterator() ; iter.hasNext() ; ) {
+            HashGraphMatcher other = iter.next() ;
+            int[] mapping = part.match(other) ;
+            if ( mapping != null ) {
+                iter.remove() ;
+                for ( int i = 0 ; i < mapping.length ; i++ )
+                    result.add(new Node[] { part.bnodes[i], other.bnodes[mapping[i]] }) ;
+                return true ;
+            }
+        }
+        return false ;
+    }
+
+    /** Match the triples with blank nodes. */
+    private int[] match(HashGraphMatcher other) {
+        if ( triples.length != other.triples.length || bnodes.length != other.bnodes.length )
+            return null ;
+        Colouring[] c = refine(this, initial(), other, other.initial()) ;
+        if ( c == null || graphHash(c[0].colours) != other.graphHash(c[1].colours) )
+            return null ;
+        return search(other, c[0], c[1]) ;
+    }
+
+    private boolean groundTriplesIn(Graph other) {
+        ExtendedIterator<Triple> iter = graph.find(Node.ANY, Node.ANY, Node.ANY) ;
+        try {
+            while (iter.hasNext()) {
+                Triple t = iter.next() ;
+                if ( !hasBlank(t) && !containsSameTerm(other, t) )
+                    return false ;
+            }
+            return true ;
+        }
+        finally {
+            iter.close() ;
+        }
+    }
+
+    private static boolean containsSameTerm(Graph g, Triple t) {
+        if ( !t.getObject().isLiteral() )
+            return g.contains(t) ;
+        ExtendedIterator<Triple> iter = g.find(t) ;
+        try {
+            while (iter.hasNext())
+                if ( iter.next().getObject().equals(t.getObject()) )
+                    return true ;
+            return false ;
+        }
+        finally {
+            iter.close() ;
+        }
+    }
+
+    /** Find an isomorphism which respects the colourings, or return null. */
+    private int[] search(HashGraphMatcher other, Colouring c1, Colouring c2) {
+        if ( c1.isDiscrete() )
+            return verify(other, c1, c2) ;
+        List<int[]> cells1 = c1.cells() ;
+        List<int[]> cells2 = c2.cells() ;
+        int[] symmetric1 = symmetricMembers(cells1) ;
+        if ( symmetric1.length > 0 ) {
+            // Any pairing of the members of corresponding symmetric cells will do.
+            int[] symmetric2 = other.symmetricMembers(cells2, cells1, this) ;
+            if ( symmetric2 == null )
+                return null ;
+            Colouring[] c = refine(this, c1.individualise(symmetric1), other, c2.individualise(symmetric2)) ;
+            return c == null ? null : search(other, c[0], c[1]) ;
+        }
+        int[] members1 = target(cells1) ;
+        int[] members2 = cells2.get(cells1.indexOf(members1)) ;
+        List<Integer> tried = new ArrayList<>() ;
+        for ( int y : members2 ) {
+            // If y can be swapped with a node which failed, it fails too.
+            if ( other.swappableWithAny(y, tried) )
+                continue ;
+            tried.add(y) ;
+            Colouring[] c = refine(this, c1.individualise(members1[0]), other, c2.individualise(y)) ;
+            if ( c == null )
+                continue ;
+            int[] mapping = search(other, c[0], c[1]) ;
+            if ( mapping != null )
+                return mapping ;
+        }
+        return null ;
+    }
+
+    private int[] verify(HashGraphMatcher other, Colouring c1, Colouring c2) {
+        Map<Long, Integer> where = new HashMap<>() ;
+        for ( int j = 0 ; j < c2.colours.length ; j++ )
+            where.put(c2.colours[j], j) ;
+        int[] mapping = new int[bnodes.length] ;
+        for ( int i = 0 ; i < mapping.length ; i++ ) {
+            Integer j = where.get(c1.colours[i]) ;
+            if ( j == null )
+                return null ;
+            mapping[i] = j ;
+        }
+        Set<Triple> set = other.tripleSet() ;
+        IntStream range = IntStream.range(0, triples.length) ;
+        if ( bnodes.length >= parallelThreshold )
+            range = range.parallel() ;
+        boolean ok = range.allMatch(t -> set.contains(Triple.create(map(3 * t, mapping, other), 
+                                                                    map(3 * t + 1, mapping, other),
+                                                                    map(3 * t + 2, mapping, other)))) ;
+        return ok ? mapping : null ;
+    }
+
+    private Node map(int i, int[] mapping, HashGraphMatcher other) {
+        int b = terms[i] ;
+        return b < 0 ? term(triples[i / 3], i % 3) : other.bnodes[mapping[b]] ;
+    }
+
+    // ---- Canonical labelling
+
+    /** The state of the search for the least labelled graph. */
+    private static final class Search {
+        final HashGraphMatcher part ;
+        String[] bestForm = null ;
+        int[] bestRanks = null ;
+        int[] bestOrder = null ;
+        List<Integer> bestPath = null ;
+        final List<Automorphism> automorphisms = new ArrayList<>() ;
+
+        Search(HashGraphMatcher part) {
+            this.part = part ;
+        }
+    }
+
+    private Map<Node, String> canonicalLabels() {
+        Map<Node, String> labels = new HashMap<>() ;
+        if ( bnodes.length == 0 )
+            return labels ;
+        List<Search> parts = mapParts(components(), m -> {
+            Search search = new Search(m) ;
+            m.canonical(m.refine(m.initial()), new ArrayList<>(), search) ;
+            return search ;
+        }) ;
+        // Components in the order of their labelled triples, then numbered in that order.
+        parts = new ArrayList<>(parts) ;
+        parts.sort((a, b) -> a.bestForm.length != b.bestForm.length
+            ? Integer.compare(a.bestForm.length, b.bestForm.length) : compare(a.bestForm, b.bestForm)) ;
+        int offset = 0 ;
+        for ( Search search : parts ) {
+            for ( int i = 0 ; i < search.part.bnodes.length ; i++ )
+                labels.put(search.part.bnodes[i], label(offset + search.bestRanks[i])) ;
+            offset += search.part.bnodes.length ;
+        }
+        return labels ;
+    }
+
+    private static String label(int rank) {
+        return "c14n" + rank ;
+    }
+
+    /**
+     * Search for the least labelled graph below a point in the search, returning the
+     * length of the path to go back to if the rest of a subtree is the image of one
+     * already searched.
+     */
+    private int canonical(Colouring c, List<Integer> path, Search search) {
+        if ( c.isDiscrete() )
+            return leaf(c, path, search) ;
+        List<int[]> cells = c.cells() ;
+        int[] symmetric = symmetricMembers(cells) ;
+        if ( symmetric.length > 0 ) {
+            // Every order of the members of symmetric cells gives the same labelled graph.
+            List<Integer> path2 = new ArrayList<>(path) ;
+            for ( int x : symmetric )
+                path2.add(x) ;
+            return canonical(refine(c.individualise(symmetric)), path2, search) ;
+        }
+        int[] members = target(cells) ;
+        Orbits orbits = new Orbits(members, search.automorphisms.size()) ;
+        List<Integer> tried = new ArrayList<>() ;
+        for ( int y : members ) {
+            if ( swappableWithAny(y, tried) || orbits.sameOrbit(y, tried, path.size(), search) )
+                continue ;
+            tried.add(y) ;
+            List<Integer> path2 = new ArrayList<>(path) ;
+            path2.add(y) ;
+            int back = canonical(refine(c.individualise(y)), path2, search) ;
+            if ( back < path.size() )
+                return back ;
+        }
+        return Integer.MAX_VALUE ;
+    }
+
+    /** An automorphism found by the search, and the length of the path to its leaf which it fixes. */
+    private static final class Automorphism {
+        final int[] map ;
+        final int fixed ;
+
+        Automorphism(int[] map, int fixed) {
+            this.map = map ;
+            this.fixed = fixed ;
+        }
+    }
+
+    /**
+     * The orbits of the members of a cell under the automorphisms found below a point
+     * in the search which fix the path to it. These preserve the cell.
+     */
+    private static final class Orbits {
+        final Map<Integer, Integer> position = new HashMap<>() ;
+        final int[] parent ;
+        int next ;
+
+        Orbits(int[] members, int start) {
+            parent = new int[members.length] ;
+            for ( int i = 0 ; i < members.length ; i++ ) {
+                position.put(members[i], i) ;
+                parent[i] = i ;
+            }
+            next = start ;
+        }
+
+        /** Is y the image of a tried node? */
+        boolean sameOrbit(int y, List<Integer> tried, int depth, Search search) {
+            for ( ; next < search.automorphisms.size() ; next++ ) {
+                Automorphism g = search.automorphisms.get(next) ;
+                if ( g.fixed < depth )
+                    continue ;
+                for ( Map.Entry<Integer, Integer> e : position.entrySet() ) {
+                    Integer other = position.get(g.map[e.getKey()]) ;
+                    if ( other == null )
+                        continue ;
+                    int a = root(parent, e.getValue()), b = root(parent, other) ;
+                    if ( a != b )
+                        parent[a] = b ;
+                }
+            }
+            int r = root(parent, position.get(y)) ;
+            for ( int x : tried )
+                if ( root(parent, position.get(x)) == r )
+                    return true ;
+            return false ;
+        }
+    }
+
+    private static int root(int[] parent, int i) {
+        while ( parent[i] != i ) {
+            parent[i] = parent[parent[i]] ;
+            i = parent[i] ;
+        }
+        return i ;
+    }
+
+    private int leaf(Colouring c, List<Integer> path, Search search) {
+        int[] ranks = new int[bnodes.length] ;
+        for ( int i = 0 ; i < ranks.length ; i++ )
+            ranks[i] = Arrays.binarySearch(c.sorted, c.colours[i]) ;
+        String[] form = form(ranks) ;
+        int x = search.bestForm == null ? -1 : compare(form, search.bestForm) ;
+        if ( x < 0 ) {
+            search.bestForm = form ;
+            search.bestRanks = ranks ;
+            search.bestOrder = new int[ranks.length] ;
+            for ( int i = 0 ; i < ranks.length ; i++ )
+                search.bestOrder[ranks[i]] = i ;
+            search.bestPath = path ;
+        } else if ( x == 0 ) {
+            // The two labellings give the same graph: record the automorphism.
+            int[] g = new int[ranks.length] ;
+            for ( int i = 0 ; i < ranks.length ; i++ )
+                g[i] = search.bestOrder[ranks[i]] ;
+            int fixed = 0 ;
+            while ( fixed < path.size() && g[path.get(fixed)] == path.get(fixed) )
+                fixed++ ;
+            search.automorphisms.add(new Automorphism(g, fixed)) ;
+            // If it fixes the paths up to where they part and maps one choice there to
+            // the other, the rest of this subtree is the image of one already searched.
+            List<Integer> best = search.bestPath ;
+            int i = 0 ;
+            while ( i < fixed && i < best.size() && path.get(i).equals(best.get(i)) )
+                i++ ;
+            if ( i == fixed && i < path.size() && i < best.size() && g[path.get(i)] == best.get(i) )
+                return i ;
+        }
+        return Integer.MAX_VALUE ;
+    }
+
+    /** The triples with blank nodes, labelled by rank, as sorted strings. */
+    private String[] form(int[] ranks) {
+        IntStream range = IntStream.range(0, triples.length) ;
+        if ( bnodes.length >= parallelThreshold )
+            range = range.parallel() ;
+        String[] form = range.mapToObj(t -> str(3 * t, ranks) + " " + str(3 * t + 1, ranks) + " " + str(3 * t + 2, ranks))
+                             .toArray(String[]::new) ;
+        if ( bnodes.length >= parallelThreshold )
+            Arrays.parallelSort(form) ;
+        else
+            Arrays.sort(form) ;
+        return form ;
+    }
+
+    private static int compare(String[] a, String[] b) {
+        for ( int i = 0 ; i < a.length ; i++ ) {
+            int x = a[i].compareTo(b[i]) ;
+            if ( x != 0 )
+                return x ;
+        }
+        return 0 ;
+    }
+
+    /** A string for a term which is different for different terms. */
+    private String str(int i, int[] ranks) {
+        if ( terms[i] >= 0 )
+            return "_:" + label(ranks[terms[i]]) ;
+        Node n = term(triples[i / 3], i % 3) ;
+        if ( n.isURI() )
+            return "<" + escape(n.getURI()) + ">" ;
+        if ( n.isLiteral() ) {
+            String lang = n.getLiteralLanguage() ;
+            String s = "\"" + escape(n.getLiteralLexicalForm()) + "\"" ;
+            if ( lang != null && !lang.isEmpty() )
+                return s + "@" + lang ;
+            return s + "^^<" + escape(n.getLiteralDatatypeURI()) + ">" ;
+        }
+        return escape(n.toString()) ;
+    }
+
+    private static String escape(String s) {
+        if ( s == null )
+            return "" ;
+        return s.replace("\\", "\\\\").replace("\"", "\\\"").replace(">", "\\>") ;
+    }
+}
@@ -82,6 +82,14 @@ final /*public*/ class LiteralLabelImpl implements LiteralLabel {
 	 */
 	private String exceptionMsg = null; // Suggested by Andreas Langegger
 	
+	/**
+	 * True while the lexical form has not yet been parsed. Set only for XSD
+	 * literals built from their lexical form when eager validation is off;
+	 * value, wellformed and exceptionMsg are then computed on first use
+	 * (see {@link #ensureValue()}).
+	 */
+	private volatile boolean valueDeferred = false;
+	
 	//=======================================================================
 	// Constructors
 
@@ -89,6 +97,10 @@ final /*public*/ class LiteralLabelImpl implements LiteralLabel {
 	 * Build a typed literal label from its lexical form. The
 	 * lexical form will be parsed now and the value stored. If
 	 * the form is not legal this will throw an exception.
+	 * <p>
+	 * If eager validation is off and the datatype is an XSD datatype, parsing
+	 * is deferred until the value is first needed
+	 * (see {@link JenaParameters#enableLazyLiteralValues}).
 	 * 
 	 * @param lex the lexical form of the literal
 	 * @param lang the optional language tag, only relevant for plain literals
@@ -107,6 +119,13 @@ final /*public*/ class LiteralLabelImpl implements LiteralLabel {
         this.lang = (lang == null ? "" : lang);
         if (dtype == null) {
             value = lex;
+        } else if (JenaParameters.enableLazyLiteralValues
+                   && !JenaParameters.enableEagerLiteralValidation
+                   && dtype instanceof XSDDatatype) {
+            // Parsing an XSD lexical form never narrows the datatype, so the
+            // datatype is already final and the value can wait.
+            valueDeferred = true;
+            return;
         } else {
             setValue(lex);
         }
@@ -213,11 +232,15 @@ final /*public*/ class LiteralLabelImpl implements LiteralLabel {
 	 * eager checking is on.
 	 */
 	private void setValue(String lex) throws DatatypeFormatException {
+		setValue(lex, JenaParameters.enableEagerLiteralValidation);
+	}
+
+	private void setValue(String lex, boolean eager) throws DatatypeFormatException {
 		try {
 			value = dtype.parse(lex);
 			wellformed = true;
 		} catch (DatatypeFormatException e) {
-			if (JenaParameters.enableEagerLiteralValidation) {
+			if (eager) {
 				e.fillInStackTrace();
 				throw e;
 			} else {
@@ -239,6 +262,28 @@ final /*public*/ class LiteralLabelImpl implements LiteralLabel {
         }
     }
 
+    /**
+     * Parse a deferred lexical form. Labels are shared between threads, so the
+     * parse is done at most once, under the label's lock, and published by
+     * clearing the volatile flag. Ill-formed literals are recorded, not thrown,
+     * as they would have been when the label was created.
+     */
+    private void ensureValue() {
+        if (valueDeferred) {
+            synchronized (this) {
+                if (valueDeferred) {
+                    setValue(lexicalForm, false);
+                    if (value != null) {
+                        // Only normalizes the value (e.g. the mask of an
+                        // XSDDateTime); the XSD type itself stays the same.
+                        dtype.normalizeSubType(value, dtype);
+                    }
+                    valueDeferred = false;
+                }
+            }
+        }
+    }
+
 	//=======================================================================
 	// Methods
 
@@ -247,6 +292,7 @@ final /*public*/ class LiteralLabelImpl implements LiteralLabel {
     */
 	@Override
     public boolean isXML() {
+		ensureValue();
 		return dtype == XMLLiteralType.theXMLLiteralType && this.wellformed;
 	}
     
@@ -255,11 +301,13 @@ final /*public*/ class LiteralLabelImpl implements LiteralLabel {
     */
 	@Override
     public boolean isWellFormed() {
+		ensureValue();
 		return dtype != null && this.wellformed;
 	}
     
     @Override
     public boolean isWellFormedRaw() {
+        ensureValue();
         return wellformed;
     }
 
@@ -309,6 +357,7 @@ final /*public*/ class LiteralLabelImpl implements LiteralLabel {
     */
     @Override
     public Object getIndexingValue() {
+        ensureValue();
         return
             isXML() ? this
             : !lang.equals( "" ) ? getLexicalForm() + "@" + lang.toLowerCase(Locale.ROOT)
@@ -332,6 +381,7 @@ final /*public*/ class LiteralLabelImpl implements LiteralLabel {
     */
 	@Override
     public Object getValue() throws DatatypeFormatException {
+		ensureValue();
 		if (wellformed) {
 			return value;
 		} else {
@@ -489,6 +539,6 @@ final /*public*/ class LiteralLabelImpl implements LiteralLabel {
     */
     @Override
     public int getDefaultHashcode()
-        { return (wellformed ? value : getLexicalForm()).hashCode(); }
+        { ensureValue(); return (wellformed ? value : getLexicalForm()).hashCode(); }
 
     }
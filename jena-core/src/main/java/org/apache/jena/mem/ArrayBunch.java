@@ -19,6 +19,9 @@
 package org.apache.jena.mem;
 
 import java.util.ConcurrentModificationException ;
+import java.util.Spliterator ;
+import java.util.function.Consumer ;
+import java.util.function.Predicate ;
 
 import org.apache.jena.graph.Triple ;
 import org.apache.jena.util.iterator.ExtendedIterator ;
@@ -93,6 +96,25 @@ public class ArrayBunch implements TripleBunch
             }
         }
 
+    @Override
+    public void forEach( Consumer<? super Triple> action )
+        {
+        final int initialChanges = changes;
+        final Triple [] e = elements;
+        for (int i = size; i > 0;) action.accept( e[--i] );
+        if (changes > initialChanges) throw new ConcurrentModificationException();
+        }
+
+    @Override
+    public Spliterator<Triple> spliterator( Predicate<Triple> filter )
+        {
+        final int initialChanges = changes;
+        int characteristics = Spliterator.DISTINCT | Spliterator.NONNULL 
+            | (filter == null ? Spliterator.SIZED | Spliterator.SUBSIZED : 0);
+        return new SlotSpliterator<>( elements, 0, size, size, characteristics, filter, 
+            () -> { if (changes > initialChanges) throw new ConcurrentModificationException(); } );
+        }
+
     @Override
     public ExtendedIterator<Triple> iterator()
         {
@@ -18,6 +18,8 @@
 
 package org.apache.jena.mem;
 
+import java.util.Spliterator ;
+
 import org.apache.jena.util.iterator.ExtendedIterator ;
 
 /**
@@ -60,4 +62,9 @@ public interface BunchMap
         Answer an iterator over all the keys in this map.
     */
     public ExtendedIterator<Object> keyIterator();
+
+    /**
+        Answer a spliterator over all the bunches in this map.
+    */
+    public Spliterator<TripleBunch> bunchSpliterator();
     }
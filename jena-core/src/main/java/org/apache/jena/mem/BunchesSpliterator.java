@@ -0,0 +1,80 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.jena.mem;
+
+import java.util.Spliterator ;
+import java.util.function.Consumer ;
+
+import org.apache.jena.graph.Triple ;
+
+/**
+    A spliterator over all the triples of a sequence of bunches. Splitting splits
+    the sequence of bunches while it can, and then the current bunch.
+*/
+public class BunchesSpliterator implements Spliterator<Triple>
+    {
+    protected final Spliterator<TripleBunch> bunches;
+    protected Spliterator<Triple> current;
+    protected long estimate;
+    
+    /**
+        Initialise this spliterator.
+        @param bunches the bunches whose triples are delivered
+        @param estimate the estimated number of triples in all those bunches
+    */
+    public BunchesSpliterator( Spliterator<TripleBunch> bunches, long estimate )
+        {
+        this.bunches = bunches;
+        this.estimate = estimate;
+        }
+
+    @Override public boolean tryAdvance( Consumer<? super Triple> action )
+        {
+        while (true)
+            {
+            if (current != null && current.tryAdvance( action )) return true;
+            current = null;
+            if (!bunches.tryAdvance( b -> current = b.spliterator( null ) )) return false;
+            }
+        }
+
+    @Override public void forEachRemaining( Consumer<? super Triple> action )
+        {
+        if (current != null) current.forEachRemaining( action );
+        current = null;
+        bunches.forEachRemaining( b -> b.forEach( action ) );
+        }
+
+    @Override public Spliterator<Triple> trySplit()
+        {
+        Spliterator<TripleBunch> prefix = bunches.trySplit();
+        if (prefix != null)
+            {
+            long half = estimate >>> 1;
+            estimate -= half;
+            return new BunchesSpliterator( prefix, half );
+            }
+        return current == null ? null : current.trySplit();
+        }
+
+    @Override public long estimateSize()
+        { return estimate; }
+
+    @Override public int characteristics()
+        { return DISTINCT | NONNULL; }
+    }
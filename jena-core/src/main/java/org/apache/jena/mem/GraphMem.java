@@ -18,12 +18,21 @@
 
 package org.apache.jena.mem;
 
+import java.util.Spliterator ;
+import java.util.function.Consumer ;
+
 import org.apache.jena.graph.* ;
 import org.apache.jena.graph.impl.TripleStore ;
 import org.apache.jena.util.iterator.ExtendedIterator ;
 
 public class GraphMem extends GraphMemBase
 {
+    /**
+        The interner for the nodes of added triples, if nodes are interned
+        per graph (see {@link NodeInterner.Scope#GRAPH}), else null.
+    */
+    protected final NodeInterner interner = NodeInterner.forGraph();
+
     public GraphMem()
     { super(  ); }
 
@@ -34,7 +43,13 @@ public class GraphMem extends GraphMemBase
     { store.close(); }
 
     @Override public void performAdd( Triple t )
-    { store.add( t ); }
+    { store.add( interner == null ? t : interner.intern( t ) ); }
+
+    /**
+        Answer the interner for the nodes of this graph, or null if it has none.
+    */
+    public NodeInterner getNodeInterner()
+    { return interner; }
 
     @Override public void performDelete( Triple t )
     { store.delete( t ); }
@@ -136,6 +151,26 @@ public class GraphMem extends GraphMemBase
     @Override public ExtendedIterator<Triple> graphBaseFind( Triple m ) 
     { return store.find( m ); }
 
+    /**
+         Apply <code>action</code> to all the triples matching (s, p, o) by
+         walking the store's bunches directly.
+     */
+    @Override public void forEach( Node s, Node p, Node o, Consumer<? super Triple> action )
+    {
+        checkOpen();
+        ((GraphTripleStoreMem) store).forEach( Triple.createMatch( s, p, o ), action );
+    }
+
+    /**
+         Answer a spliterator over the triples matching (s, p, o) which splits 
+         over the store's hash tables, so that parallel streams can share the work.
+     */
+    @Override public Spliterator<Triple> spliterator( Node s, Node p, Node o )
+    {
+        checkOpen();
+        return ((GraphTripleStoreMem) store).spliterator( Triple.createMatch( s, p, o ) );
+    }
+
     /**
          Answer true iff this graph contains <code>t</code>. If <code>t</code>
          happens to be concrete, then we hand responsibility over to the store.
@@ -18,7 +18,12 @@
 
 package org.apache.jena.mem;
 
+import java.util.Spliterator ;
+import java.util.function.Consumer ;
+
 import org.apache.jena.graph.Graph ;
+import org.apache.jena.graph.Node ;
+import org.apache.jena.graph.Triple ;
 import org.apache.jena.graph.Triple.Field ;
 import org.apache.jena.graph.impl.TripleStore ;
 
@@ -41,5 +46,44 @@ public class GraphTripleStoreMem extends GraphTripleStoreBase implements TripleS
     
     public NodeToTriplesMapMem getObjects()
         { return (NodeToTriplesMapMem) objects; }
+
+    /**
+        Apply <code>action</code> to all the triples from this store that
+        match the pattern <code>m</code>, choosing the map as for 
+        {@link #find(Triple)}.
+    */
+    public void forEach( Triple m, Consumer<? super Triple> action )
+        {
+        Node pm = m.getPredicate();
+        Node om = m.getObject();
+        Node sm = m.getSubject();
+        if (sm.isConcrete())
+            getSubjects().forEach( sm, pm, om, action );
+        else if (om.isConcrete())
+            getObjects().forEach( om, sm, pm, action );
+        else if (pm.isConcrete())
+            getPredicates().forEach( pm, om, sm, action );
+        else
+            subjects.forEachAll( action );
+        }
+
+    /**
+        Answer a spliterator over all the triples from this store that match
+        the pattern <code>m</code>, choosing the map as for {@link #find(Triple)}.
+    */
+    public Spliterator<Triple> spliterator( Triple m )
+        {
+        Node pm = m.getPredicate();
+        Node om = m.getObject();
+        Node sm = m.getSubject();
+        if (sm.isConcrete())
+            return getSubjects().spliterator( sm, pm, om );
+        else if (om.isConcrete())
+            return getObjects().spliterator( om, sm, pm );
+        else if (pm.isConcrete())
+            return getPredicates().spliterator( pm, om, sm );
+        else
+            return subjects.spliteratorAll();
+        }
     
     }
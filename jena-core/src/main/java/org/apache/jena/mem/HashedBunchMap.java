@@ -18,6 +18,9 @@
 
 package org.apache.jena.mem;
 
+import java.util.ConcurrentModificationException ;
+import java.util.Spliterator ;
+
 import org.apache.jena.shared.* ;
 
 /**
@@ -73,6 +76,19 @@ public class HashedBunchMap extends HashCommon<Object> implements BunchMap
             }
         }
 
+    /**
+        Answer a spliterator over the bunches in the <code>values</code> array. 
+        Adding or removing a bunch meanwhile is reported when the traversal ends.
+    */
+    @Override
+    public Spliterator<TripleBunch> bunchSpliterator()
+        {
+        final TripleBunch [] initialValues = values;
+        final int initialSize = size;
+        return new SlotSpliterator<>( values, 0, capacity, size, Spliterator.DISTINCT | Spliterator.NONNULL, null,
+            () -> { if (values != initialValues || size != initialSize) throw new ConcurrentModificationException(); } );
+        }
+
     protected void grow()
         {
         Object [] oldContents = keys;
@@ -18,7 +18,11 @@
 
 package org.apache.jena.mem;
 
+import java.util.ConcurrentModificationException ;
 import java.util.Iterator ;
+import java.util.Spliterator ;
+import java.util.function.Consumer ;
+import java.util.function.Predicate ;
 
 import org.apache.jena.graph.Triple ;
 import org.apache.jena.util.iterator.ExtendedIterator ;
@@ -97,6 +101,27 @@ public class HashedTripleBunch extends HashCommon<Triple> implements TripleBunch
         changes += 1;
         }
     
+    @Override
+    public void forEach( Consumer<? super Triple> action )
+        {
+        final int initialChanges = changes;
+        final Triple [] k = keys;
+        for (int i = k.length; i > 0;)
+            {
+            Triple t = k[--i];
+            if (t != null) action.accept( t );
+            }
+        if (changes > initialChanges) throw new ConcurrentModificationException();
+        }
+
+    @Override
+    public Spliterator<Triple> spliterator( Predicate<Triple> filter )
+        {
+        final int initialChanges = changes;
+        return new SlotSpliterator<>( keys, 0, keys.length, size, Spliterator.DISTINCT | Spliterator.NONNULL, filter,
+            () -> { if (changes > initialChanges) throw new ConcurrentModificationException(); } );
+        }
+
     @Override
     public ExtendedIterator<Triple> iterator()
         { return iterator( NotifyEmpty.ignore ); }
@@ -19,6 +19,7 @@
 package org.apache.jena.mem;
 
 import java.util.*;
+import java.util.function.Consumer ;
 
 import org.apache.jena.graph.* ;
 import org.apache.jena.graph.Triple.Field ;
@@ -102,6 +103,19 @@ public abstract class NodeToTriplesMapBase
     */
     public abstract Iterator<Triple> iteratorForIndexed( Object y );
     
+    /**
+        Apply <code>action</code> to all the triples in this NTM.
+    */
+    public void forEachAll( Consumer<? super Triple> action )
+        { bunchMap.bunchSpliterator().forEachRemaining( b -> b.forEach( action ) ); }
+
+    /**
+        Answer a spliterator over all the triples in this NTM, which splits 
+        between bunches.
+    */
+    public Spliterator<Triple> spliteratorAll()
+        { return new BunchesSpliterator( bunchMap.bunchSpliterator(), size ); }
+
     /**
         Answer an iterator over all the triples in this NTM.
     */
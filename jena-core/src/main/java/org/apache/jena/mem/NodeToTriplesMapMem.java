@@ -21,6 +21,9 @@ package org.apache.jena.mem;
 import static org.apache.jena.util.iterator.WrappedIterator.create;
 
 import java.util.Iterator ;
+import java.util.Spliterator ;
+import java.util.Spliterators ;
+import java.util.function.Consumer ;
 import java.util.function.Predicate;
 
 import org.apache.jena.graph.Node ;
@@ -130,6 +133,40 @@ public class NodeToTriplesMapMem extends NodeToTriplesMapBase
        return create(s.iterator( new NotifyMe( indexValue ))).filterKeep(filter);
        }    
 
+    /**
+        Apply <code>action</code> to all the triples in this NTM which match
+        <code>pattern</code>, without building an iterator. The index field of
+        this NTM is guaranteed concrete in the pattern.
+    */
+    public void forEach( Node index, Node n2, Node n3, Consumer<? super Triple> action )
+       {
+       TripleBunch s = bunchMap.get( index.getIndexingValue() );
+       if (s == null) return;
+       final Predicate<Triple> filter = filterOn( n2, n3 );
+       if (filter == null) s.forEach( action );
+       else s.forEach( t -> { if (filter.test( t )) action.accept( t ); } );
+       }
+
+    /**
+        Answer a spliterator over all the triples in this NTM which match
+        <code>pattern</code>. The index field of this NTM is guaranteed
+        concrete in the pattern.
+    */
+    public Spliterator<Triple> spliterator( Node index, Node n2, Node n3 )
+       {
+       TripleBunch s = bunchMap.get( index.getIndexingValue() );
+       return s == null ? Spliterators.<Triple>emptySpliterator() : s.spliterator( filterOn( n2, n3 ) );
+       }
+
+    /**
+        Answer the filter for the non-index fields, or null if neither is concrete.
+    */
+    protected Predicate<Triple> filterOn( Node n2, Node n3 )
+       { 
+       if (!n2.isConcrete() && !n3.isConcrete()) return null;
+       return f2.filterOn( n2 ).and( f3.filterOn( n3 ) ); 
+       }
+
     protected TripleBunch get( Object index )
         { return bunchMap.get( index ); }
     
@@ -21,6 +21,9 @@ package org.apache.jena.mem;
 import java.util.HashSet ;
 import java.util.Iterator ;
 import java.util.Set ;
+import java.util.Spliterator ;
+import java.util.function.Consumer ;
+import java.util.function.Predicate ;
 
 import org.apache.jena.graph.Node ;
 import org.apache.jena.graph.Triple ;
@@ -84,5 +87,17 @@ public class SetBunch implements TripleBunch
     @Override
     public ExtendedIterator<Triple> iterator()
         { return WrappedIterator.create( elements.iterator() ); }        
+
+    @Override
+    public void forEach( Consumer<? super Triple> action )
+        { elements.forEach( action ); }
+
+    @Override
+    public Spliterator<Triple> spliterator( Predicate<Triple> filter )
+        {
+        if (filter == null) return elements.spliterator();
+        Object [] a = elements.toArray();
+        return new SlotSpliterator<>( a, 0, a.length, a.length, Spliterator.DISTINCT | Spliterator.NONNULL, filter, () -> {} );
+        }
     
     }
@@ -0,0 +1,115 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.jena.mem;
+
+import java.util.Spliterator ;
+import java.util.function.Consumer ;
+import java.util.function.Predicate ;
+
+/**
+    A spliterator over the non-null elements of a slice of an array, such as the
+    slots of a hashed bunch, which satisfy an optional filter. Splitting halves
+    the slice. When a traversal ends, <code>checkChanges</code> is run, so that
+    the owner of the array can report concurrent modification.
+*/
+public class SlotSpliterator<T> implements Spliterator<T>
+    {
+    protected final Object [] slots;
+    protected int lo;
+    protected final int hi;
+    protected long estimate;
+    protected final int characteristics;
+    protected final Predicate<? super T> filter;
+    protected final Runnable checkChanges;
+    
+    /**
+        Initialise this spliterator over <code>slots[lo..hi)</code>. If the
+        characteristics include SIZED, every slot of the slice must hold an
+        element which passes the filter; the size is then <code>hi - lo</code>
+        and <code>estimate</code> is not used.
+        @param estimate the estimated number of elements in the slice
+        @param filter the test for elements to deliver, or null for all of them
+    */
+    public SlotSpliterator( Object [] slots, int lo, int hi, long estimate, int characteristics, 
+        Predicate<? super T> filter, Runnable checkChanges )
+        {
+        this.slots = slots;
+        this.lo = lo;
+        this.hi = hi;
+        this.estimate = estimate;
+        this.characteristics = characteristics;
+        this.filter = filter;
+        this.checkChanges = checkChanges;
+        }
+
+    @SuppressWarnings("unchecked")
+    @Override public boolean tryAdvance( Consumer<? super T> action )
+        {
+        while (lo < hi)
+            {
+            T x = (T) slots[lo++];
+            if (x != null && (filter == null || filter.test( x )))
+                {
+                action.accept( x );
+                return true;
+                }
+            }
+        checkChanges.run();
+        return false;
+        }
+
+    @SuppressWarnings("unchecked")
+    @Override public void forEachRemaining( Consumer<? super T> action )
+        {
+        final Object [] a = slots;
+        final int end = hi;
+        int i = lo;
+        lo = end;
+        if (filter == null)
+            {
+            for (; i < end; i += 1)
+                if (a[i] != null) action.accept( (T) a[i] );
+            }
+        else
+            {
+            for (; i < end; i += 1)
+                {
+                T x = (T) a[i];
+                if (x != null && filter.test( x )) action.accept( x );
+                }
+            }
+        checkChanges.run();
+        }
+
+    @Override public Spliterator<T> trySplit()
+        {
+        int mid = (lo + hi) >>> 1;
+        if (mid <= lo) return null;
+        long half = estimate >>> 1;
+        Spliterator<T> prefix = new SlotSpliterator<>( slots, lo, mid, half, characteristics, filter, checkChanges );
+        lo = mid;
+        estimate -= half;
+        return prefix;
+        }
+
+    @Override public long estimateSize()
+        { return (characteristics & SIZED) == 0 ? estimate : hi - lo; }
+
+    @Override public int characteristics()
+        { return characteristics; }
+    }
@@ -18,6 +18,10 @@
 
 package org.apache.jena.mem;
 
+import java.util.Spliterator ;
+import java.util.function.Consumer ;
+import java.util.function.Predicate ;
+
 import org.apache.jena.graph.Triple ;
 import org.apache.jena.util.iterator.ExtendedIterator ;
 
@@ -72,5 +76,17 @@ public interface TripleBunch
         <code>container</code> is invoked.
     */
     public abstract ExtendedIterator<Triple> iterator( HashCommon.NotifyEmpty container );
+
+    /**
+        Apply <code>action</code> to every triple in this bunch. The bunch must not
+        be changed meanwhile.
+    */
+    public abstract void forEach( Consumer<? super Triple> action );
+
+    /**
+        Answer a spliterator over the triples in this bunch which satisfy
+        <code>filter</code>, or over all of them if it is null.
+    */
+    public abstract Spliterator<Triple> spliterator( Predicate<Triple> filter );
     
     }
@@ -19,6 +19,7 @@
 package org.apache.jena.mem;
 
 import java.util.Map;
+import java.util.Spliterator ;
 
 import org.apache.jena.util.CollectionFactory ;
 import org.apache.jena.util.iterator.* ;
@@ -53,4 +54,8 @@ public class WrappedHashMap implements BunchMap
     @Override
     public ExtendedIterator<Object> keyIterator()
         { return WrappedIterator.create( map.keySet().iterator() ); }
+
+    @Override
+    public Spliterator<TripleBunch> bunchSpliterator()
+        { return map.values().spliterator(); }
     }
@@ -28,6 +28,7 @@ import org.apache.jena.graph.Triple ;
 import org.apache.jena.reasoner.* ;
 import org.apache.jena.reasoner.rulesys.impl.FRuleEngineI ;
 import org.apache.jena.reasoner.rulesys.impl.FRuleEngineIFactory ;
+import org.apache.jena.reasoner.rulesys.impl.RETEEngine ;
 import org.apache.jena.reasoner.rulesys.impl.SafeGraph ;
 import org.apache.jena.util.OneToManyMap ;
 import org.apache.jena.util.iterator.ExtendedIterator ;
@@ -132,6 +133,16 @@ public class BasicForwardRuleInfGraph extends BaseInfGraph implements ForwardRul
         engine = FRuleEngineIFactory.getInstance().createFRuleEngineI(this, rules, false);
     }
     
+    /**
+     * Pass the settings of the reasoner, such as the RETE parallelism, to a
+     * newly instantiated rule engine.
+     */
+    protected void configureRuleEngine() {
+        if (engine instanceof RETEEngine && reasoner instanceof FBRuleReasoner) {
+            ((RETEEngine)engine).setParallelism(((FBRuleReasoner)reasoner).getRETEParallelism());
+        }
+    }
+    
     /**
      * Attach a compiled rule set to this inference graph.
      * @param ruleStore a compiled set of rules (i.e. the result of an FRuleEngine.compile). 
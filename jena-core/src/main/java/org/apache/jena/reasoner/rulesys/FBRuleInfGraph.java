@@ -18,6 +18,9 @@
 
 package org.apache.jena.reasoner.rulesys;
 
+import java.io.IOException ;
+import java.io.InputStream ;
+import java.io.OutputStream ;
 import java.util.* ;
 
 import org.apache.jena.datatypes.RDFDatatype ;
@@ -73,6 +76,12 @@ public class FBRuleInfGraph  extends BasicForwardRuleInfGraph implements Backwar
     /** Flag, if true then subClass and subProperty lattices will be optimized using TGCs */
     protected boolean useTGCCaching = false;
     
+    /** Cached deductions removed during an incremental delete, null if none in progress */
+    protected Set<Triple> tgcRemoved;
+    
+    /** Predicates of the data and deductions changed by an update in progress, null if none */
+    protected Set<Node> changedPredicates;
+    
     /** Optional precomputed cache of the subClass/subproperty lattices */
     protected TransitiveEngine transitiveEngine;
     
@@ -154,6 +163,7 @@ public class FBRuleInfGraph  extends BasicForwardRuleInfGraph implements Backwar
     @Override
     protected void instantiateRuleEngine(List<Rule> rules) {
         engine = FRuleEngineIFactory.getInstance().createFRuleEngineI(this, rules, useRETE);
+        configureRuleEngine();
     }
 
     /**
@@ -185,9 +195,11 @@ public class FBRuleInfGraph  extends BasicForwardRuleInfGraph implements Backwar
         if (schemaGraph != null) {
             transitiveEngine = new TransitiveEngine(((FBRuleInfGraph)schemaGraph).transitiveEngine);
         } else {
+            boolean compact = reasoner instanceof GenericRuleReasoner
+                && ((GenericRuleReasoner)reasoner).isCompactTransitiveClosureCaching();
             transitiveEngine = new TransitiveEngine(
-                new TransitiveGraphCache(ReasonerVocabulary.directSubClassOf.asNode(), RDFS.subClassOf.asNode()),
-                new TransitiveGraphCache(ReasonerVocabulary.directSubPropertyOf.asNode(), RDFS.subPropertyOf.asNode()));
+                TransitiveGraphCache.create(ReasonerVocabulary.directSubClassOf.asNode(), RDFS.subClassOf.asNode(), compact),
+                TransitiveGraphCache.create(ReasonerVocabulary.directSubPropertyOf.asNode(), RDFS.subPropertyOf.asNode(), compact));
         }
     }
     
@@ -299,6 +311,43 @@ public class FBRuleInfGraph  extends BasicForwardRuleInfGraph implements Backwar
         }
     }
     
+    /**
+     * Return the cache of completed tables of the backward rules. The cache can be
+     * given to another inference graph with the same rules over the same data
+     * using {@link #setTableCache}.
+     */
+    public LPTableCache getTableCache() {
+        prepare();
+        return bEngine.getTableCache();
+    }
+    
+    /**
+     * Answer tabled goals of the backward rules from the given cache, which must
+     * have been computed with the same rules over the same data.
+     */
+    public void setTableCache(LPTableCache cache) {
+        prepare();
+        bEngine.setTableCache(cache);
+    }
+    
+    /**
+     * Write the completed tables of the backward rules to a stream.
+     */
+    public void writeTables(OutputStream out) throws IOException {
+        prepare();
+        bEngine.writeTables(out);
+    }
+    
+    /**
+     * Read tables written by {@link #writeTables} from an inference graph with the
+     * same rules over the same data.
+     * @return false if the tables were written for other rules
+     */
+    public boolean readTables(InputStream in) throws IOException {
+        prepare();
+        return bEngine.readTables(in);
+    }
+    
     /**
      * Return a compiled representation of all the registered
      * forward rules.
@@ -313,10 +362,32 @@ public class FBRuleInfGraph  extends BasicForwardRuleInfGraph implements Backwar
     @Override
     public void addDeduction(Triple t) {
         getCurrentDeductionsGraph().add(t);
+        if (changedPredicates != null) changedPredicates.add(t.getPredicate());
         if (useTGCCaching) {
-            transitiveEngine.add(t);
+            if (transitiveEngine.add(t) && changedPredicates != null) {
+                changedPredicates.add(TransitiveEngine.subClassOf);
+                changedPredicates.add(TransitiveEngine.subPropertyOf);
+                changedPredicates.add(TransitiveEngine.directSubClassOf);
+                changedPredicates.add(TransitiveEngine.directSubPropertyOf);
+            }
+            if (tgcRemoved != null) tgcRemoved.remove(t);
         }
     }
+    
+    /**
+     * Remove a deduction from the deductions graph. The transitive caches
+     * are not updated, instead a net removal forces a recompute.
+     */
+    @Override
+    public void deleteDeduction(Triple t) {
+        Graph deductions = getCurrentDeductionsGraph();
+        if (tgcRemoved != null && deductions.contains(t) && !fdata.getGraph().contains(t)
+                && transitiveEngine.isRelevant(t)) {
+            tgcRemoved.add(t);
+        }
+        deductions.delete(t);
+        if (changedPredicates != null) changedPredicates.add(t.getPredicate());
+    }
 
     /**
      * Retrieve or create a bNode representing an inferred property value.
@@ -617,6 +688,18 @@ public class FBRuleInfGraph  extends BasicForwardRuleInfGraph implements Backwar
     @Override
     public synchronized void performAdd(Triple t) {
         version++;
+        // Updates made by rules while this one is in progress share its set
+        Set<Node> outer = changedPredicates;
+        if (outer == null) changedPredicates = new HashSet<>();
+        changedPredicates.add(t.getPredicate());
+        try {
+            doAdd(t);
+        } finally {
+            changedPredicates = outer;
+        }
+    }
+    
+    private void doAdd(Triple t) {
         fdata.getGraph().add(t);
         if (useTGCCaching) {
             if (transitiveEngine.add(t)) this.setPreparedState(false);
@@ -643,16 +726,45 @@ public class FBRuleInfGraph  extends BasicForwardRuleInfGraph implements Backwar
                 engine.add(t);
             }
         }
-        bEngine.reset();
+        resetTables();
+    }
+    
+    /**
+     * Clear the backward tables after an update: the tables which may depend on
+     * the changed predicates if the forward deductions were updated incrementally,
+     * otherwise all of them.
+     */
+    private void resetTables() {
+        if (this.isPrepared()) {
+            bEngine.reset(changedPredicates);
+        } else {
+            bEngine.reset();
+        }
     }
 
     /** 
      * Removes the triple t (if possible) from the set belonging to this graph. 
+     * With the RETE forward engine the deductions are updated incrementally
+     * where the rules allow it. Without RETE (see {@link #useRETE}) the forward
+     * engine cannot delete incrementally, and any delete from the base data
+     * forces a full recompute on the next query.
      */   
     @Override
     public void performDelete(Triple t) {
         version++;
-        //boolean removeIsFromBase = fdata.getGraph().contains(t);
+        // Updates made by rules while this one is in progress share its set
+        Set<Node> outer = changedPredicates;
+        if (outer == null) changedPredicates = new HashSet<>();
+        changedPredicates.add(t.getPredicate());
+        try {
+            doDelete(t);
+        } finally {
+            changedPredicates = outer;
+        }
+    }
+    
+    private void doDelete(Triple t) {
+        boolean removeIsFromBase = fdata.getGraph().contains(t);
         fdata.getGraph().delete(t);
         if (useTGCCaching) {
             if (transitiveEngine.delete(t)) {
@@ -662,17 +774,38 @@ public class FBRuleInfGraph  extends BasicForwardRuleInfGraph implements Backwar
                 this.setPreparedState(false);
             }
         } 
-        // Full incremental remove processing requires reference counting
-        // of all deductions. It's not clear the cost of maintaining the
-        // reference counts is worth it so the current implementation
-        // forces a recompute if any external deletes are performed.
-        if (this.isPrepared()) {
-            bEngine.deleteAllRules();
-            this.setPreparedState(false);
-            // Re-enable the code below when/if ref counting is added and remove above
-            // if (removeIsFromBase) engine.delete(t);
+        // The forward engine removes the deductions which depended on the triple
+        // and rederives any which are still supported (delete and rederive).
+        // If it can't do that, or the delete affects the preprocessing or the
+        // transitive caches, then force a recompute.
+        if (this.isPrepared() && removeIsFromBase) {
+            boolean needReset = false;
+            if (preprocessorHooks != null) {
+                for ( RulePreprocessHook preprocessorHook : preprocessorHooks )
+                {
+                    if ( preprocessorHook.needsRerun( this, t ) )
+                    {
+                        needReset = true;
+                        break;
+                    }
+                }
+            }
+            if (!needReset) {
+                // The caches don't support removing relations, so any cached
+                // deduction which is not rederived forces a recompute
+                if (useTGCCaching) tgcRemoved = new HashSet<>();
+                try {
+                    needReset = !engine.delete(t) || (tgcRemoved != null && !tgcRemoved.isEmpty());
+                } finally {
+                    tgcRemoved = null;
+                }
+            }
+            if (needReset) {
+                bEngine.deleteAllRules();
+                this.setPreparedState(false);
+            }
         }
-        bEngine.reset();
+        resetTables();
     }
     
     /**
@@ -49,6 +49,9 @@ public class FBRuleReasoner implements RuleReasoner {
     boolean traceOn = false;
 //    boolean traceOn = true;
 
+    /** Number of threads a RETE engine uses to propagate batches of added triples */
+    protected int reteParallelism = 1;
+
     /** Flag, if true we cache the closure of the pure rule set with its axioms */
     protected static final boolean cachePreload = true;
     
@@ -203,6 +206,7 @@ public class FBRuleReasoner implements RuleReasoner {
         FBRuleReasoner fbr  = new FBRuleReasoner(rules, graph, factory);
         fbr.setDerivationLogging(recordDerivations);
         fbr.setTraceOn(traceOn);
+        fbr.setRETEParallelism(reteParallelism);
         return fbr;
     }
     
@@ -327,12 +331,30 @@ public class FBRuleReasoner implements RuleReasoner {
         return traceOn;
     } 
 
+    /**
+     * Set the number of threads a RETE engine of an inference graph from this
+     * reasoner uses to propagate batches of added triples, for monotonic rule
+     * sets. The default, 1, propagates one triple at a time.
+     */
+    public void setRETEParallelism(int parallelism) {
+        reteParallelism = Math.max(1, parallelism);
+    }
+
+    /**
+     * Return the number of threads a RETE engine uses to propagate batches of
+     * added triples.
+     */
+    public int getRETEParallelism() {
+        return reteParallelism;
+    }
+
     /**
      * Set a configuration parameter for the reasoner. The supported parameters
      * are:
      * <ul>
      * <li>PROPderivationLogging - set to true to enable recording all rule derivations</li>
      * <li>PROPtraceOn - set to true to enable verbose trace information to be sent to the logger INFO channel</li>
+     * <li>PROPreteParallelism - the number of threads a RETE engine uses to propagate added triples</li>
      * </ul> 
      * 
      * @param parameter the property identifying the parameter to be changed
@@ -400,6 +422,9 @@ public class FBRuleReasoner implements RuleReasoner {
         } else if (parameter.equals(ReasonerVocabulary.PROPtraceOn)) {
             traceOn =  Util.convertBooleanPredicateArg(parameter, value);
             return true;
+        } else if (parameter.equals(ReasonerVocabulary.PROPreteParallelism)) {
+            setRETEParallelism(Util.convertIntegerPredicateArg(parameter, value));
+            return true;
         } else {
             return false;
         }
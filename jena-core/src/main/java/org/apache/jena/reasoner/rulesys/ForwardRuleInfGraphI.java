@@ -64,6 +64,13 @@ public interface ForwardRuleInfGraphI extends InfGraph, SilentAddI {
      */
     public void addDeduction(Triple t);
     
+    /**
+     * Remove a deduction from the deductions graph.
+     */
+    public default void deleteDeduction(Triple t) {
+        getCurrentDeductionsGraph().delete(t);
+    }
+    
     /**
      * Search the combination of data and deductions graphs for the given triple pattern.
      * This may different from the normal find operation in the base of hybrid reasoners
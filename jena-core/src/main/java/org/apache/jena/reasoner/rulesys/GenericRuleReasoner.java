@@ -49,6 +49,9 @@ public class GenericRuleReasoner extends FBRuleReasoner {
     /** Flag, if true then subClass and subProperty lattices will be optimized using TGCs, only applicable to HYBRID reasoners */
     protected boolean enableTGCCaching = false;
     
+    /** Flag, if true then the subclass/subproperty caches use compact interval indexes */
+    protected boolean enableCompactTGC = false;
+    
     /** Flag, if true then rules will be augmented by OWL translations of the schema */
     protected boolean enableOWLTranslation = false;
     
@@ -175,6 +178,27 @@ public class GenericRuleReasoner extends FBRuleReasoner {
     public void setTransitiveClosureCaching(boolean enableTGCCaching) {
         this.enableTGCCaching = enableTGCCaching;
     }
+    
+    /**
+     * Set to true to make the subclass/subproperty caches, when they are enabled,
+     * hold the closure as compact interval indexes (see
+     * {@link org.apache.jena.reasoner.transitiveReasoner.CompactTransitiveGraphCache}),
+     * which suit large hierarchies.
+     * Default is false.
+     */
+    public synchronized void setCompactTransitiveClosureCaching(boolean enableCompactTGC) {
+        this.enableCompactTGC = enableCompactTGC;
+        // The cached closure of the rules holds caches of the old kind
+        preload = null;
+    }
+    
+    /**
+     * Return true if the subclass/subproperty caches hold the closure as
+     * compact interval indexes.
+     */
+    public boolean isCompactTransitiveClosureCaching() {
+        return enableCompactTGC;
+    }
    
     /**
      * Set to true to cause functor-valued literals to be dropped from rule output.
@@ -283,6 +307,9 @@ public class GenericRuleReasoner extends FBRuleReasoner {
         } else if (parameter.equals(ReasonerVocabulary.PROPenableTGCCaching)) {
             enableTGCCaching =  Util.convertBooleanPredicateArg(parameter, value);
             
+        } else if (parameter.equals(ReasonerVocabulary.PROPenableCompactTGC)) {
+            setCompactTransitiveClosureCaching(Util.convertBooleanPredicateArg(parameter, value));
+            
         } else if (parameter.equals(ReasonerVocabulary.PROPruleMode)) {
             if (value.equals(FORWARD.name)) {
                 mode = FORWARD;
@@ -338,7 +365,9 @@ public class GenericRuleReasoner extends FBRuleReasoner {
         GenericRuleReasoner grr = new GenericRuleReasoner(rules, graph, factory, mode);
         grr.setDerivationLogging(recordDerivations);
         grr.setTraceOn(traceOn);
+        grr.setRETEParallelism(reteParallelism);
         grr.setTransitiveClosureCaching(enableTGCCaching);
+        grr.setCompactTransitiveClosureCaching(enableCompactTGC);
         grr.setFunctorFiltering(filterFunctors);
         if (preprocessorHooks != null) {
             for ( RulePreprocessHook preprocessorHook : preprocessorHooks )
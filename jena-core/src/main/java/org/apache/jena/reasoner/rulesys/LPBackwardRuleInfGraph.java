@@ -18,6 +18,9 @@
 
 package org.apache.jena.reasoner.rulesys;
 
+import java.io.IOException ;
+import java.io.InputStream ;
+import java.io.OutputStream ;
 import java.util.*;
 
 import org.apache.jena.graph.* ;
@@ -162,7 +165,7 @@ public class LPBackwardRuleInfGraph extends BaseInfGraph implements BackwardRule
      * may not have completely satisfied the query.
      */
     @Override
-    public synchronized ExtendedIterator<Triple> findWithContinuation(TriplePattern pattern, Finder continuation) {
+    public ExtendedIterator<Triple> findWithContinuation(TriplePattern pattern, Finder continuation) {
         checkOpen();
         this.requirePrepared();
         ExtendedIterator<Triple> result = engine.find(pattern).filterKeep( new UniqueFilter<Triple>());
@@ -204,6 +207,7 @@ public class LPBackwardRuleInfGraph extends BaseInfGraph implements BackwardRule
         version++;
         engine.checkSafeToUpdate();
         fdata.getGraph().add(t);
+        engine.reset(Collections.singleton(t.getPredicate()));
         this.setPreparedState(false);
     }
      
@@ -215,6 +219,7 @@ public class LPBackwardRuleInfGraph extends BaseInfGraph implements BackwardRule
         version++;
         engine.checkSafeToUpdate();
         fdata.getGraph().delete(t);
+        engine.reset(Collections.singleton(t.getPredicate()));
         this.setPreparedState(false);
     }
        
@@ -228,6 +233,43 @@ public class LPBackwardRuleInfGraph extends BaseInfGraph implements BackwardRule
         }
     }
     
+    /**
+     * Return the cache of completed tables of the backward rules. The cache can be
+     * given to another inference graph with the same rules over the same data
+     * using {@link #setTableCache}.
+     */
+    public LPTableCache getTableCache() {
+        prepare();
+        return engine.getTableCache();
+    }
+    
+    /**
+     * Answer tabled goals of the backward rules from the given cache, which must
+     * have been computed with the same rules over the same data.
+     */
+    public void setTableCache(LPTableCache cache) {
+        prepare();
+        engine.setTableCache(cache);
+    }
+    
+    /**
+     * Write the completed tables of the backward rules to a stream.
+     */
+    public void writeTables(OutputStream out) throws IOException {
+        prepare();
+        engine.writeTables(out);
+    }
+    
+    /**
+     * Read tables written by {@link #writeTables} from an inference graph with the
+     * same rules over the same data.
+     * @return false if the tables were written for other rules
+     */
+    public boolean readTables(InputStream in) throws IOException {
+        prepare();
+        return engine.readTables(in);
+    }
+    
 //  =======================================================================
 //   support for proof traces
 
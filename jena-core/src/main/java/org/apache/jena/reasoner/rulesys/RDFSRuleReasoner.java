@@ -178,7 +178,9 @@ public class RDFSRuleReasoner extends GenericRuleReasoner {
         RDFSRuleReasoner grr = new RDFSRuleReasoner(graph, factory);
         grr.setDerivationLogging(recordDerivations);
         grr.setTraceOn(traceOn);
+        grr.setRETEParallelism(reteParallelism);
         grr.setTransitiveClosureCaching(enableTGCCaching);
+        grr.setCompactTransitiveClosureCaching(enableCompactTGC);
         grr.setFunctorFiltering(filterFunctors);
         if (preprocessorHooks != null) {
             for (RulePreprocessHook rulePreprocessHook : preprocessorHooks)
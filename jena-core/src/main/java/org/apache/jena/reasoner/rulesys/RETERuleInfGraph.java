@@ -79,6 +79,7 @@ public class RETERuleInfGraph extends BasicForwardRuleInfGraph {
     @Override
     protected void instantiateRuleEngine(List<Rule> rules) {
         engine = FRuleEngineIFactory.getInstance().createFRuleEngineI(this, rules, true);
+        configureRuleEngine();
     }
 
     /**
@@ -104,8 +105,9 @@ public class RETERuleInfGraph extends BasicForwardRuleInfGraph {
                 data.delete(t);
             }
         }
-        engine.delete(t);
-        fdeductions.getGraph().delete(t);
+        if (!engine.delete(t)) {
+            fdeductions.getGraph().delete(t);
+        }
     }
 
 }
@@ -18,6 +18,7 @@
 
 package org.apache.jena.reasoner.rulesys.impl;
 
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.Map;
@@ -86,9 +87,25 @@ public class BindingVectorMultiSet {
 	 * @param env
 	 */
 	public void add(BindingVector env) {
-		Count c = get(env);
+		add(getPartialEnv(env), env);
+	}
+
+	/**
+	 * Increase the current quantity of env, given its key
+	 * 
+	 * @param key
+	 *            the key of env, from getPartialEnv
+	 * @param env
+	 */
+	protected void add(BindingVector key, BindingVector env) {
+		Map<BindingVector, Count> set = data.get(key);
+		if (set == null) {
+			set = new HashMap<>();
+			data.put(key, set);
+		}
+		Count c = set.get(env);
 		if (c == null) {
-			put(env, new Count(1));
+			set.put(env, new Count(1));
 		} else {
 			c.inc();
 		}
@@ -140,10 +157,22 @@ public class BindingVectorMultiSet {
 	 * @param env
 	 */
 	public Iterator<BindingVector> getSubSet(BindingVector env) {
-		Map<BindingVector, Count> rawSubSet = getRawSubSet(env);
-		return (rawSubSet == null ? new HashMap<BindingVector, Count>(0)
-				: rawSubSet).keySet().iterator();
+		return getSubSetForKey(getPartialEnv(env));
+	}
 
+	/**
+	 * Get an iterator over all BindingVectors currently present with the
+	 * given key
+	 * 
+	 * @param key
+	 *            a key from getPartialEnv
+	 */
+	protected Iterator<BindingVector> getSubSetForKey(BindingVector key) {
+		Map<BindingVector, Count> rawSubSet = data.get(key);
+		if (rawSubSet == null) {
+			return Collections.emptyIterator();
+		}
+		return rawSubSet.keySet().iterator();
 	}
 
 	/**
@@ -187,7 +216,17 @@ public class BindingVectorMultiSet {
 	 * @param env
 	 */
 	public void remove(BindingVector env) {
-		BindingVector key = getPartialEnv(env);
+		remove(getPartialEnv(env), env);
+	}
+
+	/**
+	 * Decrease the quantity of env, given its key
+	 * 
+	 * @param key
+	 *            the key of env, from getPartialEnv
+	 * @param env
+	 */
+	protected void remove(BindingVector key, BindingVector env) {
 		Map<BindingVector, Count> set = data.get(key);
 		if (set != null) {
 			Count c = set.get(env);
@@ -154,6 +154,9 @@ public class FRuleEngine implements FRuleEngineI {
     
     /**
      * Remove one triple to the data graph.
+     * <p>
+     * Incremental delete is not supported by this engine, unlike {@link RETEEngine},
+     * so this always returns false and the caller has to restart the engine.</p>
      * @return true if the effects could be correctly propagated or
      * false if not (in which case the entire engine should be restarted).
      */
@@ -20,6 +20,7 @@ package org.apache.jena.reasoner.rulesys.impl;
 
 import java.util.*;
 
+import org.apache.jena.graph.Triple ;
 import org.apache.jena.reasoner.TriplePattern ;
 
 /**
@@ -86,6 +87,22 @@ public class Generator implements LPAgendaEntry, LPInterpreterContext {
         if (!isSingleton) resultSet = new HashSet<>();
     }
     
+    /**
+     * Constructor for a generator which is already complete, for a goal whose
+     * results have been computed before.
+     * 
+     * @param goal the goal the results satisfy
+     * @param results the complete results for the goal
+     */
+    public Generator(TriplePattern goal, List<Triple> results) {
+        this.goal = goal;
+        this.results.addAll(results);
+        isSingleton = goal.isGround();
+        isReady = false;
+        completionState = LFlag.DEAD;
+        generatingCPs = null;
+    }
+    
     /**
      * Return the number of results available from this context.
      */
@@ -157,6 +174,7 @@ public class Generator implements LPAgendaEntry, LPInterpreterContext {
      */
     public void setComplete() {
         if (!isComplete()) {
+            LPBRuleEngine engine = interpreter.getEngine();
             interpreter.close();
             interpreter = null;
             resultSet = null;
@@ -172,6 +190,7 @@ public class Generator implements LPAgendaEntry, LPInterpreterContext {
             }
             generatingCPs = null;
             consumingCPs.clear();
+            engine.notifyComplete(this);
         }
     }
     
@@ -179,7 +198,8 @@ public class Generator implements LPAgendaEntry, LPInterpreterContext {
      * Add a new client choince point to consume results from this generator.
      */
     public void addConsumer(ConsumerChoicePointFrame ccp) {
-        consumingCPs.add(ccp);
+        // A complete generator has no more results to signal
+        if (!isComplete()) consumingCPs.add(ccp);
 //        // Update distance from top goal
 //        int newDepth = ccp.context == null ? 1 : ccp.context.getDepth() + 1;
 //        if (newDepth < depth) depth = newDepth;
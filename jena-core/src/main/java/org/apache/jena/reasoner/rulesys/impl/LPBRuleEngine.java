@@ -21,10 +21,14 @@ package org.apache.jena.reasoner.rulesys.impl;
 import org.apache.jena.graph.* ;
 import org.apache.jena.reasoner.* ;
 import org.apache.jena.reasoner.rulesys.* ;
+import org.apache.jena.reasoner.rulesys.builtins.* ;
 import org.apache.jena.util.iterator.* ;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.IOException ;
+import java.io.InputStream ;
+import java.io.OutputStream ;
 import java.util.*;
 
 /**
@@ -33,6 +37,16 @@ import java.util.*;
  * instance. The shared instance holds any common result caching, rule store
  * and global state data. However, all the processing is done by instances
  * of the LPInterpreter - one per query.
+ * <p>
+ * Goals in progress are coordinated by synchronizing on the engine. When the
+ * generator for a tabled goal completes, its results are published and later
+ * queries for that goal are answered from them without taking the engine lock, so
+ * queries over completed tables run concurrently.
+ * <p>
+ * The completed tables are held in an {@link LPTableCache} which can be shared
+ * with other engines or saved and reloaded. When the data changes,
+ * {@link #reset(Collection)} only drops the tables of goals which may depend on
+ * the changed predicates.
  */
 public class LPBRuleEngine {
     
@@ -58,6 +72,19 @@ public class LPBRuleEngine {
      *  This is here so that partial goal state can be shared across multiple queries. */
     protected HashMap<TriplePattern, Generator> tabledGoals = new HashMap<>();
     
+    /** Results of tabled goals whose generators have completed. The result lists
+     *  are not changed after they are published here so they can be read without
+     *  synchronizing on the engine. */
+    protected volatile LPTableCache tableCache = new LPTableCache();
+    
+    /** True if the table cache may be in use by other engines, in which case it is
+     *  replaced rather than changed when the tables are invalidated */
+    protected boolean tableCacheShared = false;
+    
+    /** Map from a predicate to the predicates of rule heads which may use it, computed
+     *  from the rules when needed. Node.ANY stands for any predicate. */
+    protected Map<Node, Set<Node>> predicateDependencies;
+    
     /** Set of generators waiting to be run */
     protected LinkedList<LPAgendaEntry> agenda = new LinkedList<>();
 //    protected List agenda = new ArrayList();
@@ -102,10 +129,16 @@ public class LPBRuleEngine {
      * @param goal the query to be processed
      * @return a closable iterator over the query results
      */
-    public synchronized ExtendedIterator<Triple> find(TriplePattern goal) {
-        LPInterpreter interpreter = new LPInterpreter(this, goal);
-        activeInterpreters.add(interpreter);
-        return WrappedIterator.create( new LPTopGoalIterator(interpreter));
+    public ExtendedIterator<Triple> find(TriplePattern goal) {
+        List<Triple> results = completedResults(goal);
+        if (results != null) {
+            return WrappedIterator.create(results.iterator());
+        }
+        synchronized (this) {
+            LPInterpreter interpreter = new LPInterpreter(this, goal);
+            activeInterpreters.add(interpreter);
+            return WrappedIterator.create( new LPTopGoalIterator(interpreter));
+        }
     }
     
     /**
@@ -114,9 +147,89 @@ public class LPBRuleEngine {
     public synchronized void reset() {
         checkSafeToUpdate();
         tabledGoals = new HashMap<>();
+        if (tableCacheShared) {
+            tableCache = new LPTableCache();
+            tableCacheShared = false;
+        } else {
+            tableCache.clear();
+        }
         agenda.clear();
     }
     
+    /**
+     * Clear the tabled results which may depend on data with the given predicates,
+     * keeping completed tables for goals which can not be affected. Falls back
+     * to {@link #reset()} if the rules may use data on any predicate.
+     * @param changedPredicates the predicates of the added or removed triples
+     */
+    public synchronized void reset(Collection<Node> changedPredicates) {
+        Set<Node> affected = affectedPredicates(changedPredicates);
+        if (affected.contains(Node.ANY)) {
+            reset();
+            return;
+        }
+        checkSafeToUpdate();
+        HashMap<TriplePattern, Generator> kept = new HashMap<>();
+        for (Map.Entry<TriplePattern, Generator> entry : tabledGoals.entrySet()) {
+            Node p = entry.getKey().getPredicate();
+            if (entry.getValue().isComplete() && !p.isVariable() && !Functor.isFunctor(p)
+                    && !affected.contains(p)) {
+                kept.put(entry.getKey(), entry.getValue());
+            }
+        }
+        tabledGoals = kept;
+        if (tableCacheShared) {
+            LPTableCache cache = tableCache.copy();
+            cache.invalidate(affected);
+            tableCache = cache;
+            tableCacheShared = false;
+        } else {
+            tableCache.invalidate(affected);
+        }
+        agenda.clear();
+    }
+    
+    /**
+     * Return the cache of completed tables. The cache may then be shared with
+     * another engine which has the same rules over the same data.
+     */
+    public synchronized LPTableCache getTableCache() {
+        tableCacheShared = true;
+        return tableCache;
+    }
+    
+    /**
+     * Answer tabled goals from the given cache, in place of the current tables.
+     * The cache must have been computed with the same rules over the same data.
+     */
+    public synchronized void setTableCache(LPTableCache cache) {
+        reset();
+        tableCache = cache;
+        tableCacheShared = true;
+    }
+    
+    /**
+     * Write the completed tables to a stream, see {@link LPTableCache#write}.
+     */
+    public synchronized void writeTables(OutputStream out) throws IOException {
+        tableCache.write(out, LPTableCache.fingerprint(ruleStore.getAllRules()));
+    }
+    
+    /**
+     * Read tables written by {@link #writeTables} and answer tabled goals from
+     * them, in place of the current tables. The tables must have been computed
+     * over the same data.
+     * @return false, leaving the tables unchanged, if the tables were written for
+     * other rules or by another version
+     */
+    public synchronized boolean readTables(InputStream in) throws IOException {
+        LPTableCache cache = LPTableCache.read(in, LPTableCache.fingerprint(ruleStore.getAllRules()));
+        if (cache == null) return false;
+        setTableCache(cache);
+        tableCacheShared = false;
+        return true;
+    }
+    
     /**
      * Add a single rule to the store.
      * N.B. This will invalidate current partial results and the engine
@@ -128,6 +241,7 @@ public class LPBRuleEngine {
             throw new ReasonerException("Backward rules only allowed one head clause");
         }
         ruleStore.addRule(rule);
+        predicateDependencies = null;
     }
     
     /**
@@ -138,6 +252,7 @@ public class LPBRuleEngine {
     public synchronized void deleteRule(Rule rule) {
         checkSafeToUpdate();
         ruleStore.deleteRule(rule);
+        predicateDependencies = null;
     }
     
     /**
@@ -153,7 +268,8 @@ public class LPBRuleEngine {
      */
     public synchronized void deleteAllRules() {
         checkSafeToUpdate();
-        ruleStore.deleteAllRules();     
+        ruleStore.deleteAllRules();
+        predicateDependencies = null;     
     }
     
     /**
@@ -257,6 +373,9 @@ public class LPBRuleEngine {
      */
     public synchronized Generator generatorFor(TriplePattern goal, List<RuleClauseCode> clauses) {
         Generator generator = tabledGoals.get(goal);
+        if (generator == null) {
+            generator = cachedGenerator(goal);
+        }
         if (generator == null) {
             LPInterpreter interpreter = new LPInterpreter(this, goal, clauses, false);
             activeInterpreters.add(interpreter);
@@ -274,6 +393,9 @@ public class LPBRuleEngine {
      */
     public synchronized Generator generatorFor(TriplePattern goal) {
         Generator generator = tabledGoals.get(goal);
+        if (generator == null) {
+            generator = cachedGenerator(goal);
+        }
         if (generator == null) {
             LPInterpreter interpreter = new LPInterpreter(this, goal, false);
             activeInterpreters.add(interpreter);
@@ -284,6 +406,150 @@ public class LPBRuleEngine {
         return generator;
     }
     
+    /**
+     * Return a complete generator for a goal answered by the table cache, or null.
+     */
+    private Generator cachedGenerator(TriplePattern goal) {
+        if (!isPublishable(goal)) return null;
+        List<Triple> results = tableCache.get(goal);
+        if (results == null) return null;
+        Generator generator = new Generator(goal, results);
+        tabledGoals.put(goal, generator);
+        return generator;
+    }
+    
+    /**
+     * Publish the results of a tabled goal whose generator has completed.
+     * Called from within the engine lock.
+     */
+    @SuppressWarnings("unchecked")
+    public void notifyComplete(Generator generator) {
+        TriplePattern goal = generator.goal;
+        // Only the current table, and only goals which a query pattern
+        // can be matched against exactly.
+        if (tabledGoals.get(goal) != generator || !isPublishable(goal)) return;
+        List<?> results = generator.results;
+        tableCache.put(goal, (List<Triple>)results);
+    }
+    
+    /**
+     * Return the published results for a query, or null if the query does not
+     * match a completed tabled goal.
+     */
+    protected List<Triple> completedResults(TriplePattern goal) {
+        LPTableCache cache = tableCache;
+        if (cache.isEmpty()) return null;
+        Node s = wildcard(goal.getSubject());
+        Node p = wildcard(goal.getPredicate());
+        Node o = wildcard(goal.getObject());
+        if (s == null || p == null || o == null) return null;
+        return cache.get(new TriplePattern(s, p, o));
+    }
+    
+    /**
+     * A query node as it appears in the key of a tabled goal: wildcards become
+     * Node_RuleVariable.WILD. Returns null for nodes which can not be matched
+     * against a goal (named variables, which may repeat, and functors).
+     */
+    private static Node wildcard(Node n) {
+        if (n == null || n == Node.ANY || n == Node_RuleVariable.WILD) return Node_RuleVariable.WILD;
+        if (n.isVariable() || Functor.isFunctor(n)) return null;
+        return n;
+    }
+    
+    /**
+     * True if the goal has no repeated variables and no functors. TriplePattern
+     * equality does not distinguish one variable from another so only these goals
+     * have the same results as a query for an equal pattern.
+     */
+    private static boolean isPublishable(TriplePattern goal) {
+        Node s = goal.getSubject();
+        Node p = goal.getPredicate();
+        Node o = goal.getObject();
+        if (Functor.isFunctor(s) || Functor.isFunctor(p) || Functor.isFunctor(o)) return false;
+        return !sameVariable(s, p) && !sameVariable(s, o) && !sameVariable(p, o);
+    }
+    
+    private static boolean sameVariable(Node n, Node m) {
+        // Goal variables are dereferenced so one variable is one object.
+        return n == m && n instanceof Node_RuleVariable && n != Node_RuleVariable.WILD;
+    }
+    
+    /**
+     * Return the predicates whose tabled goals may be affected by changes to data
+     * with the given predicates: those predicates together with the predicates of
+     * the heads of any rules which may use them. Contains Node.ANY if goals on any
+     * predicate may be affected.
+     */
+    protected Set<Node> affectedPredicates(Collection<Node> changedPredicates) {
+        Map<Node, Set<Node>> dependencies = predicateDependencies();
+        Set<Node> affected = new HashSet<>();
+        Deque<Node> pending = new ArrayDeque<>();
+        for (Node p : changedPredicates) {
+            p = dependencyPredicate(p);
+            if (affected.add(p)) pending.add(p);
+        }
+        if (!affected.isEmpty()) pending.add(Node.ANY);
+        while (!pending.isEmpty()) {
+            Set<Node> heads = dependencies.get(pending.poll());
+            if (heads == null) continue;
+            for (Node head : heads) {
+                if (affected.add(head)) pending.add(head);
+            }
+        }
+        return affected;
+    }
+    
+    /**
+     * Return the map from a predicate to the predicates of the heads of the rules
+     * whose bodies use it. A rule whose body can use data on any predicate, such as
+     * a clause with a variable predicate or a call to a builtin which reads the
+     * graph, is listed under Node.ANY.
+     */
+    protected Map<Node, Set<Node>> predicateDependencies() {
+        if (predicateDependencies == null) {
+            Map<Node, Set<Node>> dependencies = new HashMap<>();
+            for (Rule rule : ruleStore.getAllRules()) {
+                if (rule.headLength() != 1 || !(rule.getHeadElement(0) instanceof TriplePattern)) continue;
+                Node head = dependencyPredicate(((TriplePattern)rule.getHeadElement(0)).getPredicate());
+                for (int i = 0; i < rule.bodyLength(); i++) {
+                    ClauseEntry clause = rule.getBodyElement(i);
+                    Node body = Node.ANY;
+                    if (clause instanceof TriplePattern) {
+                        body = dependencyPredicate(((TriplePattern)clause).getPredicate());
+                    } else if (clause instanceof Functor && isPure(((Functor)clause).getImplementor())) {
+                        continue;
+                    }
+                    Set<Node> heads = dependencies.get(body);
+                    if (heads == null) {
+                        heads = new HashSet<>();
+                        dependencies.put(body, heads);
+                    }
+                    heads.add(head);
+                }
+            }
+            predicateDependencies = dependencies;
+        }
+        return predicateDependencies;
+    }
+    
+    private static Node dependencyPredicate(Node p) {
+        return (p == null || p.isVariable() || Functor.isFunctor(p)) ? Node.ANY : p;
+    }
+    
+    private static boolean isPure(Builtin builtin) {
+        return builtin != null && PURE_BUILTINS.contains(builtin.getClass());
+    }
+    
+    /** Builtins which only test or compute from their arguments and do not read the graph */
+    private static final Set<Class<?>> PURE_BUILTINS = new HashSet<Class<?>>(Arrays.asList(
+            Print.class, AddOne.class, LessThan.class, GreaterThan.class, LE.class, GE.class,
+            Equal.class, NotEqual.class, IsFunctor.class, NotFunctor.class, MakeTemp.class,
+            Sum.class, Difference.class, Product.class, Quotient.class, Bound.class, Unbound.class,
+            IsLiteral.class, NotLiteral.class, IsBNode.class, NotBNode.class, IsDType.class,
+            NotDType.class, Max.class, Min.class, MakeSkolem.class, StrConcat.class,
+            UriConcat.class, Regex.class, Now.class));
+    
     /**
      * Register that a generator or specific generator state (Consumer choice point)
      * is now ready to run.
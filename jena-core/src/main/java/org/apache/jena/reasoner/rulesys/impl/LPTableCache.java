@@ -0,0 +1,277 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.jena.reasoner.rulesys.impl;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.apache.jena.datatypes.TypeMapper ;
+import org.apache.jena.graph.Node ;
+import org.apache.jena.graph.NodeFactory ;
+import org.apache.jena.graph.Triple ;
+import org.apache.jena.rdf.model.AnonId ;
+import org.apache.jena.reasoner.TriplePattern ;
+import org.apache.jena.reasoner.rulesys.Functor ;
+import org.apache.jena.reasoner.rulesys.Node_RuleVariable ;
+import org.apache.jena.reasoner.rulesys.Rule ;
+
+/**
+ * The results of completed tabled goals of an LPBRuleEngine. Goals are
+ * keyed by a triple pattern in which each variable is Node_RuleVariable.WILD;
+ * the result lists are not changed once they are stored so they can be read
+ * concurrently.
+ * <p>
+ * A cache can be shared between engines which have the same rules over the same
+ * data, so that one engine answers from tables completed by another. An engine
+ * whose data changes stops using a shared cache rather than invalidating it.
+ * A cache can also be written to a stream and read back, for example to keep the
+ * tables of a large persistent dataset between runs. Blank nodes are written by
+ * label, so the tables are only valid when read back over data which keeps its
+ * blank node labels (such as a TDB dataset).
+ * </p>
+ */
+public class LPTableCache {
+
+    /** Marks the start of a stored cache */
+    protected static final int MAGIC = 0x4A4C5054;
+
+    /** Format version of a stored cache */
+    protected static final int VERSION = 1;
+
+    private static final byte URI = 'U';
+    private static final byte BLANK = 'B';
+    private static final byte LITERAL = 'L';
+    private static final byte WILD = 'W';
+
+    /** Map from goal to its complete results */
+    protected final Map<TriplePattern, List<Triple>> tables = new ConcurrentHashMap<>();
+
+    /**
+     * Return the complete results for a goal, or null if the goal has not been tabled.
+     * The goal variables are not distinguished, so the goal should not contain
+     * repeated variables or functors.
+     */
+    public List<Triple> get(TriplePattern goal) {
+        if (tables.isEmpty()) return null;
+        return tables.get(goal);
+    }
+
+    /**
+     * Record the complete results for a goal. Any results already recorded for
+     * the goal are kept.
+     */
+    public void put(TriplePattern goal, List<Triple> results) {
+        tables.putIfAbsent(key(goal), Collections.unmodifiableList(results));
+    }
+
+    /**
+     * Remove the tables for goals on any of the given predicates, and for goals
+     * whose predicate is a variable. If the predicates include Node.ANY then all
+     * tables are removed.
+     */
+    public void invalidate(Set<Node> predicates) {
+        if (predicates.contains(Node.ANY)) {
+            tables.clear();
+            return;
+        }
+        for (Iterator<TriplePattern> i = tables.keySet().iterator(); i.hasNext(); ) {
+            Node p = i.next().getPredicate();
+            if (p.isVariable() || predicates.contains(p)) i.remove();
+        }
+    }
+
+    /** Remove all the tables. */
+    public void clear() {
+        tables.clear();
+    }
+
+    /** Return the number of tabled goals. */
+    public int size() {
+        return tables.size();
+    }
+
+    /** Return true if there are no tabled goals. */
+    public boolean isEmpty() {
+        return tables.isEmpty();
+    }
+
+    /** Return the tabled goals. */
+    public Set<TriplePattern> goals() {
+        return Collections.unmodifiableSet(tables.keySet());
+    }
+
+    /** Return a new cache holding the same tables as this one. */
+    public LPTableCache copy() {
+        LPTableCache cache = new LPTableCache();
+        cache.tables.putAll(tables);
+        return cache;
+    }
+
+    /**
+     * Return a fingerprint of a set of rules, stored with the tables so that tables
+     * computed with other rules are not read back.
+     */
+    public static long fingerprint(List<Rule> rules) {
+        long h = 1125899906842597L;
+        for (Rule rule : rules) {
+            String s = rule.toString();
+            for (int i = 0; i < s.length(); i++) {
+                h = 31 * h + s.charAt(i);
+            }
+            h = 31 * h + '\n';
+        }
+        return h;
+    }
+
+    /**
+     * Write the tables to a stream. Tables whose results include functors are
+     * not written.
+     * @param out the stream to write to, which is flushed but not closed
+     * @param rulesFingerprint the fingerprint of the rules the tables were computed with
+     */
+    public void write(OutputStream out, long rulesFingerprint) throws IOException {
+        List<Map.Entry<TriplePattern, List<Triple>>> entries = new ArrayList<>();
+        for (Map.Entry<TriplePattern, List<Triple>> entry : tables.entrySet()) {
+            if (isWritable(entry.getValue())) entries.add(entry);
+        }
+        DataOutputStream data = new DataOutputStream(new BufferedOutputStream(out));
+        data.writeInt(MAGIC);
+        data.writeInt(VERSION);
+        data.writeLong(rulesFingerprint);
+        data.writeInt(entries.size());
+        for (Map.Entry<TriplePattern, List<Triple>> entry : entries) {
+            TriplePattern goal = entry.getKey();
+            writeNode(data, goal.getSubject());
+            writeNode(data, goal.getPredicate());
+            writeNode(data, goal.getObject());
+            List<Triple> results = entry.getValue();
+            data.writeInt(results.size());
+            for (Triple t : results) {
+                writeNode(data, t.getSubject());
+                writeNode(data, t.getPredicate());
+                writeNode(data, t.getObject());
+            }
+        }
+        data.flush();
+    }
+
+    /**
+     * Read tables written by {@link #write}.
+     * @param in the stream to read from, which is not closed
+     * @param rulesFingerprint the fingerprint of the rules the tables will be used with
+     * @return the tables, or null if they were written by another version or for other rules
+     */
+    public static LPTableCache read(InputStream in, long rulesFingerprint) throws IOException {
+        DataInputStream data = new DataInputStream(new BufferedInputStream(in));
+        if (data.readInt() != MAGIC) {
+            throw new IOException("Not a stored LP table cache");
+        }
+        if (data.readInt() != VERSION || data.readLong() != rulesFingerprint) return null;
+        LPTableCache cache = new LPTableCache();
+        int n = data.readInt();
+        for (int i = 0; i < n; i++) {
+            TriplePattern goal = new TriplePattern(readNode(data), readNode(data), readNode(data));
+            int size = data.readInt();
+            List<Triple> results = new ArrayList<>(size);
+            for (int j = 0; j < size; j++) {
+                results.add(new Triple(readNode(data), readNode(data), readNode(data)));
+            }
+            cache.put(goal, results);
+        }
+        return cache;
+    }
+
+    /**
+     * The goal as a key: variables are replaced by Node_RuleVariable.WILD, which
+     * TriplePattern equality does not distinguish from other variables.
+     */
+    private static TriplePattern key(TriplePattern goal) {
+        Node s = goal.getSubject();
+        Node p = goal.getPredicate();
+        Node o = goal.getObject();
+        if (!s.isVariable() && !p.isVariable() && !o.isVariable()) return goal;
+        return new TriplePattern(wild(s), wild(p), wild(o));
+    }
+
+    private static Node wild(Node n) {
+        return n.isVariable() ? Node_RuleVariable.WILD : n;
+    }
+
+    private static boolean isWritable(List<Triple> results) {
+        for (Triple t : results) {
+            if (Functor.isFunctor(t.getSubject()) || Functor.isFunctor(t.getPredicate())
+                    || Functor.isFunctor(t.getObject())) return false;
+            if (t.getSubject().isVariable() || t.getPredicate().isVariable()
+                    || t.getObject().isVariable()) return false;
+        }
+        return true;
+    }
+
+    private static void writeNode(DataOutputStream data, Node n) throws IOException {
+        if (n.isVariable()) {
+            data.writeByte(WILD);
+        } else if (n.isURI()) {
+            data.writeByte(URI);
+            writeString(data, n.getURI());
+        } else if (n.isBlank()) {
+            data.writeByte(BLANK);
+            writeString(data, n.getBlankNodeLabel());
+        } else {
+            data.writeByte(LITERAL);
+            writeString(data, n.getLiteralLexicalForm());
+            writeString(data, n.getLiteralLanguage());
+            String dt = n.getLiteralDatatypeURI();
+            writeString(data, dt == null ? "" : dt);
+        }
+    }
+
+    private static Node readNode(DataInputStream data) throws IOException {
+        byte kind = data.readByte();
+        switch (kind) {
+            case WILD:
+                return Node_RuleVariable.WILD;
+            case URI:
+                return NodeFactory.createURI(readString(data));
+            case BLANK:
+                return NodeFactory.createAnon(AnonId.create(readString(data)));
+            case LITERAL:
+                String lex = readString(data);
+                String lang = readString(data);
+                String dt = readString(data);
+                if (!lang.isEmpty() || dt.isEmpty()) return NodeFactory.createLiteral(lex, lang);
+                return NodeFactory.createLiteral(lex, TypeMapper.getInstance().getSafeTypeByName(dt));
+            default:
+                throw new IOException("Bad node kind in stored LP table cache: " + kind);
+        }
+    }
+
+    private static void writeString(DataOutputStream data, String s) throws IOException {
+        byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+        data.writeInt(bytes.length);
+        data.write(bytes);
+    }
+
+    private static String readString(DataInputStream data) throws IOException {
+        byte[] bytes = new byte[data.readInt()];
+        data.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
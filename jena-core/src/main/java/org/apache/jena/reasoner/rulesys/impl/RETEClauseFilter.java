@@ -230,6 +230,32 @@ public class RETEClauseFilter implements RETESourceNode {
 
     }
     
+    /**
+     * Return the value the object of a triple is tested against, or null
+     * if the object is not tested against a single node (it is a variable
+     * or a functor).
+     */
+    public Node getObjectValue() {
+        for (int pc = 0; pc < instructions.length; ) {
+            switch(instructions[pc]) {
+            case TESTValue:
+                if (instructions[pc + 1] == ADDRObject) return (Node)args[instructions[pc + 2]];
+                pc += 3;
+                break;
+            case BIND:
+                pc += 3;
+                break;
+            case TESTFunctorName:
+            case CREATEToken:
+                pc += 2;
+                break;
+            default:
+                pc += 1;
+            }
+        }
+        return null;
+    }
+    
     /**
      * Helperful function. Return the node from the argument triple
      * corresponding to the byte code address.
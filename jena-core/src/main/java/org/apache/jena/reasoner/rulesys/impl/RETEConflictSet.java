@@ -185,7 +185,9 @@ public class RETEConflictSet {
                     if (isAdd) {
                         infGraph.addBRule(r.instantiate(env));
                     } else {
-                        infGraph.deleteBRule(r.instantiate(env));
+                        Rule brule = r.instantiate(env);
+                        infGraph.deleteBRule(brule);
+                        engine.deletedBRule(brule);
                     }
                 } else {
                     throw new ReasonerException("Found non-backward subrule : " + r); 
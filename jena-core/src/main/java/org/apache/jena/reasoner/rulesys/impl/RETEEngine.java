@@ -19,12 +19,15 @@
 package org.apache.jena.reasoner.rulesys.impl;
 
 import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
 
 import org.apache.jena.graph.* ;
 import org.apache.jena.reasoner.* ;
 import org.apache.jena.reasoner.rulesys.* ;
 import org.apache.jena.util.OneToManyMap ;
 import org.apache.jena.util.PrintUtil ;
+import org.apache.jena.util.iterator.ExtendedIterator ;
 import org.apache.jena.util.iterator.WrappedIterator ;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -77,6 +80,36 @@ public class RETEEngine implements FRuleEngineI {
     /** True if all the rules are monotonic, so we short circuit the conflict set processing */
     boolean isMonotonic = true;
     
+    /** Deductions removed while propagating a delete, null if no incremental delete is in progress */
+    protected Set<Triple> overDeleted;
+    
+    /** Backward rules removed while propagating a delete, null if no incremental delete is in progress */
+    protected Set<Rule> overDeletedBRules;
+    
+    /** Map from head predicate to the forward rules which can deduce it, Node_ANY is used for wildcard predicates */
+    protected OneToManyMap<Node, Rule> headIndex;
+    
+    /** Forward rules which have a backward rule in their head */
+    protected List<Rule> bruleProducers;
+    
+    /** True if deletes can be propagated incrementally, null if not yet checked */
+    protected Boolean canDeleteIncrementally;
+    
+    /** Clause filters indexed by predicate and object, built from the clauseIndex when first needed */
+    protected Map<Node, AlphaIndex> alphaIndex;
+    
+    /** The terminal of each rule network, found when batches are first propagated */
+    protected List<RETETerminal> terminals;
+    
+    /** The number, in terminals, of the network each clause filter feeds */
+    protected Map<RETEClauseFilter, Integer> filterNetworks;
+    
+    /** True if added triples can be propagated in parallel batches, or null if not yet known */
+    protected Boolean canBatch;
+    
+    /** Number of threads used to propagate batches of added triples, see {@link #setParallelism} */
+    protected int parallelism = 1;
+    
     protected static Logger logger = LoggerFactory.getLogger(FRuleEngine.class);
     
 //  =======================================================================
@@ -175,13 +208,72 @@ public class RETEEngine implements FRuleEngineI {
     
     /**
      * Remove one triple to the data graph.
+     * <p>
+     * For monotonic rule sets the effects are propagated by delete and rederive.
+     * Rule sets using noValue, remove or drop are not handled incrementally. The
+     * non-RETE {@link FRuleEngine} never deletes incrementally.</p>
      * @return true if the effects could be correctly propagated or
      * false if not (in which case the entire engine should be restarted).
      */
     @Override
     public synchronized boolean delete(Triple t) {
-        deleteTriple(t, false);
+        if (!canDeleteIncrementally()) {
+            deleteTriple(t, false);
+            runAll();
+            return false;
+        }
+        // Delete and rederive: first remove everything which had a derivation
+        // using the deleted triple, then put back those removed deductions which
+        // can still be derived from what remains.
+        overDeleted = new LinkedHashSet<>();
+        overDeletedBRules = new LinkedHashSet<>();
+        Set<Triple> triples = overDeleted;
+        Set<Rule> brules = overDeletedBRules;
+        try {
+            if (infGraph.getCurrentDeductionsGraph().contains(t)) {
+                infGraph.deleteDeduction(t);
+            }
+            triples.add(t);
+            deleteTriple(t, false);
+            runAll();
+        } finally {
+            overDeleted = null;
+            overDeletedBRules = null;
+        }
+        // Rederive in rounds, each round propagating the triples put back by the last
+        Graph raw = infGraph.getRawGraph();
+        Graph deductions = infGraph.getCurrentDeductionsGraph();
+        List<Triple> pending = new ArrayList<>(triples.size());
+        for (Triple d : triples) {
+            if (raw == null || !raw.contains(d)) pending.add(d);
+        }
+        boolean changed = true;
+        while (changed) {
+            changed = false;
+            for (Iterator<Triple> i = pending.iterator(); i.hasNext(); ) {
+                Triple d = i.next();
+                if (deductions.contains(d)) {
+                    i.remove();
+                } else if (isDerivable(d)) {
+                    addTriple(d, true);
+                    i.remove();
+                    changed = true;
+                }
+            }
+            runAll();
+        }
+        for (Triple d : pending) {
+            if (contains(d)) {
+                // Still visible from some other source, such as preloaded schema data
+                addTriple(d, false);
+            }
+        }
         runAll();
+        for (Rule brule : brules) {
+            if (isDerivable(brule)) {
+                infGraph.addBRule(brule);
+            }
+        }
         return true;
     }
     
@@ -212,6 +304,17 @@ public class RETEEngine implements FRuleEngineI {
         this.recordDerivations = recordDerivations;
     }
     
+    /**
+     * Set the number of threads used to propagate batches of added triples
+     * through the network, for monotonic rule sets. Each rule has a network of
+     * its own, so the rules are divided between the threads and the rules are
+     * then checked and fired in turn. The default, 1, propagates one triple at
+     * a time.
+     */
+    public void setParallelism(int parallelism) {
+        this.parallelism = Math.max(1, parallelism);
+    }
+    
     /**
      * Access the precomputed internal rule form. Used when precomputing the
      * internal axiom closures.
@@ -239,6 +342,7 @@ public class RETEEngine implements FRuleEngineI {
         {
             clauseIndex.put( entry.getKey(), entry.getValue().clone( netCopy, context ) );
         }
+        resetIndexes();
     }
     
     /**
@@ -346,8 +450,19 @@ public class RETEEngine implements FRuleEngineI {
         }
             
         if (wildcardRule) predicatePatterns = null;
+        resetIndexes();
     }    
     
+    /**
+     * Discard the structures derived from the clauseIndex.
+     */
+    private void resetIndexes() {
+        alphaIndex = null;
+        terminals = null;
+        filterNetworks = null;
+        canBatch = null;
+    }
+    
     /**
      * Helper. Record a new predicate/value pattern. Ensure there is either
      * one wildcard or a number of specific patterns
@@ -408,7 +523,10 @@ public class RETEEngine implements FRuleEngineI {
         addsHash.remove(triple);
         deletesPending.add(triple);
         if (deduction) {
-            infGraph.getCurrentDeductionsGraph().delete(triple);
+            infGraph.deleteDeduction(triple);
+            if (overDeleted != null) {
+                overDeleted.add(triple);
+            }
             Graph raw = infGraph.getRawGraph();
             // deduction retractions should not remove asserted facts, so commented out next line
             // raw.delete(triple);
@@ -420,6 +538,16 @@ public class RETEEngine implements FRuleEngineI {
         }
     }
     
+    /**
+     * Record that a backward rule has been removed by a rule firing, called
+     * from the conflict set when retracting a rule firing.
+     */
+    protected void deletedBRule(Rule brule) {
+        if (overDeletedBRules != null) {
+            overDeletedBRules.add(brule);
+        }
+    }
+    
     /**
      * Increment the rule firing count, called by the terminal nodes in the
      * network.
@@ -463,6 +591,10 @@ public class RETEEngine implements FRuleEngineI {
             boolean isAdd = false;
             Triple next = nextDeleteTriple();
             if (next == null) {
+                if (parallelism > 1 && addsPending.size() > 1 && canBatch()) {
+                    injectBatch();
+                    continue;
+                }
                 next = nextAddTriple();
                 isAdd = true;
             }
@@ -483,14 +615,358 @@ public class RETEEngine implements FRuleEngineI {
         if (infGraph.shouldTrace()) {
             logger.debug((isAdd ? "Inserting" : "Deleting") + " triple: " + PrintUtil.print(t));
         }
-        Iterator<RETENode> i1 = clauseIndex.getAll(t.getPredicate());
-        Iterator<RETENode> i2 = clauseIndex.getAll(Node.ANY);
-        Iterator<RETENode> i = WrappedIterator.create(i1).andThen( i2 );
-        while (i.hasNext()) {
-            RETEClauseFilter cf = (RETEClauseFilter) i.next();
-            // firedRules guard in here?
-            cf.fire(t, isAdd);
+        inject(t, isAdd, 0, 1);
+    }
+    
+    /**
+     * Inject a single triple into the clause filters that feed the networks
+     * whose numbers are task, modulo tasks.
+     */
+    private void inject(Triple t, boolean isAdd, int task, int tasks) {
+        Map<Node, AlphaIndex> index = getAlphaIndex();
+        inject(index.get(t.getPredicate()), t, isAdd, task, tasks);
+        inject(index.get(Node.ANY), t, isAdd, task, tasks);
+    }
+    
+    private void inject(AlphaIndex index, Triple t, boolean isAdd, int task, int tasks) {
+        if (index == null) return;
+        for ( RETEClauseFilter cf : index.get( t.getObject() ) )
+        {
+            if ( tasks > 1 && filterNetworks.get( cf ) % tasks != task ) continue;
+            cf.fire( t, isAdd );
+        }
+    }
+    
+    /**
+     * Return the clause filters indexed by predicate and object.
+     */
+    private Map<Node, AlphaIndex> getAlphaIndex() {
+        if (alphaIndex == null) {
+            Map<Node, AlphaIndex> index = new HashMap<>();
+            for ( Node predicate : clauseIndex.keySet() )
+            {
+                List<RETEClauseFilter> filters = new ArrayList<>();
+                for ( Iterator<RETENode> i = clauseIndex.getAll( predicate ); i.hasNext(); )
+                {
+                    filters.add( (RETEClauseFilter) i.next() );
+                }
+                index.put( predicate, new AlphaIndex( filters ) );
+            }
+            alphaIndex = index;
+        }
+        return alphaIndex;
+    }
+    
+    /**
+     * Propagate all the pending added triples, dividing the rule networks
+     * between threads. Rules are not checked or fired until the whole batch has
+     * gone through the networks, and then in the order of the rules.
+     */
+    private void injectBatch() {
+        List<Triple> batch;
+        synchronized (this) {
+            // Same order as taking them one at a time
+            batch = new ArrayList<>(addsPending);
+            Collections.reverse(batch);
+            addsPending.clear();
+            addsHash.clear();
+        }
+        if (infGraph.shouldTrace()) {
+            for ( Triple t : batch )
+            {
+                logger.debug( "Inserting triple: " + PrintUtil.print( t ) );
+            }
+        }
+        int tasks = Math.min(parallelism, terminals.size());
+        for ( RETETerminal terminal : terminals )
+        {
+            terminal.hold();
+        }
+        List<ForkJoinTask<?>> running = new ArrayList<>();
+        for ( int task = 1; task < tasks; task++ )
+        {
+            int n = task;
+            running.add( ForkJoinPool.commonPool().submit( () -> injectAll( batch, n, tasks ) ) );
+        }
+        injectAll(batch, 0, tasks);
+        for ( ForkJoinTask<?> f : running )
+        {
+            f.join();
+        }
+        for ( RETETerminal terminal : terminals )
+        {
+            terminal.release();
+        }
+    }
+    
+    private void injectAll(List<Triple> batch, int task, int tasks) {
+        for ( Triple t : batch )
+        {
+            inject( t, true, task, tasks );
+        }
+    }
+    
+    /**
+     * Return true if added triples can be propagated in parallel batches.
+     * This needs a monotonic rule set whose rule bodies have no non-monotonic
+     * guards, since rules are checked after the whole batch, and a network
+     * for each rule ending in a terminal node.
+     */
+    private boolean canBatch() {
+        if (canBatch == null) {
+            boolean ok = isMonotonic;
+            Map<RETETerminal, Integer> numbers = new IdentityHashMap<>();
+            terminals = new ArrayList<>();
+            filterNetworks = new IdentityHashMap<>();
+            List<RETENode> filters = new ArrayList<>();
+            for ( Node predicate : clauseIndex.keySet() )
+            {
+                for ( Iterator<RETENode> i = clauseIndex.getAll( predicate ); i.hasNext(); )
+                {
+                    filters.add( i.next() );
+                }
+            }
+            for ( RETENode filter : filters )
+            {
+                RETEClauseFilter cf = (RETEClauseFilter) filter;
+                RETESinkNode node = cf.continuation;
+                while ( node instanceof RETEQueue )
+                {
+                    node = ( (RETEQueue) node ).continuation;
+                }
+                if ( !( node instanceof RETETerminal ) )
+                {
+                    ok = false;
+                    break;
+                }
+                RETETerminal terminal = (RETETerminal) node;
+                Integer n = numbers.get( terminal );
+                if ( n == null )
+                {
+                    n = terminals.size();
+                    numbers.put( terminal, n );
+                    terminals.add( terminal );
+                    for ( ClauseEntry clause : terminal.context.getRule().getBody() )
+                    {
+                        if ( clause instanceof Functor )
+                        {
+                            Builtin imp = ( (Functor) clause ).getImplementor();
+                            if ( imp != null && !imp.isMonotonic() ) ok = false;
+                        }
+                    }
+                }
+                filterNetworks.put( cf, n );
+            }
+            canBatch = ok;
+        }
+        return canBatch;
+    }
+    
+    /**
+     * Return true if deletes can be handled by delete-and-rederive. This requires
+     * a monotonic rule set, including no non-monotonic guards such as noValue in
+     * rule bodies, since otherwise removing a triple can create new deductions.
+     */
+    protected boolean canDeleteIncrementally() {
+        if (canDeleteIncrementally == null) {
+            boolean ok = rules != null && isMonotonic;
+            if (ok) {
+                headIndex = new OneToManyMap<>();
+                bruleProducers = new ArrayList<>();
+                for ( Rule rule : rules )
+                {
+                    if ( rule.isBackward() ) continue;
+                    for ( ClauseEntry clause : rule.getBody() )
+                    {
+                        if ( clause instanceof Functor )
+                        {
+                            Builtin imp = ( (Functor) clause ).getImplementor();
+                            if ( imp != null && !imp.isMonotonic() ) ok = false;
+                        }
+                    }
+                    for ( ClauseEntry clause : rule.getHead() )
+                    {
+                        if ( clause instanceof TriplePattern )
+                        {
+                            Node predicate = ( (TriplePattern) clause ).getPredicate();
+                            Node key = predicate.isVariable() ? Node.ANY : predicate;
+                            if ( !headIndex.contains( key, rule ) ) headIndex.put( key, rule );
+                        }
+                        else if ( clause instanceof Rule )
+                        {
+                            if ( !bruleProducers.contains( rule ) ) bruleProducers.add( rule );
+                        }
+                    }
+                }
+            }
+            canDeleteIncrementally = ok;
+        }
+        return canDeleteIncrementally;
+    }
+    
+    /**
+     * Return true if the triple is present in the data or deductions.
+     */
+    private boolean contains(Triple t) {
+        ExtendedIterator<Triple> it = infGraph.findDataMatches(t.getSubject(), t.getPredicate(), t.getObject());
+        try {
+            return it.hasNext();
+        } finally {
+            it.close();
+        }
+    }
+    
+    /**
+     * Return true if some forward rule can deduce the triple from the
+     * current data and deductions.
+     */
+    private boolean isDerivable(Triple t) {
+        Iterator<Rule> i1 = headIndex.getAll(t.getPredicate());
+        Iterator<Rule> i2 = headIndex.getAll(Node.ANY);
+        for (Iterator<Rule> i = WrappedIterator.create(i1).andThen(i2); i.hasNext(); ) {
+            Rule rule = i.next();
+            for (ClauseEntry clause : rule.getHead()) {
+                if (clause instanceof TriplePattern) {
+                    TriplePattern head = (TriplePattern)clause;
+                    BindingVector env = new BindingVector(new Node[rule.getNumVars()]);
+                    if (unify(head.getSubject(), t.getSubject(), env)
+                            && unify(head.getPredicate(), t.getPredicate(), env)
+                            && unify(head.getObject(), t.getObject(), env)
+                            && matchBody(rule, 0, env, head, t)) {
+                        return true;
+                    }
+                }
+            }
+        }
+        return false;
+    }
+    
+    /**
+     * Return true if some forward rule can still generate the backward rule
+     * from the current data and deductions.
+     */
+    private boolean isDerivable(Rule brule) {
+        for (Rule rule : bruleProducers) {
+            for (ClauseEntry clause : rule.getHead()) {
+                if (clause instanceof Rule) {
+                    BindingVector env = new BindingVector(new Node[rule.getNumVars()]);
+                    if (unify(clause, brule, env) && matchBody(rule, 0, env, clause, brule)) {
+                        return true;
+                    }
+                }
+            }
+        }
+        return false;
+    }
+    
+    /**
+     * Search for a match of the rule body, starting from the given clause,
+     * which instantiates the head clause to the target.
+     */
+    private boolean matchBody(Rule rule, int index, BindingVector env, ClauseEntry head, Object target) {
+        if (index == rule.bodyLength()) {
+            // All patterns matched, now check the guards as the network would
+            RETERuleContext context = new RETERuleContext(infGraph, this);
+            context.setRule(rule);
+            context.setEnv(env);
+            for (ClauseEntry clause : rule.getBody()) {
+                if (clause instanceof Functor && !((Functor)clause).evalAsBodyClause(context)) {
+                    return false;
+                }
+            }
+            if (head instanceof Rule) {
+                return ((Rule)head).instantiate(env).equals(target);
+            }
+            return true;
+        }
+        ClauseEntry clause = rule.getBodyElement(index);
+        if (!(clause instanceof TriplePattern)) {
+            return matchBody(rule, index + 1, env, head, target);
+        }
+        TriplePattern pattern = env.partInstantiate((TriplePattern)clause);
+        ExtendedIterator<Triple> it = infGraph.findDataMatches(
+                toMatch(pattern.getSubject()), toMatch(pattern.getPredicate()), toMatch(pattern.getObject()));
+        try {
+            while (it.hasNext()) {
+                Triple t = it.next();
+                BindingVector next = new BindingVector(env);
+                if (unify(pattern.getSubject(), t.getSubject(), next)
+                        && unify(pattern.getPredicate(), t.getPredicate(), next)
+                        && unify(pattern.getObject(), t.getObject(), next)
+                        && matchBody(rule, index + 1, next, head, target)) {
+                    return true;
+                }
+            }
+            return false;
+        } finally {
+            it.close();
+        }
+    }
+    
+    /**
+     * Match a clause from a rule head against an instantiated clause, binding
+     * the rule variables.
+     */
+    private static boolean unify(ClauseEntry pattern, ClauseEntry value, BindingVector env) {
+        if (pattern instanceof TriplePattern && value instanceof TriplePattern) {
+            TriplePattern p = (TriplePattern)pattern;
+            TriplePattern v = (TriplePattern)value;
+            return unify(p.getSubject(), v.getSubject(), env)
+                    && unify(p.getPredicate(), v.getPredicate(), env)
+                    && unify(p.getObject(), v.getObject(), env);
+        } else if (pattern instanceof Functor && value instanceof Functor) {
+            return unify((Functor)pattern, (Functor)value, env);
+        } else if (pattern instanceof Rule && value instanceof Rule) {
+            Rule p = (Rule)pattern;
+            Rule v = (Rule)value;
+            if (p.headLength() != v.headLength() || p.bodyLength() != v.bodyLength()) return false;
+            for (int i = 0; i < p.headLength(); i++) {
+                if (!unify(p.getHeadElement(i), v.getHeadElement(i), env)) return false;
+            }
+            for (int i = 0; i < p.bodyLength(); i++) {
+                if (!unify(p.getBodyElement(i), v.getBodyElement(i), env)) return false;
+            }
+            return true;
         }
+        return false;
+    }
+    
+    /**
+     * Match a node from a rule against a value, binding the rule variables.
+     * Variables in the value, which occur in instantiated backward rules,
+     * are left to the final comparison.
+     */
+    private static boolean unify(Node pattern, Node value, BindingVector env) {
+        if (value.isVariable()) {
+            return pattern.isVariable() || Functor.isFunctor(pattern);
+        } else if (pattern instanceof Node_RuleVariable) {
+            return env.bind(pattern, value);
+        } else if (Functor.isFunctor(pattern)) {
+            return Functor.isFunctor(value)
+                    && unify((Functor)pattern.getLiteralValue(), (Functor)value.getLiteralValue(), env);
+        } else {
+            return pattern.sameValueAs(value);
+        }
+    }
+    
+    private static boolean unify(Functor pattern, Functor value, BindingVector env) {
+        if (!pattern.getName().equals(value.getName())) return false;
+        Node[] pArgs = pattern.getArgs();
+        Node[] vArgs = value.getArgs();
+        if (pArgs.length != vArgs.length) return false;
+        for (int i = 0; i < pArgs.length; i++) {
+            if (!unify(pArgs[i], vArgs[i], env)) return false;
+        }
+        return true;
+    }
+    
+    /**
+     * Convert a partly instantiated node to a find argument.
+     */
+    private static Node toMatch(Node node) {
+        if (node.isVariable()) return Node.ANY;
+        if (Functor.isFunctor(node) && !((Functor)node.getLiteralValue()).isGround()) return Node.ANY;
+        return node;
     }
     
     /**
@@ -575,6 +1051,59 @@ public class RETEEngine implements FRuleEngineI {
 //=======================================================================
 // Inner classes
 
+    /**
+     * The clause filters for one predicate. Filters that test the object
+     * against a URI or blank node are only tried for triples with that object.
+     * Literals are not used as keys since filters match them by value.
+     */
+    protected static class AlphaIndex {
+        
+        /** Filters, in order, that do not test the object against a URI or blank node */
+        protected RETEClauseFilter[] general;
+        
+        /** For each URI or blank node object, the filters, in order, that may match it */
+        protected Map<Node, RETEClauseFilter[]> byObject = new HashMap<>();
+        
+        protected AlphaIndex(List<RETEClauseFilter> filters) {
+            List<RETEClauseFilter> generalList = new ArrayList<>();
+            Map<Node, List<RETEClauseFilter>> lists = new HashMap<>();
+            for ( RETEClauseFilter cf : filters )
+            {
+                Node object = cf.getObjectValue();
+                if ( object != null && ( object.isURI() || object.isBlank() ) )
+                {
+                    List<RETEClauseFilter> list = lists.get( object );
+                    if ( list == null )
+                    {
+                        list = new ArrayList<>( generalList );
+                        lists.put( object, list );
+                    }
+                    list.add( cf );
+                }
+                else
+                {
+                    generalList.add( cf );
+                    for ( List<RETEClauseFilter> list : lists.values() )
+                    {
+                        list.add( cf );
+                    }
+                }
+            }
+            general = generalList.toArray( new RETEClauseFilter[generalList.size()] );
+            for ( Map.Entry<Node, List<RETEClauseFilter>> entry : lists.entrySet() )
+            {
+                List<RETEClauseFilter> list = entry.getValue();
+                byObject.put( entry.getKey(), list.toArray( new RETEClauseFilter[list.size()] ) );
+            }
+        }
+        
+        /** Return the filters that may match a triple with the given object */
+        protected RETEClauseFilter[] get(Node object) {
+            RETEClauseFilter[] filters = byObject.get(object);
+            return filters == null ? general : filters;
+        }
+    }
+    
     /**
      * Structure used in the clause index to indicate a particular
      * clause in a rule. This is used purely as an internal data
@@ -100,18 +100,22 @@ public class RETEQueue implements RETESinkNode, RETESourceNode {
 	 */
 	@Override
 	public void fire(BindingVector env, boolean isAdd) {
+		// Both queues are keyed on the same match indices, so the key
+		// is found once for the store and for the sibling lookup
+		BindingVector key = queue.getPartialEnv(env);
+
 		// Store the new token in this store
 		if (isAdd) {
-			queue.add(env);
+			queue.add(key, env);
 		} else {
-			queue.remove(env);
+			queue.remove(key, env);
 		}
 
 		// Cross match new token against the entries in the sibling queue
 
 		Node[] envNodes = env.getEnvironment();
 
-		for (Iterator<BindingVector> i = sibling.queue.getSubSet(env); i
+		for (Iterator<BindingVector> i = sibling.queue.getSubSetForKey(key); i
 				.hasNext();) {
 			Node[] candidate = i.next().getEnvironment();
 			// matching is no longer required since queue.getSubSet(env) returns
@@ -33,6 +33,9 @@ public class RETETerminal implements RETESinkNode {
     /** Context containing the specific rule and parent graph */
     protected RETERuleContext context;
     
+    /** Added tokens held back while a batch is propagated, or null */
+    protected List<BindingVector> held;
+    
     protected static Logger logger = LoggerFactory.getLogger(FRuleEngine.class);
     
     /**
@@ -72,6 +75,10 @@ public class RETETerminal implements RETESinkNode {
      */
     @Override
     public void fire(BindingVector env, boolean isAdd) {
+        if (held != null && isAdd) {
+            held.add(env);
+            return;
+        }
         Rule rule = context.getRule();
         context.setEnv(env);
         
@@ -81,6 +88,30 @@ public class RETETerminal implements RETESinkNode {
         context.getEngine().requestRuleFiring(rule, env, isAdd);
     }
     
+    /**
+     * Hold back added tokens, without checking or firing the rule, until
+     * {@link #release} is called. Used while a batch of triples is propagated
+     * through the networks of different rules by different threads, since
+     * checking the rule can read the deductions graph and firing it can write to it.
+     */
+    public void hold() {
+        held = new ArrayList<>();
+    }
+    
+    /**
+     * Check and fire the rule for any held back tokens, in order.
+     */
+    public void release() {
+        List<BindingVector> tokens = held;
+        held = null;
+        if (tokens != null) {
+            for ( BindingVector env : tokens )
+            {
+                fire( env, true );
+            }
+        }
+    }
+    
     /**
      * Clone this node in the network.
      * @param netCopy a map from RETENode to cloned instance
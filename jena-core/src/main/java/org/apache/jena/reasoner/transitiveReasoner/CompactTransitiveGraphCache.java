@@ -0,0 +1,751 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.jena.reasoner.transitiveReasoner;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.apache.jena.graph.* ;
+import org.apache.jena.reasoner.* ;
+import org.apache.jena.util.iterator.* ;
+
+/**
+ * A TransitiveGraphCache which holds the closure as a compact index over dense
+ * integer ids rather than as linked graph nodes, for large and mostly static
+ * hierarchies such as big class taxonomies.
+ * <p>
+ * The asserted links are kept as arrays of ids. On the first query after a change
+ * which may alter the closure the index is rebuilt: strongly connected components
+ * are collapsed, and each component of the resulting DAG is given an interval
+ * label (Agrawal, Borgida and Jagadish 1989) over a post-order numbering of a
+ * spanning forest of the reversed DAG. A component reaches another exactly when
+ * its number lies in one of the other's intervals, so a path test is a binary
+ * search and listing all the predecessors of a node (all the subclasses of a class)
+ * is a scan of a few ranges of the numbering. Nearly tree shaped hierarchies need
+ * about one interval per component. Successors are found by walking the DAG, whose
+ * depth is modest for such hierarchies, and the transitive reduction is computed
+ * from the labels.
+ * </p><p>
+ * Adding a link which is already implied by the closure, as the RDFS rules
+ * frequently do, does not invalidate the index. Other changes make the next query
+ * rebuild it, at a cost linear in the size of the relation, so this representation
+ * suits bulk loads better than interleaved updates and queries.
+ * </p><p>
+ * Queries answer the same triples as {@link TransitiveGraphCache}. The index is
+ * replaced rather than changed so queries may run concurrently with each other.
+ * </p>
+ */
+public class CompactTransitiveGraphCache extends TransitiveGraphCache {
+
+    /** Map from RDF node to its dense id */
+    protected final Map<Node, Integer> ids = new ConcurrentHashMap<>();
+
+    /** The RDF nodes, indexed by id */
+    protected final ArrayList<Node> nodes = new ArrayList<>();
+
+    /** The asserted links from each node, as ids */
+    protected int[][] links = new int[16][];
+
+    /** The number of entries in use in each row of links */
+    protected int[] linkCount = new int[16];
+
+    /** The closure index, null if it must be rebuilt before the next query */
+    protected volatile Index index;
+
+    /**
+     * Constructor - create a new cache to hold the given relation information.
+     * @param directPredicate The RDF predicate representing the direct relation
+     * @param closedPredicate The RDF predicate representing the closed relation
+     */
+    public CompactTransitiveGraphCache(Node directPredicate, Node closedPredicate) {
+        super(directPredicate, closedPredicate);
+    }
+
+    /**
+     * Register a new relation instance in the cache
+     */
+    @Override
+    public synchronized void addRelation(Triple t) {
+        Node start = t.getSubject();
+        Node end = t.getObject();
+        if (start.equals(end)) return;      // Reflexive case is built in
+        int s = id(start);
+        int e = id(end);
+        if (!addLink(s, e)) return;
+        // A link between nodes which are already connected changes neither
+        // the closure nor the reduction
+        Index idx = index;
+        if (idx != null && !(s < idx.size && e < idx.size && idx.pathTo(s, e))) {
+            index = null;
+        }
+    }
+
+    /**
+     * Remove an instance of a relation from the cache.
+     */
+    @Override
+    public synchronized void removeRelation(Triple t) {
+        Integer s = ids.get(t.getSubject());
+        Integer e = ids.get(t.getObject());
+        if (s == null || e == null || s.equals(e)) return;
+        if (removeLink(s, e)) index = null;
+    }
+
+    /**
+     * Basic pattern lookup interface.
+     * @param pattern a TriplePattern to be matched against the data
+     * @return a ExtendedIterator over all Triples in the data set
+     *  that match the pattern
+     */
+    @Override
+    public ExtendedIterator<Triple> find(TriplePattern pattern) {
+        Node s = pattern.getSubject();
+        Node p = pattern.getPredicate();
+        Node o = pattern.getObject();
+        if (!(p.isVariable() || p.equals(directPredicate) || p.equals(closedPredicate))) {
+            // No matching triples in this cache
+            return NullIterator.instance();
+        }
+        boolean closed = !p.equals(directPredicate);
+        Index idx = getIndex();
+        if (s.isVariable()) {
+            if (o.isVariable()) {
+                return new FullWalker(idx, closed, closedPredicate);
+            }
+            int io = lookup(idx, o);
+            if (io < 0) return NullIterator.instance();
+            return closed ? idx.listPredecessors(io, closedPredicate) : idx.listDirectPredecessors(io, closedPredicate);
+        }
+        int is = lookup(idx, s);
+        if (is < 0) return NullIterator.instance();
+        if (o.isVariable()) {
+            return closed ? idx.listSuccessors(is, closedPredicate) : idx.listDirectSuccessors(is, closedPredicate);
+        }
+        int io = lookup(idx, o);
+        if (io < 0) return NullIterator.instance();
+        if (closed ? idx.pathTo(is, io) : idx.directPathTo(is, io)) {
+            return new SingletonIterator<>(new Triple(s, closedPredicate, o));
+        }
+        return NullIterator.instance();
+    }
+
+    /**
+     * Return true if there is a path from the start node to the end node in the
+     * closed relation.
+     */
+    public boolean pathTo(Node start, Node end) {
+        Index idx = getIndex();
+        int s = lookup(idx, start);
+        int e = lookup(idx, end);
+        return s >= 0 && e >= 0 && idx.pathTo(s, e);
+    }
+
+    /**
+     * Return an iterator over all registered subject nodes
+     */
+    @Override
+    public ExtendedIterator<Node> listAllSubjects() {
+        return WrappedIterator.create(ids.keySet().iterator());
+    }
+
+    /**
+     * Return true if the given Node is registered as a subject node
+     */
+    @Override
+    public boolean isSubject(Node node) {
+        return ids.containsKey(node);
+    }
+
+    /**
+     * Create a deep copy of the cache contents.
+     */
+    @Override
+    public synchronized CompactTransitiveGraphCache deepCopy() {
+        CompactTransitiveGraphCache copy = new CompactTransitiveGraphCache(directPredicate, closedPredicate);
+        copy.ids.putAll(ids);
+        copy.nodes.addAll(nodes);
+        copy.links = new int[links.length][];
+        for (int i = 0; i < nodes.size(); i++) {
+            if (links[i] != null) copy.links[i] = Arrays.copyOf(links[i], linkCount[i]);
+        }
+        copy.linkCount = linkCount.clone();
+        // The index is not changed once built so it can be shared
+        copy.index = index;
+        return copy;
+    }
+
+    /**
+     * Clear the entire cache contents.
+     */
+    @Override
+    public synchronized void clear() {
+        super.clear();
+        ids.clear();
+        nodes.clear();
+        links = new int[16][];
+        linkCount = new int[16];
+        index = null;
+    }
+
+    /**
+     * Dump a description of the cache to a string for debug.
+     */
+    @Override
+    public String dump() {
+        Index idx = getIndex();
+        StringBuilder sb = new StringBuilder();
+        for (int c = 0; c < idx.compCount; c++) {
+            sb.append(c).append(" {");
+            for (int i = idx.memberStart[c]; i < idx.memberStart[c+1]; i++) {
+                sb.append(' ').append(idx.nodes[idx.members[i]]);
+            }
+            sb.append(" } succ=");
+            for (int i = idx.reducedStart[c]; i < idx.reducedStart[c+1]; i++) {
+                sb.append(' ').append(idx.reduced[i]);
+            }
+            sb.append(" post=").append(idx.post[c]).append(" intervals=");
+            for (int i = idx.intervalStart[c]; i < idx.intervalStart[c] + 2 * idx.intervalCount[c]; i += 2) {
+                sb.append(" [").append(idx.intervals[i]).append(',').append(idx.intervals[i+1]).append(']');
+            }
+            sb.append('\n');
+        }
+        return sb.toString();
+    }
+
+//  ----------------------------------------------------------------------
+//  Internal utility methods
+//  ----------------------------------------------------------------------
+
+    /**
+     * Return the current index, building it if needed.
+     */
+    private Index getIndex() {
+        Index idx = index;
+        if (idx == null) {
+            synchronized (this) {
+                idx = index;
+                if (idx == null) {
+                    idx = new Index(nodes.toArray(new Node[nodes.size()]), links, linkCount);
+                    index = idx;
+                }
+            }
+        }
+        return idx;
+    }
+
+    /**
+     * Return the id of a node in the index, or -1 if it is not in the index.
+     */
+    private int lookup(Index idx, Node n) {
+        Integer i = ids.get(n);
+        return (i == null || i >= idx.size) ? -1 : i;
+    }
+
+    /**
+     * Return the id for a node, allocating one if needed.
+     */
+    private int id(Node n) {
+        Integer i = ids.get(n);
+        if (i == null) {
+            i = nodes.size();
+            nodes.add(n);
+            if (i == links.length) {
+                links = Arrays.copyOf(links, 2 * i);
+                linkCount = Arrays.copyOf(linkCount, 2 * i);
+            }
+            ids.put(n, i);
+        }
+        return i;
+    }
+
+    private boolean addLink(int s, int e) {
+        int[] row = links[s];
+        int n = linkCount[s];
+        for (int i = 0; i < n; i++) {
+            if (row[i] == e) return false;
+        }
+        if (row == null) {
+            row = new int[2];
+        } else if (n == row.length) {
+            row = Arrays.copyOf(row, 2 * n);
+        }
+        row[n] = e;
+        links[s] = row;
+        linkCount[s] = n + 1;
+        return true;
+    }
+
+    private boolean removeLink(int s, int e) {
+        int[] row = links[s];
+        int n = linkCount[s];
+        for (int i = 0; i < n; i++) {
+            if (row[i] == e) {
+                row[i] = row[n-1];
+                linkCount[s] = n - 1;
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * The closure of the relation at some point, not changed once built.
+     * Node ids are those of the cache; the strongly connected components are
+     * numbered so that a link from one component to another goes to a lower
+     * number. Lists are held in compressed row form: the entries for component
+     * c of a list x are x[xStart[c]] to x[xStart[c+1]-1].
+     */
+    static class Index {
+        /** The number of nodes indexed */
+        final int size;
+
+        /** The RDF nodes, indexed by id */
+        final Node[] nodes;
+
+        /** The component of each node */
+        final int[] comp;
+
+        /** The number of components */
+        final int compCount;
+
+        /** The nodes of each component */
+        final int[] memberStart, members;
+
+        /** The successors of each component in the DAG, not reduced */
+        final int[] succStart, succ;
+
+        /** The successors of each component in the transitive reduction */
+        final int[] reducedStart, reduced;
+
+        /** The predecessors of each component in the transitive reduction */
+        final int[] reducedPredStart, reducedPred;
+
+        /** The post-order number of each component in the reversed DAG */
+        final int[] post;
+
+        /** The component with each post-order number */
+        final int[] byPost;
+
+        /** The sorted, disjoint intervals of post-order numbers of the components
+         *  which reach each component, as pairs of inclusive bounds */
+        final int[] intervalStart, intervalCount;
+        final int[] intervals;
+
+        Index(Node[] nodes, int[][] links, int[] linkCount) {
+            this.size = nodes.length;
+            this.nodes = nodes;
+            this.comp = new int[size];
+            this.compCount = components(links, linkCount);
+
+            // Members of each component
+            memberStart = new int[compCount + 1];
+            for (int u = 0; u < size; u++) memberStart[comp[u] + 1]++;
+            for (int c = 0; c < compCount; c++) memberStart[c + 1] += memberStart[c];
+            members = new int[size];
+            int[] fill = Arrays.copyOf(memberStart, compCount);
+            for (int u = 0; u < size; u++) members[fill[comp[u]]++] = u;
+
+            // Links between components, without duplicates
+            int[] mark = new int[compCount];
+            Arrays.fill(mark, -1);
+            succStart = new int[compCount + 1];
+            IntList succList = new IntList(size);
+            for (int c = 0; c < compCount; c++) {
+                succStart[c] = succList.size;
+                for (int m = memberStart[c]; m < memberStart[c+1]; m++) {
+                    int u = members[m];
+                    for (int i = 0; i < linkCount[u]; i++) {
+                        int d = comp[links[u][i]];
+                        if (d != c && mark[d] != c) {
+                            mark[d] = c;
+                            succList.add(d);
+                        }
+                    }
+                }
+            }
+            succStart[compCount] = succList.size;
+            succ = succList.toArray();
+            int[][] pred = invert(succStart, succ, compCount);
+
+            // Post-order numbering of a spanning forest of the reversed DAG, rooted
+            // at the components with no successors. low[c] is the smallest number
+            // in the tree below c.
+            post = new int[compCount];
+            byPost = new int[compCount];
+            int[] low = new int[compCount];
+            boolean[] visited = new boolean[compCount];
+            int[] stack = new int[compCount];
+            int[] pos = new int[compCount];
+            int counter = 0;
+            for (int r = 0; r < compCount; r++) {
+                if (succStart[r] != succStart[r+1]) continue;
+                int sp = 0;
+                stack[sp++] = r;
+                visited[r] = true;
+                low[r] = counter;
+                while (sp > 0) {
+                    int c = stack[sp-1];
+                    if (pos[c] < pred[0][c+1] - pred[0][c]) {
+                        int k = pred[1][pred[0][c] + pos[c]++];
+                        if (!visited[k]) {
+                            visited[k] = true;
+                            low[k] = counter;
+                            stack[sp++] = k;
+                        }
+                    } else {
+                        sp--;
+                        post[c] = counter;
+                        byPost[counter++] = c;
+                    }
+                }
+            }
+
+            // Interval labels. The predecessors of a component have higher numbers
+            // so they are labelled first.
+            intervalStart = new int[compCount];
+            intervalCount = new int[compCount];
+            IntList ivList = new IntList(2 * compCount);
+            long[] buffer = new long[16];
+            for (int c = compCount - 1; c >= 0; c--) {
+                int lo = low[c];
+                int hi = post[c];
+                int n = 0;
+                buffer[n++] = interval(lo, hi);
+                for (int i = pred[0][c]; i < pred[0][c+1]; i++) {
+                    int k = pred[1][i];
+                    for (int j = intervalStart[k]; j < intervalStart[k] + 2 * intervalCount[k]; j += 2) {
+                        int a = ivList.data[j];
+                        int b = ivList.data[j+1];
+                        if (a >= lo && b <= hi) continue;   // Within the tree below c
+                        if (n == buffer.length) buffer = Arrays.copyOf(buffer, 2 * n);
+                        buffer[n++] = interval(a, b);
+                    }
+                }
+                intervalStart[c] = ivList.size;
+                if (n > 1) Arrays.sort(buffer, 0, n);
+                int a = (int)(buffer[0] >>> 32);
+                int b = (int)buffer[0];
+                for (int i = 1; i < n; i++) {
+                    int a2 = (int)(buffer[i] >>> 32);
+                    int b2 = (int)buffer[i];
+                    if (a2 <= b + 1) {
+                        b = Math.max(b, b2);
+                    } else {
+                        ivList.add(a);
+                        ivList.add(b);
+                        a = a2;
+                        b = b2;
+                    }
+                }
+                ivList.add(a);
+                ivList.add(b);
+                intervalCount[c] = (ivList.size - intervalStart[c]) / 2;
+            }
+            intervals = ivList.toArray();
+
+            // Transitive reduction: drop a link to a component reached through
+            // another successor
+            reducedStart = new int[compCount + 1];
+            IntList reducedList = new IntList(succ.length);
+            for (int c = 0; c < compCount; c++) {
+                reducedStart[c] = reducedList.size;
+                int from = succStart[c];
+                int to = succStart[c+1];
+                for (int i = from; i < to; i++) {
+                    int d = succ[i];
+                    boolean redundant = false;
+                    for (int j = from; j < to && !redundant; j++) {
+                        redundant = j != i && reaches(succ[j], d);
+                    }
+                    if (!redundant) reducedList.add(d);
+                }
+            }
+            reducedStart[compCount] = reducedList.size;
+            reduced = reducedList.toArray();
+            int[][] rpred = invert(reducedStart, reduced, compCount);
+            reducedPredStart = rpred[0];
+            reducedPred = rpred[1];
+        }
+
+        private static long interval(int lo, int hi) {
+            return ((long)lo << 32) | hi;
+        }
+
+        /**
+         * Find the strongly connected components (Tarjan, without recursion),
+         * filling in comp. Components are found in reverse topological order.
+         * @return the number of components
+         */
+        private int components(int[][] links, int[] linkCount) {
+            int[] number = new int[size];
+            Arrays.fill(number, -1);
+            int[] low = new int[size];
+            boolean[] onStack = new boolean[size];
+            int[] stack = new int[size];
+            int[] calls = new int[size];
+            int[] pos = new int[size];
+            int sp = 0;
+            int counter = 0;
+            int count = 0;
+            for (int root = 0; root < size; root++) {
+                if (number[root] != -1) continue;
+                int cp = 0;
+                number[root] = low[root] = counter++;
+                stack[sp++] = root;
+                onStack[root] = true;
+                calls[cp++] = root;
+                while (cp > 0) {
+                    int v = calls[cp-1];
+                    if (pos[v] < linkCount[v]) {
+                        int w = links[v][pos[v]++];
+                        if (number[w] == -1) {
+                            number[w] = low[w] = counter++;
+                            stack[sp++] = w;
+                            onStack[w] = true;
+                            calls[cp++] = w;
+                        } else if (onStack[w]) {
+                            low[v] = Math.min(low[v], number[w]);
+                        }
+                    } else {
+                        cp--;
+                        if (cp > 0) {
+                            int u = calls[cp-1];
+                            low[u] = Math.min(low[u], low[v]);
+                        }
+                        if (low[v] == number[v]) {
+                            int w;
+                            do {
+                                w = stack[--sp];
+                                onStack[w] = false;
+                                comp[w] = count;
+                            } while (w != v);
+                            count++;
+                        }
+                    }
+                }
+            }
+            return count;
+        }
+
+        /**
+         * Invert a relation held in compressed row form.
+         */
+        private static int[][] invert(int[] start, int[] list, int n) {
+            int[] inverseStart = new int[n + 1];
+            for (int x : list) inverseStart[x + 1]++;
+            for (int c = 0; c < n; c++) inverseStart[c + 1] += inverseStart[c];
+            int[] inverse = new int[list.length];
+            int[] fill = Arrays.copyOf(inverseStart, n);
+            for (int c = 0; c < n; c++) {
+                for (int i = start[c]; i < start[c+1]; i++) {
+                    inverse[fill[list[i]]++] = c;
+                }
+            }
+            return new int[][] {inverseStart, inverse};
+        }
+
+        /**
+         * Return true if component c reaches component d.
+         */
+        boolean reaches(int c, int d) {
+            if (c == d) return true;
+            int p = post[c];
+            // Binary search for the last interval of d starting at or before p
+            int lo = 0;
+            int hi = intervalCount[d] - 1;
+            int base = intervalStart[d];
+            while (lo <= hi) {
+                int mid = (lo + hi) >>> 1;
+                int a = intervals[base + 2 * mid];
+                if (a <= p) {
+                    if (p <= intervals[base + 2 * mid + 1]) return true;
+                    lo = mid + 1;
+                } else {
+                    hi = mid - 1;
+                }
+            }
+            return false;
+        }
+
+        boolean pathTo(int s, int e) {
+            return reaches(comp[s], comp[e]);
+        }
+
+        boolean directPathTo(int s, int e) {
+            int c = comp[s];
+            int d = comp[e];
+            if (c == d) return true;
+            for (int i = reducedStart[c]; i < reducedStart[c+1]; i++) {
+                if (reduced[i] == d) return true;
+            }
+            return false;
+        }
+
+        ExtendedIterator<Triple> listSuccessors(int s, Node predicate) {
+            // Walk the DAG, which is shallow for typical hierarchies
+            int c = comp[s];
+            IntList found = new IntList(16);
+            Set<Integer> seen = new HashSet<>();
+            found.add(c);
+            seen.add(c);
+            for (int i = 0; i < found.size; i++) {
+                int x = found.data[i];
+                for (int j = succStart[x]; j < succStart[x+1]; j++) {
+                    if (seen.add(succ[j])) found.add(succ[j]);
+                }
+            }
+            return new ComponentWalker(this, nodes[s], true, predicate, found.data, new int[] {0, found.size - 1});
+        }
+
+        ExtendedIterator<Triple> listPredecessors(int o, Node predicate) {
+            int c = comp[o];
+            int from = intervalStart[c];
+            int[] ranges = Arrays.copyOfRange(intervals, from, from + 2 * intervalCount[c]);
+            return new ComponentWalker(this, nodes[o], false, predicate, byPost, ranges);
+        }
+
+        ExtendedIterator<Triple> listDirectSuccessors(int s, Node predicate) {
+            int c = comp[s];
+            return new ComponentWalker(this, nodes[s], true, predicate,
+                    withComponent(c, reducedStart, reduced), null);
+        }
+
+        ExtendedIterator<Triple> listDirectPredecessors(int o, Node predicate) {
+            int c = comp[o];
+            return new ComponentWalker(this, nodes[o], false, predicate,
+                    withComponent(c, reducedPredStart, reducedPred), null);
+        }
+
+        private static int[] withComponent(int c, int[] start, int[] list) {
+            int n = start[c+1] - start[c];
+            int[] x = new int[n + 1];
+            x[0] = c;
+            System.arraycopy(list, start[c], x, 1, n);
+            return x;
+        }
+    }
+
+    /**
+     * Iterator over the triples linking a fixed node to all the members of some
+     * components. The components are given by ranges of positions in an array.
+     */
+    static class ComponentWalker extends NiceIterator<Triple> {
+        final Index index;
+        final Node fixed;
+        final boolean fixedIsSubject;
+        final Node predicate;
+        final int[] order;
+        final int[] ranges;
+        int range = 0;
+        int position;
+        int member;
+        int memberEnd;
+
+        /**
+         * @param ranges pairs of inclusive positions in order, or null for all of order
+         */
+        ComponentWalker(Index index, Node fixed, boolean fixedIsSubject, Node predicate, int[] order, int[] ranges) {
+            this.index = index;
+            this.fixed = fixed;
+            this.fixedIsSubject = fixedIsSubject;
+            this.predicate = predicate;
+            this.order = order;
+            this.ranges = ranges == null ? new int[] {0, order.length - 1} : ranges;
+            this.position = this.ranges.length > 0 ? this.ranges[0] : 0;
+            member = memberEnd = 0;
+        }
+
+        @Override
+        public boolean hasNext() {
+            while (member == memberEnd) {
+                if (range >= ranges.length) return false;
+                if (position > ranges[range+1]) {
+                    range += 2;
+                    if (range < ranges.length) position = ranges[range];
+                    continue;
+                }
+                int c = order[position++];
+                member = index.memberStart[c];
+                memberEnd = index.memberStart[c+1];
+            }
+            return true;
+        }
+
+        @Override
+        public Triple next() {
+            if (!hasNext()) throw new NoSuchElementException();
+            Node n = index.nodes[index.members[member++]];
+            return fixedIsSubject ? new Triple(fixed, predicate, n) : new Triple(n, predicate, fixed);
+        }
+    }
+
+    /**
+     * Iterator over the whole closed or direct relation.
+     */
+    static class FullWalker extends NiceIterator<Triple> {
+        final Index index;
+        final boolean closed;
+        final Node predicate;
+        int node = 0;
+        ExtendedIterator<Triple> current = NullIterator.instance();
+
+        FullWalker(Index index, boolean closed, Node predicate) {
+            this.index = index;
+            this.closed = closed;
+            this.predicate = predicate;
+        }
+
+        @Override
+        public boolean hasNext() {
+            while (!current.hasNext()) {
+                if (node >= index.size) return false;
+                current = closed ? index.listSuccessors(node, predicate) : index.listDirectSuccessors(node, predicate);
+                node++;
+            }
+            return true;
+        }
+
+        @Override
+        public Triple next() {
+            if (!hasNext()) throw new NoSuchElementException();
+            return current.next();
+        }
+    }
+
+    /**
+     * Growable list of ints.
+     */
+    static class IntList {
+        int[] data;
+        int size = 0;
+
+        IntList(int capacity) {
+            data = new int[Math.max(capacity, 4)];
+        }
+
+        void add(int x) {
+            if (size == data.length) data = Arrays.copyOf(data, 2 * size);
+            data[size++] = x;
+        }
+
+        int[] toArray() {
+            return Arrays.copyOf(data, size);
+        }
+    }
+}
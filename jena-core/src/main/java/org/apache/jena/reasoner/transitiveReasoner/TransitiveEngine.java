@@ -125,8 +125,9 @@ public class TransitiveEngine {
         }
         if ((TransitiveEngine.checkOccuranceUtility(subPropertyOf, newDataG, subPropertyCache) ||
                TransitiveEngine.checkOccuranceUtility(subClassOf, newDataG, subPropertyCache))) {
-             subClassCache = new TransitiveGraphCache(directSubClassOf, subClassOf);
-             subPropertyCache = new TransitiveGraphCache(directSubPropertyOf, subPropertyOf);
+             boolean compact = subClassCache instanceof CompactTransitiveGraphCache;
+             subClassCache = TransitiveGraphCache.create(directSubClassOf, subClassOf, compact);
+             subPropertyCache = TransitiveGraphCache.create(directSubPropertyOf, subPropertyOf, compact);
              TransitiveEngine.cacheSubPropUtility(data, subPropertyCache);
              TransitiveEngine.cacheSubClassUtility(data, subPropertyCache, subClassCache);
          }        
@@ -254,6 +255,16 @@ public class TransitiveEngine {
         return true;
     }
     
+    /**
+     * Return true if adding or removing the triple would change the caches.
+     */
+    public synchronized boolean isRelevant(Triple t) {
+        int triageClass = triage(t);
+        if ((triageClass & (REBUILD_SUBCLASS | REBUILD_SUBPROPERTY)) != 0) return true;
+        // The reflexive case is built into the caches
+        return (triageClass & NOT_RELEVANT) == 0 && !t.getSubject().equals(t.getObject());
+    }
+    
     /** 
      * Removes the triple t (if relevant) from the caches.
      * @return true if the triple affected the caches
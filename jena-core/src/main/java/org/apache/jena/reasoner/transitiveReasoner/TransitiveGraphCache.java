@@ -43,11 +43,14 @@ import org.apache.jena.util.iterator.* ;
  * incrementally but some deletes (those that break strongly connected components)
  * will trigger a fresh rebuild.
  * </p><p>
- * TODO Combine this with interval indexes (Agrawal, Borigda and Jagadish 1989) 
- * for storing the closure of the predecessor relationship. Typical graphs
- * will be nearly tree shaped so the successor closure is modest (L^2 where
- * L is the depth of the tree branch) but the predecessor closure would be 
- * expensive. The interval index would handle predecessor closure nicely.
+ * Typical graphs will be nearly tree shaped so the successor closure is modest
+ * (L^2 where L is the depth of the tree branch) but the predecessor closure is
+ * expensive. {@link CompactTransitiveGraphCache} uses interval indexes
+ * (Agrawal, Borgida and Jagadish 1989) instead, which handle the predecessor
+ * closure of large hierarchies much better; {@link #create} chooses between the
+ * two. Reasoners select the compact form with the
+ * {@link org.apache.jena.vocabulary.ReasonerVocabulary#PROPenableCompactTGC}
+ * parameter.
  * </p>
  */
 
@@ -314,6 +317,20 @@ public class TransitiveGraphCache implements Finder {
         this.closedPredicate = closedPredicate;
     }
     
+    /**
+     * Create a new cache to hold the given relation information.
+     * @param directPredicate The RDF predicate representing the direct relation
+     * @param closedPredicate The RDF predicate representing the closed relation
+     * @param compact if true, hold the closure as a compact interval index,
+     * see {@link CompactTransitiveGraphCache}
+     */
+    public static TransitiveGraphCache create(Node directPredicate, Node closedPredicate, boolean compact) {
+        if (compact) {
+            return new CompactTransitiveGraphCache(directPredicate, closedPredicate);
+        }
+        return new TransitiveGraphCache(directPredicate, closedPredicate);
+    }
+    
     /**
      * Returns the closedPredicate.
      * @return Node
@@ -334,6 +351,8 @@ public class TransitiveGraphCache implements Finder {
      * Register a new relation instance in the cache
      */
     public synchronized void addRelation(Triple t) {
+        // A delete which has not been processed yet is cancelled by the add
+        if (deletesPending != null) deletesPending.remove(t);
     	originalTriples.add(t);
     	addRelation(t.getSubject(), t.getObject());
     }
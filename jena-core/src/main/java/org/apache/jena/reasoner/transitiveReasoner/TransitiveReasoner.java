@@ -21,6 +21,7 @@ package org.apache.jena.reasoner.transitiveReasoner;
 import org.apache.jena.graph.* ;
 import org.apache.jena.rdf.model.* ;
 import org.apache.jena.reasoner.* ;
+import org.apache.jena.reasoner.rulesys.Util ;
 import org.apache.jena.vocabulary.RDFS ;
 import org.apache.jena.vocabulary.ReasonerVocabulary ;
 
@@ -64,10 +65,13 @@ public class TransitiveReasoner implements Reasoner {
     /** The graph capabilities of the infgraphs generated by this reasoner */
     protected Capabilities capabilities;
     
+    /** True if the caches hold the closure as compact interval indexes */
+    protected boolean compactIndex = false;
+    
     /** Constructor */
     public TransitiveReasoner() {
-        subClassCache = new TransitiveGraphCache(directSubClassOf, subClassOf);
-        subPropertyCache = new TransitiveGraphCache(directSubPropertyOf, subPropertyOf);
+        subClassCache = TransitiveGraphCache.create(directSubClassOf, subClassOf, compactIndex);
+        subPropertyCache = TransitiveGraphCache.create(directSubPropertyOf, subPropertyOf, compactIndex);
     }
     
     /**
@@ -80,6 +84,7 @@ public class TransitiveReasoner implements Reasoner {
         this.tbox = tbox;
         this.subClassCache = subClassCache;
         this.subPropertyCache = subPropertyCache;
+        this.compactIndex = subClassCache instanceof CompactTransitiveGraphCache;
     }
 
     /**
@@ -161,8 +166,8 @@ public class TransitiveReasoner implements Reasoner {
         if (this.tbox != null) {
             throw new ReasonerException("Attempt to bind multiple rulesets - disallowed for now");
         }
-        TransitiveGraphCache sCc = new TransitiveGraphCache(directSubClassOf, subClassOf);
-        TransitiveGraphCache sPc = new TransitiveGraphCache(directSubPropertyOf, subPropertyOf);
+        TransitiveGraphCache sCc = TransitiveGraphCache.create(directSubClassOf, subClassOf, compactIndex);
+        TransitiveGraphCache sPc = TransitiveGraphCache.create(directSubPropertyOf, subPropertyOf, compactIndex);
         TransitiveEngine.cacheSubPropUtility(tbox, sPc);
         TransitiveEngine.cacheSubClassUtility(tbox, sPc, sCc);
         
@@ -198,9 +203,9 @@ public class TransitiveReasoner implements Reasoner {
     }
     
     /**
-      * Set a configuration paramter for the reasoner. In the case of the this
-      * reasoner there are no configuration parameters and this method is simply 
-      * here to meet the interfaces specification
+      * Set a configuration paramter for the reasoner. The only parameter is
+      * PROPenableCompactTGC, set to true to hold the closures as compact
+      * interval indexes. It must be set before a schema is bound.
       * 
       * @param parameter the property identifying the parameter to be changed
       * @param value the new value for the parameter, typically this is a wrapped
@@ -208,7 +213,15 @@ public class TransitiveReasoner implements Reasoner {
       */
      @Override
     public void setParameter(Property parameter, Object value) {
-         throw new IllegalParameterException(parameter.toString());
+         if (!parameter.equals(ReasonerVocabulary.PROPenableCompactTGC)) {
+             throw new IllegalParameterException(parameter.toString());
+         }
+         if (tbox != null) {
+             throw new ReasonerException("Can't change the cache representation after a schema is bound");
+         }
+         compactIndex = Util.convertBooleanPredicateArg(parameter, value);
+         subClassCache = TransitiveGraphCache.create(directSubClassOf, subClassOf, compactIndex);
+         subPropertyCache = TransitiveGraphCache.create(directSubPropertyOf, subPropertyOf, compactIndex);
      }
     
     /**
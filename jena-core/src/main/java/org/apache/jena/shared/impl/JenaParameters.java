@@ -85,7 +85,16 @@ public class JenaParameters {
      * XSD numberic typed literal.
      */
     public static boolean enableWhitespaceCheckingOfTypedLiterals = false;
-    
+
+    /**
+     * Set this flag to true (default) to delay parsing the lexical form of
+     * XSD typed literals until their value is first needed, e.g. for a value
+     * comparison, hashing or indexing. Literals which are only read and
+     * written again never pay for the parse. This has no effect if
+     * {@link #enableEagerLiteralValidation} is set.
+     */
+    public static boolean enableLazyLiteralValues = true;
+
     /**
      * Set this flag to true (default) to hide certain internal nodes from the output
      * of inference graphs. Some rule sets (notably owl-fb) create blank nodes as 
@@ -0,0 +1,68 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.jena.util.iterator;
+
+import java.util.Iterator ;
+import java.util.Spliterators ;
+import java.util.function.Consumer ;
+
+/**
+    A spliterator over the elements of an iterator, which closes the iterator
+    (if it is a {@link ClosableIterator}) when it is exhausted or when it is
+    closed explicitly. Splitting takes batches of elements from the iterator, as
+    for {@link Spliterators.AbstractSpliterator}.
+*/
+public class ClosableSpliterator<T> extends Spliterators.AbstractSpliterator<T>
+    {
+    protected final Iterator<T> iterator;
+    
+    /**
+        Initialise this spliterator.
+        @param iterator the source of the elements
+        @param estimate the estimated number of elements, or Long.MAX_VALUE if unknown
+        @param characteristics the characteristics of the elements
+    */
+    public ClosableSpliterator( Iterator<T> iterator, long estimate, int characteristics )
+        {
+        super( estimate, characteristics );
+        this.iterator = iterator;
+        }
+    
+    @Override public boolean tryAdvance( Consumer<? super T> action )
+        {
+        if (iterator.hasNext())
+            {
+            action.accept( iterator.next() );
+            return true;
+            }
+        close();
+        return false;
+        }
+    
+    @Override public void forEachRemaining( Consumer<? super T> action )
+        {
+        try { while (iterator.hasNext()) action.accept( iterator.next() ); }
+        finally { close(); }
+        }
+    
+    /**
+        Close the underlying iterator. This may be called any number of times.
+    */
+    public void close()
+        { NiceIterator.close( iterator ); }
+    }
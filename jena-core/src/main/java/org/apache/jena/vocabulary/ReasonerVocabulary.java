@@ -88,6 +88,10 @@ public class ReasonerVocabulary {
      *  caching in a generic rule reasoner. Set to "true" to enable caching. */
     public static final Property PROPenableTGCCaching = ruleReasonerProperty( "enableTGCCaching" );
     
+    /** Property used to make the subclass/subproperty caches hold the closure as
+     *  compact interval indexes, which suit large hierarchies. Set to "true" to enable. */
+    public static final Property PROPenableCompactTGC = ruleReasonerProperty( "enableCompactTGC" );
+    
     /** Property used to switch on/off scanning of data for container membership
      * properties in RDFS preprocessing. */
     public static final Property PROPenableCMPScan = ruleReasonerProperty( "enableCMPScan" );
@@ -100,6 +104,10 @@ public class ReasonerVocabulary {
      *  in the generic rule engine. Default is filtering on. */
     public static final Property PROPenableFunctorFiltering = ruleReasonerProperty( "enableFunctorFiltering" );
     
+    /** Property used to set the number of threads a RETE engine uses to propagate
+     *  batches of added triples, for monotonic rule sets. Default is 1. */
+    public static final Property PROPreteParallelism = ruleReasonerProperty( "reteParallelism" );
+    
     /** Constant for PROPsetRDFSLevel - default behaviour */
     public static final String RDFS_DEFAULT = RDFSRuleReasoner.DEFAULT_RULES;
     
@@ -26,6 +26,9 @@ import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Set;
+import java.util.stream.Collectors ;
+import java.util.stream.Stream ;
+import java.util.stream.StreamSupport ;
 
 import org.apache.jena.graph.* ;
 import org.apache.jena.mem.TrackingTripleIterator ;
@@ -574,6 +577,59 @@ public abstract class AbstractTestGraph extends GraphTestBase
         L.assertHas( new Object[] {"delete", g, SPO} );
     }
 
+    protected static final String [] bulkPatterns = 
+        { "?? ?? ??", "S ?? ??", "?? P ??", "?? ?? O", "S P ??", "?? P O", "S ?? O", "S P O", "?? ?? 'x'", "none ?? ??" };
+
+    public void testForEach()
+    {
+        Graph g = getGraphWith( "S P O; S P2 O2; S2 P O; S3 P3 'x'; S P 'x'" );
+        for (String pattern: bulkPatterns)
+        {
+            Triple m = triple( pattern );
+            List<Triple> found = new ArrayList<>();
+            g.forEach( m.getSubject(), m.getPredicate(), m.getObject(), found::add );
+            Set<Triple> expected = g.find( m ).toSet();
+            assertEquals( pattern, expected, new HashSet<>( found ) );
+            assertEquals( pattern, expected.size(), found.size() );
+        }
+    }
+
+    public void testSpliteratorAndStream()
+    {
+        Graph g = getGraphWith( "S P O; S P2 O2; S2 P O; S3 P3 'x'; S P 'x'" );
+        for (String pattern: bulkPatterns)
+        {
+            Triple m = triple( pattern );
+            Node s = m.getSubject(), p = m.getPredicate(), o = m.getObject();
+            Set<Triple> expected = g.find( m ).toSet();
+            List<Triple> sequential = StreamSupport.stream( g.spliterator( s, p, o ), false ).collect( Collectors.toList() );
+            assertEquals( pattern, expected, new HashSet<>( sequential ) );
+            assertEquals( pattern, expected.size(), sequential.size() );
+            try ( Stream<Triple> stream = g.stream( s, p, o ) )
+            {
+                List<Triple> parallel = stream.parallel().collect( Collectors.toList() );
+                assertEquals( pattern, expected, new HashSet<>( parallel ) );
+                assertEquals( pattern, expected.size(), parallel.size() );
+            }
+            try ( Stream<Triple> stream = g.stream( s, p, o ) )
+            { assertEquals( pattern, !expected.isEmpty(), stream.findAny().isPresent() ); }
+        }
+    }
+
+    public void testAddAllDeleteAll()
+    {
+        Graph g = getGraph();
+        List<Triple> triples = Arrays.asList( tripleArray( "a P b; c Q d; a P 'x'" ) );
+        g.addAll( triples );
+        for (Triple t: triples) assertTrue( g.contains( t ) );
+        g.deleteAll( triples.subList( 0, 2 ) );
+        assertFalse( g.contains( triples.get( 0 ) ) );
+        assertFalse( g.contains( triples.get( 1 ) ) );
+        assertTrue( g.contains( triples.get( 2 ) ) );
+        g.deleteAll( new HashSet<>( triples ) );
+        assertFalse( g.contains( triples.get( 2 ) ) );
+    }
+
     public void testBulkAddArrayEvent()
     {
         Graph g = getAndRegister( L );
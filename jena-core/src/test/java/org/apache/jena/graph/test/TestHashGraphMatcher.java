@@ -0,0 +1,207 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.jena.graph.test;
+
+import java.util.* ;
+
+import junit.framework.TestSuite;
+import org.apache.jena.datatypes.xsd.XSDDatatype ;
+import org.apache.jena.graph.* ;
+import org.apache.jena.graph.impl.GraphMatcher ;
+import org.apache.jena.graph.impl.HashGraphMatcher ;
+import org.apache.jena.rdf.model.AnonId ;
+
+public class TestHashGraphMatcher extends GraphTestBase
+    {
+    public TestHashGraphMatcher( String name )
+        { super( name ); }
+
+    public static TestSuite suite()
+        { return new TestSuite( TestHashGraphMatcher.class ); }
+
+    private static final Node P = node( "P" ), Q = node( "Q" );
+
+    private static Node blank( int i )
+        { return NodeFactory.createAnon( AnonId.create( "b" + i ) ); }
+
+    /** A copy of the graph with fresh blank nodes, added in a shuffled order. */
+    private static Graph relabel( Graph g, Random random )
+        {
+        Map<Node, Node> fresh = new HashMap<>();
+        List<Triple> triples = g.find( Node.ANY, Node.ANY, Node.ANY ).toList();
+        Collections.shuffle( triples, random );
+        Graph result = newGraph();
+        for (Triple t: triples)
+            result.add( Triple.create( fresh( fresh, t.getSubject() ), t.getPredicate(), fresh( fresh, t.getObject() ) ) );
+        return result;
+        }
+
+    private static Node fresh( Map<Node, Node> fresh, Node n )
+        { return n.isBlank() ? fresh.computeIfAbsent( n, x -> NodeFactory.createAnon() ) : n; }
+
+    private static Graph randomGraph( Random random, int blanks, int triples )
+        {
+        Graph g = newGraph();
+        while (g.size() < triples)
+            {
+            Node s = blank( random.nextInt( blanks ) );
+            Node p = random.nextInt( 4 ) == 0 ? Q : P;
+            int x = random.nextInt( blanks + 3 );
+            Node o = x < blanks ? blank( x ) : NodeFactory.createLiteral( "" + (x - blanks), XSDDatatype.XSDinteger );
+            g.add( Triple.create( s, p, o ) );
+            }
+        return g;
+        }
+
+    /** A cycle of blank nodes, or several cycles of the same total length. */
+    private static Graph cycles( int length, int count )
+        {
+        Graph g = newGraph();
+        for (int c = 0; c < count; c += 1)
+            for (int i = 0; i < length; i += 1)
+                g.add( Triple.create( blank( c * length + i ), P, blank( c * length + (i + 1) % length ) ) );
+        return g;
+        }
+
+    private static Graph canonical( Graph g )
+        {
+        Map<Node, String> labels = HashGraphMatcher.canonicalLabels( g );
+        Graph result = newGraph();
+        g.find( Node.ANY, Node.ANY, Node.ANY ).forEachRemaining( t -> result.add( Triple.create
+            ( canonical( labels, t.getSubject() ), t.getPredicate(), canonical( labels, t.getObject() ) ) ) );
+        return result;
+        }
+
+    private static Node canonical( Map<Node, String> labels, Node n )
+        { return n.isBlank() ? NodeFactory.createAnon( AnonId.create( labels.get( n ) ) ) : n; }
+
+    private static void assertMapping( Graph g1, Graph g2, Node [][] mapping )
+        {
+        assertNotNull( mapping );
+        Map<Node, Node> map = new HashMap<>();
+        for (Node [] pair: mapping) map.put( pair[0], pair[1] );
+        assertEquals( mapping.length, new HashSet<>( map.values() ).size() );
+        g1.find( Node.ANY, Node.ANY, Node.ANY ).forEachRemaining( t -> assertTrue( g2.contains( Triple.create
+            ( map.getOrDefault( t.getSubject(), t.getSubject() ), t.getPredicate(), map.getOrDefault( t.getObject(), t.getObject() ) ) ) ) );
+        }
+
+    public void testSimple()
+        {
+        assertTrue( HashGraphMatcher.equals( graphWith( "_a P _b; _b Q c" ), graphWith( "_x P _y; _y Q c" ) ) );
+        assertFalse( HashGraphMatcher.equals( graphWith( "_a P _b; _b Q c" ), graphWith( "_x P _y; _x Q c" ) ) );
+        assertFalse( HashGraphMatcher.equals( graphWith( "_a P _b" ), graphWith( "_x P _y; _x P _z" ) ) );
+        assertTrue( HashGraphMatcher.equals( graphWith( "a P b; c Q 'x'" ), graphWith( "c Q 'x'; a P b" ) ) );
+        assertFalse( HashGraphMatcher.equals( graphWith( "a P b; c Q 'x'" ), graphWith( "a P b; c Q 'y'" ) ) );
+        assertTrue( HashGraphMatcher.equals( graphWith( "_a P _a" ), graphWith( "_b P _b" ) ) );
+        assertFalse( HashGraphMatcher.equals( graphWith( "_a P _a; _b P _b" ), graphWith( "_a P _b; _b P _a" ) ) );
+        assertTrue( HashGraphMatcher.equals( newGraph(), newGraph() ) );
+        }
+
+    public void testSameTerm()
+        {
+        Graph g1 = newGraph(), g2 = newGraph();
+        g1.add( Triple.create( blank( 1 ), P, NodeFactory.createLiteral( "1", XSDDatatype.XSDinteger ) ) );
+        g2.add( Triple.create( blank( 2 ), P, NodeFactory.createLiteral( "01", XSDDatatype.XSDinteger ) ) );
+        assertFalse( HashGraphMatcher.equals( g1, g2 ) );
+        g1.add( Triple.create( node( "a" ), P, NodeFactory.createLiteral( "1", XSDDatatype.XSDinteger ) ) );
+        g2.add( Triple.create( node( "a" ), P, NodeFactory.createLiteral( "01", XSDDatatype.XSDinteger ) ) );
+        assertFalse( HashGraphMatcher.equals( g1, g2 ) );
+        }
+
+    public void testRandomGraphs()
+        {
+        Random random = new Random( 7 );
+        for (int round = 0; round < 50; round += 1)
+            {
+            int blanks = 2 + random.nextInt( 12 ), size = 1 + random.nextInt( 2 * blanks );
+            Graph g1 = randomGraph( random, blanks, size );
+            Graph g2 = relabel( g1, random );
+            assertTrue( HashGraphMatcher.equals( g1, g2 ) );
+            assertMapping( g1, g2, HashGraphMatcher.match( g1, g2 ) );
+            assertEquals( HashGraphMatcher.hashCode( g1 ), HashGraphMatcher.hashCode( g2 ) );
+            assertEquals( canonical( g1 ).find( Node.ANY, Node.ANY, Node.ANY ).toSet(), canonical( g2 ).find( Node.ANY, Node.ANY, Node.ANY ).toSet() );
+        //
+            Graph g3 = randomGraph( random, blanks, size );
+            boolean expected = GraphMatcher.equals( g1, g3 );
+            assertEquals( expected, HashGraphMatcher.equals( g1, g3 ) );
+            assertEquals( expected, canonical( g1 ).find( Node.ANY, Node.ANY, Node.ANY ).toSet().equals( canonical( g3 ).find( Node.ANY, Node.ANY, Node.ANY ).toSet() ) );
+            }
+        }
+
+    /** Every blank node of a cycle has the same colour, so the matcher has to choose. */
+    public void testCycles()
+        {
+        Graph g = cycles( 12, 1 ), g2 = relabel( g, new Random( 1 ) );
+        assertTrue( HashGraphMatcher.equals( g, g2 ) );
+        assertMapping( g, g2, HashGraphMatcher.match( g, g2 ) );
+        assertFalse( HashGraphMatcher.equals( g, cycles( 6, 2 ) ) );
+        assertFalse( HashGraphMatcher.equals( cycles( 4, 3 ), cycles( 6, 2 ) ) );
+        assertTrue( HashGraphMatcher.equals( cycles( 4, 3 ), relabel( cycles( 4, 3 ), new Random( 2 ) ) ) );
+        assertEquals( canonical( cycles( 4, 3 ) ).find( Node.ANY, Node.ANY, Node.ANY ).toSet(),
+            canonical( relabel( cycles( 4, 3 ), new Random( 3 ) ) ).find( Node.ANY, Node.ANY, Node.ANY ).toSet() );
+        assertFalse( canonical( cycles( 4, 3 ) ).isIsomorphicWith( newGraph() ) );
+        }
+
+    /** Many interchangeable blank nodes do not need a search. */
+    public void testInterchangeable()
+        {
+        Graph g = newGraph();
+        for (int i = 0; i < 3000; i += 1)
+            {
+            g.add( Triple.create( node( "s" + (i % 100) ), P, blank( i ) ) );
+            g.add( Triple.create( blank( i ), Q, NodeFactory.createLiteral( "x" ) ) );
+            }
+        Graph g2 = relabel( g, new Random( 4 ) );
+        assertTrue( HashGraphMatcher.equals( g, g2 ) );
+        assertMapping( g, g2, HashGraphMatcher.match( g, g2 ) );
+        Map<Node, String> labels = HashGraphMatcher.canonicalLabels( g );
+        assertEquals( 3000, new HashSet<>( labels.values() ).size() );
+        assertEquals( canonical( g ).find( Node.ANY, Node.ANY, Node.ANY ).toSet(), canonical( g2 ).find( Node.ANY, Node.ANY, Node.ANY ).toSet() );
+        g2.delete( Triple.create( node( "s1" ), P, g2.find( node( "s1" ), P, Node.ANY ).next().getObject() ) );
+        g2.add( Triple.create( node( "s2" ), P, NodeFactory.createAnon() ) );
+        assertFalse( HashGraphMatcher.equals( g, g2 ) );
+        }
+
+    public void testParallel()
+        {
+        Random random = new Random( 11 );
+        for (int round = 0; round < 10; round += 1)
+            {
+            Graph g1 = randomGraph( random, 50, 200 );
+            Graph g2 = relabel( g1, random );
+            assertMapping( g1, g2, HashGraphMatcher.match( g1, g2, 1 ) );
+            assertEquals( HashGraphMatcher.canonicalLabels( g1 ), HashGraphMatcher.canonicalLabels( g1, 1 ) );
+            }
+        assertFalse( HashGraphMatcher.equals( cycles( 5, 4 ), cycles( 10, 2 ), 1 ) );
+        }
+
+    public void testSameAsGraphMatcher()
+        {
+        Graph[][] pairs = {
+            { graphWith( "_a P _b; _b Q c" ), graphWith( "_x P _y; _y Q c" ) },
+            { graphWith( "_a P _b; _b Q c" ), graphWith( "_x P _y; _x Q c" ) },
+            { cycles( 3, 1 ), relabel( cycles( 3, 1 ), new Random( 5 ) ) },
+            { cycles( 5, 4 ), cycles( 10, 2 ) } };
+        for (Graph[] pair : pairs)
+            {
+            assertEquals( GraphMatcher.equals( pair[0], pair[1] ), HashGraphMatcher.equals( pair[0], pair[1] ) );
+            assertEquals( GraphMatcher.match( pair[0], pair[1] ) == null, HashGraphMatcher.match( pair[0], pair[1] ) == null );
+            }
+        }
+    }
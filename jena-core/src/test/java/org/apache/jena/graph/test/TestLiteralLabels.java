@@ -18,12 +18,21 @@
 
 package org.apache.jena.graph.test;
 
+import java.util.ArrayList ;
+import java.util.List ;
+import java.util.concurrent.* ;
+import java.util.concurrent.atomic.AtomicInteger ;
+
 import junit.framework.Test ;
 import junit.framework.TestSuite ;
 import org.apache.jena.datatypes.BaseDatatype ;
+import org.apache.jena.datatypes.DatatypeFormatException ;
 import org.apache.jena.datatypes.RDFDatatype ;
+import org.apache.jena.datatypes.xsd.XSDDatatype ;
+import org.apache.jena.datatypes.xsd.impl.XSDBaseNumericType ;
 import org.apache.jena.graph.impl.LiteralLabel ;
 import org.apache.jena.graph.impl.LiteralLabelFactory ;
+import org.apache.jena.shared.impl.JenaParameters ;
 
 // See also TestLiteralLabelSameValueAs, TestTypedLiterals
 public class TestLiteralLabels extends GraphTestBase
@@ -126,5 +135,100 @@ public class TestLiteralLabels extends GraphTestBase
         assertFalse(A.equals(B)) ;
         assertTrue(A.sameValueAs(B)) ;
     }
+
+    /** xsd:int, counting the lexical forms parsed */
+    private static class CountingIntType extends XSDBaseNumericType
+    {
+        final AtomicInteger parses = new AtomicInteger() ;
+
+        CountingIntType() { super("int", Integer.class) ; }
+
+        @Override
+        public Object parse(String lexicalForm) throws DatatypeFormatException
+        {
+            parses.incrementAndGet() ;
+            return super.parse(lexicalForm) ;
+        }
+    }
+
+    public void testLazyValue()
+    {
+        CountingIntType dt = new CountingIntType() ;
+        LiteralLabel A = LiteralLabelFactory.create("01", dt) ;
+        LiteralLabel B = LiteralLabelFactory.create("1", dt) ;
+        assertEquals(0, dt.parses.get()) ;
+        assertEquals("01", A.getLexicalForm()) ;
+        assertSame(dt, A.getDatatype()) ;
+        assertFalse(A.equals(B)) ;
+        assertEquals(0, dt.parses.get()) ;
+        assertTrue(A.sameValueAs(B)) ;
+        assertEquals(2, dt.parses.get()) ;
+        assertEquals(1, A.getValue()) ;
+        assertEquals(A.hashCode(), B.hashCode()) ;
+        assertEquals(2, dt.parses.get()) ;
+    }
+
+    public void testLazyIllFormed()
+    {
+        LiteralLabel A = LiteralLabelFactory.create("x", XSDDatatype.XSDint) ;
+        assertEquals("x", A.getLexicalForm()) ;
+        assertFalse(A.isWellFormed()) ;
+        assertFalse(A.sameValueAs(LiteralLabelFactory.create("1", XSDDatatype.XSDint))) ;
+        try { A.getValue() ; fail("Ill-formed literal has a value") ; }
+        catch (DatatypeFormatException ex) {}
+    }
+
+    public void testEagerValue()
+    {
+        boolean eager = JenaParameters.enableEagerLiteralValidation ;
+        boolean lazy = JenaParameters.enableLazyLiteralValues ;
+        try {
+            JenaParameters.enableLazyLiteralValues = false ;
+            CountingIntType dt = new CountingIntType() ;
+            LiteralLabelFactory.create("1", dt) ;
+            assertEquals(1, dt.parses.get()) ;
+            JenaParameters.enableLazyLiteralValues = true ;
+            JenaParameters.enableEagerLiteralValidation = true ;
+            try { LiteralLabelFactory.create("x", XSDDatatype.XSDint) ; fail("Ill-formed literal accepted") ; }
+            catch (DatatypeFormatException ex) {}
+        } finally {
+            JenaParameters.enableEagerLiteralValidation = eager ;
+            JenaParameters.enableLazyLiteralValues = lazy ;
+        }
+    }
+
+    /** Labels compared from several threads are parsed once each and agree. */
+    public void testLazyValueConcurrent() throws Exception
+    {
+        CountingIntType dt = new CountingIntType() ;
+        int N = 2000 ;
+        List<LiteralLabel> labels = new ArrayList<>() ;
+        for ( int i = 0 ; i < N ; i++ )
+            labels.add(LiteralLabelFactory.create((i % 2 == 0 ? "0" : "+") + (i / 2), dt)) ;
+        int threads = 4 ;
+        ExecutorService executor = Executors.newFixedThreadPool(threads) ;
+        try {
+            CountDownLatch start = new CountDownLatch(1) ;
+            List<Future<Integer>> results = new ArrayList<>() ;
+            for ( int t = 0 ; t < threads ; t++ ) {
+                results.add(executor.submit(() -> {
+                    start.await() ;
+                    int same = 0 ;
+                    for ( int i = 0 ; i + 1 < N ; i += 2 ) {
+                        LiteralLabel A = labels.get(i), B = labels.get(i + 1) ;
+                        if ( A.sameValueAs(B) && A.hashCode() == B.hashCode() && A.getValue().equals(i / 2) )
+                            same++ ;
+                    }
+                    return same ;
+                })) ;
+            }
+            start.countDown() ;
+            for ( Future<Integer> f : results )
+                assertEquals(N / 2, f.get().intValue()) ;
+        } finally {
+            executor.shutdown() ;
+        }
+        assertEquals(N, dt.parses.get()) ;
+    }
     
 }
@@ -0,0 +1,170 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.jena.graph.test;
+
+import java.util.ArrayList ;
+import java.util.List ;
+import java.util.concurrent.* ;
+
+import junit.framework.TestSuite;
+import org.apache.jena.datatypes.xsd.XSDDatatype ;
+import org.apache.jena.graph.* ;
+import org.apache.jena.mem.GraphMem ;
+
+public class TestNodeInterner extends GraphTestBase
+    {
+    public TestNodeInterner( String name )
+        { super( name ); }
+
+    public static TestSuite suite()
+        { return new TestSuite( TestNodeInterner.class ); }
+
+    private NodeInterner.Scope scope;
+
+    @Override public void setUp()
+        { scope = NodeInterner.getScope(); }
+
+    @Override public void tearDown()
+        { NodeInterner.setScope( scope ); }
+
+    public void testInternURIs()
+        {
+        NodeInterner interner = new NodeInterner();
+        Node a = interner.intern( NodeFactory.createURI( "http://example/a" ) );
+        Node b = interner.intern( NodeFactory.createURI( "http://example/a" ) );
+        assertSame( a, b );
+        assertEquals( 1, interner.hits() );
+        assertEquals( 1, interner.misses() );
+        assertEquals( 1, interner.size() );
+        assertNotSame( a, interner.intern( NodeFactory.createURI( "http://example/b" ) ) );
+        assertEquals( 2, interner.size() );
+        }
+
+    public void testInternLiterals()
+        {
+        NodeInterner interner = new NodeInterner();
+        Node a = interner.intern( NodeFactory.createLiteral( "1", XSDDatatype.XSDinteger ) );
+        assertSame( a, interner.intern( NodeFactory.createLiteral( "1", XSDDatatype.XSDinteger ) ) );
+        // Different terms with the same value stay apart
+        assertNotSame( a, interner.intern( NodeFactory.createLiteral( "01", XSDDatatype.XSDinteger ) ) );
+        assertNotSame( a, interner.intern( NodeFactory.createLiteral( "1", XSDDatatype.XSDint ) ) );
+        Node x = interner.intern( NodeFactory.createLiteral( "x", "en" ) );
+        assertSame( x, interner.intern( NodeFactory.createLiteral( "x", "en" ) ) );
+        assertNotSame( x, interner.intern( NodeFactory.createLiteral( "x", "fr" ) ) );
+        assertNotSame( x, interner.intern( NodeFactory.createLiteral( "x" ) ) );
+        }
+
+    public void testOtherNodesUnchanged()
+        {
+        NodeInterner interner = new NodeInterner();
+        Node b = NodeFactory.createAnon();
+        assertSame( b, interner.intern( b ) );
+        assertSame( Node.ANY, interner.intern( Node.ANY ) );
+        assertNull( interner.intern( (Node) null ) );
+        assertEquals( 0, interner.size() );
+        assertEquals( 0, interner.hits() + interner.misses() );
+        }
+
+    public void testInternTriple()
+        {
+        NodeInterner interner = new NodeInterner();
+        Triple t1 = interner.intern( triple( "a P 'x'" ) );
+        assertSame( t1, interner.intern( t1 ) );
+        Triple t2 = interner.intern( triple( "'x' P a" ) );
+        assertSame( t1.getSubject(), t2.getObject() );
+        assertSame( t1.getPredicate(), t2.getPredicate() );
+        assertSame( t1.getObject(), t2.getSubject() );
+        }
+
+    public void testWeak() throws InterruptedException
+        {
+        NodeInterner interner = new NodeInterner();
+        for (int i = 0; i < 1000; i += 1)
+            interner.intern( NodeFactory.createURI( "http://example/" + i ) );
+        Node kept = interner.intern( NodeFactory.createURI( "http://example/kept" ) );
+        for (int i = 0; i < 20 && interner.size() > 1; i += 1)
+            {
+            System.gc();
+            Thread.sleep( 10 );
+            }
+        assertEquals( 1, interner.size() );
+        assertSame( kept, interner.intern( NodeFactory.createURI( "http://example/kept" ) ) );
+        Node again = interner.intern( NodeFactory.createURI( "http://example/1" ) );
+        assertEquals( "http://example/1", again.getURI() );
+        }
+
+    public void testConcurrent() throws Exception
+        {
+        final NodeInterner interner = new NodeInterner();
+        final int threads = 4, nodes = 500;
+        ExecutorService executor = Executors.newFixedThreadPool( threads );
+        try
+            {
+            List<Future<Node[]>> results = new ArrayList<>();
+            for (int t = 0; t < threads; t += 1)
+                results.add( executor.submit( () ->
+                    {
+                    Node[] x = new Node[nodes];
+                    for (int i = 0; i < nodes; i += 1)
+                        x[i] = interner.intern( NodeFactory.createURI( "http://example/" + i ) );
+                    return x;
+                    } ) );
+            Node[] first = results.get( 0 ).get();
+            for (Future<Node[]> f: results)
+                {
+                Node[] x = f.get();
+                for (int i = 0; i < nodes; i += 1) assertSame( first[i], x[i] );
+                }
+            assertEquals( nodes, interner.misses() );
+            assertEquals( (threads - 1) * nodes, interner.hits() );
+            }
+        finally
+            { executor.shutdown(); }
+        }
+
+    public void testGlobalScope()
+        {
+        NodeInterner.setScope( NodeInterner.Scope.GLOBAL );
+        NodeInterner.global().clear();
+        Node a = NodeFactory.createURI( "http://example/global" );
+        assertSame( a, NodeFactory.createURI( "http://example/global" ) );
+        assertSame( NodeFactory.createLiteral( "v" ), NodeFactory.createLiteral( "v" ) );
+        assertEquals( 2, NodeInterner.global().hits() );
+        NodeInterner.setScope( NodeInterner.Scope.NONE );
+        assertNotSame( a, NodeFactory.createURI( "http://example/global" ) );
+        NodeInterner.global().clear();
+        }
+
+    public void testGraphScope()
+        {
+        assertNull( new GraphMem().getNodeInterner() );
+        NodeInterner.setScope( NodeInterner.Scope.GRAPH );
+        GraphMem g1 = new GraphMem(), g2 = new GraphMem();
+        assertNotSame( g1.getNodeInterner(), g2.getNodeInterner() );
+        g1.add( triple( "a P b" ) );
+        g1.add( triple( "b P a" ) );
+        g2.add( triple( "a P b" ) );
+        Triple t1 = g1.find( node( "a" ), Node.ANY, Node.ANY ).next();
+        Triple t2 = g1.find( node( "b" ), Node.ANY, Node.ANY ).next();
+        assertSame( t1.getSubject(), t2.getObject() );
+        assertSame( t1.getPredicate(), t2.getPredicate() );
+        assertEquals( 3, g1.getNodeInterner().hits() );
+        assertEquals( 3, g2.getNodeInterner().misses() );
+        assertNotSame( t1.getSubject(), g2.find( Node.ANY, Node.ANY, Node.ANY ).next().getSubject() );
+        }
+    }
@@ -37,6 +37,8 @@ public class TestPackage extends TestSuite {
         addTest( TestLiteralLabels.suite() );
         addTest( TestLiteralLabelSameValueAs.suite() );
         addTest( TestNode.suite() );
+        addTest( TestNodeInterner.suite() );
+        addTest( TestHashGraphMatcher.suite() );
         addTest( TestTriple.suite() );
         addTest( TestTripleField.suite() );
         addTest( TestNodeToTriplesMap.suite() );
@@ -18,6 +18,9 @@
 
 package org.apache.jena.mem.test;
 
+import java.util.* ;
+import java.util.stream.Collectors ;
+
 import junit.framework.TestSuite;
 import org.apache.jena.graph.* ;
 import org.apache.jena.graph.test.* ;
@@ -127,6 +130,48 @@ public class TestGraphMem extends AbstractTestGraph
         assertEquals( expect, h.getStatistic( t.getSubject(), t.getPredicate(), t.getObject() ) );
         }
 
+    public void testAddAllEvents()
+        {
+        Graph g = getAndRegister( L );
+        List<Triple> elems = Arrays.asList( tripleArray( "bells ring loudly; pigs might fly" ) );
+        g.addAll( elems );
+        g.deleteAll( elems );
+        L.assertHas( new Object[] {"addList", g, elems, "deleteList", g, elems} );
+        }
+
+    public void testSpliteratorSplits()
+        {
+        Graph g = new GraphMem();
+        for (int i = 0; i < 2000; i += 1)
+            g.add( triple( "s" + (i % 300) + " P" + (i % 7) + " o" + i ) );
+        Spliterator<Triple> all = g.spliterator( Node.ANY, Node.ANY, Node.ANY );
+        assertEquals( 2000, all.estimateSize() );
+        Spliterator<Triple> prefix = all.trySplit();
+        assertNotNull( prefix );
+        Set<Triple> seen = new HashSet<>();
+        prefix.forEachRemaining( seen::add );
+        all.forEachRemaining( t -> assertTrue( seen.add( t ) ) );
+        assertEquals( g.find( Node.ANY, Node.ANY, Node.ANY ).toSet(), seen );
+    //
+        Spliterator<Triple> byP = g.spliterator( Node.ANY, node( "P3" ), Node.ANY );
+        assertNotNull( byP.trySplit() );
+        assertEquals( g.find( Node.ANY, node( "P3" ), Node.ANY ).toSet(),
+            g.stream( Node.ANY, node( "P3" ), Node.ANY ).parallel().collect( Collectors.toSet() ) );
+        assertEquals( 286, g.stream( Node.ANY, node( "P3" ), Node.ANY ).parallel().count() );
+        }
+
+    public void testForEachDetectsChanges()
+        {
+        Graph g = getGraphWith( "a P b; a P c; x Q y" );
+        try 
+            { 
+            g.forEach( node( "a" ), Node.ANY, Node.ANY, t -> g.add( triple( "a P d" ) ) ); 
+            fail( "should detect concurrent modification" );
+            }
+        catch (ConcurrentModificationException e)
+            { pass(); }
+        }
+
     protected final class GraphMemWithoutFind extends GraphMem
         {
         @Override public ExtendedIterator<Triple> graphBaseFind( Triple t )
@@ -22,6 +22,7 @@ import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
+import java.util.Spliterator;
 
 import org.apache.jena.graph.Triple ;
 import org.apache.jena.graph.test.GraphTestBase ;
@@ -133,6 +134,22 @@ public abstract class TestTripleBunch extends GraphTestBase
         while (it.hasNext()) it.removeNext();
         assertEquals( tripleSet( "" ), b.iterator().toSet() );
         }
+
+    public void testSpliteratorSizeAfterPartialTraversal()
+        {
+        TripleBunch b = getBunch();
+        for (int i = 0; i < 7; i += 1) b.add( triple( "s P o" + i ) );
+        Spliterator<Triple> s = b.spliterator( null );
+        Set<Triple> seen = new HashSet<>();
+        assertTrue( s.tryAdvance( seen::add ) );
+        assertTrue( s.tryAdvance( seen::add ) );
+        Spliterator<Triple> prefix = s.trySplit();
+        if (s.hasCharacteristics( Spliterator.SIZED ))
+            assertEquals( 5, s.estimateSize() + (prefix == null ? 0 : prefix.estimateSize()) );
+        if (prefix != null) prefix.forEachRemaining( t -> assertTrue( seen.add( t ) ) );
+        s.forEachRemaining( t -> assertTrue( seen.add( t ) ) );
+        assertEquals( b.iterator().toSet(), seen );
+        }
         
     protected List<Triple> listOf( Triple x )
         {
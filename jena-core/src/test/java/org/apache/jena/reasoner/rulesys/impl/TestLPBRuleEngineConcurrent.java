@@ -0,0 +1,144 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.jena.reasoner.rulesys.impl;
+
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import junit.framework.TestCase;
+import junit.framework.TestSuite;
+
+import org.apache.jena.graph.Factory;
+import org.apache.jena.graph.Graph;
+import org.apache.jena.graph.Node;
+import org.apache.jena.graph.NodeFactory;
+import org.apache.jena.graph.Triple;
+import org.apache.jena.reasoner.TriplePattern;
+import org.apache.jena.reasoner.rulesys.FBRuleInfGraph;
+import org.apache.jena.reasoner.rulesys.FBRuleReasoner;
+import org.apache.jena.reasoner.rulesys.Node_RuleVariable;
+import org.apache.jena.reasoner.rulesys.Rule;
+import org.apache.jena.util.iterator.ExtendedIterator;
+
+/**
+ * Queries for completed tabled goals are answered from the published tables.
+ */
+public class TestLPBRuleEngineConcurrent extends TestCase {
+    public static TestSuite suite() {
+        return new TestSuite(TestLPBRuleEngineConcurrent.class, "TestLPBRuleEngineConcurrent");
+    }
+
+    protected Node p = NodeFactory.createURI("p");
+    protected Node anc = NodeFactory.createURI("anc");
+
+    static final int N = 30;
+
+    /** A chain n0 p n1 p n2 ... with anc as the transitive closure of p. */
+    private FBRuleInfGraph createGraph() {
+        Graph data = Factory.createGraphMem();
+        for (int i = 0; i < N; i++) {
+            data.add(new Triple(node(i), p, node(i+1)));
+        }
+        List<Rule> rules = Rule.parseRules(
+            "[r1: (?x anc ?y) <- (?x p ?y)]" +
+            "[r2: (?x anc ?z) <- (?x anc ?y), (?y p ?z)]");
+        FBRuleReasoner reasoner = new FBRuleReasoner(rules);
+        reasoner.tablePredicate(anc);
+        return (FBRuleInfGraph) reasoner.bind(data);
+    }
+
+    private Node node(int i) {
+        return NodeFactory.createURI("n" + i);
+    }
+
+    private static Set<Triple> toSet(ExtendedIterator<Triple> iter) {
+        Set<Triple> x = new HashSet<>();
+        try {
+            while (iter.hasNext()) x.add(iter.next());
+        } finally { iter.close(); }
+        return x;
+    }
+
+    public void testPublishCompleted() throws Exception {
+        FBRuleInfGraph infgraph = createGraph();
+        LPBRuleEngine engine = getEngineForGraph(infgraph);
+        assertTrue(engine.tableCache.isEmpty());
+
+        Set<Triple> results1 = toSet(infgraph.find(null, anc, null));
+        assertEquals(N*(N+1)/2, results1.size());
+        TriplePattern key = new TriplePattern(Node_RuleVariable.WILD, anc, Node_RuleVariable.WILD);
+        assertNotNull(engine.tableCache.get(key));
+
+        // Answered from the published table: no interpreter is started.
+        ExtendedIterator<Triple> iter = infgraph.find(null, anc, null);
+        assertEquals(0, engine.activeInterpreters.size());
+        assertEquals(results1, toSet(iter));
+
+        // Partially bound queries are not the same goal.
+        assertNull(engine.completedResults(new TriplePattern(node(0), anc, Node.ANY)));
+        assertEquals(N, toSet(infgraph.find(node(0), anc, null)).size());
+
+        infgraph.reset();
+        assertTrue(engine.tableCache.isEmpty());
+        assertEquals(results1, toSet(infgraph.find(null, anc, null)));
+    }
+
+    public void testRepeatedVariable() throws Exception {
+        FBRuleInfGraph infgraph = createGraph();
+        LPBRuleEngine engine = getEngineForGraph(infgraph);
+        toSet(infgraph.find(null, anc, null));
+        Node v = NodeFactory.createVariable("v");
+        assertNull(engine.completedResults(new TriplePattern(v, anc, v)));
+    }
+
+    public void testConcurrentQueries() throws Exception {
+        FBRuleInfGraph infgraph = createGraph();
+        Set<Triple> expected = toSet(createGraph().find(null, anc, null));
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<Set<Triple>>> futures = new ArrayList<>();
+            for (int i = 0; i < 20; i++) {
+                final Node s = (i % 2 == 0) ? null : node(i);
+                futures.add(executor.submit(() -> toSet(infgraph.find(s, anc, null))));
+            }
+            for (int i = 0; i < futures.size(); i++) {
+                Set<Triple> results = futures.get(i).get();
+                if (i % 2 == 0) {
+                    assertEquals(expected, results);
+                } else {
+                    assertEquals(N - i, results.size());
+                }
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    private LPBRuleEngine getEngineForGraph(FBRuleInfGraph infgraph) throws Exception {
+        Field bEngine = FBRuleInfGraph.class.getDeclaredField("bEngine");
+        bEngine.setAccessible(true);
+        return (LPBRuleEngine) bEngine.get(infgraph);
+    }
+}
@@ -0,0 +1,247 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.jena.reasoner.rulesys.impl;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.lang.reflect.Field;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import junit.framework.TestCase;
+import junit.framework.TestSuite;
+
+import org.apache.jena.graph.Factory;
+import org.apache.jena.graph.Graph;
+import org.apache.jena.graph.Node;
+import org.apache.jena.graph.NodeFactory;
+import org.apache.jena.graph.Triple;
+import org.apache.jena.reasoner.InfGraph;
+import org.apache.jena.reasoner.ReasonerRegistry;
+import org.apache.jena.reasoner.TriplePattern;
+import org.apache.jena.reasoner.rulesys.FBRuleInfGraph;
+import org.apache.jena.reasoner.rulesys.FBRuleReasoner;
+import org.apache.jena.reasoner.rulesys.GenericRuleReasoner;
+import org.apache.jena.reasoner.rulesys.LPBackwardRuleInfGraph;
+import org.apache.jena.reasoner.rulesys.Node_RuleVariable;
+import org.apache.jena.reasoner.rulesys.Rule;
+import org.apache.jena.util.iterator.ExtendedIterator;
+import org.apache.jena.vocabulary.RDF;
+import org.apache.jena.vocabulary.RDFS;
+
+/**
+ * Tables of the LP engine: selective invalidation on update, sharing between
+ * graphs and saving and reloading.
+ */
+public class TestLPTableCache extends TestCase {
+    public static TestSuite suite() {
+        return new TestSuite(TestLPTableCache.class, "TestLPTableCache");
+    }
+
+    protected Node p = NodeFactory.createURI("p");
+    protected Node q = NodeFactory.createURI("q");
+    protected Node anc = NodeFactory.createURI("anc");
+    protected Node rel = NodeFactory.createURI("rel");
+
+    static final int N = 10;
+
+    static final String RULES =
+        "[r1: (?x anc ?y) <- (?x p ?y)]" +
+        "[r2: (?x anc ?z) <- (?x anc ?y), (?y p ?z)]" +
+        "[r3: (?x rel ?y) <- (?x q ?y)]" +
+        "[r4: (?x rel ?y) <- (?y q ?x)]";
+
+    /** A chain n0 p n1 p n2 ... with anc as the transitive closure of p, and rel as q both ways. */
+    private Graph createData() {
+        Graph data = Factory.createGraphMem();
+        for (int i = 0; i < N; i++) {
+            data.add(new Triple(node(i), p, node(i+1)));
+        }
+        data.add(new Triple(node(0), q, NodeFactory.createAnon()));
+        data.add(new Triple(node(1), q, NodeFactory.createLiteral("one", "en")));
+        return data;
+    }
+
+    private FBRuleInfGraph createFBGraph(Graph data) {
+        FBRuleReasoner reasoner = new FBRuleReasoner(Rule.parseRules(RULES));
+        reasoner.tablePredicate(anc);
+        reasoner.tablePredicate(rel);
+        return (FBRuleInfGraph) reasoner.bind(data);
+    }
+
+    private LPBackwardRuleInfGraph createLPGraph(Graph data) {
+        GenericRuleReasoner reasoner = new GenericRuleReasoner(Rule.parseRules(RULES));
+        reasoner.setMode(GenericRuleReasoner.BACKWARD);
+        reasoner.tablePredicate(anc);
+        reasoner.tablePredicate(rel);
+        return (LPBackwardRuleInfGraph) reasoner.bind(data);
+    }
+
+    private Node node(int i) {
+        return NodeFactory.createURI("n" + i);
+    }
+
+    private static TriplePattern goal(Node predicate) {
+        return new TriplePattern(Node_RuleVariable.WILD, predicate, Node_RuleVariable.WILD);
+    }
+
+    private static Set<Triple> toSet(ExtendedIterator<Triple> iter) {
+        Set<Triple> x = new HashSet<>();
+        try {
+            while (iter.hasNext()) x.add(iter.next());
+        } finally { iter.close(); }
+        return x;
+    }
+
+    /** Updates to a backward graph are seen by tabled goals. */
+    public void testAddToTabledGoal() {
+        Graph data = createData();
+        LPBackwardRuleInfGraph infgraph = createLPGraph(data);
+        assertEquals(N*(N+1)/2, toSet(infgraph.find(null, anc, null)).size());
+        infgraph.add(new Triple(node(N), p, node(N+1)));
+        assertEquals((N+1)*(N+2)/2, toSet(infgraph.find(null, anc, null)).size());
+        infgraph.delete(new Triple(node(0), p, node(1)));
+        assertEquals(N*(N+1)/2, toSet(infgraph.find(null, anc, null)).size());
+    }
+
+    /** Only the tables which depend on the changed predicate are dropped. */
+    public void testSelectiveReset() throws Exception {
+        FBRuleInfGraph infgraph = createFBGraph(createData());
+        LPBRuleEngine engine = getEngineForGraph(infgraph);
+        Set<Triple> ancs = toSet(infgraph.find(null, anc, null));
+        Set<Triple> rels = toSet(infgraph.find(null, rel, null));
+        // The inverse of a literal object is a table entry but not a result.
+        assertEquals(3, rels.size());
+        List<Triple> ancTable = engine.tableCache.get(goal(anc));
+        assertNotNull(ancTable);
+        assertNotNull(engine.tableCache.get(goal(rel)));
+
+        infgraph.add(new Triple(node(5), q, node(6)));
+        assertSame(ancTable, engine.tableCache.get(goal(anc)));
+        assertNull(engine.tableCache.get(goal(rel)));
+        assertEquals(ancs, toSet(infgraph.find(null, anc, null)));
+        assertEquals(5, toSet(infgraph.find(null, rel, null)).size());
+
+        infgraph.add(new Triple(node(N), p, node(N+1)));
+        assertNull(engine.tableCache.get(goal(anc)));
+        assertNotNull(engine.tableCache.get(goal(rel)));
+        assertEquals((N+1)*(N+2)/2, toSet(infgraph.find(null, anc, null)).size());
+    }
+
+    /** A rule whose body may use any predicate makes every update affect its head. */
+    public void testDependencies() throws Exception {
+        FBRuleInfGraph infgraph = createFBGraph(createData());
+        LPBRuleEngine engine = getEngineForGraph(infgraph);
+        toSet(infgraph.find(null, anc, null));
+        Set<Node> affected = engine.affectedPredicates(Collections.singleton(p));
+        assertTrue(affected.contains(anc));
+        assertFalse(affected.contains(rel));
+        assertFalse(affected.contains(Node.ANY));
+
+        engine.addRule(Rule.parseRule("[(?x rel ?y) <- (?x ?r ?y), notEqual(?r, p)]"));
+        affected = engine.affectedPredicates(Collections.singleton(p));
+        assertTrue(affected.contains(rel));
+        assertFalse(affected.contains(Node.ANY));
+
+        engine.addRule(Rule.parseRule("[(?x ?r ?y) <- (?x anc ?y), (?r p ?x)]"));
+        affected = engine.affectedPredicates(Collections.singleton(p));
+        assertTrue(affected.contains(Node.ANY));
+    }
+
+    /** Selective resets in a forward/backward graph agree with recomputing everything. */
+    public void testRDFSUpdates() {
+        Graph data = Factory.createGraphMem();
+        Node a = NodeFactory.createURI("a");
+        Node b = NodeFactory.createURI("b");
+        Node c = NodeFactory.createURI("c");
+        Node x = NodeFactory.createURI("x");
+        data.add(new Triple(a, RDFS.subClassOf.asNode(), b));
+        data.add(new Triple(x, RDF.type.asNode(), a));
+        InfGraph infgraph = ReasonerRegistry.getRDFSReasoner().bind(data);
+        toSet(infgraph.find(null, RDF.type.asNode(), null));
+        toSet(infgraph.find(null, p, null));
+        infgraph.add(new Triple(b, RDFS.subClassOf.asNode(), c));
+        infgraph.add(new Triple(x, p, a));
+        infgraph.add(new Triple(p, RDFS.domain.asNode(), c));
+        InfGraph fresh = ReasonerRegistry.getRDFSReasoner().bind(infgraph.getRawGraph());
+        assertEquals(toSet(fresh.find(null, null, null)), toSet(infgraph.find(null, null, null)));
+        assertTrue(infgraph.contains(x, RDF.type.asNode(), c));
+    }
+
+    /** A graph answers from tables completed by another graph over the same data. */
+    public void testSharedCache() throws Exception {
+        Graph data = createData();
+        FBRuleInfGraph infgraph1 = createFBGraph(data);
+        Set<Triple> ancs = toSet(infgraph1.find(null, anc, null));
+        LPTableCache cache = infgraph1.getTableCache();
+
+        FBRuleInfGraph infgraph2 = createFBGraph(data);
+        infgraph2.setTableCache(cache);
+        LPBRuleEngine engine2 = getEngineForGraph(infgraph2);
+        ExtendedIterator<Triple> iter = infgraph2.find(null, anc, null);
+        assertEquals(0, engine2.activeInterpreters.size());
+        assertEquals(ancs, toSet(iter));
+
+        // A subgoal of another goal is answered from the shared table too.
+        assertEquals(N, toSet(infgraph2.find(node(0), anc, null)).size());
+
+        // An update replaces the shared cache rather than changing it.
+        Graph data3 = createData();
+        FBRuleInfGraph infgraph3 = createFBGraph(data3);
+        infgraph3.setTableCache(cache);
+        infgraph3.add(new Triple(node(N), p, node(N+1)));
+        assertNotSame(cache, infgraph3.getTableCache());
+        assertEquals(ancs.size(), cache.get(goal(anc)).size());
+        assertEquals((N+1)*(N+2)/2, toSet(infgraph3.find(null, anc, null)).size());
+        assertEquals(ancs, toSet(infgraph2.find(null, anc, null)));
+    }
+
+    /** Tables written to a stream are read back for the same rules only. */
+    public void testWriteRead() throws Exception {
+        Graph data = createData();
+        LPBackwardRuleInfGraph infgraph1 = createLPGraph(data);
+        Set<Triple> ancs = toSet(infgraph1.find(null, anc, null));
+        Set<Triple> rels = toSet(infgraph1.find(null, rel, null));
+        LPTableCache cache1 = infgraph1.getTableCache();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        infgraph1.writeTables(out);
+
+        LPBackwardRuleInfGraph infgraph2 = createLPGraph(data);
+        assertTrue(infgraph2.readTables(new ByteArrayInputStream(out.toByteArray())));
+        LPTableCache cache = infgraph2.getTableCache();
+        assertEquals(2, cache.size());
+        assertEquals(new HashSet<>(cache1.get(goal(anc))), new HashSet<>(cache.get(goal(anc))));
+        assertEquals(new HashSet<>(cache1.get(goal(rel))), new HashSet<>(cache.get(goal(rel))));
+        assertEquals(ancs, toSet(infgraph2.find(null, anc, null)));
+        assertEquals(rels, toSet(infgraph2.find(null, rel, null)));
+
+        GenericRuleReasoner other = new GenericRuleReasoner(Rule.parseRules("[(?x anc ?y) <- (?x p ?y)]"));
+        other.setMode(GenericRuleReasoner.BACKWARD);
+        LPBackwardRuleInfGraph infgraph3 = (LPBackwardRuleInfGraph) other.bind(data);
+        assertFalse(infgraph3.readTables(new ByteArrayInputStream(out.toByteArray())));
+    }
+
+    private LPBRuleEngine getEngineForGraph(FBRuleInfGraph infgraph) throws Exception {
+        Field bEngine = FBRuleInfGraph.class.getDeclaredField("bEngine");
+        bEngine.setAccessible(true);
+        return (LPBRuleEngine) bEngine.get(infgraph);
+    }
+}
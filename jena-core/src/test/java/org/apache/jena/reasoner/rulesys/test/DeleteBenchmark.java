@@ -0,0 +1,95 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.jena.reasoner.rulesys.test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.jena.graph.* ;
+import org.apache.jena.reasoner.* ;
+import org.apache.jena.vocabulary.* ;
+
+/**
+ * Timing harness for deletes from hybrid inference graphs. Deletes instance
+ * triples one at a time, querying after each delete, and compares the
+ * incremental delete of the RETE engine against recomputing all deductions.
+ * This is a measurement tool rather than a test.
+ * <pre>
+ *   DeleteBenchmark [instances] [deletes] [repeats]
+ * </pre>
+ */
+public class DeleteBenchmark {
+
+    public static void main(String[] args) {
+        int instances = args.length > 0 ? Integer.parseInt(args[0]) : 4300;
+        int deletes = args.length > 1 ? Integer.parseInt(args[1]) : 50;
+        int repeats = args.length > 2 ? Integer.parseInt(args[2]) : 3;
+        Graph data = RETEBenchmark.createData(instances);
+        System.out.printf("%d triples, %d deletes\n", data.size(), deletes);
+
+        time("rdfs", ReasonerRegistry.getRDFSReasoner(), data, deletes, repeats);
+        time("owl-micro", ReasonerRegistry.getOWLMicroReasoner(), data, deletes, repeats);
+    }
+
+    static void time(String name, Reasoner reasoner, Graph data, int deletes, int repeats) {
+        List<Triple> victims = victims(data, deletes);
+        long bestIncremental = Long.MAX_VALUE;
+        long bestRecompute = Long.MAX_VALUE;
+        for ( int i = 0; i < repeats; i++ ) {
+            bestIncremental = Math.min(bestIncremental, run(reasoner, data, victims, false));
+            bestRecompute = Math.min(bestRecompute, run(reasoner, data, victims, true));
+        }
+        System.out.printf("%-10s incremental %8.1fms  recompute %8.1fms\n", name, bestIncremental / 1e6, bestRecompute / 1e6);
+    }
+
+    /**
+     * Time the deletes, each followed by a query, on a prepared inference graph
+     * over a copy of the data. If {@code recompute} is set the deductions are
+     * thrown away after each delete, as happens when the delete can't be
+     * propagated incrementally.
+     */
+    static long run(Reasoner reasoner, Graph data, List<Triple> victims, boolean recompute) {
+        Graph copy = Factory.createGraphMem();
+        GraphUtil.addInto(copy, data);
+        InfGraph infgraph = reasoner.bind(copy);
+        infgraph.prepare();
+        Node type = RDF.type.asNode();
+        long t1 = System.nanoTime();
+        for ( Triple t : victims ) {
+            if ( recompute ) {
+                copy.delete(t);
+                infgraph.rebind();
+            } else {
+                infgraph.delete(t);
+            }
+            infgraph.find(t.getObject(), type, Node.ANY).toList();
+        }
+        return System.nanoTime() - t1;
+    }
+
+    /** Instance triples, other than rdf:type, spread over the data */
+    static List<Triple> victims(Graph data, int deletes) {
+        List<Triple> candidates = data.find(Node.ANY, RETEBenchmark.uri("p"), Node.ANY).toList();
+        List<Triple> victims = new ArrayList<>();
+        int step = Math.max(1, candidates.size() / deletes);
+        for ( int i = 0; i < candidates.size() && victims.size() < deletes; i += step )
+            victims.add(candidates.get(i));
+        return victims;
+    }
+}
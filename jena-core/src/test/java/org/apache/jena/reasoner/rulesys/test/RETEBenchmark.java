@@ -0,0 +1,122 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.jena.reasoner.rulesys.test;
+
+import java.util.List;
+
+import org.apache.jena.graph.* ;
+import org.apache.jena.reasoner.* ;
+import org.apache.jena.reasoner.rulesys.* ;
+import org.apache.jena.util.PrintUtil ;
+import org.apache.jena.vocabulary.* ;
+
+/**
+ * Timing harness for the RETE engine. Runs forward inference over generated
+ * data for some rule sets, one triple at a time and in parallel batches.
+ * This is a measurement tool rather than a test.
+ * <pre>
+ *   RETEBenchmark [instances] [repeats]
+ * </pre>
+ */
+public class RETEBenchmark {
+
+    static final String NS = PrintUtil.egNS;
+    
+    /** Number of classes, and of classification rules */
+    static final int NCLASSES = 50;
+    
+    static String rdfsRules =
+        "[(?a rdfs:subClassOf ?b), (?b rdfs:subClassOf ?c) -> (?a rdfs:subClassOf ?c)]" +
+        "[(?x rdf:type ?a), (?a rdfs:subClassOf ?b) -> (?x rdf:type ?b)]" +
+        "[(?x ?p ?y), (?p rdfs:subPropertyOf ?q) -> (?x ?q ?y)]" +
+        "[(?x ?p ?y), (?p rdfs:domain ?c) -> (?x rdf:type ?c)]" +
+        "[(?x ?p ?y), (?p rdfs:range ?c) -> (?y rdf:type ?c)]";
+
+    public static void main(String[] args) {
+        int instances = args.length > 0 ? Integer.parseInt(args[0]) : 20000;
+        int repeats = args.length > 1 ? Integer.parseInt(args[1]) : 3;
+        Graph data = createData(instances);
+        System.out.printf("%d triples\n", data.size());
+        
+        GenericRuleReasoner rdfs = new GenericRuleReasoner(Rule.parseRules(rdfsRules));
+        rdfs.setMode(GenericRuleReasoner.FORWARD_RETE);
+        GenericRuleReasoner classify = new GenericRuleReasoner(Rule.parseRules(classificationRules()));
+        classify.setMode(GenericRuleReasoner.FORWARD_RETE);
+        FBRuleReasoner owlMicro = (FBRuleReasoner)OWLMicroReasonerFactory.theInstance().create(null);
+        
+        int threads = Runtime.getRuntime().availableProcessors();
+        for ( int parallelism : threads > 1 ? new int[] {1, threads} : new int[] {1} ) {
+            rdfs.setRETEParallelism(parallelism);
+            classify.setRETEParallelism(parallelism);
+            owlMicro.setRETEParallelism(parallelism);
+            time("rdfs", rdfs, data, parallelism, repeats);
+            time("classify", classify, data, parallelism, repeats);
+            time("owl-micro", owlMicro, data, parallelism, repeats);
+        }
+    }
+    
+    /** Time preparing the inference graph, best of the repeats */
+    static void time(String name, Reasoner reasoner, Graph data, int parallelism, int repeats) {
+        long best = Long.MAX_VALUE;
+        long size = 0;
+        for ( int i = 0; i < repeats; i++ ) {
+            long t1 = System.nanoTime();
+            InfGraph infgraph = reasoner.bind(data);
+            infgraph.prepare();
+            long t2 = System.nanoTime();
+            best = Math.min(best, t2 - t1);
+            size = infgraph.size();
+        }
+        System.out.printf("%-10s threads=%d  %8.1fms  (%d triples)\n", name, parallelism, best / 1e6, size);
+    }
+    
+    /** Rules that each test the type of a subject against a different class */
+    static String classificationRules() {
+        StringBuilder sb = new StringBuilder();
+        for ( int i = 0; i < NCLASSES; i++ ) {
+            sb.append(String.format("[(?x rdf:type eg:C%d), (?x eg:p ?y) -> (?y rdf:type eg:D%d)]", i, i));
+            sb.append(String.format("[(?x rdf:type eg:D%d), (?x eg:q ?y) -> (?y eg:r ?x)]", i));
+        }
+        return sb.toString();
+    }
+    
+    static Graph createData(int instances) {
+        Graph g = Factory.createGraphMem();
+        Node type = RDF.type.asNode();
+        Node subClassOf = RDFS.subClassOf.asNode();
+        for ( int i = 0; i < NCLASSES; i++ ) {
+            if ( i > 0 )
+                g.add(new Triple(uri("C" + i), subClassOf, uri("C" + (i - 1) / 2)));
+        }
+        g.add(new Triple(uri("p"), RDFS.domain.asNode(), uri("C0")));
+        g.add(new Triple(uri("q"), RDFS.subPropertyOf.asNode(), uri("p")));
+        for ( int i = 0; i < instances; i++ ) {
+            Node x = uri("i" + i);
+            g.add(new Triple(x, type, uri("C" + (i % NCLASSES))));
+            g.add(new Triple(x, uri("p"), uri("i" + ((i * 7 + 1) % instances))));
+            if ( i % 3 == 0 )
+                g.add(new Triple(x, uri("q"), uri("i" + ((i * 13 + 5) % instances))));
+        }
+        return g;
+    }
+    
+    static Node uri(String local) {
+        return NodeFactory.createURI(NS + local);
+    }
+}
@@ -0,0 +1,182 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.jena.reasoner.rulesys.test;
+
+import java.util.* ;
+
+import junit.framework.TestCase ;
+import junit.framework.TestSuite ;
+import org.apache.jena.graph.* ;
+import org.apache.jena.reasoner.* ;
+import org.apache.jena.reasoner.rulesys.* ;
+import org.apache.jena.util.PrintUtil ;
+import org.apache.jena.util.iterator.ExtendedIterator ;
+import org.apache.jena.vocabulary.OWL ;
+import org.apache.jena.vocabulary.RDF ;
+import org.apache.jena.vocabulary.RDFS ;
+
+/**
+ * Check that deletes handled incrementally by the forward rule engines
+ * leave the same closure as recomputing from scratch.
+ */
+public class TestIncrementalDelete extends TestCase {
+
+    static final String NS = PrintUtil.egNS ;
+
+    public TestIncrementalDelete(String name) {
+        super(name) ;
+    }
+
+    public static TestSuite suite() {
+        return new TestSuite(TestIncrementalDelete.class) ;
+    }
+
+    private static Node node(String name) {
+        return NodeFactory.createURI(NS+name) ;
+    }
+
+    private static Triple triple(Node s, Node p, Node o) {
+        return Triple.create(s, p, o) ;
+    }
+
+    private static Triple triple(String s, String p, String o) {
+        return Triple.create(node(s), node(p), node(o)) ;
+    }
+
+    /** Instance data with several derivations for many of the deductions. */
+    private static List<Triple> instanceData() {
+        List<Triple> data = new ArrayList<>() ;
+        Node type = RDF.type.asNode() ;
+        data.add(triple(node("a"), type, node("C1"))) ;
+        data.add(triple(node("a"), type, node("C2"))) ;
+        data.add(triple(node("b"), type, node("C2"))) ;
+        data.add(triple("a", "p", "b")) ;
+        data.add(triple("a", "q", "b")) ;
+        data.add(triple("b", "p", "c")) ;
+        data.add(triple("c", "r", "a")) ;
+        data.add(triple("d", "q", "a")) ;
+        return data ;
+    }
+
+    private static List<Triple> schema() {
+        List<Triple> schema = new ArrayList<>() ;
+        Node subClassOf = RDFS.subClassOf.asNode() ;
+        Node subPropertyOf = RDFS.subPropertyOf.asNode() ;
+        schema.add(triple(node("C1"), subClassOf, node("C2"))) ;
+        schema.add(triple(node("C2"), subClassOf, node("C3"))) ;
+        schema.add(triple(node("q"), subPropertyOf, node("p"))) ;
+        schema.add(triple(node("p"), RDFS.domain.asNode(), node("C3"))) ;
+        schema.add(triple(node("p"), RDFS.range.asNode(), node("C4"))) ;
+        schema.add(triple(node("r"), OWL.inverseOf.asNode(), node("p"))) ;
+        return schema ;
+    }
+
+    public void testRDFS() {
+        List<Triple> data = new ArrayList<>(schema()) ;
+        data.addAll(instanceData()) ;
+        check(RDFSRuleReasonerFactory.theInstance().create(null), data, instanceData(), true) ;
+    }
+
+    public void testRDFSSchemaDelete() {
+        List<Triple> data = new ArrayList<>(schema()) ;
+        data.addAll(instanceData()) ;
+        check(RDFSRuleReasonerFactory.theInstance().create(null), data, schema(), false) ;
+    }
+
+    public void testOWLMicro() {
+        List<Triple> data = new ArrayList<>(schema()) ;
+        data.addAll(instanceData()) ;
+        check(OWLMicroReasonerFactory.theInstance().create(null), data, instanceData(), true) ;
+    }
+
+    public void testOWLMicroSchemaDelete() {
+        List<Triple> data = new ArrayList<>(schema()) ;
+        data.addAll(instanceData()) ;
+        check(OWLMicroReasonerFactory.theInstance().create(null), data, schema(), false) ;
+    }
+
+    public void testForwardRETECycle() {
+        // Transitive closure over a cycle: every deduction supports every other one.
+        List<Rule> rules = Rule.parseRules("[trans: (?a eg:p ?b) (?b eg:p ?c) -> (?a eg:p ?c)]"
+                                          +"[type: (?a eg:p ?b) -> (?a rdf:type eg:T)]") ;
+        List<Triple> data = new ArrayList<>() ;
+        data.add(triple(node("a"), node("p"), node("b"))) ;
+        data.add(triple(node("b"), node("p"), node("c"))) ;
+        data.add(triple(node("c"), node("p"), node("a"))) ;
+        data.add(triple(node("c"), node("p"), node("d"))) ;
+        data.add(triple(node("a"), node("p"), node("c"))) ;
+        List<Triple> deletes = new ArrayList<>() ;
+        deletes.add(triple(node("c"), node("p"), node("a"))) ;
+        deletes.add(triple(node("a"), node("p"), node("b"))) ;
+        deletes.add(triple(node("c"), node("p"), node("d"))) ;
+        for ( GenericRuleReasoner.RuleMode mode : new GenericRuleReasoner.RuleMode[]{GenericRuleReasoner.FORWARD_RETE, GenericRuleReasoner.HYBRID} ) {
+            GenericRuleReasoner reasoner = new GenericRuleReasoner(rules) ;
+            reasoner.setMode(mode) ;
+            check(reasoner, data, deletes, mode == GenericRuleReasoner.HYBRID) ;
+        }
+    }
+
+    public void testBackwardRuleDelete() {
+        // Backward rules created by forward rules are removed and rederived too.
+        List<Rule> rules = Rule.parseRules("[r1: (?p eg:marks ?c) -> [(?x rdf:type ?c) <- (?x ?p ?y)]]") ;
+        List<Triple> data = new ArrayList<>() ;
+        data.add(triple("p", "marks", "C")) ;
+        data.add(triple("q", "marks", "C")) ;
+        data.add(triple("a", "p", "b")) ;
+        data.add(triple("b", "q", "c")) ;
+        List<Triple> deletes = new ArrayList<>() ;
+        deletes.add(triple("a", "p", "b")) ;
+        deletes.add(triple("p", "marks", "C")) ;
+        deletes.add(triple("q", "marks", "C")) ;
+        GenericRuleReasoner reasoner = new GenericRuleReasoner(rules) ;
+        reasoner.setMode(GenericRuleReasoner.HYBRID) ;
+        check(reasoner, data, deletes, true) ;
+    }
+
+    /**
+     * Delete the triples one at a time, comparing the incrementally maintained
+     * closure with the closure of the remaining data.
+     */
+    private static void check(Reasoner reasoner, List<Triple> data, List<Triple> deletes, boolean incremental) {
+        Graph base = Factory.createGraphMem() ;
+        for ( Triple t : data )
+            base.add(t) ;
+        InfGraph inf = reasoner.bind(base) ;
+        inf.prepare() ;
+        for ( Triple t : deletes ) {
+            inf.delete(t) ;
+            if ( incremental && inf instanceof BaseInfGraph )
+                assertTrue("Recompute forced by delete of "+t, ((BaseInfGraph)inf).isPrepared()) ;
+            Graph remaining = Factory.createGraphMem() ;
+            ExtendedIterator<Triple> it = base.find(Node.ANY, Node.ANY, Node.ANY) ;
+            while ( it.hasNext() )
+                remaining.add(it.next()) ;
+            Graph expected = closure(reasoner.bind(remaining)) ;
+            Graph actual = closure(inf) ;
+            assertTrue("Closure differs after delete of "+t, expected.isIsomorphicWith(actual)) ;
+        }
+    }
+
+    private static Graph closure(InfGraph inf) {
+        Graph g = Factory.createGraphMem() ;
+        ExtendedIterator<Triple> it = inf.find(Node.ANY, Node.ANY, Node.ANY) ;
+        while ( it.hasNext() )
+            g.add(it.next()) ;
+        return g ;
+    }
+}
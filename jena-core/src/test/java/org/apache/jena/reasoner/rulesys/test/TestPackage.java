@@ -25,6 +25,8 @@ import org.slf4j.Logger ;
 import org.slf4j.LoggerFactory ;
 
 import org.apache.jena.reasoner.rulesys.impl.TestLPBRuleEngineLeak;
+import org.apache.jena.reasoner.rulesys.impl.TestLPBRuleEngineConcurrent;
+import org.apache.jena.reasoner.rulesys.impl.TestLPTableCache;
 
 /**
  * Aggregate tester that runs all the test associated with the rulesys package.
@@ -53,6 +55,9 @@ public class TestPackage extends TestSuite {
         addTest( "TestRETE", TestRETE.suite() );
         addTest( TestSetRules.suite() );
         addTest( TestLPBRuleEngineLeak.suite() );
+        addTest( TestLPBRuleEngineConcurrent.suite() );
+        addTest( TestLPTableCache.suite() );
+        addTest( "TestIncrementalDelete", TestIncrementalDelete.suite() );
         addTest( "OWLRuleUnitTests", OWLUnitTest.suite() );
         addTest( "TestBugs", TestBugs.suite() );
         addTest( "TestOWLMisc", TestOWLMisc.suite() );
@@ -27,6 +27,7 @@ import org.apache.jena.reasoner.* ;
 import org.apache.jena.reasoner.rulesys.* ;
 import org.apache.jena.reasoner.rulesys.impl.* ;
 import org.apache.jena.reasoner.test.TestUtil ;
+import org.apache.jena.vocabulary.ReasonerVocabulary ;
 
 public class TestRETE  extends TestCase {
      
@@ -223,6 +224,71 @@ public class TestRETE  extends TestCase {
                      });
     }
 
+    /**
+     * Check that clause filters indexed on a constant object only see
+     * matching triples, and that literals are still matched by value.
+     */
+    public void testAlphaIndex() {
+        doRuleTest( "[r1: (?a p n1) -> (?a q n1)]" +
+                       "[r2: (?a p ?b) -> (?a r ?b)]" +
+                       "[r3: (?a p n2), (?a p n1) -> (?a q n2)]" +
+                       "[r4: (?a p 1) -> (?a q ?a)]" +
+                       "[r5: (?a ?x n2) -> (?a s n2)]",
+                    new Triple[] {
+                        new Triple(n3, p, n1),
+                        new Triple(n3, p, n2),
+                        new Triple(n4, p, n2),
+                        new Triple(n4, p, Util.makeIntNode(1)) },
+                    new Triple[] {
+                        new Triple(n3, p, n1),
+                        new Triple(n3, p, n2),
+                        new Triple(n4, p, n2),
+                        new Triple(n4, p, Util.makeIntNode(1)),
+                        new Triple(n3, q, n1),
+                        new Triple(n3, q, n2),
+                        new Triple(n4, q, n4),
+                        new Triple(n3, r, n1),
+                        new Triple(n3, r, n2),
+                        new Triple(n4, r, n2),
+                        new Triple(n4, r, Util.makeIntNode(1)),
+                        new Triple(n3, s, n2),
+                        new Triple(n4, s, n2),
+                    });
+    }
+    
+    /**
+     * Check that propagating batches of triples in parallel gives the same
+     * deductions as propagating them one at a time.
+     */
+    public void testParallelBatches() {
+        String rules = "[r1: (?a p ?b), (?b p ?c) -> (?a p ?c)]" +
+                       "[r2: (?a p ?b) -> (?b q ?a)]" +
+                       "[r3: (?a q ?b), (?b r ?c), notEqual(?a, ?c) -> (?a s ?c)]" +
+                       "[r4: (?a s ?b) -> (?a r ?b)]";
+        Graph data = Factory.createGraphMem();
+        for (int i = 0; i < 20; i++) {
+            data.add(new Triple(node(i), p, node(i + 1)));
+            data.add(new Triple(node(i), r, node(i % 3)));
+        }
+        Graph expected = closure(rules, data, 1);
+        Graph actual = closure(rules, data, 4);
+        assertTrue(expected.size() > data.size());
+        assertTrue(expected.isIsomorphicWith(actual));
+    }
+    
+    private static Node node(int i) {
+        return NodeFactory.createURI("http://jena.hpl.hp.com/example#n" + i);
+    }
+    
+    private static Graph closure(String rules, Graph data, int parallelism) {
+        GenericRuleReasoner reasoner = new GenericRuleReasoner(Rule.parseRules(rules));
+        reasoner.setMode(GenericRuleReasoner.FORWARD_RETE);
+        reasoner.setParameter(ReasonerVocabulary.PROPreteParallelism, parallelism);
+        Graph result = Factory.createGraphMem();
+        reasoner.bind(data).find(null, null, null).forEachRemaining(result::add);
+        return result;
+    }
+    
     /**
      * Perform a rule test on the raw RETE engine. This requires some fiddling
      * with dummy parent graphs.
@@ -0,0 +1,264 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.jena.reasoner.test;
+
+import java.util.* ;
+
+import junit.framework.TestSuite ;
+import org.apache.jena.graph.* ;
+import org.apache.jena.reasoner.InfGraph ;
+import org.apache.jena.reasoner.Reasoner ;
+import org.apache.jena.reasoner.ReasonerRegistry ;
+import org.apache.jena.reasoner.TriplePattern ;
+import org.apache.jena.reasoner.rulesys.RDFSRuleReasonerFactory ;
+import org.apache.jena.reasoner.transitiveReasoner.CompactTransitiveGraphCache ;
+import org.apache.jena.reasoner.transitiveReasoner.TransitiveGraphCache ;
+import org.apache.jena.reasoner.transitiveReasoner.TransitiveReasoner ;
+import org.apache.jena.vocabulary.RDF ;
+import org.apache.jena.vocabulary.RDFS ;
+import org.apache.jena.vocabulary.ReasonerVocabulary ;
+
+/**
+ * Runs the transitive graph cache tests over the compact interval index, and
+ * checks it against the closure and reduction of random relations.
+ */
+public class TestCompactTransitiveGraphCache extends TestTransitiveGraphCache {
+
+    public TestCompactTransitiveGraphCache( String name ) {
+        super( name );
+    }
+
+    public static TestSuite suite() {
+        return new TestSuite( TestCompactTransitiveGraphCache.class );
+    }
+
+    @Override
+    protected TransitiveGraphCache createCache() {
+        return new CompactTransitiveGraphCache(directP, closedP);
+    }
+
+    /** The compact index gives the true reduction, so b is not a direct predecessor of the loop. */
+    @Override
+    protected void checkLoopPredecessors(TransitiveGraphCache cache) {
+        for (Node n : new Node[] {e, f, g}) {
+            TestUtil.assertIteratorValues(this,
+                cache.find(new TriplePattern(null, directP, n)),
+                new Object[] {
+                    new Triple(e, closedP, n),
+                    new Triple(f, closedP, n),
+                    new Triple(g, closedP, n),
+                    new Triple(c, closedP, n)
+                });
+        }
+    }
+
+    private Node node(int i) {
+        return NodeFactory.createURI(NS + "n" + i);
+    }
+
+    /** A random relation with some cycles. */
+    private List<Triple> randomLinks(Random random, int nodes, int links) {
+        List<Triple> triples = new ArrayList<>();
+        for (int i = 0; i < links; i++) {
+            int s = random.nextInt(nodes);
+            // Mostly pointing towards lower numbers, like a hierarchy
+            int o = random.nextInt(10) == 0 ? random.nextInt(nodes) : random.nextInt(s + 1);
+            triples.add(new Triple(node(s), closedP, node(o)));
+        }
+        return triples;
+    }
+
+    private static Set<Triple> find(TransitiveGraphCache cache, Node s, Node p, Node o) {
+        return cache.find(new TriplePattern(s, p, o)).toSet();
+    }
+
+    /** The closed relation, by brute force, over the nodes which appear in non-reflexive links. */
+    private Set<Triple> closure(List<Triple> links) {
+        Map<Node, Set<Node>> succ = new HashMap<>();
+        for (Triple t : links) {
+            if (t.getSubject().equals(t.getObject())) continue;
+            succ.computeIfAbsent(t.getSubject(), x -> new HashSet<>()).add(t.getObject());
+            succ.computeIfAbsent(t.getObject(), x -> new HashSet<>());
+        }
+        Set<Triple> result = new HashSet<>();
+        for (Node s : succ.keySet()) {
+            Deque<Node> pending = new ArrayDeque<>();
+            Set<Node> seen = new HashSet<>();
+            pending.add(s);
+            seen.add(s);
+            while (!pending.isEmpty()) {
+                Node n = pending.poll();
+                result.add(new Triple(s, closedP, n));
+                for (Node m : succ.get(n)) {
+                    if (seen.add(m)) pending.add(m);
+                }
+            }
+        }
+        return result;
+    }
+
+    /** The transitive reduction of a closed relation: the links between distinct
+     *  components with no component in between, together with the links within components. */
+    private Set<Triple> reduction(Set<Triple> closure) {
+        Map<Node, Set<Node>> succ = new HashMap<>();
+        for (Triple t : closure) {
+            succ.computeIfAbsent(t.getSubject(), x -> new HashSet<>()).add(t.getObject());
+        }
+        Set<Triple> result = new HashSet<>();
+        for (Triple t : closure) {
+            Node s = t.getSubject();
+            Node o = t.getObject();
+            boolean direct = true;
+            if (!succ.get(o).contains(s)) {
+                for (Node m : succ.get(s)) {
+                    if (!succ.get(m).contains(s) && !succ.get(o).contains(m) && succ.get(m).contains(o)) {
+                        direct = false;
+                        break;
+                    }
+                }
+            }
+            if (direct) result.add(t);
+        }
+        return result;
+    }
+
+    private void assertRelation(List<Triple> links, TransitiveGraphCache cache, int nodes) {
+        Set<Triple> closure = closure(links);
+        Set<Triple> isolated = new HashSet<>();
+        for (int i = 0; i < nodes; i++) {
+            Node n = node(i);
+            Set<Triple> succ = new HashSet<>();
+            Set<Triple> pred = new HashSet<>();
+            for (Triple t : closure) {
+                if (t.getSubject().equals(n)) succ.add(t);
+                if (t.getObject().equals(n)) pred.add(t);
+            }
+            if (succ.isEmpty() && cache.isSubject(n)) {
+                // Nodes stay registered when their links are removed
+                succ.add(new Triple(n, closedP, n));
+                pred.add(new Triple(n, closedP, n));
+                isolated.add(new Triple(n, closedP, n));
+            }
+            assertEquals(succ, find(cache, n, closedP, null));
+            assertEquals(pred, find(cache, null, closedP, n));
+            for (int j = 0; j < nodes; j++) {
+                Triple t = new Triple(n, closedP, node(j));
+                assertEquals(succ.contains(t), cache.contains(new TriplePattern(n, closedP, node(j))));
+            }
+        }
+        Set<Triple> reduction = reduction(closure);
+        closure.addAll(isolated);
+        reduction.addAll(isolated);
+        assertEquals(closure, find(cache, null, closedP, null));
+        assertEquals(reduction, find(cache, null, directP, null));
+    }
+
+    public void testRandomRelations() {
+        Random random = new Random(42);
+        for (int round = 0; round < 20; round++) {
+            int nodes = 40;
+            List<Triple> links = randomLinks(random, nodes, 60);
+            TransitiveGraphCache cache = createCache();
+            for (Triple t : links) cache.addRelation(t);
+            assertRelation(links, cache, nodes);
+        }
+    }
+
+    public void testRandomRemoves() {
+        Random random = new Random(17);
+        int nodes = 40;
+        List<Triple> links = randomLinks(random, nodes, 70);
+        TransitiveGraphCache cache = createCache();
+        for (Triple t : links) cache.addRelation(t);
+        Collections.shuffle(links, random);
+        while (!links.isEmpty()) {
+            Triple t = links.remove(links.size() - 1);
+            if (!links.contains(t)) cache.removeRelation(t);
+            if (links.size() % 10 == 0) assertRelation(links, cache, nodes);
+        }
+    }
+
+    /** A deep chain and a wide fan, to exercise the intervals. */
+    public void testHierarchy() {
+        CompactTransitiveGraphCache cache = new CompactTransitiveGraphCache(directP, closedP);
+        int depth = 2000;
+        for (int i = 1; i < depth; i++) {
+            cache.addRelation(new Triple(node(i), closedP, node(i - 1)));
+        }
+        for (int i = 0; i < depth; i++) {
+            cache.addRelation(new Triple(node(depth + i), closedP, node(i)));
+        }
+        assertTrue(cache.pathTo(node(depth - 1), node(0)));
+        assertFalse(cache.pathTo(node(0), node(depth - 1)));
+        assertTrue(cache.pathTo(node(2 * depth - 1), node(0)));
+        assertFalse(cache.pathTo(node(depth), node(1)));
+        assertEquals(2 * depth, find(cache, null, closedP, node(0)).size());
+        assertEquals(2, find(cache, null, directP, node(0)).size() - 1);
+        assertEquals(depth + 1, find(cache, node(2 * depth - 1), closedP, null).size());
+
+        // A link implied by the closure leaves the index alone
+        TransitiveGraphCache copy = cache.deepCopy();
+        cache.addRelation(new Triple(node(depth - 1), closedP, node(5)));
+        assertEquals(find(copy, null, closedP, node(5)), find(cache, null, closedP, node(5)));
+        cache.addRelation(new Triple(node(0), closedP, node(depth - 1)));
+        assertEquals(2 * depth, find(cache, null, closedP, node(5)).size());
+        assertEquals(2 * depth, find(copy, null, closedP, node(0)).size());
+    }
+
+    /** The reasoners give the same answers with either representation, and keep
+     *  them when the schema changes. */
+    public void testReasoners() {
+        Graph data = Factory.createGraphMem();
+        Random random = new Random(3);
+        Node subClassOf = RDFS.subClassOf.asNode();
+        Node subPropertyOf = RDFS.subPropertyOf.asNode();
+        for (int i = 1; i < 40; i++) {
+            data.add(new Triple(node(i), subClassOf, node(random.nextInt(i))));
+            data.add(new Triple(node(100 + i), subPropertyOf, node(100 + random.nextInt(i))));
+            data.add(new Triple(node(200 + i), RDF.type.asNode(), node(i)));
+            data.add(new Triple(node(200 + i), node(100 + i), node(300 + i)));
+        }
+        data.add(new Triple(node(7), subClassOf, node(35)));
+        data.add(new Triple(node(35), subClassOf, node(7)));
+        TransitiveReasoner transitive = new TransitiveReasoner();
+        transitive.setParameter(ReasonerVocabulary.PROPenableCompactTGC, true);
+        assertTrue(transitive.getSubClassCache() instanceof CompactTransitiveGraphCache);
+        Reasoner rdfs = RDFSRuleReasonerFactory.theInstance().create(null);
+        rdfs.setParameter(ReasonerVocabulary.PROPenableCompactTGC, true);
+        Reasoner rdfsSimple = RDFSRuleReasonerFactory.theInstance().create(null);
+        rdfsSimple.setParameter(ReasonerVocabulary.PROPsetRDFSLevel, ReasonerVocabulary.RDFS_SIMPLE);
+        rdfsSimple.setParameter(ReasonerVocabulary.PROPenableCompactTGC, true);
+        Reasoner[][] pairs = {
+            { ReasonerRegistry.getTransitiveReasoner(), transitive },
+            { ReasonerRegistry.getRDFSReasoner(), rdfs },
+            { ReasonerRegistry.getRDFSSimpleReasoner(), rdfsSimple } };
+        for (Reasoner[] pair : pairs) {
+            Graph base = Factory.createGraphMem();
+            GraphUtil.addInto(base, data);
+            Set<Triple> expected = pair[0].bind(base).find(null, null, null).toSet();
+            Reasoner reasoner = pair[1];
+            InfGraph infgraph = reasoner.bind(base);
+            assertEquals(expected, infgraph.find(null, null, null).toSet());
+            infgraph.add(new Triple(node(3), subClassOf, node(30)));
+            infgraph.delete(data.find(node(5), subClassOf, null).next());
+            InfGraph fresh = reasoner.bind(infgraph.getRawGraph());
+            assertEquals(fresh.find(null, null, null).toSet(), infgraph.find(null, null, null).toSet());
+        }
+    }
+}
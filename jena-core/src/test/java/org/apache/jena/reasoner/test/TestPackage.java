@@ -34,6 +34,7 @@ public class TestPackage extends TestSuite {
     private TestPackage() {
         super("reasoners");
         addTest( "TestTransitiveGraphCache", TestTransitiveGraphCache.suite() );
+        addTest( "TestCompactTransitiveGraphCache", TestCompactTransitiveGraphCache.suite() );
         addTest( "TestReasoners", TestReasoners.suite() );
         addTest( "TestRDFSReasoners", TestRDFSReasoners.suite() );
         addTest( "TestRuleReasoners",  org.apache.jena.reasoner.rulesys.test.TestPackage.suite() );
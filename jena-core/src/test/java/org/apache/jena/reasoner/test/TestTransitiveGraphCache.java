@@ -67,6 +67,13 @@ public class TestTransitiveGraphCache extends TestCase {
 //        return suite;
     }  
 
+    /**
+     * Create an empty cache for the test relation.
+     */
+    protected TransitiveGraphCache createCache() {
+        return new TransitiveGraphCache(directP, closedP);
+    }
+
     /**
      * Test the basic functioning a Transitive closure cache.
      * Caches the graph but not the final closure.
@@ -104,7 +111,7 @@ public class TestTransitiveGraphCache extends TestCase {
      */
     private void initCache() {
         // Create a graph with reflexive references, cycles, redundant links
-        cache = new TransitiveGraphCache(directP, closedP);        
+        cache = createCache();        
         cache.addRelation(new Triple(a, closedP, b));
         cache.addRelation(new Triple(b, closedP, e));
         cache.addRelation(new Triple(b, closedP, c));
@@ -243,33 +250,7 @@ public class TestTransitiveGraphCache extends TestCase {
                     new Triple(g, closedP, e),
                     new Triple(g, closedP, f)
                 });
-            TestUtil.assertIteratorValues(this, 
-                    cache.find(new TriplePattern(null, directP, e)),
-                    new Object[] {
-                        new Triple(e, closedP, e),
-                        new Triple(f, closedP, e),
-                        new Triple(b, closedP, e),
-                        new Triple(c, closedP, e),
-                        new Triple(g, closedP, e)
-                    });
-                TestUtil.assertIteratorValues(this, 
-                    cache.find(new TriplePattern(null, directP, f)),
-                    new Object[] {
-                        new Triple(f, closedP, f),
-                        new Triple(g, closedP, f),
-                        new Triple(b, closedP, f),
-                        new Triple(c, closedP, f),
-                        new Triple(e, closedP, f)
-                    });
-                TestUtil.assertIteratorValues(this, 
-                    cache.find(new TriplePattern(null, directP, g)),
-                    new Object[] {
-                        new Triple(g, closedP, g),
-                        new Triple(e, closedP, g),
-                        new Triple(b, closedP, g),
-                        new Triple(c, closedP, g),
-                        new Triple(f, closedP, g)
-                    });
+        checkLoopPredecessors(cache);
         TestUtil.assertIteratorValues(this, 
             cache.find(new TriplePattern(g, closedP, null)),
             new Object[] {
@@ -308,7 +289,7 @@ public class TestTransitiveGraphCache extends TestCase {
      * a link which was required rather than redundant.
      */
     public void testBug1() {
-        TransitiveGraphCache cache = new TransitiveGraphCache(directP, closedP);
+        TransitiveGraphCache cache = createCache();
         cache.addRelation(new Triple(a, closedP, b));  
         cache.addRelation(new Triple(c, closedP, a));        
         cache.addRelation(new Triple(c, closedP, b));
@@ -330,7 +311,7 @@ public class TestTransitiveGraphCache extends TestCase {
      * in a particular order.
      */
     public void testBug2() {
-        TransitiveGraphCache cache = new TransitiveGraphCache(directP, closedP);
+        TransitiveGraphCache cache = createCache();
         cache.addRelation(new Triple(a, closedP, b));
         cache.addRelation(new Triple(a, closedP, c));
         cache.addRelation(new Triple(b, closedP, c));        
@@ -347,7 +328,7 @@ public class TestTransitiveGraphCache extends TestCase {
      * Test the removeRelation functionality.
      */
     public void testRemove() {
-        TransitiveGraphCache cache = new TransitiveGraphCache(directP, closedP);
+        TransitiveGraphCache cache = createCache();
         cache.addRelation(new Triple(a, closedP, b));
         cache.addRelation(new Triple(a, closedP, c));
         cache.addRelation(new Triple(b, closedP, d));
@@ -404,7 +385,7 @@ public class TestTransitiveGraphCache extends TestCase {
      * Test direct link case with adverse ordering.
      */
     public void testDirect() {
-        TransitiveGraphCache cache = new TransitiveGraphCache(directP, closedP);
+        TransitiveGraphCache cache = createCache();
         cache.addRelation(new Triple(a, closedP, b));
         cache.addRelation(new Triple(c, closedP, d));
         cache.addRelation(new Triple(a, closedP, d));
@@ -421,7 +402,7 @@ public class TestTransitiveGraphCache extends TestCase {
      * Test cycle detection.
      */
     public void testCycle() {
-        TransitiveGraphCache cache = new TransitiveGraphCache(directP, closedP);
+        TransitiveGraphCache cache = createCache();
         cache.addRelation(new Triple(a, closedP, b));
         cache.addRelation(new Triple(b, closedP, c));
         cache.addRelation(new Triple(a, closedP, c));
@@ -439,7 +420,7 @@ public class TestTransitiveGraphCache extends TestCase {
      * A ring of three cycle
      */
     public void testCycle2() {
-        TransitiveGraphCache cache = new TransitiveGraphCache(directP, closedP);
+        TransitiveGraphCache cache = createCache();
         cache.addRelation(new Triple(a, closedP, b));
         cache.addRelation(new Triple(a, closedP, c));
         cache.addRelation(new Triple(f, closedP, b));
@@ -483,7 +464,7 @@ public class TestTransitiveGraphCache extends TestCase {
      * Two ring-of-three cycles joined at two points
      */
     public void testCycle3() {
-        TransitiveGraphCache cache = new TransitiveGraphCache(directP, closedP);
+        TransitiveGraphCache cache = createCache();
         cache.addRelation(new Triple(a, closedP, b));
         cache.addRelation(new Triple(b, closedP, c));
         cache.addRelation(new Triple(c, closedP, a));
@@ -518,7 +499,7 @@ public class TestTransitiveGraphCache extends TestCase {
      * Test simple equivalences case
      */
     public void testEquivalencesSimple() {
-        TransitiveGraphCache cache = new TransitiveGraphCache(directP, closedP);
+        TransitiveGraphCache cache = createCache();
         cache.addRelation(new Triple(a, closedP, b));
         cache.addRelation(new Triple(b, closedP, a));
         TestUtil.assertIteratorValues(this, 
@@ -536,7 +517,7 @@ public class TestTransitiveGraphCache extends TestCase {
      * Test equivalences case
      */
     public void testEquivalences() {
-        TransitiveGraphCache cache = new TransitiveGraphCache(directP, closedP);
+        TransitiveGraphCache cache = createCache();
         cache.addRelation(new Triple(a, closedP, b));
         cache.addRelation(new Triple(b, closedP, a));
         
@@ -549,4 +530,37 @@ public class TestTransitiveGraphCache extends TestCase {
         assertTrue("Test eq", cache.contains(new TriplePattern(a, closedP, d)));
     }
 
+    /**
+     * Check the direct predecessors of the loop e, f, g. The linked cache
+     * keeps b as a direct predecessor of the loop, even though c lies between them.
+     */
+    protected void checkLoopPredecessors(TransitiveGraphCache cache) {
+        TestUtil.assertIteratorValues(this, 
+            cache.find(new TriplePattern(null, directP, e)),
+            new Object[] {
+                new Triple(e, closedP, e),
+                new Triple(f, closedP, e),
+                new Triple(b, closedP, e),
+                new Triple(c, closedP, e),
+                new Triple(g, closedP, e)
+            });
+        TestUtil.assertIteratorValues(this, 
+            cache.find(new TriplePattern(null, directP, f)),
+            new Object[] {
+                new Triple(f, closedP, f),
+                new Triple(g, closedP, f),
+                new Triple(b, closedP, f),
+                new Triple(c, closedP, f),
+                new Triple(e, closedP, f)
+            });
+        TestUtil.assertIteratorValues(this, 
+            cache.find(new TriplePattern(null, directP, g)),
+            new Object[] {
+                new Triple(g, closedP, g),
+                new Triple(e, closedP, g),
+                new Triple(b, closedP, g),
+                new Triple(c, closedP, g),
+                new Triple(f, closedP, g)
+            });
+    }
 }
@@ -37,10 +37,14 @@ import org.apache.jena.rdf.model.RDFNode ;
 import org.apache.jena.rdf.model.Resource ;
 import org.apache.jena.riot.Lang ;
 import org.apache.jena.riot.RDFLanguages ;
+import org.apache.jena.riot.system.StreamOps ;
 import org.apache.jena.shared.PrefixMapping ;
 import org.apache.jena.sparql.core.DatasetGraph ;
+import org.apache.jena.sparql.core.DatasetGraphWrapper ;
 import org.apache.jena.sparql.core.Quad ;
 import org.apache.jena.sparql.util.Convert ;
+import org.apache.jena.tdb.store.bulkloader.LoaderBatchTDB ;
+import org.apache.jena.tdb.transaction.DatasetGraphTransaction ;
 import org.apache.jena.vocabulary.RDFS ;
 
 public class FusekiLib {
@@ -138,9 +142,15 @@ public class FusekiLib {
             graphName = Quad.defaultGraphNodeGenerated ;
 
         Iterator<Triple> iter = data.find(Node.ANY, Node.ANY, Node.ANY) ;
-        for (; iter.hasNext();) {
-            Triple t = iter.next() ;
-            dsg.add(graphName, t.getSubject(), t.getPredicate(), t.getObject()) ;
+        LoaderBatchTDB loader = batchLoader(dsg, graphName) ;
+        if ( loader != null ) {
+            StreamOps.sendTriplesToStream(iter, loader) ;
+            loader.finishBulk() ;
+        } else {
+            for (; iter.hasNext();) {
+                Triple t = iter.next() ;
+                dsg.add(graphName, t.getSubject(), t.getPredicate(), t.getObject()) ;
+            }
         }
 
         PrefixMapping pmapSrc = data.getPrefixMapping() ;
@@ -150,9 +160,15 @@ public class FusekiLib {
     
     public static void addDataInto(DatasetGraph src, DatasetGraph dest) {
         Iterator<Quad> iter = src.find(Node.ANY, Node.ANY, Node.ANY, Node.ANY) ;
-        for (; iter.hasNext();) {
-            Quad q = iter.next() ;
-            dest.add(q) ;
+        LoaderBatchTDB loader = batchLoader(dest, null) ;
+        if ( loader != null ) {
+            StreamOps.sendQuadsToStream(iter, loader) ;
+            loader.finishBulk() ;
+        } else {
+            for (; iter.hasNext();) {
+                Quad q = iter.next() ;
+                dest.add(q) ;
+            }
         }
 
         PrefixMapping pmapSrc = src.getDefaultGraph().getPrefixMapping() ;
@@ -160,6 +176,21 @@ public class FusekiLib {
         pmapDest.withDefaultMappings(pmapSrc) ;
     }
 
+    /** A batch loader for adding data to a graph ({@code graphName}) or, if {@code graphName}
+     * is null, the whole of a TDB dataset that is in a transaction; null if the dataset
+     * is not TDB or is not in a transaction.
+     */
+    public static LoaderBatchTDB batchLoader(DatasetGraph dsg, Node graphName) {
+        while ( dsg instanceof DatasetGraphWrapper )
+            dsg = ((DatasetGraphWrapper)dsg).getWrapped() ;
+        if ( ! ( dsg instanceof DatasetGraphTransaction ) )
+            return null ;
+        DatasetGraphTransaction dsgtxn = (DatasetGraphTransaction)dsg ;
+        if ( ! dsgtxn.isInTransaction() )
+            return null ;
+        return new LoaderBatchTDB(dsgtxn.get(), graphName) ;
+    }
+
     // ---- Helper code
     public static ResultSet query(String string, Model m) {
         return query(string, m, null, null) ;
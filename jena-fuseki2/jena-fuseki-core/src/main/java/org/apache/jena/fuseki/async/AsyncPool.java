@@ -59,6 +59,21 @@ public class AsyncPool
         }
     }
     
+    /** Register a task that is carried out by the calling thread, such as a
+     * long-running HTTP request. The task is running until
+     * {@link AsyncTask#complete()} is called.
+     */
+    public AsyncTask track(String displayName, DataService dataService) {
+        synchronized(mutex) {
+            String taskId = Long.toString(++counter) ;
+            Fuseki.serverLog.info(format("Task : %s : %s",taskId, displayName)) ;
+            AsyncTask asyncTask = new AsyncTask(null, this, taskId, displayName, dataService) ;
+            asyncTask.start() ;
+            runningTasks.put(taskId, asyncTask) ;
+            return asyncTask ;
+        }
+    }
+    
     public Collection<AsyncTask> tasks() {
         synchronized(mutex) {
             List<AsyncTask> x = new ArrayList<>(runningTasks.size()+finishedTasks.size()) ;
@@ -21,6 +21,7 @@ package org.apache.jena.fuseki.async;
 import static java.lang.String.format ;
 
 import java.util.concurrent.Callable ;
+import java.util.function.LongSupplier ;
 
 import org.apache.jena.atlas.lib.DateTimeUtils ;
 import org.apache.jena.atlas.lib.InternalErrorException ;
@@ -45,6 +46,8 @@ public class AsyncTask implements Callable<Object>
 
     private final String taskId ;
 
+    private LongSupplier progress = null ;
+
     /*package*/ AsyncTask(Callable<Object> callable, 
                           AsyncPool pool,
                           String taskId,
@@ -65,7 +68,18 @@ public class AsyncTask implements Callable<Object>
     
     public DataService getDataService() { return dataService ; }
 
-    private void start() {
+    /** Progress so far, in units of the task (e.g. triples loaded), or -1 if not known */
+    public long getProgress() {
+        LongSupplier x = progress ;
+        return ( x == null ) ? -1 : x.getAsLong() ;
+    }
+
+    /** Set a source of progress for the task; it may be called from any thread */
+    public void setProgress(LongSupplier progress) {
+        this.progress = progress ;
+    }
+
+    /*package*/ void start() {
         if ( startPoint != null ) {
             String msg = format("[Task %s] Async task has already been started", taskId) ;
             Log.warn(Fuseki.serverLog, msg) ;
@@ -97,11 +111,16 @@ public class AsyncTask implements Callable<Object>
             return null ;
         }
         finally {
-            finish() ;
-            pool.finished(this) ;
+            complete() ;
         }
     }
 
+    /** Finish the task and move it to the pool's finished tasks */
+    public void complete() {
+        finish() ;
+        pool.finished(this) ;
+    }
+
     public String getStartPoint() {
         return startPoint ;
     }
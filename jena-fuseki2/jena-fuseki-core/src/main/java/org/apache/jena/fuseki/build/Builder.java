@@ -26,14 +26,18 @@ import org.apache.jena.datatypes.xsd.XSDDatatype ;
 import org.apache.jena.fuseki.Fuseki ;
 import org.apache.jena.fuseki.FusekiConfigException ;
 import org.apache.jena.fuseki.FusekiLib ;
+import org.apache.jena.fuseki.server.AdmissionControl ;
 import org.apache.jena.fuseki.server.DataAccessPoint ;
 import org.apache.jena.fuseki.server.DataService ;
 import org.apache.jena.fuseki.server.Endpoint ;
+import org.apache.jena.fuseki.server.FusekiVocab ;
 import org.apache.jena.fuseki.server.OperationName ;
+import org.apache.jena.fuseki.server.ResultCache ;
 import org.apache.jena.query.Dataset ;
 import org.apache.jena.query.QuerySolution ;
 import org.apache.jena.query.ResultSet ;
 import org.apache.jena.rdf.model.Literal ;
+import org.apache.jena.rdf.model.Property ;
 import org.apache.jena.rdf.model.RDFNode ;
 import org.apache.jena.rdf.model.Resource ;
 import org.apache.jena.sparql.core.DatasetGraph ;
@@ -84,6 +88,13 @@ public class Builder
             dataService.addEndpoint(OperationName.Quads, "") ;
         else if ( ! dataService.getOperation(OperationName.GSP_R).isEmpty() )
             dataService.addEndpoint(OperationName.Quads, "") ;
+
+        dataService.setAdmissionControl(buildAdmissionControl(svc)) ;
+        long cacheSize = getLong(svc, FusekiVocab.pResultCacheSize, 0) ;
+        if ( cacheSize > 0 ) {
+            log.info("  Result cache: "+cacheSize+" bytes") ;
+            dataService.setResultCache(new ResultCache(cacheSize)) ;
+        }
         
         // XXX 
 //        // Extract timeout overriding configuration if present.
@@ -97,6 +108,40 @@ public class Builder
         return dataService ;
     }
     
+    /** Build the admission control for a service, or return null if the service
+     * does not limit concurrent requests.
+     */
+    public static AdmissionControl buildAdmissionControl(Resource svc) {
+        int maxQueries = getInt(svc, FusekiVocab.pMaxConcurrentQueries, 0) ;
+        int maxUpdates = getInt(svc, FusekiVocab.pMaxConcurrentUpdates, 0) ;
+        if ( maxQueries <= 0 && maxUpdates <= 0 )
+            return null ;
+        long maxWait = getLong(svc, FusekiVocab.pMaxQueueWait, 0) ;
+        AdmissionControl admission = new AdmissionControl(maxQueries, maxUpdates, maxWait) ;
+        log.info("  "+admission) ;
+        return admission ;
+    }
+
+    private static int getInt(Resource svc, Property property, int dftValue) {
+        long x = getLong(svc, property, dftValue) ;
+        if ( x < Integer.MIN_VALUE || x > Integer.MAX_VALUE )
+            throw new FusekiConfigException("Integer out of range for "+property.getLocalName()+": "+x) ;
+        return (int)x ;
+    }
+
+    private static long getLong(Resource svc, Property property, long dftValue) {
+        if ( ! svc.hasProperty(property) )
+            return dftValue ;
+        RDFNode n = svc.getProperty(property).getObject() ;
+        if ( ! n.isLiteral() )
+            throw new FusekiConfigException("Not a literal for "+property.getLocalName()+": "+FmtUtils.stringForRDFNode(n)) ;
+        try {
+            return n.asLiteral().getLong() ;
+        } catch (RuntimeException ex) {
+            throw new FusekiConfigException("Not an integer for "+property.getLocalName()+": "+FmtUtils.stringForRDFNode(n)) ;
+        }
+    }
+
     /** Build a DataService starting at Resource svc */
     public static DataService buildDataService(DatasetGraph dsg, boolean allowUpdate) {
         DataService dataService = new DataService(dsg) ;
@@ -0,0 +1,146 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.jena.fuseki.mgt;
+
+import java.io.IOException ;
+import java.io.OutputStreamWriter ;
+import java.io.PrintWriter ;
+import java.io.Writer ;
+import java.nio.charset.StandardCharsets ;
+import java.util.ArrayList ;
+import java.util.List ;
+import java.util.Locale ;
+
+import javax.servlet.http.HttpServlet ;
+import javax.servlet.http.HttpServletRequest ;
+import javax.servlet.http.HttpServletResponse ;
+
+import org.apache.jena.fuseki.Fuseki ;
+import org.apache.jena.fuseki.server.* ;
+import org.apache.jena.fuseki.servlets.ServletOps ;
+import org.apache.jena.web.HttpSC ;
+
+/** The counters and latency histograms of all datasets and endpoints, in the
+ * plain text exposition format used by metrics scrapers (e.g. Prometheus).
+ * <p>
+ * Counter {@code requests.good} is {@code fuseki_requests_good}; histograms are
+ * summaries, in seconds, with quantiles 0.5, 0.9, 0.99 and 1.
+ * Samples for a dataset have a {@code dataset} label; samples for an endpoint
+ * also have {@code endpoint} and {@code operation} labels.
+ * <p>
+ * Like ping, this is a raw servlet : scraping is frequent and is not logged.
+ */
+public class ActionMetrics extends HttpServlet
+{
+    public static final String contentTypeMetrics = "text/plain; version=0.0.4; charset=utf-8" ;
+    private static final double[] quantiles = { 0.5, 0.9, 0.99, 1 } ;
+
+    public ActionMetrics() { super() ; } 
+
+    @Override
+    protected void doGet(HttpServletRequest req, HttpServletResponse resp) {
+        try {
+            ServletOps.setNoCache(resp) ; 
+            resp.setContentType(contentTypeMetrics) ;
+            resp.setStatus(HttpSC.OK_200) ;
+            Writer w = new OutputStreamWriter(resp.getOutputStream(), StandardCharsets.UTF_8) ;
+            PrintWriter out = new PrintWriter(w) ;
+            write(out) ;
+            out.flush() ;
+        } catch (IOException ex) {
+            Fuseki.serverLog.warn("metrics :: IOException :: "+ex.getMessage()) ;
+        }
+    }
+
+    /** One set of counters and the labels for its samples */
+    private static class Source {
+        final String labels ;
+        final CounterSet counters ;
+        Source(String labels, CounterSet counters) {
+            this.labels = labels ;
+            this.counters = counters ;
+        }
+    }
+
+    /** Write all the metrics : samples of one metric must be together. */
+    public static void write(PrintWriter out) {
+        List<Source> sources = new ArrayList<>() ;
+        for ( String ds : DataAccessPointRegistry.get().keys() ) {
+            DataAccessPoint access = DataAccessPointRegistry.get().get(ds) ;
+            if ( access == null )
+                continue ;
+            DataService dSrv = access.getDataService() ;
+            String dsLabel = "dataset=\""+escape(ds)+"\"" ;
+            sources.add(new Source(dsLabel, dSrv.getCounters())) ;
+            for ( OperationName operName : dSrv.getOperations() ) {
+                for ( Endpoint endpoint : dSrv.getOperation(operName) ) {
+                    String labels = dsLabel+",endpoint=\""+escape(endpoint.getEndpoint())+"\",operation=\""+escape(operName.name())+"\"" ;
+                    sources.add(new Source(labels, endpoint.getCounters())) ;
+                }
+            }
+        }
+
+        for ( CounterName cn : CounterName.values() ) {
+            String name = metricName(cn.name) ;
+            boolean started = false ;
+            for ( Source src : sources ) {
+                if ( ! src.counters.contains(cn) )
+                    continue ;
+                if ( ! started ) {
+                    String type = ( cn == CounterName.RequestsActive ) ? "gauge" : "counter" ;
+                    out.print("# TYPE "+name+" "+type+"\n") ;
+                    started = true ;
+                }
+                out.print(name+"{"+src.labels+"} "+src.counters.value(cn)+"\n") ;
+            }
+        }
+
+        for ( HistogramName hn : HistogramName.values() ) {
+            String name = metricName(hn.name)+"_seconds" ;
+            boolean started = false ;
+            for ( Source src : sources ) {
+                if ( ! src.counters.containsHistogram(hn) )
+                    continue ;
+                if ( ! started ) {
+                    out.print("# TYPE "+name+" summary\n") ;
+                    started = true ;
+                }
+                Histogram h = src.counters.getHistogram(hn) ;
+                for ( double q : quantiles ) {
+                    long v = ( q == 1 ) ? h.max() : h.percentile(q) ;
+                    out.print(name+"{"+src.labels+",quantile=\""+q+"\"} "+seconds(v)+"\n") ;
+                }
+                out.print(name+"_sum{"+src.labels+"} "+seconds(h.total())+"\n") ;
+                out.print(name+"_count{"+src.labels+"} "+h.count()+"\n") ;
+            }
+        }
+    }
+
+    private static String metricName(String name) {
+        return "fuseki_"+name.replace('.', '_') ;
+    }
+
+    private static String seconds(long micros) {
+        return String.format(Locale.ROOT, "%.6f", micros/1e6) ;
+    }
+
+    private static String escape(String label) {
+        return label.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n") ;
+    }
+}
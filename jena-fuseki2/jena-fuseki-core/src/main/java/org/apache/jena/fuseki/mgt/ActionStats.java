@@ -90,6 +90,9 @@ public class ActionStats extends ActionContainerItem
         builder.key(CounterName.Requests.name()).value(dSrv.getCounters().value(CounterName.Requests)) ;
         builder.key(CounterName.RequestsGood.name()).value(dSrv.getCounters().value(CounterName.RequestsGood)) ;
         builder.key(CounterName.RequestsBad.name()).value(dSrv.getCounters().value(CounterName.RequestsBad)) ;
+        builder.key(CounterName.RequestsActive.name()).value(dSrv.getCounters().value(CounterName.RequestsActive)) ;
+        builder.key(CounterName.ResponseBytes.name()).value(dSrv.getCounters().value(CounterName.ResponseBytes)) ;
+        histograms(builder, dSrv.getCounters()) ;
         
         
         // Build the operation -> endpoint list map.
@@ -134,6 +137,22 @@ public class ActionStats extends ActionContainerItem
             Counter c = operation.getCounters().get(cn) ;
             builder.key(cn.name()).value(c.value()) ;
         }
+        histograms(builder, operation.getCounters()) ;
+    }
+
+    /** Summaries of the histograms, in microseconds */
+    private static void histograms(JsonBuilder builder, CounterSet counters) {
+        for ( HistogramName hn : counters.histograms() ) {
+            Histogram h = counters.getHistogram(hn) ;
+            builder.key(hn.name()).startObject() ;
+            builder.key(JsonConst.count).value(h.count()) ;
+            builder.key(JsonConst.mean).value(Math.round(h.mean())) ;
+            builder.key(JsonConst.p50).value(h.percentile(0.50)) ;
+            builder.key(JsonConst.p90).value(h.percentile(0.90)) ;
+            builder.key(JsonConst.p99).value(h.percentile(0.99)) ;
+            builder.key(JsonConst.max).value(h.max()) ;
+            builder.finishObject() ;
+        }
     }
 
     private void statsTxt(HttpServletResponse resp) throws IOException
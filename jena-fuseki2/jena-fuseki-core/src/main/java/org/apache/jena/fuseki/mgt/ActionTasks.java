@@ -119,6 +119,9 @@ public class ActionTasks extends ActionBase //ActionContainerItem
             builder.key(JsonConst.started).value(aTask.getStartPoint()) ;
         if ( aTask.getFinishPoint() != null )
             builder.key(JsonConst.finished).value(aTask.getFinishPoint()) ;
+        long progress = aTask.getProgress() ;
+        if ( progress >= 0 )
+            builder.key(JsonConst.progress).value(progress) ;
         builder.finishObject("SingleTask") ;
     }
 }
@@ -26,6 +26,7 @@ public class JsonConst
 
     public static final String finished     = "finished" ;
     public static final String started      = "started" ;
+    public static final String progress     = "progress" ;
 
     public static final String uptime       = "uptime" ;
     public static final String startDT      = "startDateTime" ;
@@ -44,9 +45,34 @@ public class JsonConst
     public static final String dsName       = "ds.name" ;
     public static final String dsState      = "ds.state" ;
     public static final String dsService    = "ds.services" ;
+    public static final String dsAdmission  = "ds.admission" ;
+    public static final String dsResultCache = "ds.resultCache" ;
+
+    // Admission control.
+    public static final String queriesMax       = "queries.max" ;
+    public static final String queriesActive    = "queries.active" ;
+    public static final String queriesQueued    = "queries.queued" ;
+    public static final String updatesMax       = "updates.max" ;
+    public static final String updatesActive    = "updates.active" ;
+    public static final String updatesQueued    = "updates.queued" ;
+    public static final String maxQueueWait     = "maxQueueWait" ;
+
+    // Result cache.
+    public static final String cacheEntries     = "entries" ;
+    public static final String cacheBytes       = "bytes" ;
+    public static final String cacheMaxBytes    = "maxBytes" ;
+    public static final String cacheEvictions   = "evictions" ;
 
     public static final String srvType          = "srv.type" ;
     public static final String srvDescription   = "srv.description" ;
     public static final String srvEndpoints     = "srv.endpoints" ;
 
+    // Histogram summaries.
+    public static final String count        = "count" ;
+    public static final String mean         = "mean" ;
+    public static final String p50          = "p50" ;
+    public static final String p90          = "p90" ;
+    public static final String p99          = "p99" ;
+    public static final String max          = "max" ;
+
 }
@@ -21,10 +21,12 @@ package org.apache.jena.fuseki.mgt;
 import java.util.List ;
 
 import org.apache.jena.atlas.json.JsonBuilder ;
+import org.apache.jena.fuseki.server.AdmissionControl ;
 import org.apache.jena.fuseki.server.DataAccessPoint ;
 import org.apache.jena.fuseki.server.DataAccessPointRegistry ;
 import org.apache.jena.fuseki.server.Endpoint ;
 import org.apache.jena.fuseki.server.OperationName ;
+import org.apache.jena.fuseki.server.ResultCache ;
 
 /** Create a description of a service */
 public class JsonDescription {
@@ -43,6 +45,18 @@ public class JsonDescription {
         builder.key(JsonConst.dsName).value(access.getName()) ;
         
         builder.key(JsonConst.dsState).value(access.getDataService().isAcceptingRequests()) ;
+
+        AdmissionControl admission = access.getDataService().getAdmissionControl() ;
+        if ( admission != null ) {
+            builder.key(JsonConst.dsAdmission) ;
+            describe(builder, admission) ;
+        }
+
+        ResultCache cache = access.getDataService().getResultCache() ;
+        if ( cache != null ) {
+            builder.key(JsonConst.dsResultCache) ;
+            describe(builder, cache) ;
+        }
         
         builder.key(JsonConst.dsService) ;
         builder.startArray() ;
@@ -55,6 +69,27 @@ public class JsonDescription {
         builder.finishObject() ;
     }
     
+    private static void describe(JsonBuilder builder, AdmissionControl admission) {
+        builder.startObject() ;
+        builder.key(JsonConst.queriesMax).value(admission.getMaxReaders()) ;
+        builder.key(JsonConst.queriesActive).value(admission.getActiveReaders()) ;
+        builder.key(JsonConst.queriesQueued).value(admission.getQueuedReaders()) ;
+        builder.key(JsonConst.updatesMax).value(admission.getMaxWriters()) ;
+        builder.key(JsonConst.updatesActive).value(admission.getActiveWriters()) ;
+        builder.key(JsonConst.updatesQueued).value(admission.getQueuedWriters()) ;
+        builder.key(JsonConst.maxQueueWait).value(admission.getMaxWaitMillis()) ;
+        builder.finishObject() ;
+    }
+
+    private static void describe(JsonBuilder builder, ResultCache cache) {
+        builder.startObject() ;
+        builder.key(JsonConst.cacheEntries).value(cache.getEntries()) ;
+        builder.key(JsonConst.cacheBytes).value(cache.getBytes()) ;
+        builder.key(JsonConst.cacheMaxBytes).value(cache.getMaxBytes()) ;
+        builder.key(JsonConst.cacheEvictions).value(cache.getEvictions()) ;
+        builder.finishObject() ;
+    }
+
     private static void describe(JsonBuilder builder, OperationName opName, List<Endpoint> endpoints) {
         builder.startObject() ;
         
@@ -24,6 +24,7 @@ public class MgtConst {
     public static final String  opPing      = "ping" ;
     
     public static final String  opStats     = "stats" ;  
+    public static final String  opMetrics   = "metrics" ;
     public static final String  opDatasets  = "datasets" ;
     public static final String  opServer    = "server" ;
 }
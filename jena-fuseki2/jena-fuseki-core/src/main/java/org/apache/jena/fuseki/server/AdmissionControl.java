@@ -0,0 +1,110 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.jena.fuseki.server;
+
+import java.util.concurrent.Semaphore ;
+import java.util.concurrent.TimeUnit ;
+
+/** Admission control for a {@link DataService}: a bound on the number of requests
+ * that read the dataset, and the number that write it, that run at the same time.
+ * <p>
+ * A request that can not start immediately waits, in arrival order, for up to the
+ * maximum wait time; after that it is rejected. A limit of zero or less means
+ * no limit for that kind of request.
+ */
+public class AdmissionControl
+{
+    private final int maxReaders ;
+    private final int maxWriters ;
+    private final long maxWaitMillis ;
+    private final Semaphore readers ;
+    private final Semaphore writers ;
+
+    /**
+     * @param maxReaders     Maximum number of concurrent queries and other read requests.
+     * @param maxWriters     Maximum number of concurrent updates and other write requests.
+     * @param maxWaitMillis  Maximum time a request waits for a slot, in milliseconds.
+     */
+    public AdmissionControl(int maxReaders, int maxWriters, long maxWaitMillis) {
+        this.maxReaders = maxReaders ;
+        this.maxWriters = maxWriters ;
+        this.maxWaitMillis = Math.max(0, maxWaitMillis) ;
+        this.readers = ( maxReaders > 0 ) ? new Semaphore(maxReaders, true) : null ;
+        this.writers = ( maxWriters > 0 ) ? new Semaphore(maxWriters, true) : null ;
+    }
+
+    /** Wait for a slot to run a request.
+     * Returns false if none became free within the maximum wait time.
+     * Each successful call must be matched by a call of {@link #release}.
+     */
+    public boolean acquire(boolean isWrite) {
+        Semaphore slots = slots(isWrite) ;
+        if ( slots == null )
+            return true ;
+        // Barge if there is a free slot and no one is waiting.
+        if ( ! slots.hasQueuedThreads() && slots.tryAcquire() )
+            return true ;
+        if ( maxWaitMillis == 0 )
+            return false ;
+        try {
+            return slots.tryAcquire(maxWaitMillis, TimeUnit.MILLISECONDS) ;
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt() ;
+            return false ;
+        }
+    }
+
+    /** Give back a slot obtained by {@link #acquire}. */
+    public void release(boolean isWrite) {
+        Semaphore slots = slots(isWrite) ;
+        if ( slots != null )
+            slots.release() ;
+    }
+
+    private Semaphore slots(boolean isWrite) {
+        return isWrite ? writers : readers ;
+    }
+
+    /** Suggested time, in seconds, for a rejected client to wait before trying again. */
+    public long retryAfterSeconds() {
+        return Math.max(1, (maxWaitMillis+999)/1000) ;
+    }
+
+    public int getMaxReaders()          { return maxReaders ; }
+    public int getMaxWriters()          { return maxWriters ; }
+    public long getMaxWaitMillis()      { return maxWaitMillis ; }
+
+    /** Number of read requests holding a slot now. */
+    public int getActiveReaders()       { return active(readers, maxReaders) ; }
+    /** Number of write requests holding a slot now. */
+    public int getActiveWriters()       { return active(writers, maxWriters) ; }
+    /** Estimate of the number of read requests waiting for a slot. */
+    public int getQueuedReaders()       { return readers == null ? 0 : readers.getQueueLength() ; }
+    /** Estimate of the number of write requests waiting for a slot. */
+    public int getQueuedWriters()       { return writers == null ? 0 : writers.getQueueLength() ; }
+
+    private static int active(Semaphore slots, int max) {
+        return slots == null ? 0 : max - slots.availablePermits() ;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("AdmissionControl[readers=%d, writers=%d, wait=%dms]", maxReaders, maxWriters, maxWaitMillis) ;
+    }
+}
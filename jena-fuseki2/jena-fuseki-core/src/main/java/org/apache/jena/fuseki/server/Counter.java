@@ -29,6 +29,7 @@ public class Counter
     
     public void inc()   { counter.incrementAndGet() ; } 
     public void dec()   { counter.decrementAndGet() ; } 
+    public void add(long delta) { counter.addAndGet(delta) ; } 
     public long value() { return counter.get() ; } 
 }
 
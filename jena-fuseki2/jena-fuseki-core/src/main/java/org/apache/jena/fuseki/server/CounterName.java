@@ -31,6 +31,12 @@ public enum CounterName {
     // There may also be short term consistency issues.
     RequestsGood("requests.good"),
     RequestsBad("requests.bad") ,
+    // Requests being handled now (a gauge: incremented at the start, decremented at the end).
+    RequestsActive("requests.active") ,
+    // Bytes of response bodies.
+    ResponseBytes("response.bytes") ,
+    // Requests turned away by admission control.
+    RequestsRejected("requests.rejected") ,
     
     // SPARQL Protocol - query and update - together with upload.  
     
@@ -38,6 +44,9 @@ public enum CounterName {
     QueryTimeouts("query.timeouts") ,
     QueryExecErrors("query.execerrors") ,
     QueryIOErrors("query.ioerrors") ,
+    // Query result cache: requests answered from the cache (including "304 Not Modified"), and not.
+    QueryCacheHits("query.cache.hits") ,
+    QueryCacheMisses("query.cache.misses") ,
     
     // Update - standard and ...
     UpdateExecErrors("update.execerrors"),
@@ -19,17 +19,19 @@
 package org.apache.jena.fuseki.server ;
 
 import java.util.Collection ;
+import java.util.EnumMap ;
 import java.util.HashMap ;
 import java.util.Map ;
 
 import org.slf4j.Logger ;
 import org.slf4j.LoggerFactory ;
 
-/** A collection of counters */
+/** A collection of counters, and of histograms */
 public class CounterSet {
     private static Logger             log      = LoggerFactory.getLogger(CounterSet.class) ;
 
     private Map<CounterName, Counter> counters = new HashMap<>() ;
+    private Map<HistogramName, Histogram> histograms = new EnumMap<>(HistogramName.class) ;
 
     public CounterSet() {}
 
@@ -67,4 +69,31 @@ public class CounterSet {
             log.warn("No counter in counter set: " + cn) ;
         return c ;
     }
+
+    public Collection<HistogramName> histograms() {
+        return histograms.keySet() ;
+    }
+
+    public void record(HistogramName h, long value) {
+        getHistogram(h).record(value) ;
+    }
+
+    public void addHistogram(HistogramName histogramName) {
+        if ( histograms.containsKey(histogramName) ) {
+            log.warn("Duplicate histogram in counter set: " + histogramName) ;
+            return ;
+        }
+        histograms.put(histogramName, new Histogram()) ;
+    }
+
+    public boolean containsHistogram(HistogramName hn) {
+        return histograms.containsKey(hn) ;
+    }
+
+    public Histogram getHistogram(HistogramName hn) {
+        Histogram h = histograms.get(hn) ;
+        if ( h == null )
+            log.warn("No histogram in counter set: " + hn) ;
+        return h ;
+    }
 }
@@ -60,12 +60,22 @@ public class DataService { //implements DatasetMXBean {
     private final AtomicLong    requestCounter          = new AtomicLong(0) ;   
     private final AtomicBoolean offlineInProgress       = new AtomicBoolean(false) ;
     private final AtomicBoolean acceptingRequests       = new AtomicBoolean(true) ;
+    private volatile AdmissionControl admissionControl  = null ;
+    private volatile ResultCache resultCache            = null ;
+    // Incremented after each write request.
+    private final AtomicLong    writeGeneration         = new AtomicLong(0) ;
 
     public DataService(DatasetGraph dataset) {
         this.dataset = dataset ;
         counters.add(CounterName.Requests) ;
         counters.add(CounterName.RequestsGood) ;
         counters.add(CounterName.RequestsBad) ;
+        counters.add(CounterName.RequestsActive) ;
+        counters.add(CounterName.ResponseBytes) ;
+        counters.add(CounterName.RequestsRejected) ;
+        counters.addHistogram(HistogramName.Latency) ;
+        counters.addHistogram(HistogramName.LatencyFirstByte) ;
+        counters.addHistogram(HistogramName.QueueWait) ;
     }
     
     public DatasetGraph getDataset() {
@@ -114,6 +124,43 @@ public class DataService { //implements DatasetMXBean {
     public boolean isAcceptingRequests() {
         return acceptingRequests.get() ;
     }
+
+    /** The limits on concurrent requests for this service, or null for no limits. */
+    public AdmissionControl getAdmissionControl() {
+        return admissionControl ;
+    }
+
+    public void setAdmissionControl(AdmissionControl admissionControl) {
+        this.admissionControl = admissionControl ;
+    }
+
+    /** The cache of query results for this service, or null for no caching. */
+    public ResultCache getResultCache() {
+        return resultCache ;
+    }
+
+    public void setResultCache(ResultCache resultCache) {
+        if ( resultCache != null ) {
+            if ( ! counters.contains(CounterName.QueryCacheHits) )
+                counters.add(CounterName.QueryCacheHits) ;
+            if ( ! counters.contains(CounterName.QueryCacheMisses) )
+                counters.add(CounterName.QueryCacheMisses) ;
+        }
+        this.resultCache = resultCache ;
+    }
+
+    /** A number that changes whenever the data may have changed.
+     * It counts the write requests to this service and, for TDB, the commits on
+     * the underlying database, which includes writes from outside Fuseki.
+     * Read it before starting a read transaction.
+     */
+    public long getGeneration() {
+        long x = writeGeneration.get() ;
+        DatasetGraph dsg = dataset ;
+        if ( dsg instanceof DatasetGraphTransaction )
+            x += ((DatasetGraphTransaction)dsg).getTransMgrState().committedWriters ;
+        return x ;
+    }
     
     //@Override
     public  CounterSet getCounters() { return counters ; }
@@ -167,6 +214,9 @@ public class DataService { //implements DatasetMXBean {
                 activeReadTxn.decrementAndGet() ;
                 break ;
             case WRITE:
+                // After the commit (or abort) so that a reader seeing this
+                // generation sees the changes.
+                writeGeneration.getAndIncrement() ;
                 activeWriteTxn.decrementAndGet() ;
                 break ;
         }
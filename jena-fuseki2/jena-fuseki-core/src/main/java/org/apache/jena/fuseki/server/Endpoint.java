@@ -36,6 +36,11 @@ public class Endpoint implements Counters {
         counters.add(CounterName.Requests) ;
         counters.add(CounterName.RequestsGood) ;
         counters.add(CounterName.RequestsBad) ;
+        counters.add(CounterName.RequestsActive) ;
+        counters.add(CounterName.ResponseBytes) ;
+        counters.addHistogram(HistogramName.Latency) ;
+        counters.addHistogram(HistogramName.LatencyFirstByte) ;
+        counters.addHistogram(HistogramName.QueueWait) ;
     }
 
     @Override
@@ -43,6 +43,14 @@ public class FusekiVocab
 
     public static final Property pAllowTimeoutOverride = property("allowTimeoutOverride");
     public static final Property pMaximumTimeoutOverride = property("maximumTimeoutOverride");
+
+    // Admission control: limits on concurrent requests, and the wait for a slot in milliseconds.
+    public static final Property pMaxConcurrentQueries = property("maxConcurrentQueries");
+    public static final Property pMaxConcurrentUpdates = property("maxConcurrentUpdates");
+    public static final Property pMaxQueueWait = property("maxQueueWait");
+
+    // Query result cache: the memory budget in bytes.
+    public static final Property pResultCacheSize = property("resultCacheSize");
     
     // Internal
     
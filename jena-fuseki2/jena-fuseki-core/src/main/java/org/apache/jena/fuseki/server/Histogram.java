@@ -0,0 +1,107 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.jena.fuseki.server;
+
+import java.util.concurrent.atomic.AtomicLong ;
+import java.util.concurrent.atomic.AtomicLongArray ;
+import java.util.concurrent.atomic.LongAdder ;
+
+/** A statistics histogram of non-negative values (e.g. times in microseconds).
+ * <p>
+ * Values are recorded into buckets whose width grows with the value: each power of
+ * two is split into {@link #SubBuckets} buckets, so a percentile is accurate to
+ * within 1/{@value #SubBuckets} of its value. Recording is lock-free and does not
+ * allocate.
+ */
+public class Histogram
+{
+    private static final int SubBits = 3 ;
+    public static final int SubBuckets = 1<<SubBits ;
+
+    private final AtomicLongArray buckets = new AtomicLongArray(64*SubBuckets) ;
+    private final LongAdder count = new LongAdder() ;
+    private final LongAdder total = new LongAdder() ;
+    private final AtomicLong max = new AtomicLong(0) ;
+
+    public Histogram()  {}
+
+    /** Record a value; negative values are recorded as zero. */
+    public void record(long value) {
+        if ( value < 0 )
+            value = 0 ;
+        buckets.incrementAndGet(bucket(value)) ;
+        count.increment() ;
+        total.add(value) ;
+        if ( value > max.get() )
+            max.accumulateAndGet(value, Math::max) ;
+    }
+
+    /** Number of values recorded */
+    public long count()     { return count.sum() ; }
+
+    /** Sum of the values recorded */
+    public long total()     { return total.sum() ; }
+
+    /** Largest value recorded, or 0 if none */
+    public long max()       { return max.get() ; }
+
+    /** Mean of the values recorded, or 0 if none */
+    public double mean() {
+        long n = count() ;
+        return n == 0 ? 0 : (double)total()/n ;
+    }
+
+    /** The value at or below which the fraction (0 to 1) of the recorded values lie,
+     * as the highest value in its bucket, or 0 if there are no values.
+     */
+    public long percentile(double fraction) {
+        long n = 0 ;
+        for ( int i = 0 ; i < buckets.length() ; i++ )
+            n += buckets.get(i) ;
+        if ( n == 0 )
+            return 0 ;
+        long rank = Math.max(1, (long)Math.ceil(fraction*n)) ;
+        long seen = 0 ;
+        for ( int i = 0 ; i < buckets.length() ; i++ ) {
+            seen += buckets.get(i) ;
+            if ( seen >= rank )
+                return Math.min(highest(i), max()) ;
+        }
+        return max() ;
+    }
+
+    // Values below SubBuckets have a bucket each; after that, SubBuckets buckets for each power of two.
+    static int bucket(long value) {
+        if ( value < SubBuckets )
+            return (int)value ;
+        int exp = 63-Long.numberOfLeadingZeros(value) ;
+        int sub = (int)(value >>> (exp-SubBits)) & (SubBuckets-1) ;
+        return (exp-SubBits+1)*SubBuckets + sub ;
+    }
+
+    /** Highest value in a bucket */
+    static long highest(int bucket) {
+        if ( bucket < SubBuckets )
+            return bucket ;
+        int exp = bucket/SubBuckets + SubBits - 1 ;
+        long sub = bucket%SubBuckets ;
+        long width = 1L<<(exp-SubBits) ;
+        return ((SubBuckets+sub)<<(exp-SubBits)) + width - 1 ;
+    }
+}
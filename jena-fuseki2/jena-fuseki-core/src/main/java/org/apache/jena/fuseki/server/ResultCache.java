@@ -0,0 +1,215 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.jena.fuseki.server;
+
+import java.util.Iterator ;
+import java.util.LinkedHashMap ;
+import java.util.List ;
+import java.util.Map ;
+
+import org.apache.jena.query.Query ;
+import org.apache.jena.query.SortCondition ;
+import org.apache.jena.sparql.algebra.Algebra ;
+import org.apache.jena.sparql.algebra.Op ;
+import org.apache.jena.sparql.algebra.OpVisitorBase ;
+import org.apache.jena.sparql.algebra.OpWalker ;
+import org.apache.jena.sparql.algebra.op.* ;
+import org.apache.jena.sparql.core.VarExprList ;
+import org.apache.jena.sparql.expr.* ;
+
+/** A cache of serialized query results for a {@link DataService}.
+ * <p>
+ * Entries are keyed by the normalized query and the request details that decide the
+ * response format. Each entry records the dataset generation
+ * ({@link DataService#getGeneration()}) it was computed at; once the generation
+ * moves on, all older entries are dropped. Entries are evicted least recently used
+ * first to keep the total size of the cached responses within a budget.
+ */
+public class ResultCache
+{
+    /** A cached response. */
+    public static class Entry {
+        public final long generation ;
+        public final String contentType ;
+        public final byte[] body ;
+
+        Entry(long generation, String contentType, byte[] body) {
+            this.generation = generation ;
+            this.contentType = contentType ;
+            this.body = body ;
+        }
+    }
+
+    private final long maxBytes ;
+    private final long maxEntryBytes ;
+    // Distinguishes ETags from different runs of the server.
+    private final long epoch = System.currentTimeMillis() ;
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true) ;
+    private long generation = -1 ;
+    private long bytes = 0 ;
+    private long evictions = 0 ;
+
+    /** @param maxBytes The budget, in bytes, for the cached responses. */
+    public ResultCache(long maxBytes) {
+        this.maxBytes = maxBytes ;
+        // No single response may take more than a quarter of the cache.
+        this.maxEntryBytes = maxBytes/4 ;
+    }
+
+    /** Whether the results of a query can be cached. They can not be if the query
+     * uses {@code SERVICE}, whose results do not depend on the local data, or
+     * a function with results that vary between executions on the same data
+     * (NOW, RAND, UUID, STRUUID, BNODE).
+     */
+    public static boolean isCacheable(Query query) {
+        return isCacheable(Algebra.compile(query)) ;
+    }
+
+    private static boolean isCacheable(Op op) {
+        CacheableVisitor visitor = new CacheableVisitor() ;
+        OpWalker.walk(op, visitor) ;
+        return visitor.cacheable ;
+    }
+
+    private static class CacheableVisitor extends OpVisitorBase {
+        boolean cacheable = true ;
+
+        private final ExprVisitor exprVisitor = new ExprVisitorFunction() {
+            @Override public void startVisit()                  {}
+            @Override public void finishVisit()                 {}
+            @Override public void visit(NodeValue nv)           {}
+            @Override public void visit(ExprVar nv)             {}
+            @Override public void visit(ExprAggregator eAgg)    { exprs(eAgg.getAggregator().getExprList()) ; }
+            @Override public void visit(ExprFunctionOp funcOp)  {
+                // EXISTS, NOT EXISTS
+                if ( ! isCacheable(funcOp.getGraphPattern()) )
+                    cacheable = false ;
+            }
+
+            @Override
+            protected void visitExprFunction(ExprFunction func) {
+                if ( func instanceof E_Now || func instanceof E_Random || func instanceof E_UUID
+                     || func instanceof E_StrUUID || func instanceof E_BNode )
+                    cacheable = false ;
+            }
+        } ;
+
+        private void expr(Expr expr) {
+            ExprWalker.walk(exprVisitor, expr) ;
+        }
+
+        private void exprs(Iterable<Expr> exprs) {
+            if ( exprs != null )
+                exprs.forEach(this::expr) ;
+        }
+
+        private void exprs(VarExprList vars) {
+            exprs(vars.getExprs().values()) ;
+        }
+
+        private void sortConditions(List<SortCondition> conditions) {
+            conditions.forEach(c -> expr(c.getExpression())) ;
+        }
+
+        @Override public void visit(OpService opService)    { cacheable = false ; }
+        @Override public void visit(OpFilter opFilter)      { exprs(opFilter.getExprs()) ; }
+        @Override public void visit(OpLeftJoin opLeftJoin)  { exprs(opLeftJoin.getExprs()) ; }
+        @Override public void visit(OpExtend opExtend)      { exprs(opExtend.getVarExprList()) ; }
+        @Override public void visit(OpAssign opAssign)      { exprs(opAssign.getVarExprList()) ; }
+        @Override public void visit(OpProcedure opProc)     { exprs(opProc.getArgs()) ; }
+        @Override public void visit(OpOrder opOrder)        { sortConditions(opOrder.getConditions()) ; }
+        @Override public void visit(OpTopN opTop)           { sortConditions(opTop.getConditions()) ; }
+        @Override public void visit(OpGroup opGroup) {
+            exprs(opGroup.getGroupVars()) ;
+            opGroup.getAggregators().forEach(this::expr) ;
+        }
+    }
+
+    /** The cached response for the key at this generation, or null. */
+    public synchronized Entry get(String key, long currentGeneration) {
+        advance(currentGeneration) ;
+        Entry e = entries.get(key) ;
+        if ( e != null && e.generation != currentGeneration )
+            return null ;
+        return e ;
+    }
+
+    /** Add a response computed at the given generation. Responses too large for the cache are ignored. */
+    public synchronized void put(String key, long atGeneration, String contentType, byte[] body) {
+        advance(atGeneration) ;
+        if ( atGeneration != generation )
+            return ;
+        long weight = weight(key, body) ;
+        if ( weight > maxEntryBytes )
+            return ;
+        Entry old = entries.put(key, new Entry(atGeneration, contentType, body)) ;
+        if ( old != null )
+            bytes -= weight(key, old.body) ;
+        bytes += weight ;
+        Iterator<Map.Entry<String, Entry>> iter = entries.entrySet().iterator() ;
+        while ( bytes > maxBytes && iter.hasNext() ) {
+            Map.Entry<String, Entry> e = iter.next() ;
+            iter.remove() ;
+            bytes -= weight(e.getKey(), e.getValue().body) ;
+            evictions++ ;
+        }
+    }
+
+    // All entries from earlier generations are invalid.
+    private void advance(long currentGeneration) {
+        if ( currentGeneration > generation ) {
+            entries.clear() ;
+            bytes = 0 ;
+            generation = currentGeneration ;
+        }
+    }
+
+    private static long weight(String key, byte[] body) {
+        return body.length + 2L*key.length() + 64 ;
+    }
+
+    public synchronized void clear() {
+        entries.clear() ;
+        bytes = 0 ;
+    }
+
+    /** The entity tag for the response to a request with this key at this generation. */
+    public String etag(String key, long atGeneration) {
+        return "\""+Long.toHexString(epoch)+"-"+Long.toHexString(atGeneration)+"-"+Integer.toHexString(key.hashCode())+"\"" ;
+    }
+
+    /** Whether an If-None-Match header value matches the entity tag. */
+    public static boolean matches(String ifNoneMatch, String etag) {
+        if ( ifNoneMatch == null )
+            return false ;
+        for ( String x : ifNoneMatch.split(",") ) {
+            x = x.trim() ;
+            if ( x.startsWith("W/") )
+                x = x.substring(2) ;
+            if ( x.equals("*") || x.equals(etag) )
+                return true ;
+        }
+        return false ;
+    }
+
+    public long getMaxBytes()               { return maxBytes ; }
+    public synchronized long getBytes()     { return bytes ; }
+    public synchronized int getEntries()    { return entries.size() ; }
+    public synchronized long getEvictions() { return evictions ; }
+}
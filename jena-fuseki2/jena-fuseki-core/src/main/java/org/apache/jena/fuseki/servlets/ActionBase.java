@@ -105,9 +105,12 @@ public abstract class ActionBase extends ServletBase
                 ServletOps.responseSendError(response, HttpSC.INTERNAL_SERVER_ERROR_500, ex.getMessage()) ;
             }
     
-            action.setFinishTime() ;
-            printResponse(action) ;
-            archiveHttpAction(action) ;
+            // After any asynchronous send of the response body.
+            action.whenSent(() -> {
+                action.setFinishTime() ;
+                printResponse(action) ;
+                archiveHttpAction(action) ;
+            }) ;
         } catch (Throwable th) {
             log.error("Internal error", th) ;
         }
@@ -19,8 +19,14 @@
 package org.apache.jena.fuseki.servlets;
 
 import static org.apache.jena.fuseki.server.CounterName.Requests ;
+import static org.apache.jena.fuseki.server.CounterName.RequestsActive ;
 import static org.apache.jena.fuseki.server.CounterName.RequestsBad ;
 import static org.apache.jena.fuseki.server.CounterName.RequestsGood ;
+import static org.apache.jena.fuseki.server.CounterName.RequestsRejected ;
+import static org.apache.jena.fuseki.server.CounterName.ResponseBytes ;
+import static org.apache.jena.fuseki.server.HistogramName.Latency ;
+import static org.apache.jena.fuseki.server.HistogramName.LatencyFirstByte ;
+import static org.apache.jena.fuseki.server.HistogramName.QueueWait ;
 
 import java.io.InputStream ;
 
@@ -35,6 +41,8 @@ import org.apache.jena.riot.RiotException ;
 import org.apache.jena.riot.system.ErrorHandler ;
 import org.apache.jena.riot.system.ErrorHandlerFactory ;
 import org.apache.jena.riot.system.StreamRDF ;
+import org.apache.jena.riot.web.HttpNames ;
+import org.apache.jena.web.HttpSC ;
 
 /** SPARQL request lifecycle */
 public abstract class ActionSPARQL extends ActionBase
@@ -96,11 +104,15 @@ public abstract class ActionSPARQL extends ActionBase
      * <ul>
      * <li>{@link #startRequest(HttpAction)}</li>
      * <li>initial statistics,</li>
+     * <li>admission control, if the dataset has any,</li>
      * <li>{@link #validate(HttpAction)} request,</li>
      * <li>{@link #perform(HttpAction)} request,</li>
      * <li>completion/error statistics,</li>
+     * <li>latency and response size statistics,</li>
      * <li>{@link #finishRequest(HttpAction)}
      * </ul>
+     * The last steps wait for a response body sent asynchronously
+     * (see {@link HttpAction#whenSent}).
      * 
      * @param action
      */
@@ -114,7 +126,28 @@ public abstract class ActionSPARQL extends ActionBase
         
         incCounter(csService, Requests) ;
         incCounter(csOperation, Requests) ;
+        AdmissionControl admission = action.getDataService().getAdmissionControl() ;
+        boolean isWrite = isWriteRequest(action) ;
+        boolean admitted = false ;
+        boolean active = false ;
         try {
+            if ( admission != null ) {
+                long waitStart = System.nanoTime() ;
+                admitted = admission.acquire(isWrite) ;
+                long wait = (System.nanoTime()-waitStart)/1000 ;
+                record(csService, QueueWait, wait) ;
+                record(csOperation, QueueWait, wait) ;
+                if ( ! admitted ) {
+                    incCounter(csService, RequestsRejected) ;
+                    incCounter(csOperation, RequestsBad) ;
+                    incCounter(csService, RequestsBad) ;
+                    action.response.setHeader(HttpNames.hRetryAfter, Long.toString(admission.retryAfterSeconds())) ;
+                    ServletOps.error(HttpSC.SERVICE_UNAVAILABLE_503, "Too many concurrent requests") ;
+                }
+            }
+            incCounter(csService, RequestsActive) ;
+            incCounter(csOperation, RequestsActive) ;
+            active = true ;
             // Either exit this via "bad request" on validation
             // or in execution in perform. 
             try {
@@ -136,10 +169,43 @@ public abstract class ActionSPARQL extends ActionBase
                 throw ex ;
             }
         } finally {
-            finishRequest(action) ;
+            // A large response body may still be being sent: the request, and its
+            // admission slot, last until the client has it.
+            boolean release = admitted ;
+            boolean wasActive = active ;
+            action.whenSent(() -> {
+                if ( release )
+                    admission.release(isWrite) ;
+                if ( wasActive ) {
+                    decCounter(csService, RequestsActive) ;
+                    decCounter(csOperation, RequestsActive) ;
+                }
+                recordResponse(action, csService) ;
+                recordResponse(action, csOperation) ;
+                finishRequest(action) ;
+            }) ;
         }
     }
+
+    /** Record the latency and response size of a request. Times are in microseconds. */
+    private static void recordResponse(HttpAction action, CounterSet counters) {
+        long start = action.getStartTime() ;
+        record(counters, Latency, (System.nanoTime()-start)/1000) ;
+        if ( action.firstByteTime >= 0 )
+            record(counters, LatencyFirstByte, (action.firstByteTime-start)/1000) ;
+        addCounter(counters, ResponseBytes, action.bytesWritten) ;
+    }
     
+    /** Whether the request changes the dataset, for admission control.
+     * By default, requests other than GET, HEAD and OPTIONS are writes.
+     */
+    protected boolean isWriteRequest(HttpAction action) {
+        String method = action.request.getMethod() ;
+        return ! ( HttpNames.METHOD_GET.equalsIgnoreCase(method) ||
+                   HttpNames.METHOD_HEAD.equalsIgnoreCase(method) ||
+                   HttpNames.METHOD_OPTIONS.equalsIgnoreCase(method) ) ;
+    }
+
     /**
      * Map request {@link HttpAction} to uri in the registry.
      * A return of ull means no mapping done (passthrough).
@@ -192,6 +258,28 @@ public abstract class ActionSPARQL extends ActionBase
         }
     }
 
+    protected static void addCounter(CounterSet counters, CounterName name, long delta) {
+        if ( counters == null )
+            return ;
+        try {
+            if ( counters.contains(name) )
+                counters.get(name).add(delta) ;
+        } catch (Exception ex) {
+            Fuseki.serverLog.warn("Exception on counter add", ex) ;
+        }
+    }
+
+    protected static void record(CounterSet counters, HistogramName name, long value) {
+        if ( counters == null )
+            return ;
+        try {
+            if ( counters.containsHistogram(name) )
+                counters.record(name, value) ;
+        } catch (Exception ex) {
+            Fuseki.serverLog.warn("Exception on histogram record", ex) ;
+        }
+    }
+
     public static void parse(HttpAction action, StreamRDF dest, InputStream input, Lang lang, String base) {
         try {
             ReaderRIOT r = RDFDataMgr.createReader(lang) ;
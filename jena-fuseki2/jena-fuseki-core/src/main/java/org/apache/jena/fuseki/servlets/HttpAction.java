@@ -21,7 +21,9 @@ package org.apache.jena.fuseki.servlets;
 import static org.apache.jena.query.ReadWrite.READ ;
 import static org.apache.jena.query.ReadWrite.WRITE ;
 
+import java.util.ArrayList ;
 import java.util.HashMap ;
+import java.util.List ;
 import java.util.Map ;
 
 import javax.servlet.http.HttpServletRequest ;
@@ -84,6 +86,15 @@ public class HttpAction
     public String message = null ;
     public int contentLength = -1 ;
     public String contentType = null ;
+    // Response body : bytes written and when the first byte was written (system nanos, -1 for none).
+    public long bytesWritten = 0 ;
+    public long firstByteTime = -1 ;
+    // The response body was cut short after the status code was sent.
+    public boolean responseTruncated = false ;
+    
+    // Tasks waiting for an asynchronous send of the response body to finish.
+    private boolean sending = false ;
+    private List<Runnable> whenSent = new ArrayList<>() ;
     
     // Cleared to archive:
     public Map <String, String> headers = new HashMap<>() ;
@@ -306,6 +317,40 @@ public class HttpAction
         activeDSG = null ;
     }
 
+    /** Run the task once the response body has been sent: now, unless the body is
+     *  still being sent asynchronously, in which case when that send ends.
+     */
+    public void whenSent(Runnable task) {
+        synchronized (this) {
+            if ( sending ) {
+                whenSent.add(task) ;
+                return ;
+            }
+        }
+        task.run() ;
+    }
+
+    /** The response body is about to be sent, possibly asynchronously. */
+    void startSending() {
+        synchronized (this) { sending = true ; }
+    }
+
+    /** The response body has been sent (or the send failed): run any waiting tasks. */
+    void finishSending() {
+        List<Runnable> tasks ;
+        synchronized (this) {
+            if ( ! sending )
+                return ;
+            sending = false ;
+            tasks = whenSent ;
+            whenSent = new ArrayList<>() ;
+        }
+        for ( Runnable task : tasks ) {
+            try { task.run() ; }
+            catch (Throwable th) { Log.warn(this, "Exception completing request ["+id+"]", th) ; }
+        }
+    }
+
     public final void startRequest()
     { 
         if ( dataAccessPoint != null ) 
@@ -20,6 +20,8 @@ package org.apache.jena.fuseki.servlets;
 
 import java.io.IOException ;
 
+import javax.servlet.ServletOutputStream ;
+import javax.servlet.WriteListener ;
 import javax.servlet.http.HttpServletResponse ;
 import javax.servlet.http.HttpServletResponseWrapper ;
 
@@ -30,6 +32,9 @@ import org.apache.jena.atlas.logging.Log ;
 public class HttpServletResponseTracker extends HttpServletResponseWrapper
 {
     private final HttpAction action ;
+    private ServletOutputStream output = null ;
+    private ResponseSpool spool = null ;
+    private int spoolLimit = 0 ;
 
     public HttpServletResponseTracker(HttpAction action, HttpServletResponse response)
     {
@@ -37,6 +42,95 @@ public class HttpServletResponseTracker extends HttpServletResponseWrapper
         this.action = action ;
     }
 
+    @Override
+    public ServletOutputStream getOutputStream() throws IOException
+    {
+        if ( output == null )
+        {
+            ServletOutputStream out = super.getOutputStream() ;
+            if ( spoolLimit > 0 )
+                out = spool = new ResponseSpool(out, spoolLimit) ;
+            output = new OutputStreamTracker(out) ;
+        }
+        return output ;
+    }
+
+    /** Hold the response body in memory, up to limit bytes, until {@link #sendSpooled}.
+     *  Call before the first call of {@link #getOutputStream}.
+     *  @see ResponseSpool
+     */
+    public void spoolOutput(int limit)
+    {
+        if ( output != null )
+            Log.warn(this, "Spooling requested after the output stream was created") ;
+        spoolLimit = limit ;
+    }
+
+    /** A copy of the spooled response body, or null if there is none. */
+    public byte[] getSpooledBytes()
+    {
+        return spool == null ? null : spool.toByteArray() ;
+    }
+
+    /** Send any spooled response body. If it is sent asynchronously, the action's
+     *  {@link HttpAction#whenSent} tasks wait for the send to end.
+     */
+    public void sendSpooled() throws IOException
+    {
+        if ( spool == null )
+            return ;
+        action.startSending() ;
+        boolean async = false ;
+        try {
+            async = spool.send(action.request, this, action::finishSending) ;
+        } finally {
+            if ( ! async )
+                action.finishSending() ;
+        }
+    }
+
+    /** Record the bytes written, and the time of the first byte, in the action */
+    private class OutputStreamTracker extends ServletOutputStream
+    {
+        private final ServletOutputStream out ;
+
+        OutputStreamTracker(ServletOutputStream out) { this.out = out ; }
+
+        private void written(int len)
+        {
+            if ( action.firstByteTime < 0 && len > 0 )
+                action.firstByteTime = System.nanoTime() ;
+            action.bytesWritten += len ;
+        }
+
+        @Override
+        public void write(int b) throws IOException
+        {
+            written(1) ;
+            out.write(b) ;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException
+        {
+            written(len) ;
+            out.write(b, off, len) ;
+        }
+
+        @Override
+        public void flush() throws IOException      { out.flush() ; }
+
+        @Override
+        public void close() throws IOException      { out.close() ; }
+
+        @Override
+        public boolean isReady()                    { return out.isReady() ; }
+
+        @Override
+        public void setWriteListener(WriteListener writeListener)
+        { out.setWriteListener(writeListener) ; }
+    }
+
     @Override
     public void sendError(int sc, String msg) throws IOException
     {
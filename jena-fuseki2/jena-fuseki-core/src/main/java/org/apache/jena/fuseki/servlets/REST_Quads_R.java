@@ -46,6 +46,8 @@ public class REST_Quads_R extends REST_Quads {
     @Override
     protected void doGet(HttpAction action) {
         MediaType mediaType = ActionLib.contentNegotationQuads(action) ;
+        // Spool the body so the read transaction does not wait on the client.
+        action.getResponse().spoolOutput(ResponseSpool.SpoolLimit) ;
         ServletOutputStream output ;
         try {
             output = action.response.getOutputStream() ;
@@ -76,6 +78,7 @@ public class REST_Quads_R extends REST_Quads {
         } finally {
             action.endRead() ;
         }
+        ServletOps.sendSpooled(action) ;
     }
 
     @Override
@@ -82,13 +82,17 @@ public class REST_Quads_RW extends REST_Quads_R {
             if ( clearFirst )
                 dsg.clear() ;
             StreamRDF dest = StreamRDFLib.dataset(dsg) ;
-            details = Upload.incomingData(action, dest) ;
+            details = Upload.incomingData(action, null, dest) ;
             action.commit() ;
             ServletOps.success(action) ;
         } catch (RiotException ex) {
             // Parse error
             action.abort() ;
             ServletOps.errorBadRequest(ex.getMessage()) ;
+        } catch (ActionErrorException ex) {
+            // Already reported, e.g. a parse error. Backout.
+            action.abort() ;
+            throw ex ;
         } catch (Exception ex) {
             // Something else went wrong. Backout.
             action.abort() ;
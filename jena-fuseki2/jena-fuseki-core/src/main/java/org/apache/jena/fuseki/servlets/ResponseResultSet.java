@@ -305,6 +305,7 @@ public class ResponseResultSet
             } catch (QueryCancelledException ex) {
                 // Bother.  Status code 200 already sent.
                 action.log.info(format("[%d] Query Cancelled - results truncated (but 200 already sent)", action.id)) ;
+                action.responseTruncated = true ;
                 out.println() ;
                 out.println("##  Query cancelled due to timeout during execution   ##") ;
                 out.println("##  ****          Incomplete results           ****   ##") ;
@@ -0,0 +1,261 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.jena.fuseki.servlets;
+
+import java.io.IOException ;
+import java.util.ArrayList ;
+import java.util.List ;
+
+import javax.servlet.AsyncContext ;
+import javax.servlet.AsyncEvent ;
+import javax.servlet.AsyncListener ;
+import javax.servlet.ServletOutputStream ;
+import javax.servlet.WriteListener ;
+import javax.servlet.http.HttpServletRequest ;
+import javax.servlet.http.HttpServletResponse ;
+
+import org.apache.jena.fuseki.Fuseki ;
+
+/** Collect a response body in memory, up to a limit, so that the operation producing
+ * it (and any transaction) can finish before the client has received it.
+ * <p>
+ * The body is held in fixed size chunks. If it grows past the limit, the chunks
+ * collected so far are written out and the rest of the body goes directly to the
+ * client, which is the same as not spooling.
+ * <p>
+ * A spooled body is sent by {@link #send}. If the request supports asynchronous
+ * processing, and the body is more than one chunk, it is written with a non-blocking
+ * {@link WriteListener} so no container thread waits on a slow client.
+ */
+public class ResponseSpool extends ServletOutputStream
+{
+    /** Largest response body, in bytes, held in memory. Zero or less for no spooling. */
+    public static int SpoolLimit = 4*1024*1024 ;
+    /** Time allowed, in milliseconds, for sending a spooled body asynchronously. */
+    public static long AsyncTimeout = 10*60*1000L ;
+
+    private static final int ChunkSize = 64*1024 ;
+
+    private final ServletOutputStream out ;
+    private final int limit ;
+    private final List<byte[]> chunks = new ArrayList<>() ;
+    private byte[] current = null ;
+    private int currentLen = 0 ;
+    private long size = 0 ;
+    private boolean direct = false ;
+
+    public ResponseSpool(ServletOutputStream out, int limit) {
+        this.out = out ;
+        this.limit = limit ;
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        if ( ! direct && size+1 > limit )
+            spill() ;
+        if ( direct ) {
+            out.write(b) ;
+            return ;
+        }
+        if ( current == null || currentLen == current.length )
+            nextChunk() ;
+        current[currentLen++] = (byte)b ;
+        size++ ;
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+        if ( ! direct && size+len > limit )
+            spill() ;
+        if ( direct ) {
+            out.write(b, off, len) ;
+            return ;
+        }
+        while ( len > 0 ) {
+            if ( current == null || currentLen == current.length )
+                nextChunk() ;
+            int n = Math.min(len, current.length-currentLen) ;
+            System.arraycopy(b, off, current, currentLen, n) ;
+            currentLen += n ;
+            off += n ;
+            len -= n ;
+            size += n ;
+        }
+    }
+
+    private void nextChunk() {
+        current = new byte[ChunkSize] ;
+        currentLen = 0 ;
+        chunks.add(current) ;
+    }
+
+    private int chunkLength(int idx) {
+        return idx == chunks.size()-1 ? currentLen : chunks.get(idx).length ;
+    }
+
+    /** Switch to writing directly to the client. */
+    private void spill() throws IOException {
+        direct = true ;
+        for ( int i = 0 ; i < chunks.size() ; i++ )
+            out.write(chunks.get(i), 0, chunkLength(i)) ;
+        chunks.clear() ;
+        current = null ;
+    }
+
+    @Override
+    public void flush() throws IOException {
+        // A flush while spooling is deferred to send().
+        if ( direct )
+            out.flush() ;
+    }
+
+    @Override
+    public void close() throws IOException {
+        if ( direct )
+            out.close() ;
+    }
+
+    @Override
+    public boolean isReady() {
+        return direct ? out.isReady() : true ;
+    }
+
+    @Override
+    public void setWriteListener(WriteListener writeListener) {
+        throw new IllegalStateException("Write listener on a spooled response") ;
+    }
+
+    /** Whether the body so far is held in memory. */
+    public boolean isSpooled()      { return ! direct ; }
+
+    /** Number of bytes held in memory. */
+    public long size()              { return direct ? 0 : size ; }
+
+    /** A copy of the spooled body, or null if the body is not held in memory. */
+    public byte[] toByteArray() {
+        if ( direct )
+            return null ;
+        byte[] b = new byte[(int)size] ;
+        int off = 0 ;
+        for ( int i = 0 ; i < chunks.size() ; i++ ) {
+            int len = chunkLength(i) ;
+            System.arraycopy(chunks.get(i), 0, b, off, len) ;
+            off += len ;
+        }
+        return b ;
+    }
+
+    /** Send the spooled body, if any, to the client.
+     * Afterwards, the body goes directly to the client.
+     */
+    public void send(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        send(request, response, null) ;
+    }
+
+    /** Send the spooled body, if any, to the client.
+     * Afterwards, the body goes directly to the client.
+     * @return true if the body is being sent asynchronously, in which case
+     *     {@code whenSent}, if not null, is run once when the request completes,
+     *     whether the send finished, failed or timed out.
+     */
+    public boolean send(HttpServletRequest request, HttpServletResponse response, Runnable whenSent) throws IOException {
+        if ( direct )
+            return false ;
+        direct = true ;
+        // Small bodies are written in one go.
+        if ( size <= ChunkSize || ! request.isAsyncSupported() ) {
+            if ( ! response.isCommitted() )
+                response.setContentLength((int)size) ;
+            for ( int i = 0 ; i < chunks.size() ; i++ )
+                out.write(chunks.get(i), 0, chunkLength(i)) ;
+            chunks.clear() ;
+            return false ;
+        }
+        // No Content-Length for an asynchronous send: writing all of a declared length
+        // closes the output without a further callback, and the request would not be
+        // completed, leaving a kept-alive connection waiting.
+        AsyncContext async = request.startAsync() ;
+        async.setTimeout(AsyncTimeout) ;
+        if ( whenSent != null )
+            async.addListener(new SendListener(whenSent)) ;
+        out.setWriteListener(new ChunkWriter(async)) ;
+        return true ;
+    }
+
+    /** Run a task once, when the asynchronous request ends. */
+    private static class SendListener implements AsyncListener {
+        private final Runnable whenSent ;
+        private boolean done = false ;
+
+        SendListener(Runnable whenSent) { this.whenSent = whenSent ; }
+
+        private void done() {
+            synchronized (this) {
+                if ( done )
+                    return ;
+                done = true ;
+            }
+            whenSent.run() ;
+        }
+
+        @Override public void onComplete(AsyncEvent event)   { done() ; }
+        @Override public void onTimeout(AsyncEvent event)    { done() ; }
+        @Override public void onError(AsyncEvent event)      { done() ; }
+        @Override public void onStartAsync(AsyncEvent event) {}
+    }
+
+    /** Write the chunks as the client accepts them, then complete the request. */
+    private class ChunkWriter implements WriteListener {
+        private final AsyncContext async ;
+        private final int count = chunks.size() ;
+        private final int lastLength = currentLen ;
+        private int idx = 0 ;
+        private boolean completed = false ;
+
+        ChunkWriter(AsyncContext async) { this.async = async ; }
+
+        @Override
+        public void onWritePossible() throws IOException {
+            while ( ! completed && out.isReady() ) {
+                if ( idx == count ) {
+                    // The last write has finished.
+                    completed = true ;
+                    chunks.clear() ;
+                    async.complete() ;
+                    return ;
+                }
+                byte[] chunk = chunks.get(idx) ;
+                int len = ( idx == count-1 ) ? lastLength : chunk.length ;
+                chunks.set(idx, null) ;
+                idx++ ;
+                out.write(chunk, 0, len) ;
+            }
+        }
+
+        @Override
+        public void onError(Throwable ex) {
+            Fuseki.serverLog.info("Error sending response (client left?): "+ex.getMessage()) ;
+            chunks.clear() ;
+            if ( ! completed ) {
+                completed = true ;
+                async.complete() ;
+            }
+        }
+    }
+}
@@ -45,6 +45,8 @@ public class SPARQL_GSP_R extends SPARQL_GSP
         // Sets content type.
         MediaType mediaType = ActionLib.contentNegotationRDF(action) ;
         
+        // Spool the body so the read transaction does not wait on the client.
+        action.getResponse().spoolOutput(ResponseSpool.SpoolLimit) ;
         ServletOutputStream output ;
         try { output = action.response.getOutputStream() ; }
         catch (IOException ex) { ServletOps.errorOccurred(ex) ; output = null ; }
@@ -76,6 +78,7 @@ public class SPARQL_GSP_R extends SPARQL_GSP
             RDFDataMgr.write(out, g, fmt) ;
             ServletOps.success(action) ;
         } finally { action.endRead() ; }
+        ServletOps.sendSpooled(action) ;
     }
     
     @Override
@@ -31,10 +31,12 @@ import org.apache.jena.fuseki.FusekiLib ;
 import org.apache.jena.fuseki.conneg.ConNeg ;
 import org.apache.jena.fuseki.servlets.UploadDetails.PreState ;
 import org.apache.jena.graph.Graph ;
+import org.apache.jena.graph.Node ;
 import org.apache.jena.riot.RiotException ;
 import org.apache.jena.riot.system.StreamRDF ;
 import org.apache.jena.riot.system.StreamRDFLib ;
 import org.apache.jena.riot.web.HttpNames ;
+import org.apache.jena.sparql.core.Quad ;
 import org.apache.jena.sparql.graph.GraphFactory ;
 import org.apache.jena.web.HttpSC ;
 
@@ -126,7 +128,8 @@ public class SPARQL_GSP_RW extends SPARQL_GSP_R
             if ( overwrite && existedBefore )
                 clearGraph(target) ;
             StreamRDF sink = StreamRDFLib.graph(g) ;
-            UploadDetails upload = Upload.incomingData(action, sink);
+            Node graphName = target.isDefault ? Quad.defaultGraphIRI : target.graphName ;
+            UploadDetails upload = Upload.incomingData(action, graphName, sink);
             upload.setExistedBefore(existedBefore) ;
             action.commit() ;
             return upload ;
@@ -135,6 +138,10 @@ public class SPARQL_GSP_RW extends SPARQL_GSP_R
             action.abort() ;
             ServletOps.errorBadRequest(ex.getMessage()) ;
             return null ;
+        } catch (ActionErrorException ex) {
+            // Already reported, e.g. a parse error. Backout.
+            action.abort() ;
+            throw ex ;
         } catch (Exception ex) {
             // Something else went wrong.  Backout.
             action.abort() ;
@@ -19,6 +19,8 @@
 package org.apache.jena.fuseki.servlets ;
 
 import static java.lang.String.format ;
+import static org.apache.jena.fuseki.server.CounterName.QueryCacheHits ;
+import static org.apache.jena.fuseki.server.CounterName.QueryCacheMisses ;
 import static org.apache.jena.fuseki.server.CounterName.QueryTimeouts ;
 import static org.apache.jena.riot.WebContent.ctHTMLForm ;
 import static org.apache.jena.riot.WebContent.ctSPARQLQuery ;
@@ -49,6 +51,7 @@ import org.apache.jena.atlas.web.ContentType ;
 import org.apache.jena.fuseki.Fuseki ;
 import org.apache.jena.fuseki.FusekiException ;
 import org.apache.jena.fuseki.FusekiLib ;
+import org.apache.jena.fuseki.server.ResultCache ;
 import org.apache.jena.query.* ;
 import org.apache.jena.rdf.model.Model ;
 import org.apache.jena.riot.web.HttpNames ;
@@ -124,6 +127,12 @@ public abstract class SPARQL_Query extends SPARQL_Protocol
                                                             paramQueryRef, paramStyleSheet, paramAccept, paramOutput1,
                                                             paramOutput2, paramCallback, paramForceAccept, paramTimeout) ;
 
+    /** A query is a read request whatever the HTTP method. */
+    @Override
+    protected boolean isWriteRequest(HttpAction action) {
+        return false ;
+    }
+
     /**
      * Validate the request, checking HTTP method and HTTP Parameters.
      * @param action HTTP Action
@@ -246,7 +255,20 @@ public abstract class SPARQL_Query extends SPARQL_Protocol
             ServletOps.errorBadRequest("Error: \n" + queryString + "\n\r" + ex.getMessage()) ;
         }
 
+        ResultCache cache = action.getDataService().getResultCache() ;
+        String cacheKey = null ;
+        long generation = -1 ;
+        if ( cache != null && ResultCache.isCacheable(query) ) {
+            cacheKey = cacheKey(action, queryStringLog) ;
+            // Before the transaction starts.
+            generation = action.getDataService().getGeneration() ;
+            if ( sendFromCache(action, cache, cacheKey, generation) )
+                return ;
+        }
+
         // Assumes finished whole thing by end of sendResult.
+        // The results are spooled so the read transaction does not wait on the client.
+        action.getResponse().spoolOutput(ResponseSpool.SpoolLimit) ;
         try {
             action.beginRead() ;
             Dataset dataset = decideDataset(action, query, queryStringLog) ;
@@ -265,6 +287,72 @@ public abstract class SPARQL_Query extends SPARQL_Protocol
             incCounter(action.getEndpoint().getCounters(), QueryTimeouts) ;
             throw ex ;
         } finally { action.endRead() ; }
+        if ( cacheKey != null )
+            addToCache(action, cache, cacheKey, generation) ;
+        ServletOps.sendSpooled(action) ;
+    }
+
+    // Request parameters that change the response for the same query.
+    private static List<String> cacheKeyParams = Arrays.asList(paramDefaultGraphURI, paramNamedGraphURI,
+                                                               paramStyleSheet, paramAccept, paramOutput1,
+                                                               paramOutput2, paramCallback, paramForceAccept) ;
+
+    /** The result cache key: the normalized query and whatever decides the response format. */
+    private static String cacheKey(HttpAction action, String queryStringLog) {
+        StringBuilder sb = new StringBuilder(queryStringLog) ;
+        sb.append("\n").append(action.request.getHeader(HttpNames.hAccept)) ;
+        for ( String p : cacheKeyParams ) {
+            String[] values = action.request.getParameterValues(p) ;
+            if ( values != null )
+                sb.append("\n").append(p).append("=").append(String.join("\t", values)) ;
+        }
+        return sb.toString() ;
+    }
+
+    /** Answer the request from the cache, or with "304 Not Modified", if possible. */
+    private boolean sendFromCache(HttpAction action, ResultCache cache, String cacheKey, long generation) {
+        String etag = cache.etag(cacheKey, generation) ;
+        if ( ResultCache.matches(action.request.getHeader(HttpNames.hIfNoneMatch), etag) ) {
+            incCounter(action.getDataService().getCounters(), QueryCacheHits) ;
+            action.log.info(format("[%d] Not modified", action.id)) ;
+            setCacheHeaders(action, etag) ;
+            ServletOps.success(action, HttpSC.NOT_MODIFIED_304) ;
+            return true ;
+        }
+        ResultCache.Entry entry = cache.get(cacheKey, generation) ;
+        if ( entry == null ) {
+            incCounter(action.getDataService().getCounters(), QueryCacheMisses) ;
+            return false ;
+        }
+        incCounter(action.getDataService().getCounters(), QueryCacheHits) ;
+        action.log.info(format("[%d] Result cache hit", action.id)) ;
+        setCacheHeaders(action, etag) ;
+        action.response.setContentType(entry.contentType) ;
+        ServletOps.success(action) ;
+        action.getResponse().spoolOutput(entry.body.length) ;
+        try { action.response.getOutputStream().write(entry.body) ; }
+        catch (IOException ex) { ServletOps.errorOccurred(ex) ; }
+        ServletOps.sendSpooled(action) ;
+        return true ;
+    }
+
+    /** Keep the complete, spooled response if the data did not change while it was being produced. */
+    private void addToCache(HttpAction action, ResultCache cache, String cacheKey, long generation) {
+        if ( action.statusCode != HttpSC.OK_200 || action.responseTruncated )
+            return ;
+        if ( action.getDataService().getGeneration() != generation )
+            return ;
+        byte[] body = action.getResponse().getSpooledBytes() ;
+        if ( body == null )
+            return ;
+        cache.put(cacheKey, generation, action.contentType, body) ;
+        setCacheHeaders(action, cache.etag(cacheKey, generation)) ;
+    }
+
+    private static void setCacheHeaders(HttpAction action, String etag) {
+        action.response.setHeader(HttpNames.hETag, etag) ;
+        // Clients may keep the response but must check it is still current.
+        action.response.setHeader(HttpNames.hCacheControl, "must-revalidate,no-cache") ;
     }
 
     /**
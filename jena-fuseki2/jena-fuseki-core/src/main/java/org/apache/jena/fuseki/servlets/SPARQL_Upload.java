@@ -34,6 +34,7 @@ import org.apache.commons.fileupload.util.Streams ;
 import org.apache.jena.atlas.web.ContentType ;
 import org.apache.jena.fuseki.Fuseki ;
 import org.apache.jena.fuseki.FusekiLib ;
+import org.apache.jena.fuseki.async.AsyncTask ;
 import org.apache.jena.graph.Node ;
 import org.apache.jena.graph.NodeFactory ;
 import org.apache.jena.iri.IRI ;
@@ -47,6 +48,7 @@ import org.apache.jena.riot.web.HttpNames ;
 import org.apache.jena.sparql.core.DatasetGraph ;
 import org.apache.jena.sparql.core.DatasetGraphFactory ;
 import org.apache.jena.sparql.core.Quad ;
+import org.apache.jena.tdb.store.bulkloader.LoaderBatchTDB ;
 import org.apache.jena.web.HttpSC ;
 
 public class SPARQL_Upload extends ActionSPARQL 
@@ -117,32 +119,13 @@ public class SPARQL_Upload extends ActionSPARQL
      * are caught before inserting any data. 
      */
      private static long uploadNonTxn(HttpAction action, String base) {
-         UploadDetails upload = uploadWorker(action, base) ;
-         String graphName = upload.graphName ;
-         DatasetGraph dataTmp = upload.data ;
-         long count = upload.count ;
-         
-         if ( graphName == null )
-             action.log.info(format("[%d] Upload: %d Quads(s)",action.id, count)) ;
-         else
-             action.log.info(format("[%d] Upload: Graph: %s, %d triple(s)", action.id, graphName,  count)) ;
-
-         Node gn = null ;
-         if ( graphName != null ) {
-             gn = graphName.equals(HttpNames.valueDefault)
-                 ? Quad.defaultGraphNodeGenerated 
-                 : NodeFactory.createURI(graphName) ;
-         }
-
+         UploadDetails upload = uploadWorker(action, base, null, null) ;
+         logUpload(action, upload) ;
          action.beginWrite() ;
          try {
-             if ( gn != null )
-                 FusekiLib.addDataInto(dataTmp.getDefaultGraph(), action.getActiveDSG(), gn) ;
-             else
-                 FusekiLib.addDataInto(dataTmp, action.getActiveDSG()) ;
-
+             addBuffered(action, upload) ;
              action.commit() ;
-             return count ;
+             return upload.count ;
          } catch (RuntimeException ex)
         {
             // If anything went wrong, try to backout.
@@ -153,16 +136,59 @@ public class SPARQL_Upload extends ActionSPARQL
         finally { action.endWrite() ; }
     }
 
-     /** Transactional - we'd like data to go straight to the destination, with an abort on parse error.
+     /** Transactional - data goes straight to the destination (in batches for TDB), with an abort on parse error.
       * But file upload with a name means that the name can be after the data
-      * (it is in the Fuseki default pages).
-      * Use Graph Store protocol for bulk uploads.
-      * (It would be possible to process the incoming stream and see the graph name first.)
+      * (it is in the Fuseki default pages). Files before the graph name field are
+      * parsed into a temporary dataset and added at the end, as for the non-transaction case.
       */
       private static long uploadTxn(HttpAction action, String base) {
-          // We can't do better than the non-transaction approach.
-          return uploadNonTxn(action, base) ;
+          action.beginWrite() ;
+          AsyncTask task = Upload.track(action) ;
+          try {
+              UploadDetails upload = uploadWorker(action, base, action.getActiveDSG(), task) ;
+              logUpload(action, upload) ;
+              addBuffered(action, upload) ;
+              action.commit() ;
+              return upload.count ;
+          } catch (ActionErrorException ex) {
+              // Already reported, e.g. a parse error. Backout.
+              action.abort() ;
+              throw ex ;
+          } catch (Exception ex) {
+              // Something else went wrong.  Backout.
+              action.abort() ;
+              ServletOps.errorOccurred(ex.getMessage()) ;
+              return -1 ;
+          } finally {
+              if ( task != null )
+                  task.complete() ;
+              action.endWrite() ;
+          }
       }
+
+    private static void logUpload(HttpAction action, UploadDetails upload) {
+        if ( upload.graphName == null )
+            action.log.info(format("[%d] Upload: %d Quads(s)",action.id, upload.count)) ;
+        else
+            action.log.info(format("[%d] Upload: Graph: %s, %d triple(s)", action.id, upload.graphName, upload.count)) ;
+    }
+
+    /** Add the data that was parsed into the temporary dataset */
+    private static void addBuffered(HttpAction action, UploadDetails upload) {
+        Node gn = graphNode(upload.graphName) ;
+        if ( gn != null )
+            FusekiLib.addDataInto(upload.data.getDefaultGraph(), action.getActiveDSG(), gn) ;
+        else
+            FusekiLib.addDataInto(upload.data, action.getActiveDSG()) ;
+    }
+
+    private static Node graphNode(String graphName) {
+        if ( graphName == null )
+            return null ;
+        return graphName.equals(HttpNames.valueDefault)
+            ? Quad.defaultGraphNodeGenerated 
+            : NodeFactory.createURI(graphName) ;
+    }
      
     static class UploadDetails {
         final String graphName  ;
@@ -176,18 +202,21 @@ public class SPARQL_Upload extends ActionSPARQL
     }
       
     /** Process an HTTP file upload of RDF with additiona name field for the graph name.
-     *  We can't stream straight into a dataset because the graph name can be after the data. 
-     *  @return graph name and count
+     *  If {@code dsg} is not null, files after the graph name field are streamed into it;
+     *  otherwise, or if the graph name is after the data, files are parsed into a temporary
+     *  dataset, returned in the {@link UploadDetails} to be added by the caller.
+     *  @return graph name for the temporary dataset, the temporary dataset and count
      */
     
     // ?? Combine with Upload.fileUploadWorker
     // Difference is the handling of names for graphs.  
-    static private UploadDetails uploadWorker(HttpAction action, String base) {
+    static private UploadDetails uploadWorker(HttpAction action, String base, DatasetGraph dsg, AsyncTask task) {
         DatasetGraph dsgTmp = DatasetGraphFactory.createMem() ;
         ServletFileUpload upload = new ServletFileUpload() ;
         String graphName = null ;
+        boolean graphNameSeen = false ;
         boolean isQuads = false ;
-        long count = -1 ;
+        long count = 0 ;
 
         String name = null ;
         ContentType ct = null ;
@@ -204,6 +233,7 @@ public class SPARQL_Upload extends ActionSPARQL
                     String value = Streams.asString(stream, "UTF-8") ;
                     if ( fieldName.equals(HttpNames.paramGraph) ) {
                         graphName = value ;
+                        graphNameSeen = true ;
                         if ( graphName != null && !graphName.equals("") && !graphName.equals(HttpNames.valueDefault) ) {
                             IRI iri = IRIResolver.parseIRI(value) ;
                             if ( iri.hasViolation(false) )
@@ -220,9 +250,10 @@ public class SPARQL_Upload extends ActionSPARQL
                                     ServletOps.errorBadRequest("Bad IRI: Path does not start '/': " + graphName) ;
                             }
                         }
-                    } else if ( fieldName.equals(HttpNames.paramDefaultGraphURI) )
+                    } else if ( fieldName.equals(HttpNames.paramDefaultGraphURI) ) {
                         graphName = null ;
-                    else
+                        graphNameSeen = true ;
+                    } else
                         // Add file type?
                         action.log.info(format("[%d] Upload: Field=%s ignored", action.id, fieldName)) ;
                 } else {
@@ -250,20 +281,39 @@ public class SPARQL_Upload extends ActionSPARQL
                         // Desperate.
                         lang = RDFLanguages.RDFXML ;
 
-                    isQuads = RDFLanguages.isQuads(lang) ;
-
                     action.log.info(format("[%d] Upload: Filename: %s, Content-Type=%s, Charset=%s => %s", action.id, name,
                                            ct.getContentType(), ct.getCharset(), lang.getName())) ;
 
-                    StreamRDF x = StreamRDFLib.dataset(dsgTmp) ;
+                    LoaderBatchTDB loader = null ;
+                    StreamRDF x ;
+                    if ( dsg != null && graphNameSeen ) {
+                        // The destination is known: stream into the dataset.
+                        Node gn = RDFLanguages.isQuads(lang) ? null : graphNode(nameOrDefault(graphName)) ;
+                        loader = FusekiLib.batchLoader(dsg, gn) ;
+                        if ( loader != null )
+                            x = loader ;
+                        else if ( gn != null )
+                            x = StreamRDFLib.extendTriplesToQuads(gn, StreamRDFLib.dataset(dsg)) ;
+                        else
+                            x = StreamRDFLib.dataset(dsg) ;
+                    } else {
+                        isQuads = RDFLanguages.isQuads(lang) ;
+                        x = StreamRDFLib.dataset(dsgTmp) ;
+                    }
+                    if ( task != null && loader != null ) {
+                        LoaderBatchTDB progress = loader ;
+                        long countBefore = count ;
+                        task.setProgress(() -> countBefore + progress.getCount()) ;
+                    }
                     StreamRDFCounting dest = StreamRDFLib.count(x) ;
                     ActionSPARQL.parse(action, dest, stream, lang, base) ;
-                    count = dest.count() ;
+                    if ( loader != null )
+                        loader.finishBulk() ;
+                    count += dest.count() ;
                 }
             }
 
-            if ( graphName == null || graphName.equals("") )
-                graphName = HttpNames.valueDefault ;
+            graphName = nameOrDefault(graphName) ;
             if ( isQuads )
                 graphName = null ;
             return new UploadDetails(graphName, dsgTmp, count) ;
@@ -272,6 +322,12 @@ public class SPARQL_Upload extends ActionSPARQL
         catch (Exception ex)            { ServletOps.errorOccurred(ex) ; return null ; }
     }            
 
+    private static String nameOrDefault(String graphName) {
+        if ( graphName == null || graphName.equals("") )
+            return HttpNames.valueDefault ;
+        return graphName ;
+    }
+
     @Override
     protected void validate(HttpAction action)
     {}
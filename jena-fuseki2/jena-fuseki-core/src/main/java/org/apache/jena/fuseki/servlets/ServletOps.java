@@ -71,6 +71,12 @@ public class ServletOps {
         action.response.setStatus(httpStatusCode) ;
     }
 
+    /** Send any response body held back by {@link HttpServletResponseTracker#spoolOutput}. */
+    public static void sendSpooled(HttpAction action) {
+        try { action.getResponse().sendSpooled() ; }
+        catch (IOException ex) { errorOccurred(ex) ; }
+    }
+
     public static void successPage(HttpAction action, String message) {
         try {
             action.response.setContentType("text/html") ;
@@ -34,14 +34,56 @@ import org.apache.commons.fileupload.util.Streams ;
 import org.apache.jena.atlas.io.IO ;
 import org.apache.jena.atlas.web.ContentType ;
 import org.apache.jena.fuseki.FusekiLib ;
+import org.apache.jena.fuseki.async.AsyncPool ;
+import org.apache.jena.fuseki.async.AsyncTask ;
+import org.apache.jena.graph.Node ;
 import org.apache.jena.riot.Lang ;
 import org.apache.jena.riot.RDFLanguages ;
 import org.apache.jena.riot.RiotParseException ;
 import org.apache.jena.riot.lang.StreamRDFCounting ;
 import org.apache.jena.riot.system.StreamRDF ;
 import org.apache.jena.riot.system.StreamRDFLib ;
+import org.apache.jena.tdb.store.bulkloader.LoaderBatchTDB ;
 
 public class Upload {
+    /** Uploads of at least this many bytes, or of unknown length, are listed as
+     * tasks, with the number of triples and quads loaded so far, while they load.
+     */ 
+    public static long TrackThreshold = 10*1024*1024 ;
+
+    /** Parse the request body into the active dataset of a write transaction:
+     * into the graph {@code graphName}, or as given by the data if {@code graphName} is null.
+     * For TDB, the data is added in batches ({@link LoaderBatchTDB}); otherwise it is
+     * sent to {@code dest}, which must add it to the same place.
+     */
+    public static UploadDetails incomingData(HttpAction action, Node graphName, StreamRDF dest) {
+        LoaderBatchTDB loader = FusekiLib.batchLoader(action.getActiveDSG(), graphName) ;
+        if ( loader != null )
+            dest = loader ;
+        AsyncTask task = track(action) ;
+        if ( task != null && loader != null )
+            task.setProgress(loader::getCount) ;
+        try {
+            UploadDetails details = incomingData(action, dest) ;
+            if ( loader != null )
+                loader.finishBulk() ;
+            return details ;
+        } finally {
+            if ( task != null )
+                task.complete() ;
+        }
+    }
+
+    /** Register the upload as a task if the request body is large or of unknown length
+     * (see {@link #TrackThreshold}); null if not. The caller must complete the task.
+     */
+    static AsyncTask track(HttpAction action) {
+        long len = action.request.getContentLengthLong() ;
+        if ( len >= 0 && len < TrackThreshold )
+            return null ;
+        return AsyncPool.get().track(format("Upload [%d] %s", action.id, action.getDatasetName()), action.getDataService()) ;
+    }
+
     public static UploadDetails incomingData(HttpAction action, StreamRDF dest) {
         ContentType ct = FusekiLib.getContentType(action) ;
         
@@ -22,6 +22,7 @@ import org.apache.jena.atlas.lib.FileOps ;
 import org.apache.jena.atlas.logging.LogCtl ;
 import org.apache.jena.fuseki.http.TestDatasetAccessorHTTP ;
 import org.apache.jena.fuseki.http.TestDatasetGraphAccessorHTTP ;
+import org.apache.jena.fuseki.http.TestHttpConnectionPoolServer ;
 import org.apache.jena.fuseki.http.TestHttpOp ;
 import org.apache.jena.fuseki.server.FusekiEnv ;
 import org.junit.BeforeClass ;
@@ -32,6 +33,7 @@ import org.junit.runners.Suite ;
 @RunWith(Suite.class)
 @Suite.SuiteClasses( {
     TestHttpOp.class
+    , TestHttpConnectionPoolServer.class
     , TestSPARQLProtocol.class
     , TestDatasetGraphAccessorHTTP.class
     , TestDatasetAccessorHTTP.class
@@ -39,7 +41,13 @@ import org.junit.runners.Suite ;
     , TestAuth.class
     , TestDatasetOps.class
     , TestFileUpload.class
+    , TestAdmissionControl.class
+    , TestResponseSpool.class
+    , TestResultCache.class
+    , TestBulkUpload.class
+    // Keep last: a new test server does not start after TestAdmin.
     , TestAdmin.class
+    , TestHistogram.class
 })
 
 
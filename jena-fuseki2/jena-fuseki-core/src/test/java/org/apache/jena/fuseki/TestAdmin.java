@@ -21,6 +21,7 @@ package org.apache.jena.fuseki;
 import static org.apache.jena.fuseki.ServerTest.datasetPath ;
 import static org.apache.jena.fuseki.ServerTest.urlRoot ;
 import static org.apache.jena.fuseki.mgt.MgtConst.opDatasets ;
+import static org.apache.jena.fuseki.mgt.MgtConst.opMetrics ;
 import static org.apache.jena.fuseki.mgt.MgtConst.opPing ;
 import static org.apache.jena.fuseki.mgt.MgtConst.opServer ;
 import static org.apache.jena.fuseki.mgt.MgtConst.opStats ;
@@ -49,6 +50,8 @@ import org.apache.jena.atlas.lib.Lib ;
 import org.apache.jena.atlas.web.HttpException ;
 import org.apache.jena.atlas.web.TypedInputStream ;
 import org.apache.jena.fuseki.mgt.JsonConst ;
+import org.apache.jena.query.QueryExecution ;
+import org.apache.jena.query.QueryExecutionFactory ;
 import org.apache.jena.riot.WebContent ;
 import org.apache.jena.riot.web.HttpOp ;
 import org.apache.jena.riot.web.HttpResponseHandler ;
@@ -281,6 +284,33 @@ public class TestAdmin extends BaseTest {
         deleteDataset(dsTest) ;
     }
 
+    @Test public void stats_4() {
+        try ( QueryExecution qExec = QueryExecutionFactory.sparqlService(ServerTest.serviceQuery, "ASK {}") ) {
+            qExec.execAsk() ;
+        }
+        JsonValue v = execGetJSON(urlRoot+"$/"+opStats+datasetPath) ;
+        JsonObject ds = v.getAsObject().get(JsonConst.datasets).getAsObject().get(datasetPath).getAsObject() ;
+        assertTrue(ds.hasKey("RequestsActive")) ;
+        assertTrue(ds.hasKey("ResponseBytes")) ;
+        JsonObject latency = ds.get("Latency").getAsObject() ;
+        assertTrue(latency.get(JsonConst.count).getAsNumber().value().longValue() >= 1) ;
+        assertTrue(latency.hasKey(JsonConst.p99)) ;
+    }
+
+    // ---- Metrics
+
+    @Test public void metrics_1() {
+        try ( QueryExecution qExec = QueryExecutionFactory.sparqlService(ServerTest.serviceQuery, "ASK {}") ) {
+            qExec.execAsk() ;
+        }
+        String x = HttpOp.execHttpGetString(urlRoot+"$/"+opMetrics) ;
+        assertTrue(x.contains("# TYPE fuseki_requests counter\n")) ;
+        assertTrue(x.contains("# TYPE fuseki_requests_active gauge\n")) ;
+        assertTrue(x.contains("fuseki_requests{dataset=\""+datasetPath+"\"} ")) ;
+        assertTrue(x.contains("fuseki_latency_seconds_count{dataset=\""+datasetPath+"\",endpoint=\"query\",operation=\"Query\"} ")) ;
+        assertTrue(x.contains(",quantile=\"0.99\"} ")) ;
+    }
+
     // Sync task testing
     
     @Test public void task_1() {
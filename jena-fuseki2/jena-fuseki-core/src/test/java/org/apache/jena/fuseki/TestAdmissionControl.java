@@ -0,0 +1,144 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.jena.fuseki;
+
+import static org.apache.jena.fuseki.ServerTest.* ;
+
+import java.io.IOException ;
+import java.net.HttpURLConnection ;
+import java.net.URL ;
+import java.util.concurrent.CountDownLatch ;
+import java.util.concurrent.atomic.AtomicBoolean ;
+
+import org.apache.jena.atlas.junit.BaseTest ;
+import org.apache.jena.atlas.lib.Lib ;
+import org.apache.jena.atlas.web.TypedInputStream ;
+import org.apache.jena.fuseki.build.Builder ;
+import org.apache.jena.fuseki.server.* ;
+import org.apache.jena.rdf.model.Model ;
+import org.apache.jena.rdf.model.ModelFactory ;
+import org.apache.jena.rdf.model.Resource ;
+import org.apache.jena.riot.web.HttpOp ;
+import org.apache.jena.web.HttpSC ;
+import org.junit.AfterClass ;
+import org.junit.BeforeClass ;
+import org.junit.Test ;
+
+public class TestAdmissionControl extends BaseTest {
+    private static final String queryASK = serviceQuery+"?query=ASK%7B%7D" ;
+
+    @BeforeClass public static void beforeClass() {
+        ServerTest.allocServer() ;
+    }
+
+    @AfterClass public static void afterClass() {
+        dataService().setAdmissionControl(null) ;
+        ServerTest.freeServer() ;
+    }
+
+    private static DataService dataService() {
+        return DataAccessPointRegistry.get().get(datasetPath).getDataService() ;
+    }
+
+    @Test public void admission_unlimited() {
+        AdmissionControl admission = new AdmissionControl(0, 0, 0) ;
+        for ( int i = 0 ; i < 10 ; i++ )
+            assertTrue(admission.acquire(false)) ;
+        assertTrue(admission.acquire(true)) ;
+        assertEquals(0, admission.getActiveReaders()) ;
+    }
+
+    @Test public void admission_limit() {
+        AdmissionControl admission = new AdmissionControl(2, 1, 0) ;
+        assertTrue(admission.acquire(false)) ;
+        assertTrue(admission.acquire(false)) ;
+        assertFalse(admission.acquire(false)) ;
+        // Readers and writers have separate slots.
+        assertTrue(admission.acquire(true)) ;
+        assertFalse(admission.acquire(true)) ;
+        assertEquals(2, admission.getActiveReaders()) ;
+        assertEquals(1, admission.getActiveWriters()) ;
+        admission.release(false) ;
+        assertTrue(admission.acquire(false)) ;
+        assertEquals(1, admission.retryAfterSeconds()) ;
+    }
+
+    @Test public void admission_wait() throws InterruptedException {
+        AdmissionControl admission = new AdmissionControl(1, 1, 10000) ;
+        assertTrue(admission.acquire(false)) ;
+        CountDownLatch started = new CountDownLatch(1) ;
+        AtomicBoolean result = new AtomicBoolean(false) ;
+        Thread t = new Thread(()-> { started.countDown() ; result.set(admission.acquire(false)) ; }) ;
+        t.start() ;
+        started.await() ;
+        admission.release(false) ;
+        t.join() ;
+        assertTrue(result.get()) ;
+        assertEquals(10, admission.retryAfterSeconds()) ;
+    }
+
+    @Test public void admission_timeout() {
+        AdmissionControl admission = new AdmissionControl(1, 0, 50) ;
+        assertTrue(admission.acquire(false)) ;
+        long start = System.currentTimeMillis() ;
+        assertFalse(admission.acquire(false)) ;
+        assertTrue(System.currentTimeMillis()-start >= 40) ;
+    }
+
+    @Test(expected=FusekiConfigException.class)
+    public void admission_config_range() {
+        Model model = ModelFactory.createDefaultModel() ;
+        Resource svc = model.createResource() ;
+        svc.addLiteral(FusekiVocab.pMaxConcurrentQueries, 3000000000L) ;
+        Builder.buildAdmissionControl(svc) ;
+    }
+
+    @Test public void admission_server_reject() throws IOException {
+        AdmissionControl admission = new AdmissionControl(1, 1, 0) ;
+        dataService().setAdmissionControl(admission) ;
+        try {
+            long rejected = dataService().getCounters().value(CounterName.RequestsRejected) ;
+            long active = dataService().getCounters().value(CounterName.RequestsActive) ;
+            Histogram queueWait = dataService().getOperation("query").getCounters().getHistogram(HistogramName.QueueWait) ;
+            long waits = queueWait.count() ;
+            // Occupy the only query slot.
+            assertTrue(admission.acquire(false)) ;
+            URL url = new URL(queryASK) ;
+            HttpURLConnection conn = (HttpURLConnection)url.openConnection() ;
+            try {
+                assertEquals(HttpSC.SERVICE_UNAVAILABLE_503, conn.getResponseCode()) ;
+                assertEquals("1", conn.getHeaderField("Retry-After")) ;
+            } finally { conn.disconnect() ; }
+            assertEquals(rejected+1, dataService().getCounters().value(CounterName.RequestsRejected)) ;
+            // A rejected request is never active, but its wait is recorded for the endpoint.
+            assertEquals(active, dataService().getCounters().value(CounterName.RequestsActive)) ;
+            assertEquals(waits+1, queueWait.count()) ;
+            admission.release(false) ;
+            try ( TypedInputStream in = HttpOp.execHttpGet(queryASK) ) {
+                assertNotNull(in) ;
+            }
+            // The slot is released after the response is sent.
+            for ( int i = 0 ; i < 100 && admission.getActiveReaders() > 0 ; i++ )
+                Lib.sleep(10) ;
+            assertEquals(0, admission.getActiveReaders()) ;
+        } finally {
+            dataService().setAdmissionControl(null) ;
+        }
+    }
+}
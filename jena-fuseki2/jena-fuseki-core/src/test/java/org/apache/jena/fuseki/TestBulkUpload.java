@@ -0,0 +1,188 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.jena.fuseki;
+
+import org.apache.jena.atlas.junit.BaseTest ;
+import org.apache.jena.atlas.lib.StrUtils ;
+import org.apache.jena.atlas.web.HttpException ;
+import org.apache.jena.fuseki.async.AsyncPool ;
+import org.apache.jena.fuseki.async.AsyncTask ;
+import org.apache.jena.fuseki.build.Builder ;
+import org.apache.jena.fuseki.server.DataAccessPoint ;
+import org.apache.jena.fuseki.server.DataAccessPointRegistry ;
+import org.apache.jena.fuseki.servlets.Upload ;
+import org.apache.jena.graph.NodeFactory ;
+import org.apache.jena.query.DatasetAccessor ;
+import org.apache.jena.query.DatasetAccessorFactory ;
+import org.apache.jena.query.ReadWrite ;
+import org.apache.jena.rdf.model.Model ;
+import org.apache.jena.riot.WebContent ;
+import org.apache.jena.riot.web.HttpOp ;
+
+import org.apache.jena.tdb.TDBFactory ;
+import org.apache.jena.tdb.transaction.DatasetGraphTransaction ;
+import org.apache.jena.web.HttpSC ;
+import org.junit.AfterClass ;
+import org.junit.Before ;
+import org.junit.BeforeClass ;
+import org.junit.Test ;
+
+/** Uploads into a TDB dataset, which are loaded in batches. */
+public class TestBulkUpload extends BaseTest {
+    private static final String tdbPath = "/tdb" ;
+    private static final String urlTDB = ServerTest.urlRoot+"tdb" ;
+    private static final String serviceTDB = urlTDB+"/data" ;
+
+    private static final String turtle = StrUtils.strjoinNL
+        ("PREFIX : <http://example/>",
+         ":s :p 1 , 2 , 3 , :o .",
+         ":o :q _:b .") ;
+    private static final String trig = StrUtils.strjoinNL
+        ("PREFIX : <http://example/>",
+         ":s :p 1 .",
+         ":g1 { :s :p 1 , 2 . }",
+         ":g2 { :s :p :o . }") ;
+
+    private static DatasetGraphTransaction dsg ;
+    private static long trackThreshold ;
+
+    @BeforeClass public static void beforeClass() {
+        ServerTest.allocServer() ;
+        dsg = (DatasetGraphTransaction)TDBFactory.createDatasetGraph() ;
+        DataAccessPoint dap = new DataAccessPoint(tdbPath) ;
+        dap.setDataService(Builder.buildDataService(dsg, true)) ;
+        DataAccessPointRegistry.register(tdbPath, dap) ;
+        trackThreshold = Upload.TrackThreshold ;
+    }
+
+    @AfterClass public static void afterClass() {
+        Upload.TrackThreshold = trackThreshold ;
+        DataAccessPointRegistry.get().remove(tdbPath) ;
+        ServerTest.freeServer() ;
+    }
+
+    @Before public void before() {
+        Upload.TrackThreshold = trackThreshold ;
+        dsg.begin(ReadWrite.WRITE) ;
+        dsg.clear() ;
+        dsg.commit() ;
+        dsg.end() ;
+    }
+
+    @Test public void bulk_gsp_01() {
+        HttpOp.execHttpPost(serviceTDB+"?default", WebContent.contentTypeTurtle, turtle) ;
+        DatasetAccessor du = DatasetAccessorFactory.createHTTP(serviceTDB) ;
+        assertEquals(5, du.getModel().size()) ;
+        assertEquals("http://example/", du.getModel().getNsPrefixURI("")) ;
+        // Again - only the triple with a blank node is new.
+        HttpOp.execHttpPost(serviceTDB+"?default", WebContent.contentTypeTurtle, turtle) ;
+        assertEquals(6, du.getModel().size()) ;
+    }
+
+    @Test public void bulk_gsp_02() {
+        HttpOp.execHttpPut(serviceTDB+"?graph=http://example/g", WebContent.contentTypeTurtle, turtle) ;
+        DatasetAccessor du = DatasetAccessorFactory.createHTTP(serviceTDB) ;
+        assertTrue(du.getModel().isEmpty()) ;
+        Model m = du.getModel("http://example/g") ;
+        assertEquals(5, m.size()) ;
+        HttpOp.execHttpPut(serviceTDB+"?graph=http://example/g", WebContent.contentTypeTurtle, "<http://example/s> <http://example/p> 9 .") ;
+        assertEquals(1, du.getModel("http://example/g").size()) ;
+    }
+
+    @Test public void bulk_quads_01() {
+        HttpOp.execHttpPost(urlTDB, WebContent.contentTypeTriG, trig) ;
+        dsg.begin(ReadWrite.READ) ;
+        try {
+            assertEquals(1, dsg.getDefaultGraph().size()) ;
+            assertEquals(2, dsg.getGraph(NodeFactory.createURI("http://example/g1")).size()) ;
+            assertEquals(1, dsg.getGraph(NodeFactory.createURI("http://example/g2")).size()) ;
+        } finally { dsg.end() ; }
+    }
+
+    // The upload service, with the graph name before the file, which is streamed
+    // into the dataset, and after the file, which is parsed first.
+    @Test public void bulk_upload_01() {
+        Upload.TrackThreshold = 0 ;
+        upload(true) ;
+        // The latest task.
+        AsyncTask task = null ;
+        for ( AsyncTask t : AsyncPool.get().tasks() ) {
+            if ( task == null || Long.parseLong(t.getTaskId()) > Long.parseLong(task.getTaskId()) )
+                task = t ;
+        }
+        assertNotNull(task) ;
+        assertEquals(5, task.getProgress()) ;
+        DatasetAccessor du = DatasetAccessorFactory.createHTTP(serviceTDB) ;
+        assertTrue(du.getModel().isEmpty()) ;
+        assertEquals(5, du.getModel("http://example/g").size()) ;
+    }
+
+    @Test public void bulk_upload_02() {
+        upload(false) ;
+        DatasetAccessor du = DatasetAccessorFactory.createHTTP(serviceTDB) ;
+        assertTrue(du.getModel().isEmpty()) ;
+        assertEquals(5, du.getModel("http://example/g").size()) ;
+    }
+
+    // Upload a file in multipart form, with the graph name field before or after it.
+    private static void upload(boolean nameFirst) {
+        String boundary = "----boundary" ;
+        String nameField = String.join("\r\n",
+            "--"+boundary,
+            "Content-Disposition: form-data; name=\"graph\"",
+            "",
+            "http://example/g") ;
+        String file = String.join("\r\n",
+            "--"+boundary,
+            "Content-Disposition: form-data; name=\"file\"; filename=\"data.ttl\"",
+            "Content-Type: "+WebContent.contentTypeTurtle,
+            "",
+            turtle) ;
+        String body = String.join("\r\n", nameFirst ? nameField : file, nameFirst ? file : nameField, "--"+boundary+"--", "") ;
+        HttpOp.execHttpPost(urlTDB+"/upload", WebContent.contentTypeMultipartFormData+"; boundary="+boundary, body) ;
+    }
+
+    // A parse error part way through adds nothing.
+    @Test public void bulk_abort_01() {
+        String bad = turtle+"\n<http://example/s> <http://example/p> ." ;
+        try {
+            HttpOp.execHttpPost(serviceTDB+"?default", WebContent.contentTypeTurtle, bad) ;
+            fail("No exception") ;
+        } catch (HttpException ex) {
+            assertEquals(HttpSC.BAD_REQUEST_400, ex.getResponseCode()) ;
+        }
+        dsg.begin(ReadWrite.READ) ;
+        try {
+            assertTrue(dsg.isEmpty()) ;
+        } finally { dsg.end() ; }
+    }
+
+    // Large uploads are listed as tasks, with progress.
+    @Test public void bulk_task_01() {
+        Upload.TrackThreshold = 0 ;
+        HttpOp.execHttpPost(serviceTDB+"?default", WebContent.contentTypeTurtle, turtle) ;
+        AsyncTask task = null ;
+        for ( AsyncTask t : AsyncPool.get().tasks() ) {
+            if ( t.displayName().startsWith("Upload") )
+                task = t ;
+        }
+        assertNotNull(task) ;
+        assertNotNull(task.getFinishPoint()) ;
+        assertEquals(5, task.getProgress()) ;
+    }
+}
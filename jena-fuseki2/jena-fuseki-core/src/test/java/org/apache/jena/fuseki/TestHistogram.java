@@ -0,0 +1,70 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.jena.fuseki;
+
+import org.apache.jena.atlas.junit.BaseTest ;
+import org.apache.jena.fuseki.server.Histogram ;
+import org.junit.Test ;
+
+public class TestHistogram extends BaseTest {
+
+    @Test public void histogram_empty() {
+        Histogram h = new Histogram() ;
+        assertEquals(0, h.count()) ;
+        assertEquals(0, h.max()) ;
+        assertEquals(0, h.percentile(0.5)) ;
+    }
+
+    @Test public void histogram_small() {
+        Histogram h = new Histogram() ;
+        // Small values are exact.
+        for ( int i = 1 ; i <= 4 ; i++ )
+            h.record(i) ;
+        assertEquals(4, h.count()) ;
+        assertEquals(10, h.total()) ;
+        assertEquals(4, h.max()) ;
+        assertEquals(2, h.percentile(0.5)) ;
+        assertEquals(4, h.percentile(1)) ;
+    }
+
+    @Test public void histogram_precision() {
+        Histogram h = new Histogram() ;
+        for ( long i = 1 ; i <= 100000 ; i++ )
+            h.record(i) ;
+        assertEquals(100000, h.count()) ;
+        assertEquals(100000, h.max()) ;
+        check(50000, h.percentile(0.5)) ;
+        check(99000, h.percentile(0.99)) ;
+        assertEquals(100000, h.percentile(1)) ;
+    }
+
+    @Test public void histogram_extremes() {
+        Histogram h = new Histogram() ;
+        h.record(-5) ;
+        h.record(Long.MAX_VALUE) ;
+        assertEquals(0, h.percentile(0.5)) ;
+        assertEquals(Long.MAX_VALUE, h.percentile(1)) ;
+    }
+
+    // Within the width of a bucket above the exact value.
+    private static void check(long expected, long actual) {
+        assertTrue(actual+" < "+expected, actual >= expected) ;
+        assertTrue(actual+" too large for "+expected, actual <= expected + expected/Histogram.SubBuckets) ;
+    }
+}
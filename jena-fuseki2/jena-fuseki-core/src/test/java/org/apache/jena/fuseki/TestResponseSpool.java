@@ -0,0 +1,173 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.jena.fuseki;
+
+import static org.apache.jena.fuseki.ServerTest.* ;
+
+import java.io.ByteArrayOutputStream ;
+import java.io.IOException ;
+import java.io.InputStream ;
+import java.net.HttpURLConnection ;
+import java.net.URL ;
+
+import javax.servlet.ServletOutputStream ;
+import javax.servlet.WriteListener ;
+
+import org.apache.jena.atlas.junit.BaseTest ;
+import org.apache.jena.atlas.lib.Bytes ;
+import org.apache.jena.atlas.lib.Lib ;
+import org.apache.jena.fuseki.server.* ;
+import org.apache.jena.fuseki.servlets.ResponseSpool ;
+import org.apache.jena.query.* ;
+import org.apache.jena.rdf.model.Model ;
+import org.apache.jena.rdf.model.ModelFactory ;
+import org.apache.jena.rdf.model.Resource ;
+import org.junit.AfterClass ;
+import org.junit.BeforeClass ;
+import org.junit.Test ;
+
+public class TestResponseSpool extends BaseTest {
+    // Large enough to be sent asynchronously.
+    private static final int N = 20000 ;
+
+    @BeforeClass public static void beforeClass() {
+        ServerTest.allocServer() ;
+        ServerTest.resetServer() ;
+        Model model = ModelFactory.createDefaultModel() ;
+        Resource s = model.createResource("http://example/s") ;
+        for ( int i = 0 ; i < N ; i++ )
+            s.addLiteral(model.createProperty("http://example/p"), i) ;
+        DatasetAccessor du = DatasetAccessorFactory.createHTTP(serviceREST) ;
+        du.putModel(model) ;
+    }
+
+    @AfterClass public static void afterClass() {
+        ServerTest.resetServer() ;
+        ServerTest.freeServer() ;
+    }
+
+    @Test public void spool_memory() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream() ;
+        ResponseSpool spool = new ResponseSpool(new Output(bytes), 100) ;
+        spool.write(Bytes.string2bytes("abc")) ;
+        spool.write('d') ;
+        spool.flush() ;
+        assertTrue(spool.isSpooled()) ;
+        assertEquals(4, spool.size()) ;
+        assertEquals(0, bytes.size()) ;
+    }
+
+    @Test public void spool_overflow() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream() ;
+        ResponseSpool spool = new ResponseSpool(new Output(bytes), 100) ;
+        byte[] data = new byte[150] ;
+        for ( int i = 0 ; i < data.length ; i++ )
+            data[i] = (byte)i ;
+        spool.write(data, 0, 60) ;
+        assertTrue(spool.isSpooled()) ;
+        spool.write(data, 60, 90) ;
+        assertFalse(spool.isSpooled()) ;
+        assertArrayEquals(data, bytes.toByteArray()) ;
+    }
+
+    @Test public void spool_get_graph() {
+        DatasetAccessor du = DatasetAccessorFactory.createHTTP(serviceREST) ;
+        assertEquals(N, du.getModel().size()) ;
+    }
+
+    @Test public void spool_get_graph_direct() {
+        int x = ResponseSpool.SpoolLimit ;
+        try {
+            ResponseSpool.SpoolLimit = 1000 ;
+            DatasetAccessor du = DatasetAccessorFactory.createHTTP(serviceREST) ;
+            assertEquals(N, du.getModel().size()) ;
+        } finally { ResponseSpool.SpoolLimit = x ; }
+    }
+
+    @Test public void spool_query() {
+        try ( QueryExecution qExec = QueryExecutionFactory.sparqlService(serviceQuery, "SELECT * { ?s ?p ?o } LIMIT 5000") ) {
+            assertEquals(5000, ResultSetFormatter.consume(qExec.execSelect())) ;
+        }
+    }
+
+    // Larger than the spool limit.
+    @Test public void spool_query_large() {
+        try ( QueryExecution qExec = QueryExecutionFactory.sparqlService(serviceQuery, "SELECT * { ?s ?p ?o }") ) {
+            assertEquals(N, ResultSetFormatter.consume(qExec.execSelect())) ;
+        }
+    }
+
+    @Test public void spool_content_length() throws IOException {
+        URL url = new URL(serviceREST+"?default") ;
+        HttpURLConnection conn = (HttpURLConnection)url.openConnection() ;
+        conn.setRequestProperty("Accept", "application/n-triples") ;
+        try ( InputStream in = conn.getInputStream() ) {
+            long length = conn.getContentLengthLong() ;
+            assertTrue(length > 0) ;
+            long count = 0 ;
+            byte[] buffer = new byte[8192] ;
+            for ( int n ; (n = in.read(buffer)) >= 0 ; )
+                count += n ;
+            assertEquals(length, count) ;
+        } finally { conn.disconnect() ; }
+    }
+
+    private static long readAll(URL url) throws IOException {
+        HttpURLConnection conn = (HttpURLConnection)url.openConnection() ;
+        conn.setRequestProperty("Accept", "application/n-triples") ;
+        try ( InputStream in = conn.getInputStream() ) {
+            long count = 0 ;
+            byte[] buffer = new byte[8192] ;
+            for ( int n ; (n = in.read(buffer)) >= 0 ; )
+                count += n ;
+            return count ;
+        } finally { conn.disconnect() ; }
+    }
+
+    // The request, and its admission slot, last until an asynchronous send ends.
+    @Test public void spool_async_completion() throws IOException {
+        DataService dataService = DataAccessPointRegistry.get().get(datasetPath).getDataService() ;
+        AdmissionControl admission = new AdmissionControl(1, 1, 0) ;
+        dataService.setAdmissionControl(admission) ;
+        try {
+            CounterSet counters = dataService.getCounters() ;
+            long latencies = counters.getHistogram(HistogramName.Latency).count() ;
+            URL url = new URL(serviceREST+"?default") ;
+            long length = readAll(url) ;
+            assertTrue(length > 64*1024) ;
+            for ( int i = 0 ; i < 100 && counters.value(CounterName.RequestsActive) > 0 ; i++ )
+                Lib.sleep(10) ;
+            assertEquals(0, counters.value(CounterName.RequestsActive)) ;
+            assertEquals(0, admission.getActiveReaders()) ;
+            assertEquals(latencies+1, counters.getHistogram(HistogramName.Latency).count()) ;
+            // The only slot is free again.
+            assertEquals(length, readAll(url)) ;
+        } finally {
+            dataService.setAdmissionControl(null) ;
+        }
+    }
+
+    private static class Output extends ServletOutputStream {
+        private final ByteArrayOutputStream out ;
+        Output(ByteArrayOutputStream out)   { this.out = out ; }
+        @Override public void write(int b)  { out.write(b) ; }
+        @Override public boolean isReady()  { return true ; }
+        @Override public void setWriteListener(WriteListener writeListener) {}
+    }
+}
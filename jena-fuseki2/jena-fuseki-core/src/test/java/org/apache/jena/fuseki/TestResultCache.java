@@ -0,0 +1,172 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.jena.fuseki;
+
+import static org.apache.jena.fuseki.ServerTest.* ;
+
+import java.io.IOException ;
+import java.io.InputStream ;
+import java.net.HttpURLConnection ;
+import java.net.URL ;
+
+import org.apache.jena.atlas.io.IO ;
+import org.apache.jena.atlas.junit.BaseTest ;
+import org.apache.jena.fuseki.server.* ;
+import org.apache.jena.query.* ;
+import org.apache.jena.update.UpdateExecutionFactory ;
+import org.apache.jena.update.UpdateFactory ;
+import org.apache.jena.web.HttpSC ;
+import org.junit.AfterClass ;
+import org.junit.Before ;
+import org.junit.BeforeClass ;
+import org.junit.Test ;
+
+public class TestResultCache extends BaseTest {
+    private static final String queryCount = "SELECT (count(*) AS ?c) { ?s ?p ?o }" ;
+    private static final String queryURL = serviceQuery+"?query=SELECT%20*%20%7B%3Fs%20%3Fp%20%3Fo%7D" ;
+
+    @BeforeClass public static void beforeClass() {
+        ServerTest.allocServer() ;
+    }
+
+    @AfterClass public static void afterClass() {
+        dataService().setResultCache(null) ;
+        ServerTest.resetServer() ;
+        ServerTest.freeServer() ;
+    }
+
+    @Before public void before() {
+        ServerTest.resetServer() ;
+        dataService().setResultCache(new ResultCache(1000000)) ;
+    }
+
+    private static DataService dataService() {
+        return DataAccessPointRegistry.get().get(datasetPath).getDataService() ;
+    }
+
+    @Test public void cache_lru() {
+        ResultCache cache = new ResultCache(1000) ;
+        cache.put("a", 0, "text/plain", new byte[150]) ;
+        cache.put("b", 0, "text/plain", new byte[150]) ;
+        assertNotNull(cache.get("a", 0)) ;
+        // Too large.
+        cache.put("c", 0, "text/plain", new byte[500]) ;
+        assertNull(cache.get("c", 0)) ;
+        cache.put("d", 0, "text/plain", new byte[150]) ;
+        cache.put("e", 0, "text/plain", new byte[150]) ;
+        cache.put("f", 0, "text/plain", new byte[150]) ;
+        // "b" is least recently used.
+        assertNull(cache.get("b", 0)) ;
+        assertNotNull(cache.get("a", 0)) ;
+        assertNotNull(cache.get("f", 0)) ;
+        assertTrue(cache.getBytes() <= 1000) ;
+        assertEquals(1, cache.getEvictions()) ;
+    }
+
+    @Test public void cache_generation() {
+        ResultCache cache = new ResultCache(1000) ;
+        cache.put("a", 1, "text/plain", new byte[10]) ;
+        assertNotNull(cache.get("a", 1)) ;
+        assertNull(cache.get("a", 2)) ;
+        assertEquals(0, cache.getEntries()) ;
+        // Results from an older generation are not kept.
+        cache.put("a", 1, "text/plain", new byte[10]) ;
+        assertNull(cache.get("a", 2)) ;
+        assertNotEquals(cache.etag("a", 1), cache.etag("a", 2)) ;
+    }
+
+    @Test public void cache_etag_match() {
+        assertTrue(ResultCache.matches("\"x\"", "\"x\"")) ;
+        assertTrue(ResultCache.matches("\"y\", W/\"x\"", "\"x\"")) ;
+        assertTrue(ResultCache.matches("*", "\"x\"")) ;
+        assertFalse(ResultCache.matches("\"y\"", "\"x\"")) ;
+        assertFalse(ResultCache.matches(null, "\"x\"")) ;
+    }
+
+    @Test public void cache_cacheable() {
+        assertTrue(cacheable("SELECT * { ?s ?p ?o }")) ;
+        assertTrue(cacheable("SELECT * { ?s ?p ?o FILTER(?o > 1) } ORDER BY ?o")) ;
+        assertFalse(cacheable("SELECT (now() AS ?x) {}")) ;
+        assertFalse(cacheable("SELECT * { BIND(RAND() AS ?x) }")) ;
+        assertFalse(cacheable("SELECT * { ?s ?p ?o } ORDER BY (UUID())")) ;
+        assertFalse(cacheable("SELECT (SAMPLE(STRUUID()) AS ?x) { ?s ?p ?o }")) ;
+        assertFalse(cacheable("SELECT * { ?s ?p ?o FILTER NOT EXISTS { BIND(BNODE() AS ?b) } }")) ;
+        assertFalse(cacheable("SELECT * { SERVICE <http://example/sparql> { ?s ?p ?o } }")) ;
+        assertFalse(cacheable("SELECT * { ?s ?p ?o { SELECT ?s { SERVICE SILENT <http://example/sparql> { ?s ?p ?o } } } }")) ;
+        // A name, not a call.
+        assertTrue(cacheable("SELECT * { ?s <http://example/service> ?rand }")) ;
+    }
+
+    private static boolean cacheable(String queryString) {
+        return ResultCache.isCacheable(QueryFactory.create(queryString)) ;
+    }
+
+    @Test public void cache_server_hits() {
+        update("INSERT DATA { <x:s> <x:p> 1 }") ;
+        CounterSet counters = dataService().getCounters() ;
+        long hits = counters.value(CounterName.QueryCacheHits) ;
+        assertEquals(1, count()) ;
+        assertEquals(1, count()) ;
+        assertEquals(hits+1, counters.value(CounterName.QueryCacheHits)) ;
+        assertEquals(1, dataService().getResultCache().getEntries()) ;
+    }
+
+    @Test public void cache_server_invalidate() {
+        update("INSERT DATA { <x:s> <x:p> 1 }") ;
+        assertEquals(1, count()) ;
+        update("INSERT DATA { <x:s> <x:p> 2 }") ;
+        assertEquals(2, count()) ;
+    }
+
+    @Test public void cache_server_not_modified() throws IOException {
+        update("INSERT DATA { <x:s> <x:p> 1 }") ;
+        String etag = get(null, HttpSC.OK_200) ;
+        assertNotNull(etag) ;
+        assertEquals(etag, get(etag, HttpSC.NOT_MODIFIED_304)) ;
+        update("INSERT DATA { <x:s> <x:p> 2 }") ;
+        String etag2 = get(etag, HttpSC.OK_200) ;
+        assertNotEquals(etag, etag2) ;
+    }
+
+    private static long count() {
+        try ( QueryExecution qExec = QueryExecutionFactory.sparqlService(serviceQuery, queryCount) ) {
+            return qExec.execSelect().next().getLiteral("c").getLong() ;
+        }
+    }
+
+    private static void update(String request) {
+        UpdateExecutionFactory.createRemote(UpdateFactory.create(request), serviceUpdate).execute() ;
+    }
+
+    // GET the query, return the ETag.
+    private static String get(String ifNoneMatch, int expectedStatus) throws IOException {
+        HttpURLConnection conn = (HttpURLConnection)new URL(queryURL).openConnection() ;
+        try {
+            if ( ifNoneMatch != null )
+                conn.setRequestProperty("If-None-Match", ifNoneMatch) ;
+            assertEquals(expectedStatus, conn.getResponseCode()) ;
+            if ( expectedStatus == HttpSC.OK_200 ) {
+                try ( InputStream in = conn.getInputStream() ) {
+                    IO.readWholeFile(in) ;
+                }
+            }
+            return conn.getHeaderField("ETag") ;
+        } finally { conn.disconnect() ; }
+    }
+}
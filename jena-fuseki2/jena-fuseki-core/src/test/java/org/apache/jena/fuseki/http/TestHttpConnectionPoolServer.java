@@ -0,0 +1,84 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.jena.fuseki.http;
+
+import org.apache.jena.atlas.junit.BaseTest ;
+import org.apache.jena.atlas.lib.IRILib ;
+import org.apache.jena.atlas.web.TypedInputStream ;
+import org.apache.jena.fuseki.ServerTest ;
+import org.apache.jena.query.* ;
+import org.apache.jena.rdf.model.Model ;
+import org.apache.jena.riot.WebContent ;
+import org.apache.jena.riot.web.HttpConnectionPool ;
+import org.apache.jena.riot.web.HttpOp ;
+import org.junit.AfterClass ;
+import org.junit.BeforeClass ;
+import org.junit.Test ;
+
+/** HTTP operations share, and release, the connections of {@link HttpConnectionPool}. */
+public class TestHttpConnectionPoolServer extends BaseTest {
+    static String simpleQuery = ServerTest.serviceQuery+"?query="+IRILib.encodeUriComponent("ASK{}") ;
+
+    @BeforeClass public static void beforeClass() {
+        ServerTest.allocServer() ;
+        ServerTest.resetServer() ;
+        HttpOp.execHttpPost(ServerTest.serviceUpdate, WebContent.contentTypeSPARQLUpdate,
+                            "INSERT DATA { <http://example/s> <http://example/p> 1 , 2 , 3 }") ;
+    }
+
+    @AfterClass public static void afterClass() {
+        ServerTest.resetServer() ;
+        ServerTest.freeServer() ;
+    }
+
+    @Test public void pool_http_01() {
+        for ( int i = 0 ; i < 10 ; i++ ) {
+            String x = HttpOp.execHttpGetString(simpleQuery) ;
+            assertNotNull(x) ;
+        }
+        assertEquals(0, HttpConnectionPool.getStats().getLeased()) ;
+        assertTrue(HttpConnectionPool.getStats().getAvailable() >= 1) ;
+    }
+
+    @Test public void pool_http_02() {
+        // Remote query, with compressed results.
+        for ( int i = 0 ; i < 10 ; i++ ) {
+            try ( QueryExecution qExec = QueryExecutionFactory.sparqlService(ServerTest.serviceQuery, "SELECT * { ?s ?p ?o }") ) {
+                assertEquals(3, ResultSetFormatter.consume(qExec.execSelect())) ;
+            }
+        }
+        assertEquals(0, HttpConnectionPool.getStats().getLeased()) ;
+    }
+
+    @Test public void pool_http_03() {
+        // Close before reading the response.
+        for ( int i = 0 ; i < 2*HttpConnectionPool.getMaxPerRoute() ; i++ ) {
+            try ( TypedInputStream in = HttpOp.execHttpGet(simpleQuery) ) {}
+        }
+        assertEquals(0, HttpConnectionPool.getStats().getLeased()) ;
+    }
+
+    @Test public void pool_http_04() {
+        DatasetAccessor du = DatasetAccessorFactory.createHTTP(ServerTest.serviceREST) ;
+        for ( int i = 0 ; i < 5 ; i++ ) {
+            Model m = du.getModel() ;
+            assertEquals(3, m.size()) ;
+        }
+        assertEquals(0, HttpConnectionPool.getStats().getLeased()) ;
+    }
+}
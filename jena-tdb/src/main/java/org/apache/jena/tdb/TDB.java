@@ -88,6 +88,18 @@ public class TDB {
     /** Symbol to use the union of named graphs as the default graph of a query */
     public static final Symbol  symUnionDefaultGraph             = SystemTDB.allocSymbol("unionDefaultGraph") ;
 
+    /** Symbol to control whether range filters on values of an object (e.g. FILTER(?o > 30))
+     * are executed as index range scans over inline integers (default: true). */
+    public static final Symbol  symRangeScan                     = SystemTDB.allocSymbol("rangeScan") ;
+
+    /** Symbol to control whether COUNT and DISTINCT over a single triple pattern
+     * are answered directly from the indexes (default: true). */
+    public static final Symbol  symIndexPushdown                 = SystemTDB.allocSymbol("indexPushdown") ;
+
+    /** Symbol for the largest number of bindings whose nodes are fetched from the
+     * node table together at the top of a query (default: 1000). */
+    public static final Symbol  symMaterializeBlockSize          = SystemTDB.allocSymbol("materializeBlockSize") ;
+
     /**
      * A String enum Symbol that specifies the type of temporary storage for
      * transaction journal write blocks.
@@ -0,0 +1,799 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.jena.tdb.inf ;
+
+import java.util.* ;
+import java.util.concurrent.ExecutionException ;
+import java.util.concurrent.ExecutorService ;
+import java.util.concurrent.Executors ;
+import java.util.concurrent.Future ;
+
+import org.apache.jena.atlas.iterator.Iter ;
+import org.apache.jena.atlas.lib.Tuple ;
+import org.apache.jena.graph.Node ;
+import org.apache.jena.graph.Triple ;
+import org.apache.jena.sparql.core.Quad ;
+import org.apache.jena.tdb.TDBException ;
+import org.apache.jena.tdb.store.DatasetGraphTDB ;
+import org.apache.jena.tdb.store.NodeId ;
+import org.apache.jena.tdb.store.bulkloader.BulkLoader ;
+import org.apache.jena.tdb.store.bulkloader.LoaderNodeTupleTable ;
+import org.apache.jena.tdb.store.nodetable.NodeTable ;
+import org.apache.jena.tdb.store.nodetupletable.NodeTupleTable ;
+import org.apache.jena.tdb.store.nodetupletable.NodeTupleTableView ;
+import org.apache.jena.vocabulary.OWL ;
+import org.apache.jena.vocabulary.RDF ;
+import org.apache.jena.vocabulary.RDFS ;
+
+/** Materialize the entailments of one graph of a TDB dataset into another graph of
+ * the same dataset, working on NodeIds and without building an in-memory model of
+ * the data.
+ * <p>
+ * {@link Rules#RDFS} are the rules of the RDFS reasoner at its default level
+ * (subclass, subproperty, domain and range, without the axiomatic triples and
+ * rdfs:Resource typing). {@link Rules#OWL_MICRO} adds the instance rules of the OWL
+ * Micro reasoner: owl:equivalentClass, owl:equivalentProperty, owl:inverseOf,
+ * owl:SymmetricProperty, owl:TransitiveProperty, owl:sameAs as a symmetric property,
+ * owl:intersectionOf and owl:unionOf as subclass links, owl:hasValue in both
+ * directions, and owl:someValuesFrom. owl:allValuesFrom is also applied to the values
+ * of instances of the restriction, as in the OWL Mini reasoner, and an instance of
+ * every member of an owl:intersectionOf is an instance of the intersection. As with
+ * the OWL Micro reasoner, there are no cardinality rules, datatype rules or
+ * validation, and owl:sameAs individuals are not merged.
+ * <p>
+ * The schema (the rdfs:subClassOf, rdfs:subPropertyOf, rdfs:domain, rdfs:range and
+ * OWL axioms, and the lists of intersections and unions) is read into memory and
+ * closed first. The rules with one data premise are then applied to each data
+ * triple on its own: the source graph is read in chunks and the chunks are divided
+ * between threads. The rules joining two or more data triples (transitive
+ * properties, owl:someValuesFrom, owl:allValuesFrom and intersections) are evaluated
+ * semi-naively: each round joins the triples that are new since the last round
+ * against the source and target graphs, a set at a time, grouped by the node they
+ * join on. The triples a round derives go round again until nothing new is found.
+ * Derived triples that are not already in the source or target graph are written
+ * to the target graph in batches through the bulk loader.
+ * <p>
+ * {@link #add} adds triples to the source graph and materializes only what follows
+ * from them, unless they change the schema, when everything is recalculated.
+ * Entailments are never removed from the target graph.
+ * <p>
+ * This works on the storage directly, like the bulk loader, and must not be used
+ * while the dataset is used in a transaction or by other threads.
+ */
+public class Materializer {
+    public enum Rules { RDFS, OWL_MICRO }
+
+    /** Number of source triples read and closed at a time. */
+    public static int ChunkSize = 100 * 1000 ;
+
+    private final DatasetGraphTDB dsg ;
+    private final Rules rules ;
+    private final NodeTable nodeTable ;
+    private final NodeTupleTable source ;
+    private final NodeTupleTable target ;
+    private final NodeId targetGraphId ;
+    private final boolean sameGraph ;
+    private int threads = Runtime.getRuntime().availableProcessors() ;
+    private boolean showProgress = false ;
+
+    private final NodeId TYPE, SUB_CLASS, SUB_PROPERTY, DOMAIN, RANGE ;
+    private final NodeId EQUIVALENT_CLASS, EQUIVALENT_PROPERTY, INVERSE, SYMMETRIC, TRANSITIVE, SAME_AS ;
+    private final NodeId ON_PROPERTY, SOME_VALUES_FROM, ALL_VALUES_FROM, HAS_VALUE ;
+    private final NodeId INTERSECTION_OF, UNION_OF, FIRST, REST, NIL ;
+
+    // The schema, closed.
+    private Map<NodeId, Set<NodeId>> superClasses ;
+    private Map<NodeId, Set<NodeId>> superProperties ;
+    private Map<NodeId, Set<NodeId>> domains ;
+    private Map<NodeId, Set<NodeId>> ranges ;
+    private Map<NodeId, Set<NodeId>> inverses ;
+    private Set<NodeId> symmetric ;
+    private Set<NodeId> transitive ;
+    // Restrictions, by the class, property or filler a data triple matches.
+    private Map<NodeId, List<Restriction>> hasValueByClass ;
+    private Map<NodeId, List<Restriction>> hasValueByProperty ;
+    private Map<NodeId, List<Restriction>> someByProperty ;
+    private Map<NodeId, List<Restriction>> someByFiller ;
+    private Map<NodeId, List<Restriction>> allByClass ;
+    private Map<NodeId, List<Restriction>> allByProperty ;
+    // Intersections: the members of each, and the intersections of each member.
+    private Map<NodeId, List<NodeId>> intersectionMembers ;
+    private Map<NodeId, Set<NodeId>> intersectionsByMember ;
+
+    // State of a run.
+    private LoaderNodeTupleTable loader ;
+    private ExecutorService executor ;
+    private List<Tuple<NodeId>> transitiveDelta ;
+    private List<Tuple<NodeId>> classDelta ;
+    private boolean schemaChanged ;
+    private long count ;
+
+    /** Materialize the entailments of {@code sourceGraph} into {@code targetGraph}.
+     * A graph name of null, or {@link Quad#defaultGraphIRI}, is the default graph.
+     */
+    public Materializer(DatasetGraphTDB dsg, Node sourceGraph, Node targetGraph, Rules rules) {
+        this.dsg = dsg ;
+        this.rules = rules ;
+        this.nodeTable = dsg.getTripleTable().getNodeTupleTable().getNodeTable() ;
+        this.source = graphTable(sourceGraph) ;
+        this.target = graphTable(targetGraph) ;
+        this.targetGraphId = isDefaultGraph(targetGraph) ? null : nodeTable.getAllocateNodeId(targetGraph) ;
+        this.sameGraph = isDefaultGraph(sourceGraph) ? isDefaultGraph(targetGraph) : sourceGraph.equals(targetGraph) ;
+        TYPE                = nodeTable.getAllocateNodeId(RDF.Nodes.type) ;
+        SUB_CLASS           = nodeTable.getAllocateNodeId(RDFS.Nodes.subClassOf) ;
+        SUB_PROPERTY        = nodeTable.getAllocateNodeId(RDFS.Nodes.subPropertyOf) ;
+        DOMAIN              = nodeTable.getAllocateNodeId(RDFS.Nodes.domain) ;
+        RANGE               = nodeTable.getAllocateNodeId(RDFS.Nodes.range) ;
+        EQUIVALENT_CLASS    = nodeTable.getAllocateNodeId(OWL.equivalentClass.asNode()) ;
+        EQUIVALENT_PROPERTY = nodeTable.getAllocateNodeId(OWL.equivalentProperty.asNode()) ;
+        INVERSE             = nodeTable.getAllocateNodeId(OWL.inverseOf.asNode()) ;
+        SYMMETRIC           = nodeTable.getAllocateNodeId(OWL.SymmetricProperty.asNode()) ;
+        TRANSITIVE          = nodeTable.getAllocateNodeId(OWL.TransitiveProperty.asNode()) ;
+        SAME_AS             = nodeTable.getAllocateNodeId(OWL.sameAs.asNode()) ;
+        ON_PROPERTY         = nodeTable.getAllocateNodeId(OWL.onProperty.asNode()) ;
+        SOME_VALUES_FROM    = nodeTable.getAllocateNodeId(OWL.someValuesFrom.asNode()) ;
+        ALL_VALUES_FROM     = nodeTable.getAllocateNodeId(OWL.allValuesFrom.asNode()) ;
+        HAS_VALUE           = nodeTable.getAllocateNodeId(OWL.hasValue.asNode()) ;
+        INTERSECTION_OF     = nodeTable.getAllocateNodeId(OWL.intersectionOf.asNode()) ;
+        UNION_OF            = nodeTable.getAllocateNodeId(OWL.unionOf.asNode()) ;
+        FIRST               = nodeTable.getAllocateNodeId(RDF.Nodes.first) ;
+        REST                = nodeTable.getAllocateNodeId(RDF.Nodes.rest) ;
+        NIL                 = nodeTable.getAllocateNodeId(RDF.Nodes.nil) ;
+    }
+
+    private static boolean isDefaultGraph(Node graphNode) {
+        return graphNode == null || Quad.isDefaultGraph(graphNode) ;
+    }
+
+    private NodeTupleTable graphTable(Node graphNode) {
+        if ( isDefaultGraph(graphNode) )
+            return dsg.getTripleTable().getNodeTupleTable() ;
+        // The view needs the graph name in the node table.
+        nodeTable.getAllocateNodeId(graphNode) ;
+        return new NodeTupleTableView(dsg.getQuadTable().getNodeTupleTable(), graphNode) ;
+    }
+
+    /** Number of threads used to close the data triples. */
+    public void setThreads(int threads) {
+        this.threads = Math.max(1, threads) ;
+    }
+
+    public void setShowProgress(boolean showProgress) {
+        this.showProgress = showProgress ;
+    }
+
+    /** Materialize all the entailments of the source graph.
+     * Returns the number of triples added to the target graph.
+     */
+    public long materialize() {
+        return execute(null) ;
+    }
+
+    /** Add triples to the source graph and materialize their entailments.
+     * Returns the number of triples added to the target graph.
+     */
+    public long add(Iterator<Triple> triples) {
+        List<Tuple<NodeId>> added = new ArrayList<>() ;
+        boolean schema = false ;
+        while ( triples.hasNext() ) {
+            Triple t = triples.next() ;
+            if ( ! source.addRow(t.getSubject(), t.getPredicate(), t.getObject()) )
+                continue ;
+            Tuple<NodeId> tuple = Tuple.createTuple(nodeTable.getNodeIdForNode(t.getSubject()),
+                                                    nodeTable.getNodeIdForNode(t.getPredicate()),
+                                                    nodeTable.getNodeIdForNode(t.getObject())) ;
+            schema |= isSchema(tuple) ;
+            added.add(tuple) ;
+        }
+        if ( added.isEmpty() )
+            return 0 ;
+        return execute(schema ? null : added) ;
+    }
+
+    /** Materialize from the delta, or from the whole source graph if the delta is null. */
+    private long execute(List<Tuple<NodeId>> delta) {
+        count = 0 ;
+        transitiveDelta = new ArrayList<>() ;
+        classDelta = new ArrayList<>() ;
+        // The rules read the target graph, so its indexes are kept during the load.
+        loader = new LoaderNodeTupleTable(target, "triples", BulkLoader.createLoadMonitor(dsg, "triples", showProgress), true) ;
+        executor = ( threads > 1 ) ? Executors.newFixedThreadPool(threads) : null ;
+        loader.loadStart() ;
+        loader.loadDataStart() ;
+        try {
+            for ( ;; ) {
+                schemaChanged = false ;
+                loadSchema() ;
+                if ( delta == null ) {
+                    writeSchema() ;
+                    scan(source) ;
+                } else {
+                    for ( int i = 0 ; i < delta.size() ; i += ChunkSize )
+                        process(delta.subList(i, Math.min(delta.size(), i + ChunkSize))) ;
+                }
+                closeJoins() ;
+                // Derived triples that are schema triples change the rules.
+                if ( ! schemaChanged )
+                    break ;
+                delta = null ;
+            }
+        } finally {
+            if ( executor != null )
+                executor.shutdown() ;
+            executor = null ;
+            loader.loadDataFinish() ;
+            loader.loadIndexStart() ;
+            loader.loadIndexFinish() ;
+            loader.loadFinish() ;
+            loader = null ;
+            transitiveDelta = null ;
+            classDelta = null ;
+            dsg.sync() ;
+        }
+        return count ;
+    }
+
+    // ---- Schema
+
+    private void loadSchema() {
+        Map<NodeId, Set<NodeId>> subClass = new HashMap<>() ;
+        Map<NodeId, Set<NodeId>> subProperty = new HashMap<>() ;
+        domains = new HashMap<>() ;
+        ranges = new HashMap<>() ;
+        inverses = new HashMap<>() ;
+        symmetric = new HashSet<>() ;
+        transitive = new HashSet<>() ;
+        hasValueByClass = new HashMap<>() ;
+        hasValueByProperty = new HashMap<>() ;
+        someByProperty = new HashMap<>() ;
+        someByFiller = new HashMap<>() ;
+        allByClass = new HashMap<>() ;
+        allByProperty = new HashMap<>() ;
+        intersectionMembers = new HashMap<>() ;
+        intersectionsByMember = new HashMap<>() ;
+
+        for ( Tuple<NodeId> t : find(NodeId.NodeIdAny, SUB_CLASS, NodeId.NodeIdAny) )
+            link(subClass, t.get(0), t.get(2)) ;
+        for ( Tuple<NodeId> t : find(NodeId.NodeIdAny, SUB_PROPERTY, NodeId.NodeIdAny) )
+            link(subProperty, t.get(0), t.get(2)) ;
+        for ( Tuple<NodeId> t : find(NodeId.NodeIdAny, DOMAIN, NodeId.NodeIdAny) )
+            link(domains, t.get(0), t.get(2)) ;
+        for ( Tuple<NodeId> t : find(NodeId.NodeIdAny, RANGE, NodeId.NodeIdAny) )
+            link(ranges, t.get(0), t.get(2)) ;
+        if ( rules == Rules.OWL_MICRO ) {
+            for ( Tuple<NodeId> t : find(NodeId.NodeIdAny, EQUIVALENT_CLASS, NodeId.NodeIdAny) ) {
+                link(subClass, t.get(0), t.get(2)) ;
+                link(subClass, t.get(2), t.get(0)) ;
+            }
+            for ( Tuple<NodeId> t : find(NodeId.NodeIdAny, EQUIVALENT_PROPERTY, NodeId.NodeIdAny) ) {
+                link(subProperty, t.get(0), t.get(2)) ;
+                link(subProperty, t.get(2), t.get(0)) ;
+            }
+            for ( Tuple<NodeId> t : find(NodeId.NodeIdAny, INVERSE, NodeId.NodeIdAny) ) {
+                link(inverses, t.get(0), t.get(2)) ;
+                link(inverses, t.get(2), t.get(0)) ;
+            }
+            for ( Tuple<NodeId> t : find(NodeId.NodeIdAny, TYPE, SYMMETRIC) )
+                symmetric.add(t.get(0)) ;
+            for ( Tuple<NodeId> t : find(NodeId.NodeIdAny, TYPE, TRANSITIVE) )
+                transitive.add(t.get(0)) ;
+            symmetric.add(SAME_AS) ;
+            loadClassExpressions(subClass) ;
+        }
+        superClasses = closure(subClass) ;
+        superProperties = closure(subProperty) ;
+    }
+
+    /** Read the restrictions, intersections and unions. */
+    private void loadClassExpressions(Map<NodeId, Set<NodeId>> subClass) {
+        List<Restriction> restrictions = new ArrayList<>() ;
+        for ( Tuple<NodeId> t : find(NodeId.NodeIdAny, ON_PROPERTY, NodeId.NodeIdAny) ) {
+            NodeId r = t.get(0) ;
+            NodeId p = t.get(2) ;
+            for ( Tuple<NodeId> v : find(r, HAS_VALUE, NodeId.NodeIdAny) ) {
+                Restriction x = new Restriction(HAS_VALUE, r, p, v.get(2)) ;
+                add(hasValueByClass, r, x) ;
+                add(hasValueByProperty, p, x) ;
+                restrictions.add(x) ;
+            }
+            for ( Tuple<NodeId> d : find(r, SOME_VALUES_FROM, NodeId.NodeIdAny) ) {
+                Restriction x = new Restriction(SOME_VALUES_FROM, r, p, d.get(2)) ;
+                add(someByProperty, p, x) ;
+                add(someByFiller, x.value, x) ;
+                restrictions.add(x) ;
+            }
+            for ( Tuple<NodeId> d : find(r, ALL_VALUES_FROM, NodeId.NodeIdAny) ) {
+                Restriction x = new Restriction(ALL_VALUES_FROM, r, p, d.get(2)) ;
+                add(allByClass, r, x) ;
+                add(allByProperty, p, x) ;
+                restrictions.add(x) ;
+            }
+        }
+        // Restrictions of the same kind on the same property and value are equivalent.
+        Map<Restriction, NodeId> first = new HashMap<>() ;
+        for ( Restriction x : restrictions ) {
+            NodeId r = first.putIfAbsent(x, x.restriction) ;
+            if ( r != null && ! r.equals(x.restriction) ) {
+                link(subClass, r, x.restriction) ;
+                link(subClass, x.restriction, r) ;
+            }
+        }
+        for ( Tuple<NodeId> t : find(NodeId.NodeIdAny, INTERSECTION_OF, NodeId.NodeIdAny) ) {
+            NodeId c = t.get(0) ;
+            List<NodeId> members = list(t.get(2)) ;
+            if ( members.isEmpty() )
+                continue ;
+            intersectionMembers.put(c, members) ;
+            for ( NodeId m : members ) {
+                link(subClass, c, m) ;
+                link(intersectionsByMember, m, c) ;
+            }
+        }
+        for ( Tuple<NodeId> t : find(NodeId.NodeIdAny, UNION_OF, NodeId.NodeIdAny) ) {
+            for ( NodeId m : list(t.get(2)) )
+                link(subClass, m, t.get(0)) ;
+        }
+    }
+
+    /** The members of an RDF list. */
+    private List<NodeId> list(NodeId head) {
+        List<NodeId> members = new ArrayList<>() ;
+        Set<NodeId> visited = new HashSet<>() ;
+        NodeId x = head ;
+        while ( x != null && ! x.equals(NIL) && visited.add(x) ) {
+            List<Tuple<NodeId>> firsts = find(x, FIRST, NodeId.NodeIdAny) ;
+            if ( firsts.isEmpty() )
+                break ;
+            members.add(firsts.get(0).get(2)) ;
+            List<Tuple<NodeId>> rests = find(x, REST, NodeId.NodeIdAny) ;
+            x = rests.isEmpty() ? null : rests.get(0).get(2) ;
+        }
+        return members ;
+    }
+
+    private boolean isSchema(Tuple<NodeId> t) {
+        NodeId p = t.get(1) ;
+        if ( p.equals(SUB_CLASS) || p.equals(SUB_PROPERTY) || p.equals(DOMAIN) || p.equals(RANGE) )
+            return true ;
+        if ( rules != Rules.OWL_MICRO )
+            return false ;
+        if ( p.equals(EQUIVALENT_CLASS) || p.equals(EQUIVALENT_PROPERTY) || p.equals(INVERSE) )
+            return true ;
+        // Lists may be the members of an intersection or union.
+        if ( p.equals(ON_PROPERTY) || p.equals(HAS_VALUE) || p.equals(SOME_VALUES_FROM) || p.equals(ALL_VALUES_FROM)
+             || p.equals(INTERSECTION_OF) || p.equals(UNION_OF) || p.equals(FIRST) || p.equals(REST) )
+            return true ;
+        return p.equals(TYPE) && ( t.get(2).equals(SYMMETRIC) || t.get(2).equals(TRANSITIVE) ) ;
+    }
+
+    /** The transitive closure of the relation, without the reflexive pairs. */
+    private static Map<NodeId, Set<NodeId>> closure(Map<NodeId, Set<NodeId>> relation) {
+        Map<NodeId, Set<NodeId>> closure = new HashMap<>() ;
+        for ( NodeId x : relation.keySet() ) {
+            Set<NodeId> reached = new HashSet<>() ;
+            Deque<NodeId> pending = new ArrayDeque<>(relation.get(x)) ;
+            while ( ! pending.isEmpty() ) {
+                NodeId y = pending.pop() ;
+                if ( ! reached.add(y) )
+                    continue ;
+                Set<NodeId> next = closure.containsKey(y) ? closure.get(y) : relation.get(y) ;
+                if ( next != null )
+                    pending.addAll(next) ;
+            }
+            reached.remove(x) ;
+            closure.put(x, reached) ;
+        }
+        return closure ;
+    }
+
+    /** Write the closed subclass and subproperty hierarchies. */
+    private void writeSchema() {
+        List<Tuple<NodeId>> triples = new ArrayList<>() ;
+        superClasses.forEach((c, supers) -> supers.forEach(d -> triples.add(Tuple.createTuple(c, SUB_CLASS, d)))) ;
+        superProperties.forEach((p, supers) -> supers.forEach(q -> triples.add(Tuple.createTuple(p, SUB_PROPERTY, q)))) ;
+        write(triples, true) ;
+    }
+
+    // ---- Data
+
+    /** Read the graph in chunks, breaking at subjects, and close each chunk.
+     * No iterator is open while the chunk is processed and the target graph is written.
+     */
+    private void scan(NodeTupleTable ntt) {
+        Tuple<NodeId> pattern = Tuple.createTuple(NodeId.NodeIdAny, NodeId.NodeIdAny, NodeId.NodeIdAny) ;
+        NodeId start = NodeId.create(0) ;
+        while ( start != null ) {
+            Iterator<Tuple<NodeId>> iter = ntt.findRange(pattern, 0, start, NodeId.create(-1L)) ;
+            if ( iter == null ) {
+                // No index to resume from: read everything first.
+                List<Tuple<NodeId>> all = new ArrayList<>() ;
+                read(ntt.find(pattern), all) ;
+                for ( int i = 0 ; i < all.size() ; i += ChunkSize )
+                    process(all.subList(i, Math.min(all.size(), i + ChunkSize))) ;
+                return ;
+            }
+            List<Tuple<NodeId>> chunk = new ArrayList<>() ;
+            NodeId subject = null ;
+            start = null ;
+            try {
+                while ( iter.hasNext() ) {
+                    Tuple<NodeId> t = triple(iter.next()) ;
+                    if ( chunk.size() >= ChunkSize && ! t.get(0).equals(subject) ) {
+                        start = t.get(0) ;
+                        break ;
+                    }
+                    subject = t.get(0) ;
+                    chunk.add(t) ;
+                }
+            } finally { Iter.close(iter) ; }
+            process(chunk) ;
+        }
+    }
+
+    /** Close source triples and write the results. */
+    private void process(List<Tuple<NodeId>> triples) {
+        for ( Tuple<NodeId> t : triples ) {
+            if ( transitive.contains(t.get(1)) )
+                transitiveDelta.add(t) ;
+            if ( joinsClasses(t) )
+                classDelta.add(t) ;
+        }
+        write(derive(triples), true) ;
+    }
+
+    /** Everything that follows from each triple alone, divided between the threads. */
+    private List<Tuple<NodeId>> derive(List<Tuple<NodeId>> triples) {
+        if ( executor == null || triples.size() < 2 * threads )
+            return deriveAll(triples) ;
+        int size = ( triples.size() + threads - 1 ) / threads ;
+        List<Future<List<Tuple<NodeId>>>> futures = new ArrayList<>() ;
+        for ( int i = 0 ; i < triples.size() ; i += size ) {
+            List<Tuple<NodeId>> slice = triples.subList(i, Math.min(triples.size(), i + size)) ;
+            futures.add(executor.submit(() -> deriveAll(slice))) ;
+        }
+        List<Tuple<NodeId>> results = new ArrayList<>() ;
+        try {
+            for ( Future<List<Tuple<NodeId>>> f : futures )
+                results.addAll(f.get()) ;
+        } catch (InterruptedException | ExecutionException ex) {
+            throw new TDBException("Materializer", ex) ;
+        }
+        return results ;
+    }
+
+    private List<Tuple<NodeId>> deriveAll(List<Tuple<NodeId>> triples) {
+        List<Tuple<NodeId>> results = new ArrayList<>() ;
+        Map<NodeId, Boolean> literals = new HashMap<>() ;
+        Set<Tuple<NodeId>> seen = new HashSet<>() ;
+        Deque<Tuple<NodeId>> pending = new ArrayDeque<>() ;
+        for ( Tuple<NodeId> triple : triples ) {
+            seen.clear() ;
+            seen.add(triple) ;
+            pending.push(triple) ;
+            while ( ! pending.isEmpty() ) {
+                Tuple<NodeId> t = pending.pop() ;
+                NodeId s = t.get(0) ;
+                NodeId p = t.get(1) ;
+                NodeId o = t.get(2) ;
+                if ( p.equals(TYPE) ) {
+                    for ( NodeId c : get(superClasses, o) )
+                        emit(s, TYPE, c, seen, pending, results) ;
+                    for ( Restriction x : restrictions(hasValueByClass, o) )
+                        emit(s, x.property, x.value, seen, pending, results) ;
+                }
+                // rdf:type is a property like any other for the property rules.
+                for ( NodeId q : get(superProperties, p) )
+                    emit(s, q, o, seen, pending, results) ;
+                for ( NodeId c : get(domains, p) )
+                    emit(s, TYPE, c, seen, pending, results) ;
+                for ( Restriction x : restrictions(hasValueByProperty, p) ) {
+                    if ( x.value.equals(o) )
+                        emit(s, TYPE, x.restriction, seen, pending, results) ;
+                }
+                Set<NodeId> range = get(ranges, p) ;
+                Set<NodeId> inverse = get(inverses, p) ;
+                boolean isSymmetric = symmetric.contains(p) ;
+                if ( ( range.isEmpty() && inverse.isEmpty() && ! isSymmetric ) || isLiteral(o, literals) )
+                    continue ;
+                for ( NodeId c : range )
+                    emit(o, TYPE, c, seen, pending, results) ;
+                for ( NodeId q : inverse )
+                    emit(o, q, s, seen, pending, results) ;
+                if ( isSymmetric )
+                    emit(o, p, s, seen, pending, results) ;
+            }
+        }
+        return results ;
+    }
+
+    private static void emit(NodeId s, NodeId p, NodeId o, Set<Tuple<NodeId>> seen,
+                             Deque<Tuple<NodeId>> pending, List<Tuple<NodeId>> results) {
+        Tuple<NodeId> t = Tuple.createTuple(s, p, o) ;
+        if ( seen.add(t) ) {
+            results.add(t) ;
+            pending.push(t) ;
+        }
+    }
+
+    private boolean isLiteral(NodeId id, Map<NodeId, Boolean> literals) {
+        // All inline values are literals.
+        if ( NodeId.isInline(id) )
+            return true ;
+        Boolean b = literals.get(id) ;
+        if ( b == null ) {
+            b = nodeTable.getNodeForNodeId(id).isLiteral() ;
+            literals.put(id, b) ;
+        }
+        return b ;
+    }
+
+    /** Evaluate the rules with more than one data premise semi-naively: join the
+     * triples that are new since the last round with all the triples, close what that
+     * derives, and go round again until nothing new is found.
+     */
+    private void closeJoins() {
+        while ( ! transitiveDelta.isEmpty() || ! classDelta.isEmpty() ) {
+            Map<NodeId, List<Tuple<NodeId>>> byProperty = new HashMap<>() ;
+            for ( Tuple<NodeId> t : transitiveDelta )
+                byProperty.computeIfAbsent(t.get(1), p -> new ArrayList<>()).add(t) ;
+            transitiveDelta = new ArrayList<>() ;
+            List<Tuple<NodeId>> pairs = new ArrayList<>() ;
+            byProperty.forEach((p, delta) -> join(p, delta, pairs)) ;
+            // The new pairs are already closed under the transitive rule.
+            write(pairs, false) ;
+            closeDerived(pairs) ;
+
+            List<Tuple<NodeId>> types = joinClasses(classDelta) ;
+            classDelta = new ArrayList<>() ;
+            write(types, true) ;
+            closeDerived(types) ;
+        }
+    }
+
+    private void closeDerived(List<Tuple<NodeId>> derived) {
+        for ( int i = 0 ; i < derived.size() ; i += ChunkSize )
+            write(derive(derived.subList(i, Math.min(derived.size(), i + ChunkSize))), true) ;
+    }
+
+    private void join(NodeId p, List<Tuple<NodeId>> delta, List<Tuple<NodeId>> derived) {
+        Map<NodeId, Set<NodeId>> forward = new HashMap<>() ;
+        Map<NodeId, Set<NodeId>> backward = new HashMap<>() ;
+        for ( Tuple<NodeId> t : find(NodeId.NodeIdAny, p, NodeId.NodeIdAny) ) {
+            link(forward, t.get(0), t.get(2)) ;
+            link(backward, t.get(2), t.get(0)) ;
+        }
+        Deque<Tuple<NodeId>> pending = new ArrayDeque<>(delta) ;
+        while ( ! pending.isEmpty() ) {
+            Tuple<NodeId> t = pending.pop() ;
+            NodeId x = t.get(0) ;
+            NodeId y = t.get(2) ;
+            for ( NodeId z : new ArrayList<>(get(forward, y)) )
+                joined(x, p, z, forward, backward, pending, derived) ;
+            for ( NodeId w : new ArrayList<>(get(backward, x)) )
+                joined(w, p, y, forward, backward, pending, derived) ;
+        }
+    }
+
+    private static void joined(NodeId x, NodeId p, NodeId z, Map<NodeId, Set<NodeId>> forward,
+                               Map<NodeId, Set<NodeId>> backward, Deque<Tuple<NodeId>> pending,
+                               List<Tuple<NodeId>> derived) {
+        if ( ! link(forward, x, z) )
+            return ;
+        link(backward, z, x) ;
+        Tuple<NodeId> t = Tuple.createTuple(x, p, z) ;
+        pending.add(t) ;
+        derived.add(t) ;
+    }
+
+    /** Whether the triple is a premise of an owl:someValuesFrom, owl:allValuesFrom or
+     * intersection rule.
+     */
+    private boolean joinsClasses(Tuple<NodeId> t) {
+        NodeId p = t.get(1) ;
+        if ( p.equals(TYPE) ) {
+            NodeId c = t.get(2) ;
+            return someByFiller.containsKey(c) || allByClass.containsKey(c) || intersectionsByMember.containsKey(c) ;
+        }
+        return someByProperty.containsKey(p) || allByProperty.containsKey(p) ;
+    }
+
+    /** Join the new triples with all the triples for the class expression rules:
+     * <pre>
+     * (?x ?p ?a) (?a rdf:type ?d), ?r someValuesFrom ?d on ?p  -> (?x rdf:type ?r)
+     * (?x rdf:type ?r) (?x ?p ?y), ?r allValuesFrom ?d on ?p   -> (?y rdf:type ?d)
+     * (?x rdf:type ?c1) ... (?x rdf:type ?cn), ?c intersectionOf (?c1 ... ?cn) -> (?x rdf:type ?c)
+     * </pre>
+     * The new triples are grouped by the node they join on, so the types or the
+     * triples of each node are read once.
+     */
+    private List<Tuple<NodeId>> joinClasses(List<Tuple<NodeId>> delta) {
+        // New classes of each instance, new values of each subject and new subjects of
+        // each value, by property.
+        Map<NodeId, Set<NodeId>> newTypes = new HashMap<>() ;
+        Map<NodeId, Map<NodeId, Set<NodeId>>> newValues = new HashMap<>() ;
+        Map<NodeId, Map<NodeId, Set<NodeId>>> newSubjects = new HashMap<>() ;
+        for ( Tuple<NodeId> t : delta ) {
+            NodeId s = t.get(0) ;
+            NodeId p = t.get(1) ;
+            NodeId o = t.get(2) ;
+            if ( p.equals(TYPE) )
+                link(newTypes, s, o) ;
+            if ( allByProperty.containsKey(p) )
+                link(newValues.computeIfAbsent(s, k -> new HashMap<>()), p, o) ;
+            if ( someByProperty.containsKey(p) )
+                link(newSubjects.computeIfAbsent(o, k -> new HashMap<>()), p, s) ;
+        }
+
+        Map<NodeId, Boolean> literals = new HashMap<>() ;
+        List<Tuple<NodeId>> derived = new ArrayList<>() ;
+        newTypes.forEach((x, classes) -> {
+            Set<NodeId> types = null ;
+            for ( NodeId c : classes ) {
+                for ( Restriction r : restrictions(someByFiller, c) ) {
+                    for ( Tuple<NodeId> t : find(NodeId.NodeIdAny, r.property, x) )
+                        derived.add(Tuple.createTuple(t.get(0), TYPE, r.restriction)) ;
+                }
+                for ( Restriction r : restrictions(allByClass, c) ) {
+                    for ( Tuple<NodeId> t : find(x, r.property, NodeId.NodeIdAny) ) {
+                        if ( ! isLiteral(t.get(2), literals) )
+                            derived.add(Tuple.createTuple(t.get(2), TYPE, r.value)) ;
+                    }
+                }
+                for ( NodeId i : get(intersectionsByMember, c) ) {
+                    if ( types == null )
+                        types = types(x) ;
+                    if ( types.containsAll(intersectionMembers.get(i)) )
+                        derived.add(Tuple.createTuple(x, TYPE, i)) ;
+                }
+            }
+        }) ;
+        newValues.forEach((x, values) -> {
+            Set<NodeId> types = types(x) ;
+            values.forEach((p, ys) -> {
+                for ( Restriction r : restrictions(allByProperty, p) ) {
+                    if ( ! types.contains(r.restriction) )
+                        continue ;
+                    for ( NodeId y : ys ) {
+                        if ( ! isLiteral(y, literals) )
+                            derived.add(Tuple.createTuple(y, TYPE, r.value)) ;
+                    }
+                }
+            }) ;
+        }) ;
+        newSubjects.forEach((a, subjects) -> {
+            Set<NodeId> types = types(a) ;
+            subjects.forEach((p, xs) -> {
+                for ( Restriction r : restrictions(someByProperty, p) ) {
+                    if ( ! types.contains(r.value) )
+                        continue ;
+                    for ( NodeId x : xs )
+                        derived.add(Tuple.createTuple(x, TYPE, r.restriction)) ;
+                }
+            }) ;
+        }) ;
+        return derived ;
+    }
+
+    private Set<NodeId> types(NodeId x) {
+        Set<NodeId> types = new HashSet<>() ;
+        for ( Tuple<NodeId> t : find(x, TYPE, NodeId.NodeIdAny) )
+            types.add(t.get(2)) ;
+        return types ;
+    }
+
+    /** Write the triples that are in neither graph, and remember the new ones needed later. */
+    private void write(List<Tuple<NodeId>> triples, boolean trackTransitive) {
+        Set<Tuple<NodeId>> done = new HashSet<>() ;
+        List<Tuple<NodeId>> batch = new ArrayList<>() ;
+        for ( Tuple<NodeId> t : triples ) {
+            if ( ! done.add(t) || contains(source, t) || ( ! sameGraph && contains(target, t) ) )
+                continue ;
+            batch.add(targetGraphId == null ? t : Tuple.createTuple(targetGraphId, t.get(0), t.get(1), t.get(2))) ;
+            if ( trackTransitive && transitive.contains(t.get(1)) )
+                transitiveDelta.add(t) ;
+            if ( joinsClasses(t) )
+                classDelta.add(t) ;
+            if ( isSchema(t) )
+                schemaChanged = true ;
+        }
+        if ( ! batch.isEmpty() )
+            count += loader.load(batch) ;
+    }
+
+    // ---- Storage
+
+    private static boolean contains(NodeTupleTable ntt, Tuple<NodeId> t) {
+        Iterator<Tuple<NodeId>> iter = ntt.find(t.get(0), t.get(1), t.get(2)) ;
+        try {
+            return iter.hasNext() ;
+        } finally { Iter.close(iter) ; }
+    }
+
+    /** Matches in the source and target graphs, read before returning. */
+    private List<Tuple<NodeId>> find(NodeId s, NodeId p, NodeId o) {
+        List<Tuple<NodeId>> results = new ArrayList<>() ;
+        read(source.find(s, p, o), results) ;
+        if ( ! sameGraph )
+            read(target.find(s, p, o), results) ;
+        return results ;
+    }
+
+    private static void read(Iterator<Tuple<NodeId>> iter, List<Tuple<NodeId>> results) {
+        try {
+            while ( iter.hasNext() )
+                results.add(triple(iter.next())) ;
+        } finally { Iter.close(iter) ; }
+    }
+
+    /** The triple of a tuple from a graph, without the graph slot. */
+    private static Tuple<NodeId> triple(Tuple<NodeId> tuple) {
+        if ( tuple.size() == 3 )
+            return tuple ;
+        return Tuple.createTuple(tuple.get(1), tuple.get(2), tuple.get(3)) ;
+    }
+
+    private static boolean link(Map<NodeId, Set<NodeId>> relation, NodeId x, NodeId y) {
+        return relation.computeIfAbsent(x, k -> new HashSet<>()).add(y) ;
+    }
+
+    private static Set<NodeId> get(Map<NodeId, Set<NodeId>> relation, NodeId x) {
+        Set<NodeId> s = relation.get(x) ;
+        return ( s == null ) ? Collections.emptySet() : s ;
+    }
+
+    private static void add(Map<NodeId, List<Restriction>> index, NodeId x, Restriction r) {
+        index.computeIfAbsent(x, k -> new ArrayList<>()).add(r) ;
+    }
+
+    private static List<Restriction> restrictions(Map<NodeId, List<Restriction>> index, NodeId x) {
+        List<Restriction> r = index.get(x) ;
+        return ( r == null ) ? Collections.emptyList() : r ;
+    }
+
+    /** A restriction class: the kind (owl:hasValue, owl:someValuesFrom or
+     * owl:allValuesFrom), the property and the value or class. Equality ignores the
+     * restriction class itself.
+     */
+    private static final class Restriction {
+        final NodeId kind ;
+        final NodeId restriction ;
+        final NodeId property ;
+        final NodeId value ;
+
+        Restriction(NodeId kind, NodeId restriction, NodeId property, NodeId value) {
+            this.kind = kind ;
+            this.restriction = restriction ;
+            this.property = property ;
+            this.value = value ;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(kind, property, value) ;
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            if ( ! ( other instanceof Restriction ) )
+                return false ;
+            Restriction r = (Restriction)other ;
+            return kind.equals(r.kind) && property.equals(r.property) && value.equals(r.value) ;
+        }
+    }
+}
@@ -0,0 +1,84 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.jena.tdb.solver;
+
+import java.util.* ;
+
+import org.apache.jena.graph.Node ;
+import org.apache.jena.sparql.core.Var ;
+import org.apache.jena.sparql.engine.binding.Binding ;
+import org.apache.jena.tdb.store.NodeId ;
+import org.apache.jena.tdb.store.nodetable.NodeTable ;
+
+/** Keys for comparing the values of variables in bindings as RDF terms without
+ * retrieving nodes from the node table.
+ * <p>
+ * The key for a value is the NodeId if it is a node in the node table. Inline
+ * values, and nodes that are not in the node table, are their own keys. Two values
+ * are the same RDF term if and only if their keys are equal.
+ */
+public class BindingKeys
+{
+    private final NodeTable nodeTable ;
+
+    public BindingKeys(NodeTable nodeTable) {
+        this.nodeTable = nodeTable ;
+    }
+
+    /** The key for the value of a variable, or null if the variable is not bound. */
+    public Object value(Binding binding, Var var) {
+        NodeId id = SolverLib.nodeId(binding, var) ;
+        if ( id != null )
+            // Decoding an inline NodeId does not use the node table.
+            return NodeId.isInline(id) ? NodeId.extract(id) : id ;
+        Node n = binding.get(var) ;
+        if ( n == null )
+            return null ;
+        return value(n) ;
+    }
+
+    /** The key for a node. */
+    public Object value(Node n) {
+        // Inlining may change the term ("01" is stored as 1) so compare the node.
+        if ( NodeId.inline(n) != null )
+            return n ;
+        NodeId id = nodeTable.getNodeIdForNode(n) ;
+        return NodeId.isDoesNotExist(id) ? n : id ;
+    }
+
+    /** The key for the values of some variables; unbound variables have the key null. */
+    public List<Object> key(Binding binding, List<Var> vars) {
+        Object[] x = new Object[vars.size()] ;
+        for ( int i = 0 ; i < x.length ; i++ )
+            x[i] = value(binding, vars.get(i)) ;
+        return Arrays.asList(x) ;
+    }
+
+    /** The key for all the variables of the binding. */
+    public Map<Var, Object> key(Binding binding) {
+        Map<Var, Object> x = new HashMap<>() ;
+        for ( Iterator<Var> iter = binding.vars() ; iter.hasNext() ; ) {
+            Var v = iter.next() ;
+            Object obj = value(binding, v) ;
+            if ( obj != null )
+                x.put(v, obj) ;
+        }
+        return x ;
+    }
+}
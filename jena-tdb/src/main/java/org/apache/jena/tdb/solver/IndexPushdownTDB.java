@@ -0,0 +1,360 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.jena.tdb.solver;
+
+import java.util.ArrayList ;
+import java.util.Iterator ;
+import java.util.List ;
+import java.util.NoSuchElementException ;
+
+import org.apache.jena.atlas.iterator.Iter ;
+import org.apache.jena.atlas.lib.Tuple ;
+import org.apache.jena.graph.Graph ;
+import org.apache.jena.graph.Node ;
+import org.apache.jena.graph.Triple ;
+import org.apache.jena.query.QueryCancelledException ;
+import org.apache.jena.sparql.algebra.Op ;
+import org.apache.jena.sparql.algebra.op.* ;
+import org.apache.jena.sparql.core.Var ;
+import org.apache.jena.sparql.engine.ExecutionContext ;
+import org.apache.jena.sparql.engine.QueryIterator ;
+import org.apache.jena.sparql.engine.binding.Binding ;
+import org.apache.jena.sparql.engine.binding.BindingFactory ;
+import org.apache.jena.sparql.engine.binding.BindingMap ;
+import org.apache.jena.sparql.engine.iterator.QueryIter ;
+import org.apache.jena.sparql.engine.iterator.QueryIterNullIterator ;
+import org.apache.jena.sparql.expr.Expr ;
+import org.apache.jena.sparql.expr.ExprAggregator ;
+import org.apache.jena.sparql.expr.NodeValue ;
+import org.apache.jena.sparql.expr.aggregate.* ;
+import org.apache.jena.sparql.mgt.Explain ;
+import org.apache.jena.sparql.util.Context ;
+import org.apache.jena.tdb.TDB ;
+import org.apache.jena.tdb.store.DatasetGraphTDB ;
+import org.apache.jena.tdb.store.GraphTDB ;
+import org.apache.jena.tdb.store.NodeId ;
+import org.apache.jena.tdb.store.nodetable.NodeTable ;
+import org.apache.jena.tdb.store.nodetupletable.NodeTupleTable ;
+
+/** COUNT and DISTINCT over a single triple or quad pattern, answered from the tuple indexes.
+ * <ul>
+ * <li>{@code SELECT (COUNT(*) AS ?c) { ?s :p ?o }} counts the index entries, without
+ * creating bindings or retrieving nodes.</li>
+ * <li>{@code SELECT DISTINCT ?p { ?s ?p ?o }} reads the first entry for each value of
+ * the variable in an index where the variable follows the constants of the pattern, then
+ * seeks to the next value. {@code COUNT(DISTINCT ?p)} is done the same way.</li>
+ * </ul>
+ * The pattern must not repeat a variable. Results are the same as evaluating the query
+ * in the usual way because each index entry is one match of the pattern.
+ */
+public class IndexPushdownTDB
+{
+    /** Number of index entries read, with the same value, before seeking to the next value. */
+    static final int ScanSteps = 16 ;
+
+    /** A single pattern, in tuple table order, with the table to match it in. */
+    private static class Pattern {
+        final NodeTupleTable ntt ;
+        final Node[] nodes ;
+        Pattern(NodeTupleTable ntt, Node[] nodes) {
+            this.ntt = ntt ;
+            this.nodes = nodes ;
+        }
+
+        int slot(Var var) {
+            for ( int i = 0 ; i < nodes.length ; i++ )
+                if ( var.equals(nodes[i]) )
+                    return i ;
+            return -1 ;
+        }
+
+        /** The pattern as NodeIds, with variables as "any"; null if a constant is not in the database. */
+        Tuple<NodeId> tuple() {
+            NodeTable nodeTable = ntt.getNodeTable() ;
+            NodeId[] ids = new NodeId[nodes.length] ;
+            for ( int i = 0 ; i < nodes.length ; i++ ) {
+                Node n = nodes[i] ;
+                if ( n == Node.ANY || Var.isVar(n) ) {
+                    ids[i] = NodeId.NodeIdAny ;
+                    continue ;
+                }
+                ids[i] = nodeTable.getNodeIdForNode(n) ;
+                if ( NodeId.isDoesNotExist(ids[i]) )
+                    return null ;
+            }
+            return Tuple.create(ids) ;
+        }
+    }
+
+    /** Execute {@code (distinct (project (?v) pattern))} for a root binding,
+     * or return null if it can not be done from the indexes.
+     */
+    public static QueryIterator distinct(OpDistinct opDistinct, Binding root, ExecutionContext execCxt) {
+        if ( ! ( opDistinct.getSubOp() instanceof OpProject ) )
+            return null ;
+        OpProject opProject = (OpProject)opDistinct.getSubOp() ;
+        if ( opProject.getVars().size() != 1 )
+            return null ;
+        Var var = opProject.getVars().get(0) ;
+        Pattern pattern = pattern(opProject.getSubOp(), root, true, execCxt) ;
+        if ( pattern == null )
+            return null ;
+        int slot = pattern.slot(var) ;
+        if ( slot < 0 )
+            return null ;
+        Tuple<NodeId> tuple = pattern.tuple() ;
+        if ( tuple == null )
+            return QueryIterNullIterator.create(execCxt) ;
+        Iterator<NodeId> iter = distinctValues(pattern.ntt, tuple, slot) ;
+        if ( iter == null )
+            return null ;
+        Explain.explain("Execute (distinct index scan)", opDistinct, execCxt.getContext()) ;
+        NodeTable nodeTable = pattern.ntt.getNodeTable() ;
+        List<Abortable> killList = new ArrayList<>() ;
+        Iterator<Binding> iterBinding = Iter.map(iter, id -> {
+            BindingNodeId b = new BindingNodeId() ;
+            b.put(var, id) ;
+            return SolverLib.convToBinding(b, nodeTable) ;
+        }) ;
+        iterBinding = SolverLib.makeAbortable(iterBinding, killList) ;
+        return new QueryIterTDB(iterBinding, killList, null, execCxt) ;
+    }
+
+    /** Execute {@code (group () (aggregators) pattern)} where the aggregators are counts,
+     * for a root binding, or return null if it can not be done from the indexes.
+     */
+    public static QueryIterator count(OpGroup opGroup, Binding root, ExecutionContext execCxt) {
+        if ( ! opGroup.getGroupVars().isEmpty() || opGroup.getAggregators().isEmpty() )
+            return null ;
+        // The union graph has a quad in each graph for one triple.
+        Pattern pattern = pattern(opGroup.getSubOp(), root, false, execCxt) ;
+        if ( pattern == null )
+            return null ;
+        Tuple<NodeId> tuple = pattern.tuple() ;
+        int[] slots = new int[opGroup.getAggregators().size()] ;
+        int i = 0 ;
+        for ( ExprAggregator agg : opGroup.getAggregators() ) {
+            Aggregator aggregator = agg.getAggregator() ;
+            if ( aggregator instanceof AggCount || aggregator instanceof AggCountDistinct )
+                // Each index entry is a different row.
+                slots[i++] = -1 ;
+            else if ( aggregator instanceof AggCountVar || aggregator instanceof AggCountVarDistinct ) {
+                Expr expr = aggregator.getExprList().get(0) ;
+                if ( ! expr.isVariable() )
+                    return null ;
+                int slot = pattern.slot(expr.asVar()) ;
+                // COUNT(?v) : ?v is always bound if it is in the pattern.
+                if ( slot < 0 || aggregator instanceof AggCountVar )
+                    slots[i++] = ( slot < 0 ) ? -2 : -1 ;
+                else {
+                    if ( tuple != null && ! hasDistinctIndex(pattern.ntt, tuple, slot) )
+                        return null ;
+                    slots[i++] = slot ;
+                }
+            } else
+                return null ;
+        }
+        Explain.explain("Execute (count index scan)", opGroup, execCxt.getContext()) ;
+        return new QueryIterIndexCount(pattern.ntt, tuple, opGroup.getAggregators(), slots, execCxt) ;
+    }
+
+    /** The single pattern of the op, or null if it is not one that can be answered from the indexes. */
+    private static Pattern pattern(Op op, Binding root, boolean allowUnion, ExecutionContext execCxt) {
+        Context context = execCxt.getContext() ;
+        if ( context != null && ! context.isTrueOrUndef(TDB.symIndexPushdown) )
+            return null ;
+        // Filtered access (e.g. quad level security) sees some entries but not others.
+        if ( QC2.getFilter(context) != null )
+            return null ;
+
+        DatasetGraphTDB ds ;
+        Node gn ;
+        Triple triple ;
+        if ( op instanceof OpBGP ) {
+            Graph graph = execCxt.getActiveGraph() ;
+            if ( ! ( graph instanceof GraphTDB ) || ((OpBGP)op).getPattern().size() != 1 )
+                return null ;
+            ds = ((GraphTDB)graph).getDSG() ;
+            gn = ((GraphTDB)graph).getGraphName() ;
+            triple = ((OpBGP)op).getPattern().get(0) ;
+        } else if ( op instanceof OpQuadPattern ) {
+            if ( ! ( execCxt.getDataset() instanceof DatasetGraphTDB ) || ((OpQuadPattern)op).getBasicPattern().size() != 1 )
+                return null ;
+            ds = (DatasetGraphTDB)execCxt.getDataset() ;
+            gn = ((OpQuadPattern)op).getGraphNode() ;
+            triple = ((OpQuadPattern)op).getBasicPattern().get(0) ;
+        } else
+            return null ;
+
+        gn = OpExecutorTDB1.decideGraphNode(gn, execCxt) ;
+        if ( gn == Node.ANY && ! allowUnion )
+            return null ;
+        Node[] nodes = ( gn == null )
+            ? new Node[]{ triple.getSubject(), triple.getPredicate(), triple.getObject() }
+            : new Node[]{ gn, triple.getSubject(), triple.getPredicate(), triple.getObject() } ;
+        for ( int i = 0 ; i < nodes.length ; i++ ) {
+            if ( ! Var.isVar(nodes[i]) )
+                continue ;
+            if ( root.contains(Var.alloc(nodes[i])) )
+                return null ;
+            for ( int j = i+1 ; j < nodes.length ; j++ )
+                if ( nodes[i].equals(nodes[j]) )
+                    return null ;
+        }
+        return new Pattern(ds.chooseNodeTupleTable(gn), nodes) ;
+    }
+
+    private static boolean hasDistinctIndex(NodeTupleTable ntt, Tuple<NodeId> tuple, int slot) {
+        Iterator<Tuple<NodeId>> iter = ntt.findRange(tuple, slot, NodeId.create(0), NodeId.create(-1L)) ;
+        if ( iter == null )
+            return false ;
+        Iter.close(iter) ;
+        return true ;
+    }
+
+    /** The distinct values, in index order, of the slot in the tuples matching the pattern,
+     * or null if there is no index with the slot after the constants of the pattern.
+     */
+    static Iterator<NodeId> distinctValues(NodeTupleTable ntt, Tuple<NodeId> tuple, int slot) {
+        Iterator<Tuple<NodeId>> iter = ntt.findRange(tuple, slot, NodeId.create(0), NodeId.create(-1L)) ;
+        if ( iter == null )
+            return null ;
+        return new IteratorDistinctSlot(ntt, tuple, slot, iter) ;
+    }
+
+    /** Distinct values of a slot by skipping over the index entries with the same value. */
+    private static class IteratorDistinctSlot implements Iterator<NodeId> {
+        private final NodeTupleTable ntt ;
+        private final Tuple<NodeId> tuple ;
+        private final int slot ;
+        private Iterator<Tuple<NodeId>> iter ;
+        private NodeId last = null ;
+        private NodeId slotNext = null ;
+        private boolean finished = false ;
+
+        IteratorDistinctSlot(NodeTupleTable ntt, Tuple<NodeId> tuple, int slot, Iterator<Tuple<NodeId>> iter) {
+            this.ntt = ntt ;
+            this.tuple = tuple ;
+            this.slot = slot ;
+            this.iter = iter ;
+        }
+
+        @Override
+        public boolean hasNext() {
+            if ( slotNext != null )
+                return true ;
+            if ( finished )
+                return false ;
+            for ( ;; ) {
+                // Read a few entries : cheaper than a seek if there are few for each value.
+                for ( int steps = 0 ; steps < ScanSteps && iter.hasNext() ; steps++ ) {
+                    NodeId x = iter.next().get(slot) ;
+                    if ( ! x.equals(last) ) {
+                        last = x ;
+                        slotNext = x ;
+                        return true ;
+                    }
+                }
+                if ( ! iter.hasNext() || last.getId() == -1L ) {
+                    finished = true ;
+                    Iter.close(iter) ;
+                    return false ;
+                }
+                // Seek to the next value.
+                Iter.close(iter) ;
+                iter = ntt.findRange(tuple, slot, NodeId.create(last.getId()+1), NodeId.create(-1L)) ;
+            }
+        }
+
+        @Override
+        public NodeId next() {
+            if ( ! hasNext() )
+                throw new NoSuchElementException() ;
+            NodeId x = slotNext ;
+            slotNext = null ;
+            return x ;
+        }
+    }
+
+    /** One row of counts, calculated when the row is first asked for. */
+    private static class QueryIterIndexCount extends QueryIter {
+        private final NodeTupleTable ntt ;
+        private final Tuple<NodeId> tuple ;
+        private final List<ExprAggregator> aggregators ;
+        // -1 : count entries, -2 : zero, else count distinct values of the slot.
+        private final int[] slots ;
+        private volatile boolean cancelled = false ;
+        private boolean done = false ;
+
+        QueryIterIndexCount(NodeTupleTable ntt, Tuple<NodeId> tuple, List<ExprAggregator> aggregators,
+                            int[] slots, ExecutionContext execCxt) {
+            super(execCxt) ;
+            this.ntt = ntt ;
+            this.tuple = tuple ;
+            this.aggregators = aggregators ;
+            this.slots = slots ;
+        }
+
+        @Override
+        protected boolean hasNextBinding() {
+            return ! done ;
+        }
+
+        @Override
+        protected Binding moveToNextBinding() {
+            done = true ;
+            BindingMap binding = BindingFactory.create() ;
+            long entries = -1 ;
+            for ( int i = 0 ; i < slots.length ; i++ ) {
+                long n ;
+                if ( tuple == null || slots[i] == -2 )
+                    n = 0 ;
+                else if ( slots[i] == -1 ) {
+                    if ( entries < 0 )
+                        entries = count(ntt.find(tuple)) ;
+                    n = entries ;
+                } else
+                    n = count(distinctValues(ntt, tuple, slots[i])) ;
+                binding.add(aggregators.get(i).getVar(), NodeValue.makeInteger(n).asNode()) ;
+            }
+            return binding ;
+        }
+
+        private long count(Iterator<?> iter) {
+            long n = 0 ;
+            try {
+                while ( iter.hasNext() ) {
+                    if ( cancelled )
+                        throw new QueryCancelledException() ;
+                    iter.next() ;
+                    n++ ;
+                }
+            } finally { Iter.close(iter) ; }
+            return n ;
+        }
+
+        @Override
+        protected void requestCancel() {
+            cancelled = true ;
+        }
+
+        @Override
+        protected void closeIterator() {}
+    }
+}
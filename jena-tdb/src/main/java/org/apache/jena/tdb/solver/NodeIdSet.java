@@ -0,0 +1,158 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.jena.tdb.solver;
+
+import java.util.Arrays ;
+
+import org.apache.jena.tdb.store.NodeId ;
+
+/** A set of NodeIds, held as primitive longs (open addressing, linear probing).
+ *  No NodeId objects are created for members so it is suitable for large
+ *  intermediate sets such as visited sets and frontiers.
+ *  <p>
+ *  Not thread safe.
+ */
+public final class NodeIdSet
+{
+    // The value marking an empty slot. Never a stored NodeId (it is NodeDoesNotExist).
+    private static final long EMPTY = NodeId.NodeDoesNotExist.getId() ;
+    private static final int  MIN_CAPACITY = 16 ;
+
+    private long[] slots ;
+    private int size = 0 ;
+    private int threshold ;
+
+    public NodeIdSet() {
+        this(MIN_CAPACITY) ;
+    }
+
+    public NodeIdSet(int expected) {
+        int cap = MIN_CAPACITY ;
+        while ( cap < 2L * expected )
+            cap <<= 1 ;
+        allocate(cap) ;
+    }
+
+    /** Add a NodeId, returning true if it was not already in the set. */
+    public boolean add(NodeId nodeId) {
+        return add(nodeId.getId()) ;
+    }
+
+    /** Add an id, returning true if it was not already in the set. */
+    public boolean add(long id) {
+        if ( id == EMPTY )
+            throw new IllegalArgumentException("NodeIdSet: Can't add NodeDoesNotExist") ;
+        int mask = slots.length - 1 ;
+        int i = hash(id) & mask ;
+        for ( ;; ) {
+            long x = slots[i] ;
+            if ( x == EMPTY )
+                break ;
+            if ( x == id )
+                return false ;
+            i = (i + 1) & mask ;
+        }
+        slots[i] = id ;
+        size++ ;
+        if ( size > threshold )
+            rehash(slots.length << 1) ;
+        return true ;
+    }
+
+    public boolean contains(NodeId nodeId) {
+        return contains(nodeId.getId()) ;
+    }
+
+    public boolean contains(long id) {
+        if ( id == EMPTY )
+            return false ;
+        int mask = slots.length - 1 ;
+        int i = hash(id) & mask ;
+        for ( ;; ) {
+            long x = slots[i] ;
+            if ( x == EMPTY )
+                return false ;
+            if ( x == id )
+                return true ;
+            i = (i + 1) & mask ;
+        }
+    }
+
+    public int size()           { return size ; }
+
+    public boolean isEmpty()    { return size == 0 ; }
+
+    public void clear() {
+        Arrays.fill(slots, EMPTY) ;
+        size = 0 ;
+    }
+
+    /** The members, in no particular order. */
+    public long[] toArray() {
+        long[] x = new long[size] ;
+        int j = 0 ;
+        for ( long id : slots ) {
+            if ( id != EMPTY )
+                x[j++] = id ;
+        }
+        return x ;
+    }
+
+    /** The members, in increasing id order (which is index order). */
+    public long[] toSortedArray() {
+        long[] x = toArray() ;
+        Arrays.sort(x) ;
+        return x ;
+    }
+
+    private void allocate(int capacity) {
+        slots = new long[capacity] ;
+        Arrays.fill(slots, EMPTY) ;
+        threshold = (capacity >> 1) + (capacity >> 2) ;    // 0.75
+    }
+
+    private void rehash(int capacity) {
+        long[] old = slots ;
+        allocate(capacity) ;
+        int mask = capacity - 1 ;
+        for ( long id : old ) {
+            if ( id == EMPTY )
+                continue ;
+            int i = hash(id) & mask ;
+            while ( slots[i] != EMPTY )
+                i = (i + 1) & mask ;
+            slots[i] = id ;
+        }
+    }
+
+    // NodeIds are file offsets or inline values so the low bits are poorly
+    // distributed. Mix the bits (MurmurHash3 64 bit finalizer step).
+    private static int hash(long id) {
+        long h = id ;
+        h ^= (h >>> 33) ;
+        h *= 0xff51afd7ed558ccdL ;
+        h ^= (h >>> 33) ;
+        return (int)h ;
+    }
+
+    @Override
+    public String toString() {
+        return "NodeIdSet[size="+size+"]" ;
+    }
+}
@@ -18,14 +18,17 @@
 
 package org.apache.jena.tdb.solver;
 
+import java.util.Set ;
 import java.util.function.Predicate;
 
 import org.apache.jena.atlas.lib.Tuple;
 import org.apache.jena.atlas.logging.Log ;
 import org.apache.jena.graph.Graph ;
 import org.apache.jena.graph.Node ;
+import org.apache.jena.query.ARQ ;
 import org.apache.jena.sparql.ARQInternalErrorException ;
 import org.apache.jena.sparql.algebra.Op ;
+import org.apache.jena.sparql.algebra.OpVars ;
 import org.apache.jena.sparql.algebra.op.* ;
 import org.apache.jena.sparql.algebra.optimize.TransformFilterPlacement ;
 import org.apache.jena.sparql.core.BasicPattern ;
@@ -34,18 +37,23 @@ import org.apache.jena.sparql.core.Substitute ;
 import org.apache.jena.sparql.core.Var ;
 import org.apache.jena.sparql.engine.ExecutionContext ;
 import org.apache.jena.sparql.engine.QueryIterator ;
+import org.apache.jena.sparql.engine.binding.Binding ;
+import org.apache.jena.sparql.engine.iterator.QueryIterFilterExpr ;
 import org.apache.jena.sparql.engine.iterator.QueryIterPeek ;
+import org.apache.jena.sparql.engine.iterator.QueryIterRoot ;
 import org.apache.jena.sparql.engine.main.OpExecutor ;
 import org.apache.jena.sparql.engine.main.OpExecutorFactory ;
 import org.apache.jena.sparql.engine.main.QC ;
 import org.apache.jena.sparql.engine.main.iterator.QueryIterGraph ;
 import org.apache.jena.sparql.engine.optimizer.reorder.ReorderProc ;
 import org.apache.jena.sparql.engine.optimizer.reorder.ReorderTransformation ;
+import org.apache.jena.sparql.expr.Expr ;
 import org.apache.jena.sparql.expr.ExprList ;
 import org.apache.jena.sparql.mgt.Explain ;
 import org.apache.jena.tdb.store.DatasetGraphTDB ;
 import org.apache.jena.tdb.store.GraphTDB ;
 import org.apache.jena.tdb.store.NodeId;
+import org.apache.jena.tdb.store.nodetable.NodeTable ;
 import org.slf4j.Logger ;
 import org.slf4j.LoggerFactory ;
 
@@ -66,6 +74,9 @@ public class OpExecutorTDB1 extends OpExecutor
     } ;
     
     private final boolean isForTDB ;
+    // Comparison of values by NodeId (TDB only).
+    private final BindingKeys keys ;
+    private final NodeTable nodeTable ;
     
     // A new compile object is created for each op compilation.
     // So the execCxt is changing as we go through the query-compile-execute process  
@@ -77,6 +88,14 @@ public class OpExecutorTDB1 extends OpExecutor
         // in QueryEngineTDB).
         
         isForTDB = (execCxt.getActiveGraph() instanceof GraphTDB) ;
+        nodeTable = isForTDB ? nodeTable(execCxt) : null ;
+        keys = isForTDB ? new BindingKeys(nodeTable) : null ;
+    }
+
+    private static NodeTable nodeTable(ExecutionContext execCxt)
+    {
+        GraphTDB graph = (GraphTDB)execCxt.getActiveGraph() ;
+        return graph.getDSG().getTripleTable().getNodeTupleTable().getNodeTable() ;
     }
 
     @Override
@@ -87,14 +106,30 @@ public class OpExecutorTDB1 extends OpExecutor
         return super.exec(op, input) ;
     } 
     
-    // Retrieving nodes isn't so bad because they will be needed anyway.
-    // And if their duplicates, likely to be cached.
-    // Need to work with SolverLib which wraps the NodeId bindgins with a converter. 
+    // Operators that compare values do so by NodeId, and keep NodeIds in their results,
+    // so nodes are only retrieved from the node table when the results are used.
+    // Need to work with SolverLib which wraps the NodeId bindings with a converter. 
     
     @Override
     protected QueryIterator execute(OpDistinct opDistinct, QueryIterator input)
     {
-        return super.execute(opDistinct, input) ;
+        // In-memory only : the general DISTINCT spills to disk when asked to.
+        if ( ! isForTDB )
+            return super.execute(opDistinct, input) ;
+        if ( input instanceof QueryIterRoot )
+        {
+            // DISTINCT of one variable of a pattern : skip through an index.
+            Binding root = input.nextBinding() ;
+            input.close() ;
+            QueryIterator qIter = IndexPushdownTDB.distinct(opDistinct, root, execCxt) ;
+            if ( qIter != null )
+                return qIter ;
+            input = QueryIterRoot.create(root, execCxt) ;
+        }
+        if ( execCxt.getContext().isDefined(ARQ.spillToDiskThreshold) )
+            return super.execute(opDistinct, input) ;
+        QueryIterator qIter = exec(opDistinct.getSubOp(), input) ;
+        return new QueryIterDistinctTDB(qIter, keys, execCxt) ;
     }
     
     @Override
@@ -132,8 +167,63 @@ public class OpExecutorTDB1 extends OpExecutor
         }
     
         // (filter (anything else))
-        return super.execute(opFilter, input) ;
+        QueryIterator qIter = exec(opFilter.getSubOp(), input) ;
+        return filter(opFilter.getExprs(), qIter, keys, execCxt) ;
+    }
+
+    /** Filter, testing RDF terms by NodeId where possible */
+    private static QueryIterator filter(ExprList exprs, QueryIterator qIter, BindingKeys keys, ExecutionContext execCxt)
+    {
+        for ( Expr expr : exprs )
+        {
+            if ( QueryIterFilterTermTDB.canExecute(expr) )
+                qIter = new QueryIterFilterTermTDB(qIter, expr, keys, execCxt) ;
+            else
+                qIter = new QueryIterFilterExpr(qIter, expr, execCxt) ;
         }
+        return qIter ;
+    }
+
+    @Override
+    protected QueryIterator execute(OpJoin opJoin, QueryIterator input)
+    {
+        if ( ! isForTDB )
+            return super.execute(opJoin, input) ;
+        QueryIterator left = exec(opJoin.getLeft(), input) ;
+        QueryIterator right = exec(opJoin.getRight(), root()) ;
+        return QueryIterJoinTDB.create(left, right, keys, nodeTable, execCxt) ;
+    }
+
+    @Override
+    protected QueryIterator execute(OpMinus opMinus, QueryIterator input)
+    {
+        Set<Var> commonVars = OpVars.visibleVars(opMinus.getLeft()) ;
+        commonVars.retainAll(OpVars.visibleVars(opMinus.getRight())) ;
+        if ( ! isForTDB || commonVars.size() > QueryIterMinusTDB.MaxVars )
+            return super.execute(opMinus, input) ;
+        QueryIterator left = exec(opMinus.getLeft(), input) ;
+        QueryIterator right = exec(opMinus.getRight(), root()) ;
+        return new QueryIterMinusTDB(left, right, commonVars, keys, execCxt) ;
+    }
+
+    @Override
+    protected QueryIterator execute(OpGroup opGroup, QueryIterator input)
+    {
+        if ( isForTDB && input instanceof QueryIterRoot )
+        {
+            // COUNT of a pattern : count index entries.
+            Binding root = input.nextBinding() ;
+            input.close() ;
+            QueryIterator qIter = IndexPushdownTDB.count(opGroup, root, execCxt) ;
+            if ( qIter != null )
+                return qIter ;
+            input = QueryIterRoot.create(root, execCxt) ;
+        }
+        if ( ! isForTDB || ! QueryIterGroupTDB.canExecute(opGroup.getGroupVars()) )
+            return super.execute(opGroup, input) ;
+        QueryIterator qIter = exec(opGroup.getSubOp(), input) ;
+        return new QueryIterGroupTDB(qIter, opGroup.getGroupVars(), opGroup.getAggregators(), keys, nodeTable, execCxt) ;
+    }
 
     // ---- Triple patterns
     
@@ -164,6 +254,17 @@ public class OpExecutorTDB1 extends OpExecutor
         return optimizeExecuteQuads(ds, input, gn, bgp, null, execCxt) ;
     }
 
+    @Override
+    protected QueryIterator execute(OpPath opPath, QueryIterator input)
+    {
+        if ( ! isForTDB || ! PathEngineTDB.canExecute(opPath.getTriplePath(), execCxt) )
+            return super.execute(opPath, input) ;
+        // Transitive paths : evaluate on NodeIds.
+        GraphTDB graph = (GraphTDB)execCxt.getActiveGraph() ;
+        Predicate<Tuple<NodeId>> filter = QC2.getFilter(execCxt.getContext()) ;
+        return PathEngineTDB.execute(graph, opPath.getTriplePath(), input, filter, execCxt) ;
+    }
+
     @Override
     protected QueryIterator execute(OpGraph opGraph, QueryIterator input)
     {
@@ -195,6 +296,11 @@ public class OpExecutorTDB1 extends OpExecutor
         if ( ! input.hasNext() )
             return input ;
     
+        // -- Range filter on a single triple pattern
+        // (the effective default graph may be the union graph).
+        if ( decideGraphNode(graph.getGraphName(), execCxt) == null && RangeScanTDB.canExecute(null, pattern, exprs, execCxt) )
+            return rangeScan(graph.getDSG(), null, pattern, exprs, input, execCxt) ;
+
         // -- Input
         // Must pass this iterator into the next stage.
         if ( pattern.size() >= 2 )
@@ -234,6 +340,10 @@ public class OpExecutorTDB1 extends OpExecutor
         if ( gn == null )
             return optimizeExecuteTriples(ds.getEffectiveDefaultGraph(), input, bgp, exprs, execCxt) ;
         
+        // ---- Range filter on a single quad pattern
+        if ( RangeScanTDB.canExecute(gn, bgp, exprs, execCxt) )
+            return rangeScan(ds, gn, bgp, exprs, input, execCxt) ;
+
         // ---- Execute quads+filters
         if ( bgp.size() >= 2 )
         {
@@ -256,8 +366,17 @@ public class OpExecutorTDB1 extends OpExecutor
         return plainExecute(op, input, execCxt) ;
     }
 
+    /** Execute a single triple pattern, with a range filter on the object, as index range scans */
+    private static QueryIterator rangeScan(DatasetGraphTDB ds, Node gn, BasicPattern bgp, ExprList exprs,
+                                           QueryIterator input, ExecutionContext execCxt)
+    {
+        Explain.explain("Execute (range scan)", bgp, execCxt.getContext()) ;
+        Predicate<Tuple<NodeId>> filter = QC2.getFilter(execCxt.getContext()) ;
+        return RangeScanTDB.execute(ds, gn, bgp, exprs, input, filter, execCxt) ;
+    }
+
     /** Execute without modification of the op - does <b>not</b> apply special graph name translations */ 
-    private static QueryIterator plainExecute(Op op, QueryIterator input, ExecutionContext execCxt)
+    static QueryIterator plainExecute(Op op, QueryIterator input, ExecutionContext execCxt)
     {
         // -- Execute
         // Switch to a non-reordering executor
@@ -424,5 +543,15 @@ public class OpExecutorTDB1 extends OpExecutor
             return super.execute(opQuadPattern, input) ;
         }
 
+        @Override
+        public QueryIterator execute(OpFilter opFilter, QueryIterator input)
+        {
+            if ( ! ( execCxt.getActiveGraph() instanceof GraphTDB ) )
+                return super.execute(opFilter, input) ;
+            QueryIterator qIter = exec(opFilter.getSubOp(), input) ;
+            BindingKeys keys = new BindingKeys(nodeTable(execCxt)) ;
+            return filter(opFilter.getExprs(), qIter, keys, execCxt) ;
+        }
+
     }
 }
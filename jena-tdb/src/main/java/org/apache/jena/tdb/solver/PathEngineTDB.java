@@ -0,0 +1,346 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.jena.tdb.solver;
+
+import java.util.* ;
+import java.util.function.Predicate ;
+
+import org.apache.jena.atlas.lib.Tuple ;
+import org.apache.jena.graph.Node ;
+import org.apache.jena.query.ARQ ;
+import org.apache.jena.sparql.core.TriplePath ;
+import org.apache.jena.sparql.core.Var ;
+import org.apache.jena.sparql.engine.ExecutionContext ;
+import org.apache.jena.sparql.engine.QueryIterator ;
+import org.apache.jena.sparql.engine.binding.Binding ;
+import org.apache.jena.sparql.engine.binding.BindingFactory ;
+import org.apache.jena.sparql.path.* ;
+import org.apache.jena.sparql.pfunction.PropertyFunctionRegistry ;
+import org.apache.jena.sparql.util.Context ;
+import org.apache.jena.tdb.store.DatasetGraphTDB ;
+import org.apache.jena.tdb.store.GraphTDB ;
+import org.apache.jena.tdb.store.NodeId ;
+import org.apache.jena.tdb.store.nodetable.NodeTable ;
+import org.apache.jena.tdb.store.nodetupletable.NodeTupleTable ;
+
+/** Set-at-a-time evaluation of transitive property paths ({@code :p*}, {@code :p+},
+ * {@code ^:p*}, {@code ^:p+}) directly over the TDB indexes.
+ * <p>
+ * The closure is calculated breadth-first on NodeIds: the visited set and the
+ * frontier are primitive {@link NodeIdSet}s, each frontier level is looked up in
+ * index order, and no node is decoded until the result binding is used.
+ * Input bindings are taken in blocks; a block shares the index lookups
+ * made for it so a start node, or an intermediate node, reached from
+ * several bindings is only looked up once.
+ * <p>
+ * Other forms of path are left to the general ARQ path engine
+ * (see {@link #canExecute}).
+ */
+public class PathEngineTDB
+{
+    /** Number of input bindings evaluated together. */
+    public static int BlockSize = 1000 ;
+
+    /** Maximum number of nodes to remember the one-step results for within a block. */
+    public static int LinkCacheSize = 100*1000 ;
+
+    /** Whether the path of the triple path is one that this engine evaluates. */
+    public static boolean canExecute(TriplePath triplePath, ExecutionContext execCxt) {
+        if ( triplePath.isTriple() )
+            return false ;
+        Step step = analyse(triplePath.getPath()) ;
+        if ( step == null )
+            return false ;
+        // Property functions in paths are handled by the general engine.
+        Context context = execCxt.getContext() ;
+        if ( context == null || context.isTrueOrUndef(ARQ.propertyFunctions) ) {
+            PropertyFunctionRegistry registry = PropertyFunctionRegistry.chooseRegistry(context) ;
+            if ( registry != null && step.property.isURI() && registry.get(step.property.getURI()) != null )
+                return false ;
+        }
+        return true ;
+    }
+
+    /** Execute a path that passed {@link #canExecute} on a TDB graph. */
+    public static QueryIterator execute(GraphTDB graph, TriplePath triplePath, QueryIterator input,
+                                        Predicate<Tuple<NodeId>> filter, ExecutionContext execCxt) {
+        Step step = analyse(triplePath.getPath()) ;
+        DatasetGraphTDB ds = graph.getDSG() ;
+        Node gn = OpExecutorTDB1.decideGraphNode(graph.getGraphName(), execCxt) ;
+        NodeTupleTable ntt = ds.chooseNodeTupleTable(gn) ;
+        List<Abortable> killList = new ArrayList<>() ;
+        Iterator<Binding> iter = new PathIteratorTDB(ntt, gn, step, triplePath, input, filter, execCxt) ;
+        iter = SolverLib.makeAbortable(iter, killList) ;
+        return new QueryIterTDB(iter, killList, input, execCxt) ;
+    }
+
+    /** The analysed path : property, direction and whether zero length paths are included. */
+    static class Step {
+        final Node property ;
+        final boolean forwards ;
+        final boolean zeroLength ;
+        Step(Node property, boolean forwards, boolean zeroLength) {
+            this.property = property ;
+            this.forwards = forwards ;
+            this.zeroLength = zeroLength ;
+        }
+    }
+
+    /** Return the step for {@code p*}/{@code p+} (possibly inverted), or null if not such a path. */
+    static Step analyse(Path path) {
+        boolean forwards = true ;
+        if ( path instanceof P_Inverse ) {
+            path = ((P_Inverse)path).getSubPath() ;
+            forwards = !forwards ;
+        }
+        boolean zeroLength ;
+        if ( path instanceof P_ZeroOrMore1 )
+            zeroLength = true ;
+        else if ( path instanceof P_OneOrMore1 )
+            zeroLength = false ;
+        else
+            return null ;
+        Path sub = ((P_Path1)path).getSubPath() ;
+        if ( sub instanceof P_Inverse ) {
+            sub = ((P_Inverse)sub).getSubPath() ;
+            forwards = !forwards ;
+        }
+        if ( sub instanceof P_Link )
+            return new Step(((P_Link)sub).getNode(), forwards, zeroLength) ;
+        if ( sub instanceof P_ReverseLink )
+            return new Step(((P_ReverseLink)sub).getNode(), !forwards, zeroLength) ;
+        return null ;
+    }
+
+    /** Evaluate the path, one block of input bindings at a time. */
+    static class PathIteratorTDB implements Iterator<Binding> {
+        private final NodeTupleTable ntt ;
+        private final NodeTable nodeTable ;
+        private final NodeId graphId ;
+        private final Step step ;
+        private final TriplePath triplePath ;
+        private final QueryIterator input ;
+        private final Predicate<Tuple<NodeId>> filter ;
+        private final ExecutionContext execCxt ;
+        private final int tupleLen ;
+
+        private Iterator<Binding> current = Collections.emptyIterator() ;
+
+        PathIteratorTDB(NodeTupleTable ntt, Node graphNode, Step step, TriplePath triplePath, QueryIterator input,
+                        Predicate<Tuple<NodeId>> filter, ExecutionContext execCxt) {
+            this.ntt = ntt ;
+            this.nodeTable = ntt.getNodeTable() ;
+            // null for the default graph, NodeIdAny for the union graph.
+            this.graphId = ( graphNode == null ) ? null
+                : Node.ANY.equals(graphNode) ? NodeId.NodeIdAny : nodeTable.getNodeIdForNode(graphNode) ;
+            this.step = step ;
+            this.triplePath = triplePath ;
+            this.input = input ;
+            this.filter = filter ;
+            this.execCxt = execCxt ;
+            this.tupleLen = ntt.getTupleTable().getTupleLen() ;
+        }
+
+        @Override
+        public boolean hasNext() {
+            while ( ! current.hasNext() ) {
+                if ( ! input.hasNext() )
+                    return false ;
+                current = nextBlock() ;
+            }
+            return true ;
+        }
+
+        @Override
+        public Binding next() {
+            if ( ! hasNext() )
+                throw new NoSuchElementException() ;
+            return current.next() ;
+        }
+
+        private Iterator<Binding> nextBlock() {
+            List<Binding> block = new ArrayList<>() ;
+            while ( block.size() < BlockSize && input.hasNext() )
+                block.add(input.next()) ;
+            return evalBlock(block).iterator() ;
+        }
+
+        private List<Binding> evalBlock(List<Binding> block) {
+            List<Binding> results = new ArrayList<>() ;
+            Links links = new Links() ;
+            // Closures already calculated in this block, by direction and start NodeId.
+            Map<NodeId, long[]> closuresFwd = new HashMap<>() ;
+            Map<NodeId, long[]> closuresBwd = new HashMap<>() ;
+            NodeId propertyId = nodeTable.getNodeIdForNode(step.property) ;
+
+            for ( Binding binding : block ) {
+                Node s = Var.lookup(binding, triplePath.getSubject()) ;
+                Node o = Var.lookup(binding, triplePath.getObject()) ;
+                if ( Var.isVar(s) && Var.isVar(o) ) {
+                    // Neither end is known - use the general engine.
+                    QueryIterator qIter = PathLib.execTriplePath(binding, triplePath, execCxt) ;
+                    qIter.forEachRemaining(results::add) ;
+                    qIter.close() ;
+                    continue ;
+                }
+
+                boolean forwards ;
+                Node start ;
+                Node end ;
+                if ( ! Var.isVar(s) ) {
+                    start = s ;
+                    end = o ;
+                    forwards = step.forwards ;
+                } else {
+                    start = o ;
+                    end = s ;
+                    forwards = ! step.forwards ;
+                }
+
+                NodeId startId = nodeTable.getNodeIdForNode(start) ;
+                long[] reachable ;
+                if ( NodeId.isDoesNotExist(startId) || NodeId.isDoesNotExist(propertyId) )
+                    // Not in the data: no links; only the zero length path, handled below.
+                    reachable = NoIds ;
+                else {
+                    Map<NodeId, long[]> closures = forwards ? closuresFwd : closuresBwd ;
+                    reachable = closures.get(startId) ;
+                    if ( reachable == null ) {
+                        reachable = closure(startId.getId(), propertyId, forwards, links) ;
+                        closures.put(startId, reachable) ;
+                    }
+                }
+                // Zero length path from a node with no links (it may not be in the node table).
+                boolean zeroLengthOnly = step.zeroLength && reachable == NoIds ;
+
+                if ( Var.isVar(end) ) {
+                    Var var = Var.alloc(end) ;
+                    if ( zeroLengthOnly ) {
+                        results.add(BindingFactory.binding(binding, var, start)) ;
+                        continue ;
+                    }
+                    for ( long id : reachable ) {
+                        BindingNodeId b = new BindingNodeId(binding) ;
+                        b.put(var, NodeId.create(id)) ;
+                        results.add(SolverLib.convToBinding(b, nodeTable)) ;
+                    }
+                    continue ;
+                }
+
+                // Both ends known: count is 0 or 1 (each end point only once).
+                if ( zeroLengthOnly ) {
+                    if ( start.sameValueAs(end) )
+                        results.add(binding) ;
+                    continue ;
+                }
+                if ( matches(reachable, end) )
+                    results.add(binding) ;
+            }
+            return results ;
+        }
+
+        private boolean matches(long[] reachable, Node end) {
+            if ( end.isLiteral() ) {
+                // Test by value, as for the general path engine.
+                for ( long id : reachable ) {
+                    Node n = nodeTable.getNodeForNodeId(NodeId.create(id)) ;
+                    if ( n.sameValueAs(end) )
+                        return true ;
+                }
+                return false ;
+            }
+            NodeId endId = nodeTable.getNodeIdForNode(end) ;
+            if ( NodeId.isDoesNotExist(endId) )
+                return false ;
+            long x = endId.getId() ;
+            for ( long id : reachable )
+                if ( id == x )
+                    return true ;
+            return false ;
+        }
+
+        /** Breadth first, level at a time, calculation of the nodes reachable from the start. */
+        private long[] closure(long start, NodeId propertyId, boolean forwards, Links links) {
+            NodeIdSet visited = new NodeIdSet() ;
+            if ( step.zeroLength )
+                visited.add(start) ;
+            long[] frontier = { start } ;
+            while ( frontier.length > 0 ) {
+                NodeIdSet next = new NodeIdSet() ;
+                // Frontier is sorted so lookups walk the index in order.
+                for ( long x : frontier ) {
+                    long[] linked = links.get(x, propertyId, forwards) ;
+                    for ( long y : linked ) {
+                        if ( visited.add(y) )
+                            next.add(y) ;
+                    }
+                }
+                frontier = next.toSortedArray() ;
+            }
+            return visited.toArray() ;
+        }
+
+        /** One step from a node : cached for the block. */
+        class Links {
+            private final Map<Long, long[]> fwd = new HashMap<>() ;
+            private final Map<Long, long[]> bwd = new HashMap<>() ;
+
+            long[] get(long x, NodeId propertyId, boolean forwards) {
+                Map<Long, long[]> cache = forwards ? fwd : bwd ;
+                long[] linked = cache.get(x) ;
+                if ( linked != null )
+                    return linked ;
+                linked = lookup(NodeId.create(x), propertyId, forwards) ;
+                if ( cache.size() < LinkCacheSize )
+                    cache.put(x, linked) ;
+                return linked ;
+            }
+        }
+
+        private long[] lookup(NodeId x, NodeId propertyId, boolean forwards) {
+            NodeId[] pattern = new NodeId[tupleLen] ;
+            int offset = 0 ;
+            if ( tupleLen == 4 ) {
+                if ( NodeId.isDoesNotExist(graphId) )
+                    return NoIds ;
+                pattern[0] = graphId ;
+                offset = 1 ;
+            }
+            pattern[offset] = forwards ? x : NodeId.NodeIdAny ;
+            pattern[offset+1] = propertyId ;
+            pattern[offset+2] = forwards ? NodeId.NodeIdAny : x ;
+            int slot = forwards ? offset+2 : offset ;
+
+            Iterator<Tuple<NodeId>> iter = ntt.find(Tuple.create(pattern)) ;
+            if ( iter == null )
+                return NoIds ;
+            NodeIdSet acc = new NodeIdSet() ;
+            while ( iter.hasNext() ) {
+                Tuple<NodeId> t = iter.next() ;
+                if ( filter != null && ! filter.test(t) )
+                    continue ;
+                // Duplicates from the union graph are removed by the set.
+                acc.add(t.get(slot)) ;
+            }
+            return acc.toArray() ;
+        }
+    }
+
+    private static final long[] NoIds = new long[0] ;
+}
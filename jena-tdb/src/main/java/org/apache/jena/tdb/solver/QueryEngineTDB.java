@@ -18,7 +18,10 @@
 
 package org.apache.jena.tdb.solver;
 
+import java.util.* ;
+
 import org.apache.jena.atlas.lib.Lib ;
+import org.apache.jena.graph.Node ;
 import org.apache.jena.query.Query ;
 import org.apache.jena.sparql.algebra.Algebra ;
 import org.apache.jena.sparql.algebra.Op ;
@@ -26,12 +29,14 @@ import org.apache.jena.sparql.core.DatasetDescription ;
 import org.apache.jena.sparql.core.DatasetGraph ;
 import org.apache.jena.sparql.core.DynamicDatasets ;
 import org.apache.jena.sparql.core.Substitute ;
+import org.apache.jena.sparql.core.Var ;
 import org.apache.jena.sparql.engine.Plan ;
 import org.apache.jena.sparql.engine.QueryEngineFactory ;
 import org.apache.jena.sparql.engine.QueryEngineRegistry ;
 import org.apache.jena.sparql.engine.QueryIterator ;
 import org.apache.jena.sparql.engine.binding.Binding ;
 import org.apache.jena.sparql.engine.binding.BindingFactory ;
+import org.apache.jena.sparql.engine.binding.BindingMap ;
 import org.apache.jena.sparql.engine.iterator.QueryIteratorWrapper ;
 import org.apache.jena.sparql.engine.main.QueryEngineMain ;
 import org.apache.jena.sparql.mgt.Explain ;
@@ -40,6 +45,8 @@ import org.apache.jena.tdb.TDB ;
 import org.apache.jena.tdb.TDBException ;
 import org.apache.jena.tdb.migrate.A2 ;
 import org.apache.jena.tdb.store.DatasetGraphTDB ;
+import org.apache.jena.tdb.store.NodeId ;
+import org.apache.jena.tdb.store.nodetable.NodeTable ;
 import org.apache.jena.tdb.transaction.DatasetGraphTransaction ;
 
 // This exists to intercept the query execution setup.
@@ -110,29 +117,117 @@ public class QueryEngineTDB extends QueryEngineMain
             Explain.explain("REWRITE(Union default graph)", op, context) ;
         }
         QueryIterator results = super.eval(op, dsg, input, context) ;
-        results = new QueryIteratorMaterializeBinding(results) ;
+        DatasetGraphTDB dsgtdb = ( dsg instanceof DatasetGraphTDB ) ? (DatasetGraphTDB)dsg : null ;
+        NodeTable nodeTable = ( dsgtdb == null ) ? null : dsgtdb.getTripleTable().getNodeTupleTable().getNodeTable() ;
+        results = new QueryIteratorMaterializeBinding(results, nodeTable, materializeBlockSize(context)) ;
         return results ; 
     }
     
+    /** Default for {@link TDB#symMaterializeBlockSize}. */
+    static final int MaterializeBlockSize = 1000 ;
+
+    private static int materializeBlockSize(Context context)
+    {
+        Object x = context.get(TDB.symMaterializeBlockSize) ;
+        if ( x == null )
+            return MaterializeBlockSize ;
+        try { return Math.max(1, Integer.parseInt(x.toString())) ; }
+        catch (NumberFormatException ex)
+        { throw new TDBException("Bad value for "+TDB.symMaterializeBlockSize+": "+x) ; }
+    }
+    
     /** Copy from any TDB internal BindingTDB to a Binding that
-     *  does not have any connection to the database.   
+     *  does not have any connection to the database.
+     *  <p>
+     *  Bindings are taken in blocks; the nodes for all the NodeIds in a block are
+     *  retrieved together, in NodeId order, so each distinct node is read from the
+     *  node table once per block. Blocks start with one binding, so the first
+     *  result is not delayed, and double up to the limit given by
+     *  {@link TDB#symMaterializeBlockSize}.
      */
     static class QueryIteratorMaterializeBinding extends QueryIteratorWrapper
     {
+        private final NodeTable nodeTable ;
+        private final Deque<Binding> block = new ArrayDeque<>() ;
+        private final int maxBlockSize ;
+        private int blockSize = 1 ;
+
         public QueryIteratorMaterializeBinding(QueryIterator qIter)
+        {
+            this(qIter, null, MaterializeBlockSize) ;
+        }
+
+        public QueryIteratorMaterializeBinding(QueryIterator qIter, NodeTable nodeTable, int maxBlockSize)
         {
             super(qIter) ;
+            this.nodeTable = nodeTable ;
+            this.maxBlockSize = maxBlockSize ;
         }
-        
+
+        @Override
+        protected boolean hasNextBinding()
+        {
+            if ( ! block.isEmpty() )
+                return true ;
+            if ( nodeTable == null )
+                return super.hasNextBinding() ;
+            fill() ;
+            return ! block.isEmpty() ;
+        }
+
         @Override
         protected Binding moveToNextBinding()
         { 
+            if ( nodeTable != null )
+                return block.removeFirst() ;
             Binding b = super.moveToNextBinding() ;
             b = BindingFactory.materialize(b) ;
             return b ;
         }
+
+        private void fill()
+        {
+            List<Binding> rows = new ArrayList<>(blockSize) ;
+            NodeIdSet ids = new NodeIdSet() ;
+            while ( rows.size() < blockSize && iterator.hasNext() )
+            {
+                Binding b = iterator.nextBinding() ;
+                rows.add(b) ;
+                for ( Iterator<Var> vIter = b.vars() ; vIter.hasNext() ; )
+                {
+                    NodeId id = SolverLib.nodeId(b, vIter.next()) ;
+                    if ( id != null && ! NodeId.isInline(id) )
+                        ids.add(id) ;
+                }
+            }
+            if ( rows.isEmpty() )
+                return ;
+            blockSize = Math.max(1, Math.min(2*blockSize, maxBlockSize)) ;
+
+            Map<NodeId, Node> nodes = new HashMap<>(2*ids.size()) ;
+            for ( long x : ids.toSortedArray() )
+            {
+                NodeId id = NodeId.create(x) ;
+                nodes.put(id, nodeTable.getNodeForNodeId(id)) ;
+            }
+
+            for ( Binding b : rows )
+            {
+                BindingMap b2 = BindingFactory.create() ;
+                for ( Iterator<Var> vIter = b.vars() ; vIter.hasNext() ; )
+                {
+                    Var v = vIter.next() ;
+                    NodeId id = SolverLib.nodeId(b, v) ;
+                    Node n = ( id == null ) ? null : nodes.get(id) ;
+                    if ( n == null )
+                        n = b.get(v) ;
+                    b2.add(v, n) ;
+                }
+                block.addLast(b2) ;
+            }
+        }
     }
-    
+
     // Execution time (needs wiring to ARQ).
     public long getMillis() { return -1 ; }
     
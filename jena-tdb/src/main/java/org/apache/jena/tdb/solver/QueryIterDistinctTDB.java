@@ -0,0 +1,57 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.jena.tdb.solver;
+
+import java.util.HashSet ;
+import java.util.Map ;
+import java.util.Set ;
+
+import org.apache.jena.sparql.core.Var ;
+import org.apache.jena.sparql.engine.ExecutionContext ;
+import org.apache.jena.sparql.engine.QueryIterator ;
+import org.apache.jena.sparql.engine.binding.Binding ;
+import org.apache.jena.sparql.engine.iterator.QueryIterDistinctReduced ;
+
+/** DISTINCT on the NodeIds of bindings, so that nodes are not retrieved to find duplicates.
+ *  This is an in-memory DISTINCT; it does not spill to disk.
+ */
+public class QueryIterDistinctTDB extends QueryIterDistinctReduced
+{
+    private final BindingKeys keys ;
+    private Set<Map<Var, Object>> seen = new HashSet<>() ;
+
+    public QueryIterDistinctTDB(QueryIterator qIter, BindingKeys keys, ExecutionContext context)
+    {
+        super(qIter, context) ;
+        this.keys = keys ;
+    }
+
+    @Override
+    protected void closeSubIterator()
+    {
+        seen = null ;
+        super.closeSubIterator() ;
+    }
+
+    @Override
+    protected boolean isFreshSighting(Binding binding)
+    {
+        return seen.add(keys.key(binding)) ;
+    }
+}
@@ -0,0 +1,91 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.jena.tdb.solver;
+
+import org.apache.jena.sparql.engine.ExecutionContext ;
+import org.apache.jena.sparql.engine.QueryIterator ;
+import org.apache.jena.sparql.engine.binding.Binding ;
+import org.apache.jena.sparql.engine.iterator.QueryIterFilterExpr ;
+import org.apache.jena.sparql.expr.* ;
+
+/** Filter by a test of RDF terms : {@code sameTerm(?x, ?y)}, {@code sameTerm(?x, <iri>)},
+ *  {@code ?x = <iri>} and {@code ?x != <iri>}, comparing NodeIds instead of nodes.
+ *  Cases that the NodeIds do not decide (e.g. an unbound variable) are evaluated as usual.
+ */
+public class QueryIterFilterTermTDB extends QueryIterFilterExpr
+{
+    private final BindingKeys keys ;
+    private final Expr arg1 ;
+    private final Expr arg2 ;
+    private final Object const1 ;
+    private final Object const2 ;
+    private final boolean negate ;
+
+    /** Whether the expression is one that this filter evaluates on NodeIds. */ 
+    public static boolean canExecute(Expr expr)
+    {
+        if ( expr instanceof E_SameTerm )
+        {
+            ExprFunction2 f = (ExprFunction2)expr ;
+            return isVarOrConstant(f.getArg1()) && isVarOrConstant(f.getArg2()) &&
+                   ( f.getArg1().isVariable() || f.getArg2().isVariable() ) ;
+        }
+        if ( expr instanceof E_Equals || expr instanceof E_NotEquals )
+        {
+            ExprFunction2 f = (ExprFunction2)expr ;
+            return ( f.getArg1().isVariable() && isIRI(f.getArg2()) ) ||
+                   ( isIRI(f.getArg1()) && f.getArg2().isVariable() ) ;
+        }
+        return false ;
+    }
+
+    private static boolean isVarOrConstant(Expr expr)
+    {
+        return expr.isVariable() || expr.isConstant() ;
+    }
+
+    private static boolean isIRI(Expr expr)
+    {
+        return expr.isConstant() && expr.getConstant().isIRI() ;
+    }
+
+    public QueryIterFilterTermTDB(QueryIterator input, Expr expr, BindingKeys keys, ExecutionContext context)
+    {
+        super(input, expr, context) ;
+        this.keys = keys ;
+        ExprFunction2 f = (ExprFunction2)expr ;
+        this.arg1 = f.getArg1() ;
+        this.arg2 = f.getArg2() ;
+        this.const1 = arg1.isConstant() ? keys.value(arg1.getConstant().asNode()) : null ;
+        this.const2 = arg2.isConstant() ? keys.value(arg2.getConstant().asNode()) : null ;
+        this.negate = ( expr instanceof E_NotEquals ) ;
+    }
+
+    @Override
+    public Binding accept(Binding binding)
+    {
+        Object x1 = arg1.isVariable() ? keys.value(binding, arg1.asVar()) : const1 ;
+        Object x2 = arg2.isVariable() ? keys.value(binding, arg2.asVar()) : const2 ;
+        if ( x1 == null || x2 == null )
+            // Unbound : an error, which the expression evaluation handles.
+            return super.accept(binding) ;
+        boolean b = ( x1.equals(x2) != negate ) ;
+        return b ? binding : null ;
+    }
+}
@@ -0,0 +1,172 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.jena.tdb.solver;
+
+import java.util.* ;
+
+import org.apache.jena.atlas.iterator.Iter ;
+import org.apache.jena.atlas.iterator.IteratorDelayedInitialization ;
+import org.apache.jena.graph.Node ;
+import org.apache.jena.sparql.core.Var ;
+import org.apache.jena.sparql.core.VarExprList ;
+import org.apache.jena.sparql.engine.ExecutionContext ;
+import org.apache.jena.sparql.engine.QueryIterator ;
+import org.apache.jena.sparql.engine.binding.Binding ;
+import org.apache.jena.sparql.engine.binding.BindingFactory ;
+import org.apache.jena.sparql.engine.binding.BindingMap ;
+import org.apache.jena.sparql.engine.iterator.QueryIterPlainWrapper ;
+import org.apache.jena.sparql.expr.ExprAggregator ;
+import org.apache.jena.sparql.expr.NodeValue ;
+import org.apache.jena.sparql.expr.aggregate.Accumulator ;
+import org.apache.jena.tdb.store.NodeId ;
+import org.apache.jena.tdb.store.nodetable.NodeTable ;
+
+/** GROUP BY variables, with the group keys as NodeIds. The group variables of
+ *  the results are NodeIds which are only turned into nodes when used.
+ *  Grouping by expressions is left to {@code QueryIterGroup}.
+ */
+public class QueryIterGroupTDB extends QueryIterPlainWrapper
+{
+    private final QueryIterator embeddedIterator ;
+
+    /** Whether the grouping is by variables only. */
+    public static boolean canExecute(VarExprList groupVars)
+    {
+        return groupVars.getExprs().isEmpty() ;
+    }
+
+    public QueryIterGroupTDB(QueryIterator qIter, VarExprList groupVars, List<ExprAggregator> aggregators,
+                             BindingKeys keys, NodeTable nodeTable, ExecutionContext execCxt)
+    {
+        super(null, execCxt) ;
+        this.embeddedIterator = qIter ;
+        setIterator(calc(qIter, groupVars.getVars(), aggregators, keys, nodeTable, execCxt)) ;
+    }
+
+    @Override
+    public void requestCancel()
+    {
+        this.embeddedIterator.cancel() ;
+        super.requestCancel() ;
+    }
+
+    private static class Group
+    {
+        final Binding key ;
+        final List<ExprAggregator> aggregators ;
+        final List<Accumulator> accumulators = new ArrayList<>() ;
+        Group(Binding key, List<ExprAggregator> aggregators)
+        {
+            this.key = key ;
+            this.aggregators = aggregators ;
+            for ( ExprAggregator agg : aggregators )
+                accumulators.add(agg.getAggregator().createAccumulator()) ;
+        }
+    }
+
+    private static Iterator<Binding> calc(final QueryIterator iter, final List<Var> groupVars,
+                                          final List<ExprAggregator> aggregators,
+                                          final BindingKeys keys, final NodeTable nodeTable,
+                                          final ExecutionContext execCxt)
+    {
+        return new IteratorDelayedInitialization<Binding>() {
+            @Override
+            protected Iterator<Binding> initializeIterator()
+            {
+                List<ExprAggregator> aggs = ( aggregators == null ) ? Collections.<ExprAggregator>emptyList() : aggregators ;
+                Map<List<Object>, Group> groups = new LinkedHashMap<>() ;
+                while ( iter.hasNext() )
+                {
+                    Binding b = iter.nextBinding() ;
+                    List<Object> k = keys.key(b, groupVars) ;
+                    Group group = groups.get(k) ;
+                    if ( group == null )
+                    {
+                        group = new Group(genKey(groupVars, b, nodeTable), aggs) ;
+                        groups.put(k, group) ;
+                    }
+                    for ( Accumulator acc : group.accumulators )
+                        acc.accumulate(b, execCxt) ;
+                }
+
+                if ( groups.isEmpty() )
+                {
+                    // No rows to group : no groups unless there are aggregators, 
+                    // which may have a value for no rows.
+                    if ( aggs.isEmpty() )
+                        return Iter.nullIterator() ;
+                    BindingMap binding = BindingFactory.create() ;
+                    for ( ExprAggregator agg : aggs )
+                    {
+                        Node value = agg.getAggregator().getValueEmpty() ;
+                        if ( value != null )
+                            binding.add(agg.getVar(), value) ;
+                    }
+                    return Iter.singletonIter((Binding)binding) ;
+                }
+
+                List<Binding> results = new ArrayList<>(groups.size()) ;
+                for ( Group group : groups.values() )
+                {
+                    if ( group.aggregators.isEmpty() )
+                    {
+                        results.add(group.key) ;
+                        continue ;
+                    }
+                    BindingMap b = BindingFactory.create(group.key) ;
+                    for ( int i = 0 ; i < group.aggregators.size() ; i++ )
+                    {
+                        Var v = group.aggregators.get(i).getVar() ;
+                        NodeValue value = group.accumulators.get(i).getValue() ;
+                        Node n = ( value == null ) ? null : value.asNode() ;
+                        if ( v != null && n != null )
+                            b.add(v, n) ;
+                    }
+                    results.add(b) ;
+                }
+                return results.iterator() ;
+            }
+        } ;
+    }
+
+    /** The binding of the group variables, keeping NodeIds. */
+    private static Binding genKey(List<Var> groupVars, Binding binding, NodeTable nodeTable)
+    {
+        BindingMap nodes = BindingFactory.create() ;
+        BindingNodeId ids = null ;
+        for ( Var v : groupVars )
+        {
+            NodeId id = SolverLib.nodeId(binding, v) ;
+            if ( id != null )
+            {
+                if ( ids == null )
+                    ids = new BindingNodeId(nodes) ;
+                ids.put(v, id) ;
+                continue ;
+            }
+            Node n = binding.get(v) ;
+            // Null for unbound.
+            if ( n != null )
+                nodes.add(v, n) ;
+        }
+        if ( ids == null )
+            return nodes ;
+        return new BindingTDB(ids, nodeTable) ;
+    }
+}
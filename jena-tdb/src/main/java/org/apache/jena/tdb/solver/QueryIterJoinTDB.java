@@ -0,0 +1,207 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.jena.tdb.solver;
+
+import java.util.* ;
+
+import org.apache.jena.sparql.core.Var ;
+import org.apache.jena.sparql.engine.ExecutionContext ;
+import org.apache.jena.sparql.engine.QueryIterator ;
+import org.apache.jena.sparql.engine.binding.Binding ;
+import org.apache.jena.sparql.engine.binding.BindingFactory ;
+import org.apache.jena.sparql.engine.binding.BindingMap ;
+import org.apache.jena.sparql.engine.iterator.QueryIter2 ;
+import org.apache.jena.sparql.engine.iterator.QueryIterPlainWrapper ;
+import org.apache.jena.sparql.engine.main.iterator.QueryIterJoin ;
+import org.apache.jena.tdb.store.NodeId ;
+import org.apache.jena.tdb.store.nodetable.NodeTable ;
+
+/** Join by materializing the RHS and hashing it on the keys of the shared variables.
+ *  Values are compared by NodeId and the results keep the NodeIds of the right hand side,
+ *  so no nodes are retrieved from the node table to do the join.
+ *  <p>
+ *  The right hand side rows are grouped by which variables they bind. For each
+ *  group, a left row is looked up by its values for the variables it has in common
+ *  with the group.
+ */
+public class QueryIterJoinTDB extends QueryIter2
+{
+    /** Most variables handled on the right (the domain of a row is a bit mask). */
+    public static final int MaxVars = Long.SIZE ;
+
+    private final BindingKeys keys ;
+    private final NodeTable nodeTable ;
+    private final List<Var> vars = new ArrayList<>() ;
+    // Domain of the right rows => the rows. 
+    private final Map<Long, List<Row>> rightRows = new HashMap<>() ;
+    // Domain of the right rows => (shared domain => rows by key). 
+    private final Map<Long, Map<Long, Map<List<Object>, List<Row>>>> indexes = new HashMap<>() ;
+    private Iterator<Binding> current = null ;
+
+    private static class Row {
+        final Binding binding ;
+        final Object[] keys ;
+        Row(Binding binding, Object[] keys) { this.binding = binding ; this.keys = keys ; }
+    }
+
+    /** Create a join iterator; this consumes the right hand side. */
+    public static QueryIterator create(QueryIterator left, QueryIterator right, BindingKeys keys, NodeTable nodeTable, ExecutionContext execCxt)
+    {
+        List<Binding> rows = new ArrayList<>() ;
+        Set<Var> vars = new LinkedHashSet<>() ;
+        while ( right.hasNext() )
+        {
+            Binding b = right.nextBinding() ;
+            rows.add(b) ;
+            b.vars().forEachRemaining(vars::add) ;
+        }
+        if ( vars.size() > MaxVars )
+        {
+            right.close() ;
+            return new QueryIterJoin(left, new QueryIterPlainWrapper(rows.iterator(), execCxt), execCxt) ;
+        }
+        return new QueryIterJoinTDB(left, right, rows, vars, keys, nodeTable, execCxt) ;
+    }
+
+    private QueryIterJoinTDB(QueryIterator left, QueryIterator right, List<Binding> rows, Set<Var> vars, 
+                             BindingKeys keys, NodeTable nodeTable, ExecutionContext execCxt)
+    {
+        super(left, right, execCxt) ;
+        this.keys = keys ;
+        this.nodeTable = nodeTable ;
+        this.vars.addAll(vars) ;
+        for ( Binding b : rows )
+        {
+            Object[] row = new Object[vars.size()] ;
+            long domain = row(b, row) ;
+            rightRows.computeIfAbsent(domain, d -> new ArrayList<>()).add(new Row(b, row)) ;
+        }
+    }
+
+    /** Fill in the row of keys; return the domain of the row. */ 
+    private long row(Binding binding, Object[] row)
+    {
+        long domain = 0 ;
+        for ( int i = 0 ; i < row.length ; i++ )
+        {
+            row[i] = keys.value(binding, vars.get(i)) ;
+            if ( row[i] != null )
+                domain |= (1L<<i) ;
+        }
+        return domain ;
+    }
+
+    private static List<Object> project(Object[] row, long domain)
+    {
+        List<Object> x = new ArrayList<>(Long.bitCount(domain)) ;
+        for ( int i = 0 ; i < row.length ; i++ )
+        {
+            if ( ( domain & (1L<<i) ) != 0 )
+                x.add(row[i]) ;
+        }
+        return x ;
+    }
+
+    private Map<List<Object>, List<Row>> index(long domain, long shared)
+    {
+        Map<Long, Map<List<Object>, List<Row>>> x = indexes.computeIfAbsent(domain, d -> new HashMap<>()) ;
+        return x.computeIfAbsent(shared, s -> {
+            Map<List<Object>, List<Row>> idx = new HashMap<>() ;
+            for ( Row row : rightRows.get(domain) )
+                idx.computeIfAbsent(project(row.keys, s), k -> new ArrayList<>()).add(row) ;
+            return idx ;
+        }) ;
+    }
+
+    private Iterator<Binding> join(Binding bindingLeft)
+    {
+        Object[] row = new Object[vars.size()] ;
+        long domainLeft = row(bindingLeft, row) ;
+        List<Binding> results = new ArrayList<>() ;
+        for ( Map.Entry<Long, List<Row>> e : rightRows.entrySet() )
+        {
+            long domain = e.getKey() ;
+            long shared = domain & domainLeft ;
+            List<Row> matches = ( shared == 0 ) ? e.getValue() : index(domain, shared).get(project(row, shared)) ;
+            if ( matches == null )
+                continue ;
+            for ( Row r : matches )
+                results.add(merge(bindingLeft, r.binding)) ;
+        }
+        return results.iterator() ;
+    }
+
+    /** Extend the left binding with the right binding, keeping the NodeIds from the right. */
+    private Binding merge(Binding bindingLeft, Binding bindingRight)
+    {
+        BindingMap nodes = null ;
+        BindingNodeId ids = null ;
+        for ( Iterator<Var> iter = bindingRight.vars() ; iter.hasNext() ; )
+        {
+            Var v = iter.next() ;
+            if ( bindingLeft.contains(v) )
+                continue ;
+            NodeId id = SolverLib.nodeId(bindingRight, v) ;
+            if ( id != null )
+            {
+                if ( ids == null )
+                    ids = new BindingNodeId() ;
+                ids.put(v, id) ;
+            }
+            else
+            {
+                if ( nodes == null )
+                    nodes = BindingFactory.create(bindingLeft) ;
+                nodes.add(v, bindingRight.get(v)) ;
+            }
+        }
+        Binding parent = ( nodes == null ) ? bindingLeft : nodes ;
+        if ( ids == null )
+            return parent ;
+        BindingNodeId b = new BindingNodeId(parent) ;
+        b.putAll(ids) ;
+        return new BindingTDB(b, nodeTable) ;
+    }
+
+    @Override
+    protected void closeSubIterator() { }
+    
+    @Override
+    protected void requestSubCancel() { }
+
+    @Override
+    protected boolean hasNextBinding()
+    {
+        while ( current == null || ! current.hasNext() )
+        {
+            if ( ! getLeft().hasNext() )
+                return false ;
+            current = join(getLeft().nextBinding()) ;
+        }
+        return true ;
+    }
+
+    @Override
+    protected Binding moveToNextBinding()
+    {
+        if ( ! hasNextBinding() )
+            return null ;
+        return current.next() ;
+    }
+}
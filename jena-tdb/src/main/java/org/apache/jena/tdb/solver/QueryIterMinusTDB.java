@@ -0,0 +1,151 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.jena.tdb.solver;
+
+import java.util.* ;
+
+import org.apache.jena.sparql.core.Var ;
+import org.apache.jena.sparql.engine.ExecutionContext ;
+import org.apache.jena.sparql.engine.QueryIterator ;
+import org.apache.jena.sparql.engine.binding.Binding ;
+import org.apache.jena.sparql.engine.iterator.QueryIter2 ;
+
+/** MINUS by materializing the RHS as keys of NodeIds - this is not streamed on the right.
+ *  <p>
+ *  The right hand side rows are grouped by which of the common variables they bind.
+ *  A left row is removed if, for some group, it shares a variable with the group
+ *  and its values for the shared variables are those of a row of the group.
+ */
+public class QueryIterMinusTDB extends QueryIter2
+{
+    /** Most common variables handled (the domain of a row is a bit mask). */
+    public static final int MaxVars = Long.SIZE ;
+
+    private final List<Var> vars ;
+    private final BindingKeys keys ;
+    // Domain of the right rows => the rows, as keys in the order of vars. 
+    private final Map<Long, List<Object[]>> rightRows = new HashMap<>() ;
+    // Domain of the right rows => (shared domain => projections of those rows).  
+    private final Map<Long, Map<Long, Set<List<Object>>>> projections = new HashMap<>() ;
+    private Binding slot = null ;
+
+    public QueryIterMinusTDB(QueryIterator left, QueryIterator right, Set<Var> commonVars, BindingKeys keys, ExecutionContext execCxt)
+    {
+        super(left, right, execCxt) ;
+        if ( commonVars.size() > MaxVars )
+            throw new IllegalArgumentException("Too many common variables: "+commonVars.size()) ;
+        this.vars = new ArrayList<>(commonVars) ;
+        this.keys = keys ;
+        while ( right.hasNext() )
+        {
+            Binding b = right.nextBinding() ;
+            Object[] row = new Object[vars.size()] ;
+            long domain = row(b, row) ;
+            // No common variables : can not remove any left row.
+            if ( domain != 0 )
+                rightRows.computeIfAbsent(domain, d -> new ArrayList<>()).add(row) ;
+        }
+    }
+
+    /** Fill in the row of keys for the common variables; return the domain of the row. */ 
+    private long row(Binding binding, Object[] row)
+    {
+        long domain = 0 ;
+        for ( int i = 0 ; i < row.length ; i++ )
+        {
+            row[i] = keys.value(binding, vars.get(i)) ;
+            if ( row[i] != null )
+                domain |= (1L<<i) ;
+        }
+        return domain ;
+    }
+
+    private static List<Object> project(Object[] row, long domain)
+    {
+        List<Object> x = new ArrayList<>(Long.bitCount(domain)) ;
+        for ( int i = 0 ; i < row.length ; i++ )
+        {
+            if ( ( domain & (1L<<i) ) != 0 )
+                x.add(row[i]) ;
+        }
+        return x ;
+    }
+
+    private Set<List<Object>> projections(long domain, long shared)
+    {
+        Map<Long, Set<List<Object>>> x = projections.computeIfAbsent(domain, d -> new HashMap<>()) ;
+        return x.computeIfAbsent(shared, s -> {
+            Set<List<Object>> p = new HashSet<>() ;
+            for ( Object[] row : rightRows.get(domain) )
+                p.add(project(row, s)) ;
+            return p ;
+        }) ;
+    }
+
+    private boolean isRemoved(Binding bindingLeft)
+    {
+        Object[] row = new Object[vars.size()] ;
+        long domainLeft = row(bindingLeft, row) ;
+        if ( domainLeft == 0 )
+            return false ;
+        for ( Long domain : rightRows.keySet() )
+        {
+            long shared = domain & domainLeft ;
+            if ( shared == 0 )
+                continue ;
+            if ( projections(domain, shared).contains(project(row, shared)) )
+                return true ;
+        }
+        return false ;
+    }
+
+    @Override
+    protected void closeSubIterator() { }
+    
+    @Override
+    protected void requestSubCancel() { }
+
+    @Override
+    protected boolean hasNextBinding()
+    {
+        if ( slot != null )
+            return true ;
+        while ( getLeft().hasNext() )
+        {
+            Binding bindingLeft = getLeft().nextBinding() ;
+            if ( ! isRemoved(bindingLeft) )
+            {
+                slot = bindingLeft ;
+                return true ;
+            }
+        }
+        getLeft().close() ;
+        return false ;
+    }
+
+    @Override
+    protected Binding moveToNextBinding()
+    {
+        if ( ! hasNextBinding() )
+            return null ;
+        Binding x = slot ;
+        slot = null ;
+        return x ;
+    }
+}
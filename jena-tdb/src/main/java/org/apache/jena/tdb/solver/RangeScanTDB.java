@@ -0,0 +1,293 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.jena.tdb.solver;
+
+import java.math.BigInteger ;
+import java.util.ArrayList ;
+import java.util.Iterator ;
+import java.util.List ;
+import java.util.function.Predicate ;
+
+import org.apache.jena.atlas.iterator.Iter ;
+import org.apache.jena.atlas.lib.Tuple ;
+import org.apache.jena.graph.Node ;
+import org.apache.jena.graph.Triple ;
+import org.apache.jena.sparql.algebra.Op ;
+import org.apache.jena.sparql.algebra.op.OpBGP ;
+import org.apache.jena.sparql.algebra.op.OpFilter ;
+import org.apache.jena.sparql.algebra.op.OpQuadPattern ;
+import org.apache.jena.sparql.core.BasicPattern ;
+import org.apache.jena.sparql.core.Var ;
+import org.apache.jena.sparql.engine.ExecutionContext ;
+import org.apache.jena.sparql.engine.QueryIterator ;
+import org.apache.jena.sparql.engine.binding.Binding ;
+import org.apache.jena.sparql.engine.iterator.QueryIterNullIterator ;
+import org.apache.jena.sparql.engine.iterator.QueryIterRepeatApply ;
+import org.apache.jena.sparql.engine.iterator.QueryIterSingleton ;
+import org.apache.jena.sparql.expr.* ;
+import org.apache.jena.sparql.util.Context ;
+import org.apache.jena.tdb.TDB ;
+import org.apache.jena.tdb.store.DatasetGraphTDB ;
+import org.apache.jena.tdb.store.IntegerNode ;
+import org.apache.jena.tdb.store.NodeId ;
+import org.apache.jena.tdb.store.nodetable.NodeTable ;
+import org.apache.jena.tdb.store.nodetupletable.NodeTupleTable ;
+
+/** Execution of a filtered triple pattern {@code ?s :p ?o FILTER(?o > 30)}
+ * as range scans of an index that has the object after the predicate (POS, GPOS).
+ * <p>
+ * Inline integers are ordered by value in the index (non-negative values then
+ * negative values), so the part of the range that is integers can be read directly
+ * from the index, without testing the range filters.  Nodes in the node table, and
+ * other inline values that can be compared with an integer, are scanned separately
+ * and tested with the whole filter.  Inline dates, dateTimes and booleans are
+ * skipped: comparing them to a number is an error so the filter is false.
+ */
+public class RangeScanTDB
+{
+    private static final int TypeShift = 56 ;
+
+    /** Whether the filtered pattern can be executed as range scans.
+     * The pattern must be a single triple {@code ?s :p ?o} and the filter
+     * must restrict {@code ?o} to a range of integers.
+     */
+    public static boolean canExecute(Node graphNode, BasicPattern pattern, ExprList exprs, ExecutionContext execCxt) {
+        Context context = execCxt.getContext() ;
+        if ( context != null && ! context.isTrueOrUndef(TDB.symRangeScan) )
+            return false ;
+        // Union graph : there is no index with the graph slot last.
+        if ( graphNode != null && ! graphNode.isURI() && ! graphNode.isBlank() )
+            return false ;
+        if ( exprs == null || pattern.size() != 1 )
+            return false ;
+        Triple triple = pattern.get(0) ;
+        if ( ! Var.isVar(triple.getSubject()) || ! Var.isVar(triple.getObject()) || ! triple.getPredicate().isConcrete() )
+            return false ;
+        if ( triple.getSubject().equals(triple.getObject()) )
+            return false ;
+        return analyse(Var.alloc(triple.getObject()), exprs) != null ;
+    }
+
+    /** Execute a filtered pattern that passed {@link #canExecute}.
+     * graphNode is null for the default graph (the triple table) else the name of a graph.
+     */
+    public static QueryIterator execute(DatasetGraphTDB ds, Node graphNode, BasicPattern pattern, ExprList exprs,
+                                        QueryIterator input, Predicate<Tuple<NodeId>> filter, ExecutionContext execCxt) {
+        Triple triple = pattern.get(0) ;
+        Range range = analyse(Var.alloc(triple.getObject()), exprs) ;
+        Op op = ( graphNode == null ) ? new OpBGP(pattern) : new OpQuadPattern(graphNode, pattern) ;
+        Op opFilter = OpFilter.filter(exprs, op) ;
+        NodeTupleTable ntt = ds.chooseNodeTupleTable(graphNode) ;
+        return new QueryIterRangeScan(input, ntt, graphNode, triple, range, exprs, opFilter, filter, execCxt) ;
+    }
+
+    /** The range of integers for a variable, and the filter expressions that are not part of the range. */
+    static class Range {
+        final long lo ;
+        final long hi ;
+        final ExprList residual ;
+        Range(long lo, long hi, ExprList residual) {
+            this.lo = lo ;
+            this.hi = hi ;
+            this.residual = residual ;
+        }
+    }
+
+    /** Find the range of the variable from the comparisons with integer constants,
+     * or return null if there are none.
+     */
+    static Range analyse(Var var, ExprList exprs) {
+        long lo = IntegerNode.MIN ;
+        long hi = IntegerNode.MAX ;
+        boolean found = false ;
+        ExprList residual = new ExprList() ;
+        for ( Expr expr : ExprList.splitConjunction(exprs) ) {
+            Bound bound = bound(var, expr) ;
+            if ( bound == null ) {
+                residual.add(expr) ;
+                continue ;
+            }
+            found = true ;
+            lo = Math.max(lo, bound.lo) ;
+            hi = Math.min(hi, bound.hi) ;
+        }
+        if ( ! found )
+            return null ;
+        return new Range(lo, hi, residual) ;
+    }
+
+    private static class Bound {
+        final long lo ;
+        final long hi ;
+        Bound(long lo, long hi) { this.lo = lo ; this.hi = hi ; }
+    }
+
+    /** The bounds, clamped to the range of inline integers, for a comparison of var with an integer constant. */
+    private static Bound bound(Var var, Expr expr) {
+        if ( ! ( expr instanceof ExprFunction2 ) )
+            return null ;
+        ExprFunction2 func = (ExprFunction2)expr ;
+        Expr arg1 = func.getArg1() ;
+        Expr arg2 = func.getArg2() ;
+        boolean varFirst ;
+        NodeValue nv ;
+        if ( isVar(arg1, var) && arg2.isConstant() ) {
+            varFirst = true ;
+            nv = arg2.getConstant() ;
+        } else if ( isVar(arg2, var) && arg1.isConstant() ) {
+            varFirst = false ;
+            nv = arg1.getConstant() ;
+        } else
+            return null ;
+        if ( ! nv.isInteger() )
+            return null ;
+        BigInteger x = nv.getInteger() ;
+        // Clamped to one beyond the inline range so that strict comparisons still work.
+        long c = x.max(BigInteger.valueOf(IntegerNode.MIN-1)).min(BigInteger.valueOf(IntegerNode.MAX+1)).longValue() ;
+
+        if ( expr instanceof E_Equals )
+            return new Bound(c, c) ;
+        if ( expr instanceof E_LessThan )
+            return varFirst ? new Bound(IntegerNode.MIN, c-1) : new Bound(c+1, IntegerNode.MAX) ;
+        if ( expr instanceof E_LessThanOrEqual )
+            return varFirst ? new Bound(IntegerNode.MIN, c) : new Bound(c, IntegerNode.MAX) ;
+        if ( expr instanceof E_GreaterThan )
+            return varFirst ? new Bound(c+1, IntegerNode.MAX) : new Bound(IntegerNode.MIN, c-1) ;
+        if ( expr instanceof E_GreaterThanOrEqual )
+            return varFirst ? new Bound(c, IntegerNode.MAX) : new Bound(IntegerNode.MIN, c) ;
+        return null ;
+    }
+
+    private static boolean isVar(Expr expr, Var var) {
+        return expr.isVariable() && expr.asVar().equals(var) ;
+    }
+
+    private static NodeId typeStart(int type) {
+        return NodeId.create(((long)type)<<TypeShift) ;
+    }
+
+    private static NodeId typeEnd(int type) {
+        return NodeId.create((((long)type+1)<<TypeShift)-1) ;
+    }
+
+    /** Range scans, for each input binding. */
+    static class QueryIterRangeScan extends QueryIterRepeatApply {
+        private final NodeTupleTable ntt ;
+        private final NodeTable nodeTable ;
+        private final Node graphNode ;
+        private final Var subjVar ;
+        private final Node predicate ;
+        private final Var objVar ;
+        private final Range range ;
+        private final ExprList exprs ;
+        private final Op opFilter ;
+        private final Predicate<Tuple<NodeId>> filter ;
+
+        QueryIterRangeScan(QueryIterator input, NodeTupleTable ntt, Node graphNode, Triple triple, Range range,
+                           ExprList exprs, Op opFilter, Predicate<Tuple<NodeId>> filter, ExecutionContext execCxt) {
+            super(input, execCxt) ;
+            this.ntt = ntt ;
+            this.nodeTable = ntt.getNodeTable() ;
+            this.graphNode = graphNode ;
+            this.subjVar = Var.alloc(triple.getSubject()) ;
+            this.predicate = triple.getPredicate() ;
+            this.objVar = Var.alloc(triple.getObject()) ;
+            this.range = range ;
+            this.exprs = exprs ;
+            this.opFilter = opFilter ;
+            this.filter = filter ;
+        }
+
+        @Override
+        protected QueryIterator nextStage(Binding binding) {
+            ExecutionContext execCxt = getExecContext() ;
+            // Already bound : a lookup, not a scan.
+            if ( binding.contains(subjVar) || binding.contains(objVar) )
+                return fallback(binding) ;
+
+            NodeId pId = nodeTable.getNodeIdForNode(predicate) ;
+            NodeId gId = ( graphNode == null ) ? null : nodeTable.getNodeIdForNode(graphNode) ;
+            if ( NodeId.isDoesNotExist(pId) || NodeId.isDoesNotExist(gId) )
+                return QueryIterNullIterator.create(execCxt) ;
+
+            int pSlot = ( graphNode == null ) ? 1 : 2 ;
+            NodeId[] pattern = new NodeId[pSlot+2] ;
+            for ( int i = 0 ; i < pattern.length ; i++ )
+                pattern[i] = NodeId.NodeIdAny ;
+            if ( gId != null )
+                pattern[0] = gId ;
+            pattern[pSlot] = pId ;
+            Tuple<NodeId> tuple = Tuple.create(pattern) ;
+
+            List<Iterator<Binding>> parts = new ArrayList<>() ;
+            // Inline integers : in the range by construction.
+            if ( range.lo <= range.hi ) {
+                if ( range.lo < 0 ) {
+                    long hi = Math.min(range.hi, -1) ;
+                    parts.add(scan(binding, tuple, IntegerNode.pack(range.lo), IntegerNode.pack(hi), range.residual)) ;
+                }
+                if ( range.hi >= 0 ) {
+                    long lo = Math.max(range.lo, 0) ;
+                    parts.add(scan(binding, tuple, IntegerNode.pack(lo), IntegerNode.pack(range.hi), range.residual)) ;
+                }
+            }
+            // Nodes in the node table, inline decimals and any other inline types: the whole filter.
+            parts.add(scan(binding, tuple, typeStart(NodeId.NONE).getId(), typeEnd(NodeId.NONE).getId(), exprs)) ;
+            parts.add(scan(binding, tuple, typeStart(NodeId.DECIMAL).getId(), typeEnd(NodeId.DECIMAL).getId(), exprs)) ;
+            parts.add(scan(binding, tuple, typeStart(NodeId.SHORT_STRING).getId(), typeStart(NodeId.SPECIAL).getId()-1, exprs)) ;
+            if ( parts.contains(null) )
+                // No index for a range scan.
+                return fallback(binding) ;
+
+            List<Abortable> killList = new ArrayList<>() ;
+            Iterator<Binding> iter = null ;
+            for ( Iterator<Binding> part : parts )
+                iter = Iter.concat(iter, part) ;
+            iter = SolverLib.makeAbortable(iter, killList) ;
+            return new QueryIterTDB(iter, killList, null, execCxt) ;
+        }
+
+        /** Scan a range of the object slot, returning bindings that pass the expressions, or null if there is no suitable index. */
+        private Iterator<Binding> scan(Binding binding, Tuple<NodeId> tuple, long min, long max, ExprList exprs) {
+            int oSlot = tuple.size()-1 ;
+            int sSlot = tuple.size()-3 ;
+            Iterator<Tuple<NodeId>> iter = ntt.findRange(tuple, oSlot, NodeId.create(min), NodeId.create(max)) ;
+            if ( iter == null )
+                return null ;
+            if ( filter != null )
+                iter = Iter.filter(iter, filter) ;
+            Iterator<Binding> iterBinding = Iter.map(iter, t -> {
+                BindingNodeId b = new BindingNodeId(binding) ;
+                b.put(subjVar, t.get(sSlot)) ;
+                b.put(objVar, t.get(oSlot)) ;
+                return SolverLib.convToBinding(b, nodeTable) ;
+            }) ;
+            if ( exprs.isEmpty() )
+                return iterBinding ;
+            ExecutionContext execCxt = getExecContext() ;
+            return Iter.filter(iterBinding, b -> exprs.isSatisfied(b, execCxt)) ;
+        }
+
+        /** Execute the filtered pattern in the usual way for one binding. */
+        private QueryIterator fallback(Binding binding) {
+            ExecutionContext execCxt = getExecContext() ;
+            return OpExecutorTDB1.plainExecute(opFilter, QueryIterSingleton.create(binding, execCxt), execCxt) ;
+        }
+    }
+}
@@ -36,8 +36,10 @@ import org.apache.jena.sparql.core.Var ;
 import org.apache.jena.sparql.engine.ExecutionContext ;
 import org.apache.jena.sparql.engine.QueryIterator ;
 import org.apache.jena.sparql.engine.binding.Binding ;
+import org.apache.jena.sparql.engine.binding.BindingBase ;
 import org.apache.jena.sparql.engine.binding.BindingFactory ;
 import org.apache.jena.sparql.engine.binding.BindingMap ;
+import org.apache.jena.sparql.engine.binding.BindingProjectBase ;
 import org.apache.jena.sparql.engine.iterator.QueryIterNullIterator ;
 import org.apache.jena.tdb.TDBException ;
 import org.apache.jena.tdb.lib.NodeLib ;
@@ -233,6 +235,39 @@ public class SolverLib
         return binding -> SolverLib.convert(binding, nodeTable);
     }
     
+    /** The NodeId of a variable in a binding, if the binding holds it as a NodeId from
+     *  the TDB storage, else null. This does not access the node table.
+     */
+    public static NodeId nodeId(Binding binding, Var var)
+    {
+        Binding b = binding ;
+        while ( b != null )
+        {
+            if ( b instanceof BindingTDB )
+            {
+                NodeId id = ((BindingTDB)b).getBindingId().get(var) ;
+                if ( id != null )
+                    // "Does not exist" is a node, not from the database, copied down. 
+                    return NodeId.isDoesNotExist(id) ? null : id ;
+            }
+            else if ( b instanceof BindingProjectBase )
+            {
+                if ( ! b.contains(var) )
+                    return null ;
+                b = ((BindingProjectBase)b).getBinding() ;
+                continue ;
+            }
+            if ( ! ( b instanceof BindingBase ) )
+                return null ;
+            // Bound in the parent, or by a node at this level.
+            Binding parent = ((BindingBase)b).getParent() ;
+            if ( parent == null || ! parent.contains(var) )
+                return null ;
+            b = parent ;
+        }
+        return null ;
+    }
+
     /** Binding ==> BindingNodeId, given a NodeTable */
     public static BindingNodeId convert(Binding binding, NodeTable nodeTable) 
     {
@@ -19,6 +19,7 @@
 package org.apache.jena.tdb.store ;
 
 import java.util.Iterator ;
+import java.util.List ;
 import java.util.function.Function;
 
 import org.apache.jena.atlas.iterator.Iter ;
@@ -84,6 +85,28 @@ public class GraphTDB extends GraphView implements Closeable, Sync {
         finishUpdate() ;
     }
 
+    /** One update for the whole batch */
+    @Override
+    protected final void performAddAll(List<Triple> triples) {
+        startUpdate() ;
+        try { super.performAddAll(triples) ; }
+        finally { finishUpdate() ; }
+    }
+
+    /** One update for the whole batch */
+    @Override
+    protected final void performDeleteAll(List<Triple> triples) {
+        startUpdate() ;
+        try { super.performDeleteAll(triples) ; }
+        finally { finishUpdate() ; }
+    }
+
+    /** TDB guarantees that duplicates from the union graph are adjacent (see {@link #graphUnionFind}). */
+    @Override
+    protected boolean unionDuplicatesAdjacent() {
+        return true ;
+    }
+
     @Override
     public final void sync() {
         dataset.sync() ;
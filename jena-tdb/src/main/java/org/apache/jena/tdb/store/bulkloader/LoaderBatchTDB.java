@@ -0,0 +1,184 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.jena.tdb.store.bulkloader;
+
+import java.util.ArrayList ;
+import java.util.HashMap ;
+import java.util.List ;
+import java.util.Map ;
+
+import org.apache.jena.atlas.lib.Tuple ;
+import org.apache.jena.graph.Node ;
+import org.apache.jena.graph.Triple ;
+import org.apache.jena.shared.PrefixMapping ;
+import org.apache.jena.sparql.core.Quad ;
+import org.apache.jena.tdb.TDBException ;
+import org.apache.jena.tdb.store.DatasetGraphTDB ;
+import org.apache.jena.tdb.store.NodeId ;
+import org.apache.jena.tdb.store.nodetable.NodeTable ;
+import org.apache.jena.tdb.store.nodetupletable.NodeTupleTable ;
+import org.slf4j.Logger ;
+import org.slf4j.LoggerFactory ;
+
+/** Load a stream of triples and quads into a dataset, in batches.
+ * <p>
+ * Unlike {@link BulkLoader}, this does not drop and rebuild the indexes, and so it
+ * can be used inside a write transaction and on a dataset that already has data.
+ * Triples and quads are buffered; for each batch, the nodes are allocated once per
+ * distinct node and each index is updated with the batch sorted into that index's
+ * order (see {@link org.apache.jena.tdb.store.tupletable.TupleTable#addAll}).
+ * <p>
+ * The dataset must be the one for the transaction, e.g. {@code DatasetGraphTransaction.get()}.
+ */
+public class LoaderBatchTDB implements BulkStreamRDF
+{
+    private static Logger log = LoggerFactory.getLogger(LoaderBatchTDB.class) ;
+
+    public static final int DefaultBatchSize = 100*1000 ;
+
+    private final DatasetGraphTDB dsg ;
+    private final Node graphName ;          // null for the default graph
+    private final boolean loadAsGiven ;
+    private final int batchSize ;
+
+    private final List<Node[]> triples ;
+    private final List<Node[]> quads ;
+    private volatile long count = 0 ;
+    private volatile long added = 0 ;
+
+    /** Load into the dataset: triples go to the default graph, quads to their graph. */
+    public LoaderBatchTDB(DatasetGraphTDB dsg)
+    { this(dsg, null, DefaultBatchSize) ; }
+
+    /** Load into one graph of the dataset (null for load as given by the data).
+     * When loading into a graph, quads that are not in the default graph are ignored.
+     */
+    public LoaderBatchTDB(DatasetGraphTDB dsg, Node graphName)
+    { this(dsg, graphName, DefaultBatchSize) ; }
+
+    public LoaderBatchTDB(DatasetGraphTDB dsg, Node graphName, int batchSize)
+    {
+        if ( batchSize <= 0 )
+            throw new IllegalArgumentException("Batch size must be positive: "+batchSize) ;
+        if ( graphName != null && Quad.isUnionGraph(graphName) )
+            throw new TDBException("Can't load into the union graph") ;
+        this.dsg = dsg ;
+        this.graphName = ( graphName == null || Quad.isDefaultGraph(graphName) ) ? null : graphName ;
+        this.loadAsGiven = ( graphName == null ) ;
+        this.batchSize = batchSize ;
+        this.triples = new ArrayList<>(Math.min(batchSize, 1024)) ;
+        this.quads = new ArrayList<>(Math.min(batchSize, 1024)) ;
+    }
+
+    /** Number of triples and quads seen so far. Safe to call from another thread. */
+    public long getCount()          { return count ; }
+
+    /** Number of triples and quads added so far, excluding ones already in the dataset.
+     * Updated after each batch. Safe to call from another thread.
+     */
+    public long getAddedCount()     { return added ; }
+
+    @Override
+    public void startBulk() {}
+
+    @Override
+    public void start() {}
+
+    @Override
+    public void triple(Triple triple)
+    {
+        if ( graphName == null )
+            add(triples, triple.getSubject(), triple.getPredicate(), triple.getObject()) ;
+        else
+            add(quads, graphName, triple.getSubject(), triple.getPredicate(), triple.getObject()) ;
+    }
+
+    @Override
+    public void quad(Quad quad)
+    {
+        if ( quad.isTriple() || quad.isDefaultGraph() )
+        {
+            triple(quad.asTriple()) ;
+            return ;
+        }
+        if ( ! loadAsGiven )
+        {
+            log.warn("Quad for a named graph ignored when loading a single graph: "+quad) ;
+            return ;
+        }
+        add(quads, quad.getGraph(), quad.getSubject(), quad.getPredicate(), quad.getObject()) ;
+    }
+
+    @Override
+    public void base(String base) {}
+
+    @Override
+    public void prefix(String prefix, String iri)
+    {
+        if ( graphName != null && graphName.isBlank() )
+        {
+            log.warn("Prefixes for blank node graphs not stored") ;
+            return ;
+        }
+        PrefixMapping pmap = ( graphName == null )
+            ? dsg.getPrefixes().getPrefixMapping()
+            : dsg.getPrefixes().getPrefixMapping(graphName.getURI()) ;
+        pmap.setNsPrefix(prefix, iri) ;
+    }
+
+    @Override
+    public void finish() {}
+
+    /** Load any buffered triples and quads. */
+    @Override
+    public void finishBulk()
+    {
+        flush(dsg.getTripleTable().getNodeTupleTable(), triples) ;
+        flush(dsg.getQuadTable().getNodeTupleTable(), quads) ;
+    }
+
+    private void add(List<Node[]> buffer, Node... nodes)
+    {
+        buffer.add(nodes) ;
+        count++ ;
+        if ( buffer.size() >= batchSize )
+            finishBulk() ;
+    }
+
+    private void flush(NodeTupleTable table, List<Node[]> rows)
+    {
+        if ( rows.isEmpty() )
+            return ;
+        table.getPolicy().startUpdate() ;
+        try {
+            NodeTable nodeTable = table.getNodeTable() ;
+            // Each distinct node is looked up, or allocated, once per batch.
+            Map<Node, NodeId> ids = new HashMap<>() ;
+            List<Tuple<NodeId>> tuples = new ArrayList<>(rows.size()) ;
+            for ( Node[] row : rows )
+            {
+                NodeId[] x = new NodeId[row.length] ;
+                for ( int i = 0 ; i < row.length ; i++ )
+                    x[i] = ids.computeIfAbsent(row[i], nodeTable::getAllocateNodeId) ;
+                tuples.add(Tuple.create(x)) ;
+            }
+            rows.clear() ;
+            added += table.getTupleTable().addAll(tuples) ;
+        } finally { table.getPolicy().finishUpdate() ; }
+    }
+}
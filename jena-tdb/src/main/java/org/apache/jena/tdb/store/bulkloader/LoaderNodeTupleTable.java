@@ -19,6 +19,7 @@
 package org.apache.jena.tdb.store.bulkloader;
 
 import java.util.Iterator ;
+import java.util.List ;
 
 import org.apache.jena.atlas.lib.ArrayUtils ;
 import org.apache.jena.atlas.lib.Closeable ;
@@ -54,10 +55,18 @@ public class LoaderNodeTupleTable implements Closeable, Sync
     static private Logger logLoad = LoggerFactory.getLogger("org.apache.jena.tdb.loader") ;
 
     public LoaderNodeTupleTable(NodeTupleTable nodeTupleTable, String itemsName, LoadMonitor monitor)
+    {
+        this(nodeTupleTable, itemsName, monitor, false) ;       // Until we know it's safe.
+    }
+
+    /** If {@code incremental}, the secondary indexes are kept, even when loading into an
+     * empty table, so the table can be read while it is being loaded.
+     */
+    public LoaderNodeTupleTable(NodeTupleTable nodeTupleTable, String itemsName, LoadMonitor monitor, boolean incremental)
     {
         this.nodeTupleTable = nodeTupleTable ;
         this.monitor = monitor ;
-        this.doIncremental = false ;        // Until we know it's safe.
+        this.doIncremental = incremental ;
         this.itemsName = itemsName ;          // "triples", "quads", "tuples" (plural)
     }
 
@@ -106,6 +115,19 @@ public class LoaderNodeTupleTable implements Closeable, Sync
         nodeTupleTable.addRow(nodes) ;  
     }
     
+    /** Stream in a batch of items already converted to NodeIds.
+     * The tuples are in the natural order of the underlying tuple table
+     * (for a view, with the prefix as the first slot) and the list is sorted in place.
+     * Returns the number of items really added.
+     */
+    public long load(List<Tuple<NodeId>> tuples)
+    {
+        count += tuples.size() ;
+        for ( int i = 0 ; i < tuples.size() ; i++ )
+            monitor.dataItem() ;
+        return nodeTupleTable.getTupleTable().addAll(tuples) ;
+    }
+    
     /** Notify End of data to load - this operation may 
      * undertake a significant amount of work.
      */
@@ -47,6 +47,11 @@ public interface NodeTupleTable extends Sync, Closeable
     /** Find by NodeId. */
     public Iterator<Tuple<NodeId>> find(Tuple<NodeId> ids) ;
 
+    /** Find by NodeId, with slot {@code slot} between min and max (inclusive, in NodeId order).
+     *  Returns null if there is no index to scan for the range.
+     */
+    public Iterator<Tuple<NodeId>> findRange(Tuple<NodeId> ids, int slot, NodeId min, NodeId max) ;
+
     /** Find all tuples */ 
     public Iterator<Tuple<NodeId>> findAll() ;
 
@@ -168,6 +168,18 @@ public class NodeTupleTableConcrete implements NodeTupleTable
         } finally { finishRead() ; }
     }
 
+    @Override
+    public Iterator<Tuple<NodeId>> findRange(Tuple<NodeId> tuple, int slot, NodeId min, NodeId max)
+    {
+        try {
+            startRead() ;
+            Iterator<Tuple<NodeId>> iter = tupleTable.findRange(tuple, slot, min, max) ;
+            if ( iter == null )
+                return null ;
+            return iteratorControl(iter) ;
+        } finally { finishRead() ; }
+    }
+
     @Override
     public Iterator<Tuple<NodeId>> findAll()
     {
@@ -85,6 +85,13 @@ public class NodeTupleTableView extends NodeTupleTableWrapper
         return nodeTupleTable.find(ids2) ;
     }
 
+    @Override
+    public Iterator<Tuple<NodeId>> findRange(Tuple<NodeId> ids, int slot, NodeId min, NodeId max)
+    {
+        NodeId[] ids2 = push(NodeId.class, prefixId, ids.tuple()) ;
+        return nodeTupleTable.findRange(Tuple.create(ids2), slot+1, min, max) ;
+    }
+
     @Override
     public Iterator<Tuple<NodeId>> findAsNodeIds(Node... nodes)
     {
@@ -62,6 +62,10 @@ public class NodeTupleTableWrapper implements NodeTupleTable
     @Override
     public Iterator<Tuple<NodeId>> find(Tuple<NodeId> tuple)
     { return nodeTupleTable.find(tuple) ; }
+
+    @Override
+    public Iterator<Tuple<NodeId>> findRange(Tuple<NodeId> ids, int slot, NodeId min, NodeId max)
+    { return nodeTupleTable.findRange(ids, slot, min, max) ; }
     
     @Override
     public Iterator<Tuple<NodeId>> findAsNodeIds(Node... nodes)
@@ -182,6 +182,59 @@ public class TupleIndexRecord extends TupleIndexBase
         return tuples ;
     }
     
+    /** Find all tuples that match the pattern and where the slot following the
+     *  pattern, in index order, is between min and max (inclusive).
+     *  NodeIds are compared as unsigned values, which is the index order.
+     *  <p>
+     *  The slots set in the pattern must be the leading slots of this index;
+     *  returns null if they are not.
+     *  Input pattern in natural order, not index order.
+     */
+    public Iterator<Tuple<NodeId>> findRange(Tuple<NodeId> patternNaturalOrder, NodeId min, NodeId max)
+    {
+        Tuple<NodeId> pattern = colMap.map(patternNaturalOrder) ;
+        int prefixLen = 0 ;
+        while ( prefixLen < pattern.size() && ! NodeId.isAny(pattern.get(prefixLen)) )
+            prefixLen++ ;
+        if ( prefixLen == pattern.size() )
+            return null ;
+        for ( int i = prefixLen+1 ; i < pattern.size() ; i++ )
+        {
+            if ( ! NodeId.isAny(pattern.get(i)) )
+                return null ;
+        }
+
+        if ( Long.compareUnsigned(min.getId(), max.getId()) > 0 )
+            return new NullIterator<>() ;
+
+        Record minRec = factory.createKeyOnly() ;
+        Record maxRec = factory.createKeyOnly() ;
+        for ( int i = 0 ; i < prefixLen ; i++ )
+        {
+            long id = pattern.get(i).getId() ;
+            Bytes.setLong(id, minRec.getKey(), i*SizeOfNodeId) ;
+            Bytes.setLong(id, maxRec.getKey(), i*SizeOfNodeId) ;
+        }
+        Bytes.setLong(min.getId(), minRec.getKey(), prefixLen*SizeOfNodeId) ;
+
+        // The max Record is exclusive : prefix then max+1.
+        // If max is the largest NodeId, then the next prefix.
+        Iterator<Record> iter ;
+        if ( max.getId() != -1L )
+        {
+            Bytes.setLong(max.getId()+1, maxRec.getKey(), prefixLen*SizeOfNodeId) ;
+            iter = index.iterator(minRec, maxRec) ;
+        }
+        else if ( prefixLen > 0 )
+        {
+            Bytes.setLong(pattern.get(prefixLen-1).getId()+1, maxRec.getKey(), (prefixLen-1)*SizeOfNodeId) ;
+            iter = index.iterator(minRec, maxRec) ;
+        }
+        else
+            iter = index.iterator(minRec, null) ;
+        return Iter.map(iter, item -> TupleLib.tuple(item, colMap)) ;
+    }
+
     @Override
     public Iterator<Tuple<NodeId>> all()
     {
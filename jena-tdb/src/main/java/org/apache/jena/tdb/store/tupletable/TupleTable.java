@@ -20,9 +20,13 @@ package org.apache.jena.tdb.store.tupletable;
 
 import static java.lang.String.format ;
 
+import java.util.ArrayList ;
+import java.util.Comparator ;
 import java.util.Iterator ;
+import java.util.List ;
 
 import org.apache.jena.atlas.lib.Closeable ;
+import org.apache.jena.atlas.lib.ColumnMap ;
 import org.apache.jena.atlas.lib.Sync ;
 import org.apache.jena.atlas.lib.Tuple ;
 import org.apache.jena.atlas.logging.Log ;
@@ -107,6 +111,68 @@ public class TupleTable implements Sync, Closeable
         return true ;
     }
 
+    /** Insert a batch of tuples - return the number really added.
+     * <p>
+     * Each index is updated in turn with the tuples sorted into the order of that
+     * index, so that inserts touch each index block once rather than once per tuple.
+     * The batch is sorted in place. Duplicates, in the table or in the batch, are
+     * detected by the primary index and not added to the other indexes.
+     */
+    public long addAll(List<Tuple<NodeId>> tuples)
+    {
+        for ( Tuple<NodeId> t : tuples )
+        {
+            if ( tupleLen != t.size() )
+                throw new TDBException(format("Mismatch: inserting tuple of length %d into a table of tuples of length %d", t.size(), tupleLen)) ;
+        }
+
+        tuples.sort(indexOrder(indexes[0].getColumnMap())) ;
+        List<Tuple<NodeId>> added = new ArrayList<>(tuples.size()) ;
+        for ( Tuple<NodeId> t : tuples )
+        {
+            if ( indexes[0].add(t) )
+                added.add(t) ;
+            else
+                duplicate(t) ;
+        }
+        if ( added.isEmpty() )
+            return 0 ;
+        syncNeeded = true ;
+
+        for ( int i = 1 ; i < indexes.length ; i++ )
+        {
+            if ( indexes[i] == null ) continue ;
+            added.sort(indexOrder(indexes[i].getColumnMap())) ;
+            for ( Tuple<NodeId> t : added )
+            {
+                if ( ! indexes[i].add(t) )
+                {
+                    unexpectedDuplicate(t, i) ;
+                    throw new TDBException(format("Secondary index duplicate: %s -> %s",indexes[i].getMapping(), t)) ;
+                }
+            }
+        }
+        return added.size() ;
+    }
+
+    /** Order tuples (in natural order) as the index with this column map stores them. */
+    private static Comparator<Tuple<NodeId>> indexOrder(ColumnMap colMap)
+    {
+        int[] slots = new int[colMap.length()] ;
+        for ( int i = 0 ; i < slots.length ; i++ )
+            slots[i] = colMap.fetchSlotIdx(i) ;
+        return (t1, t2) -> {
+            for ( int slot : slots )
+            {
+                // Index keys are compared as unsigned bytes.
+                int x = Long.compareUnsigned(t1.get(slot).getId(), t2.get(slot).getId()) ;
+                if ( x != 0 )
+                    return x ;
+            }
+            return 0 ;
+        } ;
+    }
+
     protected void duplicate(Tuple<NodeId> t)
     { }
     
@@ -199,6 +265,39 @@ public class TupleTable implements Sync, Closeable
             index = indexes[0] ;
         return index.find(pattern) ;
     }
+
+    /** Find all tuples matching the pattern where slot {@code slot} (natural order)
+     *  is between min and max, inclusive, in NodeId order.
+     *  This needs an index with the set slots of the pattern as its leading slots,
+     *  followed by {@code slot}; returns null if there is no such index.
+     */
+    public Iterator<Tuple<NodeId>> findRange(Tuple<NodeId> pattern, int slot, NodeId min, NodeId max)
+    {
+        if ( tupleLen != pattern.size() )
+            throw new TDBException(format("Mismatch: finding tuple of length %d in a table of tuples of length %d", pattern.size(), tupleLen)) ;
+        if ( ! NodeId.isAny(pattern.get(slot)) )
+            throw new TDBException(format("Range slot %d is set in the pattern: %s", slot, pattern)) ;
+
+        int numSlots = 0 ;
+        for ( int i = 0 ; i < tupleLen ; i++ )
+        {
+            if ( ! NodeId.isAny(pattern.get(i)) )
+                numSlots++ ;
+        }
+
+        for ( TupleIndex idx : indexes )
+        {
+            if ( ! ( idx instanceof TupleIndexRecord ) )
+                continue ;
+            // The range slot comes straight after the set slots in this index.
+            if ( idx.getColumnMap().mapSlotIdx(slot) != numSlots )
+                continue ;
+            Iterator<Tuple<NodeId>> iter = ((TupleIndexRecord)idx).findRange(pattern, min, max) ;
+            if ( iter != null )
+                return iter ;
+        }
+        return null ;
+    }
     
     @Override
     final public void close()
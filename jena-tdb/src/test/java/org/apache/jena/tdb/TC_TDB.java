@@ -26,6 +26,7 @@ import org.apache.jena.tdb.base.block.FileMode ;
 import org.apache.jena.tdb.base.objectfile.TS_ObjectFile ;
 import org.apache.jena.tdb.graph.TS_Graph ;
 import org.apache.jena.tdb.index.TS_Index ;
+import org.apache.jena.tdb.inf.TS_Inf ;
 import org.apache.jena.tdb.lib.TS_LibTDB ;
 import org.apache.jena.tdb.setup.TS_TDBSetup ;
 import org.apache.jena.tdb.solver.TS_SolverTDB ;
@@ -57,6 +58,7 @@ import org.junit.runners.Suite ;
     , TS_TDBSetup.class
     , TS_Store.class        // The main storage implementation.  Slow tests.
     , TS_SolverTDB.class
+    , TS_Inf.class
     , TS_Sys.class
     , TS_Graph.class
     , TS_Factory.class
@@ -0,0 +1,286 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.jena.tdb.inf;
+
+import java.io.StringReader ;
+import java.util.ArrayList ;
+import java.util.List ;
+
+import org.apache.jena.atlas.junit.BaseTest ;
+import org.apache.jena.atlas.lib.StrUtils ;
+import org.apache.jena.graph.Graph ;
+import org.apache.jena.graph.Node ;
+import org.apache.jena.graph.NodeFactory ;
+import org.apache.jena.graph.Triple ;
+import org.apache.jena.reasoner.InfGraph ;
+import org.apache.jena.reasoner.rulesys.GenericRuleReasoner ;
+import org.apache.jena.reasoner.rulesys.Rule ;
+import org.apache.jena.riot.Lang ;
+import org.apache.jena.riot.RDFDataMgr ;
+import org.apache.jena.sparql.graph.GraphFactory ;
+import org.apache.jena.tdb.TDBFactory ;
+import org.apache.jena.tdb.store.DatasetGraphTDB ;
+import org.apache.jena.tdb.sys.TDBInternal ;
+import org.apache.jena.vocabulary.RDF ;
+import org.junit.After ;
+import org.junit.Before ;
+import org.junit.Test ;
+
+/** Materialized entailments are the same as those of a rule reasoner with the same rules. */
+public class TestMaterializer extends BaseTest
+{
+    static String prefixes = StrUtils.strjoinNL
+        ("PREFIX : <http://example/>",
+         "PREFIX rdf: <http://www.w3.org/1999/02/22-rdf-syntax-ns#>",
+         "PREFIX rdfs: <http://www.w3.org/2000/01/rdf-schema#>",
+         "PREFIX owl: <http://www.w3.org/2002/07/owl#>",
+         "PREFIX xsd: <http://www.w3.org/2001/XMLSchema#>") ;
+
+    static String schema = StrUtils.strjoinNL
+        (":Student rdfs:subClassOf :Person . :Person rdfs:subClassOf :Agent . :Employee rdfs:subClassOf :Person .",
+         ":takes rdfs:domain :Student ; rdfs:range :Course .",
+         ":advisor rdfs:subPropertyOf :knows . :knows rdfs:domain :Person .",
+         ":age rdfs:domain :Person ; rdfs:range xsd:int . :name rdfs:range :Label .",
+         ":within rdfs:subPropertyOf :partOf . :partOf rdfs:domain :Part .",
+         ":knows a owl:SymmetricProperty . :partOf a owl:TransitiveProperty . :hasPart owl:inverseOf :partOf .",
+         ":Human owl:equivalentClass :Person . :colleague owl:equivalentProperty :worksWith .",
+         ":Teacher owl:equivalentClass [ owl:onProperty :teaches ; owl:someValuesFrom :Course ] .",
+         ":Adult owl:equivalentClass [ owl:onProperty :status ; owl:hasValue :adult ] .",
+         ":Vegan rdfs:subClassOf [ owl:onProperty :eats ; owl:allValuesFrom :Plant ] .",
+         ":PartTimeStudent owl:intersectionOf ( :Student :Employee ) .",
+         ":Member owl:unionOf ( :Student :Employee ) .",
+         ":Tutor owl:equivalentClass [ owl:onProperty :teaches ; owl:someValuesFrom :Course ] .") ;
+
+    static String data = StrUtils.strjoinNL
+        (":a :takes :c1 . :a :advisor :b . :a :age 20 . :a :name 'A' .",
+         ":b a :Employee . :h a :Human .",
+         ":x1 :within :x2 . :x2 :partOf :x3 . :x3 :partOf :x4 . :x5 :hasPart :x1 .",
+         ":e :colleague :f .",
+         ":t :teaches :c1 . :u :teaches :c2 . :c2 :partOf :x4 . :w :takes :c2 .",
+         ":g :status :adult . :k a :Adult .",
+         ":v a :Vegan ; :eats :carrot , 'tofu' . :v2 :eats :apple .",
+         ":b :takes :c3 .",
+         ":m1 owl:sameAs :m2 .") ;
+
+    static String rdfsRules = StrUtils.strjoinNL
+        ("[(?a rdfs:subClassOf ?b) (?b rdfs:subClassOf ?c) notEqual(?a, ?c) -> (?a rdfs:subClassOf ?c)]",
+         "[(?a rdfs:subPropertyOf ?b) (?b rdfs:subPropertyOf ?c) notEqual(?a, ?c) -> (?a rdfs:subPropertyOf ?c)]",
+         "[(?x rdf:type ?a) (?a rdfs:subClassOf ?b) -> (?x rdf:type ?b)]",
+         "[(?x ?p ?y) (?p rdfs:subPropertyOf ?q) -> (?x ?q ?y)]",
+         "[(?x ?p ?y) (?p rdfs:domain ?c) -> (?x rdf:type ?c)]",
+         "[(?x ?p ?y) (?p rdfs:range ?c) notLiteral(?y) -> (?y rdf:type ?c)]") ;
+
+    static String owlRules = StrUtils.strjoinNL
+        ("[(?a owl:equivalentClass ?b) -> (?a rdfs:subClassOf ?b) (?b rdfs:subClassOf ?a)]",
+         "[(?a owl:equivalentProperty ?b) -> (?a rdfs:subPropertyOf ?b) (?b rdfs:subPropertyOf ?a)]",
+         "[(?x ?p ?y) (?p owl:inverseOf ?q) notLiteral(?y) -> (?y ?q ?x)]",
+         "[(?x ?p ?y) (?q owl:inverseOf ?p) notLiteral(?y) -> (?y ?q ?x)]",
+         "[(?x ?p ?y) (?p rdf:type owl:SymmetricProperty) notLiteral(?y) -> (?y ?p ?x)]",
+         "[(?x ?p ?y) (?y ?p ?z) (?p rdf:type owl:TransitiveProperty) -> (?x ?p ?z)]",
+         "[(?x owl:sameAs ?y) notLiteral(?y) -> (?y owl:sameAs ?x)]",
+         "[(?c owl:intersectionOf ?l) -> listMapAsObject(?c rdfs:subClassOf ?l)]",
+         "[(?c owl:unionOf ?l) -> listMapAsSubject(?l rdfs:subClassOf ?c)]",
+         "[(?c owl:intersectionOf ?l) (?l rdf:first ?a) (?l rdf:rest ?r) (?r rdf:first ?b) (?r rdf:rest rdf:nil)"+
+         "  (?x rdf:type ?a) (?x rdf:type ?b) -> (?x rdf:type ?c)]",
+         "[(?r owl:onProperty ?p) (?r owl:hasValue ?v) (?x rdf:type ?r) -> (?x ?p ?v)]",
+         "[(?r owl:onProperty ?p) (?r owl:hasValue ?v) (?x ?p ?v) -> (?x rdf:type ?r)]",
+         "[(?r owl:onProperty ?p) (?r owl:someValuesFrom ?d) (?x ?p ?a) (?a rdf:type ?d) -> (?x rdf:type ?r)]",
+         "[(?r owl:onProperty ?p) (?r owl:allValuesFrom ?d) (?x rdf:type ?r) (?x ?p ?y) notLiteral(?y) -> (?y rdf:type ?d)]",
+         "[(?r1 owl:onProperty ?p) (?r1 owl:someValuesFrom ?d) (?r2 owl:onProperty ?p) (?r2 owl:someValuesFrom ?d)"+
+         "  notEqual(?r1, ?r2) -> (?r1 rdfs:subClassOf ?r2)]") ;
+
+    // rdf:type has the property rules applied to it like any other property.
+    static String typeSchema = StrUtils.strjoinNL
+        ("rdf:type rdfs:subPropertyOf :classifiedAs . rdf:type rdfs:domain :Typed . rdf:type rdfs:range :Kind .",
+         ":Student rdfs:subClassOf :Person .") ;
+
+    static String typeData = ":a a :Student . :b :takes :c ." ;
+
+    static Node graphSource = NodeFactory.createURI("http://example/source") ;
+    static Node graphTarget = NodeFactory.createURI("http://example/inferred") ;
+
+    private int chunkSize ;
+    private DatasetGraphTDB dsg ;
+
+    @Before public void before() {
+        chunkSize = Materializer.ChunkSize ;
+        dsg = TDBInternal.getBaseDatasetGraphTDB(TDBFactory.createDatasetGraph()) ;
+    }
+
+    @After public void after() {
+        Materializer.ChunkSize = chunkSize ;
+    }
+
+    @Test public void materialize_rdfs_01() {
+        Graph graph = parse(schema, data) ;
+        load(null, graph) ;
+        materialize(null, Materializer.Rules.RDFS, 1) ;
+        check(null, graph, rdfsRules) ;
+    }
+
+    @Test public void materialize_owl_01() {
+        Graph graph = parse(schema, data) ;
+        load(null, graph) ;
+        materialize(null, Materializer.Rules.OWL_MICRO, 1) ;
+        check(null, graph, rdfsRules, owlRules) ;
+    }
+
+    @Test public void materialize_owl_02() {
+        // Named source graph, chunks and threads.
+        Materializer.ChunkSize = 5 ;
+        Graph graph = parse(schema, data, chain(30)) ;
+        load(graphSource, graph) ;
+        materialize(graphSource, Materializer.Rules.OWL_MICRO, 4) ;
+        check(graphSource, graph, rdfsRules, owlRules) ;
+    }
+
+    @Test public void materialize_owl_03() {
+        // Class expressions that join data triples, reached through the chunks.
+        Materializer.ChunkSize = 2 ;
+        Graph graph = parse(schema, data) ;
+        load(graphSource, graph) ;
+        materialize(graphSource, Materializer.Rules.OWL_MICRO, 3) ;
+        check(graphSource, graph, rdfsRules, owlRules) ;
+        Graph target = dsg.getGraph(graphTarget) ;
+        assertTrue(target.contains(uri("t"), RDF.Nodes.type, uri("Teacher"))) ;
+        assertTrue(target.contains(uri("carrot"), RDF.Nodes.type, uri("Plant"))) ;
+        assertTrue(target.contains(uri("b"), RDF.Nodes.type, uri("PartTimeStudent"))) ;
+        assertTrue(target.contains(uri("m2"), uri("http://www.w3.org/2002/07/owl#sameAs"), uri("m1"))) ;
+        assertFalse(target.contains(uri("v2"), RDF.Nodes.type, uri("Vegan"))) ;
+    }
+
+    @Test public void materialize_type_01() {
+        Graph graph = parse(typeSchema, typeData) ;
+        load(null, graph) ;
+        materialize(null, Materializer.Rules.RDFS, 1) ;
+        check(null, graph, rdfsRules) ;
+        Graph target = dsg.getGraph(graphTarget) ;
+        assertTrue(target.contains(uri("a"), uri("classifiedAs"), uri("Person"))) ;
+        assertTrue(target.contains(uri("a"), RDF.Nodes.type, uri("Typed"))) ;
+        assertTrue(target.contains(uri("Person"), RDF.Nodes.type, uri("Kind"))) ;
+    }
+
+    @Test public void materialize_type_02() {
+        Graph graph = parse(schema, data, typeSchema, typeData) ;
+        load(null, graph) ;
+        materialize(null, Materializer.Rules.OWL_MICRO, 2) ;
+        check(null, graph, rdfsRules, owlRules) ;
+    }
+
+    @Test public void materialize_again() {
+        Graph graph = parse(schema, data) ;
+        load(null, graph) ;
+        assertTrue(materialize(null, Materializer.Rules.OWL_MICRO, 1) > 0) ;
+        assertEquals(0, materialize(null, Materializer.Rules.OWL_MICRO, 2)) ;
+        check(null, graph, rdfsRules, owlRules) ;
+    }
+
+    @Test public void materialize_add_01() {
+        Materializer.ChunkSize = 3 ;
+        load(null, parse(schema, ":x1 :within :x2 . :x3 :partOf :x4 .")) ;
+        materialize(null, Materializer.Rules.OWL_MICRO, 2) ;
+        Graph added = parse(data, chain(10)) ;
+        Materializer m = new Materializer(dsg, null, graphTarget, Materializer.Rules.OWL_MICRO) ;
+        assertTrue(m.add(added.find(Node.ANY, Node.ANY, Node.ANY)) > 0) ;
+        check(null, parse(schema, data, chain(10)), rdfsRules, owlRules) ;
+    }
+
+    @Test public void materialize_add_02() {
+        // Adding schema triples.
+        load(null, parse(data)) ;
+        materialize(null, Materializer.Rules.OWL_MICRO, 1) ;
+        Materializer m = new Materializer(dsg, null, graphTarget, Materializer.Rules.OWL_MICRO) ;
+        m.add(parse(schema).find(Node.ANY, Node.ANY, Node.ANY)) ;
+        check(null, parse(schema, data), rdfsRules, owlRules) ;
+    }
+
+    @Test public void materialize_add_04() {
+        // Data that completes a join with triples materialized earlier.
+        load(null, parse(schema, ":t :teaches :c9 . :b2 a :Student . :v a :Vegan .")) ;
+        materialize(null, Materializer.Rules.OWL_MICRO, 1) ;
+        Graph added = parse(":c9 a :Course . :b2 a :Employee . :v :eats :pear . :g :status :adult .") ;
+        Materializer m = new Materializer(dsg, null, graphTarget, Materializer.Rules.OWL_MICRO) ;
+        assertTrue(m.add(added.find(Node.ANY, Node.ANY, Node.ANY)) > 0) ;
+        check(null, parse(schema, ":t :teaches :c9 . :b2 a :Student . :v a :Vegan .",
+                          ":c9 a :Course . :b2 a :Employee . :v :eats :pear . :g :status :adult ."),
+              rdfsRules, owlRules) ;
+    }
+
+    @Test public void materialize_add_03() {
+        // Nothing new.
+        Graph graph = parse(schema, data) ;
+        load(null, graph) ;
+        materialize(null, Materializer.Rules.RDFS, 1) ;
+        Materializer m = new Materializer(dsg, null, graphTarget, Materializer.Rules.RDFS) ;
+        assertEquals(0, m.add(graph.find(Node.ANY, Node.ANY, Node.ANY))) ;
+        check(null, graph, rdfsRules) ;
+    }
+
+    private static Node uri(String x) {
+        return NodeFactory.createURI(x.contains(":") ? x : "http://example/"+x) ;
+    }
+
+    private static String chain(int n) {
+        StringBuilder sb = new StringBuilder() ;
+        for ( int i = 0 ; i < n ; i++ )
+            sb.append(String.format(":s%d :partOf :s%d . :s%d :takes :c%d .\n", i, i+1, i, i%3)) ;
+        return sb.toString() ;
+    }
+
+    private static Graph parse(String... strings) {
+        Graph graph = GraphFactory.createDefaultGraph() ;
+        String x = prefixes+"\n"+StrUtils.strjoinNL(strings) ;
+        RDFDataMgr.read(graph, new StringReader(x), null, Lang.TTL) ;
+        return graph ;
+    }
+
+    private void load(Node graphName, Graph graph) {
+        Graph g = graphName == null ? dsg.getDefaultGraph() : dsg.getGraph(graphName) ;
+        for ( Triple t : graph.find(Node.ANY, Node.ANY, Node.ANY).toList() )
+            g.add(t) ;
+    }
+
+    private long materialize(Node graphName, Materializer.Rules rules, int threads) {
+        Materializer m = new Materializer(dsg, graphName, graphTarget, rules) ;
+        m.setThreads(threads) ;
+        return m.materialize() ;
+    }
+
+    private void check(Node graphName, Graph data, String... rules) {
+        List<Rule> ruleList = new ArrayList<>() ;
+        for ( String r : rules )
+            ruleList.addAll(Rule.parseRules(r)) ;
+        InfGraph infGraph = new GenericRuleReasoner(ruleList).bind(data) ;
+        Graph expected = GraphFactory.createDefaultGraph() ;
+        infGraph.find(Node.ANY, Node.ANY, Node.ANY).forEachRemaining(expected::add) ;
+
+        Graph actual = GraphFactory.createDefaultGraph() ;
+        Graph source = graphName == null ? dsg.getDefaultGraph() : dsg.getGraph(graphName) ;
+        source.find(Node.ANY, Node.ANY, Node.ANY).forEachRemaining(actual::add) ;
+        dsg.getGraph(graphTarget).find(Node.ANY, Node.ANY, Node.ANY).forEachRemaining(actual::add) ;
+        if ( ! expected.isIsomorphicWith(actual) ) {
+            StringBuilder sb = new StringBuilder("Materialized triples are not the entailments") ;
+            for ( Triple t : expected.find(Node.ANY, Node.ANY, Node.ANY).toList() )
+                if ( ! actual.contains(t) ) sb.append("\n  Missing: ").append(t) ;
+            for ( Triple t : actual.find(Node.ANY, Node.ANY, Node.ANY).toList() )
+                if ( ! expected.contains(t) ) sb.append("\n  Extra:   ").append(t) ;
+            fail(sb.toString()) ;
+        }
+    }
+}
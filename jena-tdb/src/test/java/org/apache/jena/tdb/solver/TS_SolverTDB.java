@@ -25,6 +25,10 @@ import org.junit.runners.Suite ;
 @Suite.SuiteClasses( {
     TestSolverTDB.class     // Tests the TDB connectivity
     , TestStats.class
+    , TestPathEngineTDB.class
+    , TestRangeScanTDB.class
+    , TestLateMaterializationTDB.class
+    , TestIndexPushdownTDB.class
 })
 
 public class TS_SolverTDB
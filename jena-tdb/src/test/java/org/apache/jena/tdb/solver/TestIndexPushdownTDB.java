@@ -0,0 +1,132 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.jena.tdb.solver;
+
+import java.io.StringReader ;
+
+import org.apache.jena.atlas.junit.BaseTest ;
+import org.apache.jena.atlas.lib.StrUtils ;
+import org.apache.jena.query.* ;
+import org.apache.jena.sparql.resultset.ResultSetCompare ;
+import org.apache.jena.tdb.TDB ;
+import org.apache.jena.tdb.TDBFactory ;
+import org.junit.BeforeClass ;
+import org.junit.Test ;
+
+/** COUNT and DISTINCT answered from the indexes give the same answers as evaluating the pattern. */
+public class TestIndexPushdownTDB extends BaseTest
+{
+    static String data = StrUtils.strjoinNL
+        ("PREFIX : <http://example/>",
+         ":a :p :x . :a :p :y . :a :q :x . :a :p 1 .",
+         ":b :p :x . :b :p 'abc' . :b :r :b .",
+         ":c :q 2 . :c :q _:b1 .") ;
+
+    static Dataset dsMem ;
+    static Dataset dsTDB ;
+
+    @BeforeClass static public void beforeClass() {
+        StringBuilder sb = new StringBuilder(data) ;
+        // More entries for one value than are read before seeking.
+        for ( int i = 0 ; i < 3*IndexPushdownTDB.ScanSteps ; i++ )
+            sb.append("\n:big :p "+i+" . :big :q :z"+i+" .") ;
+        dsMem = DatasetFactory.createMem() ;
+        dsMem.getDefaultModel().read(new StringReader(sb.toString()), null, "TTL") ;
+        dsMem.getNamedModel("http://example/g1").read(new StringReader(data), null, "TTL") ;
+        dsMem.getNamedModel("http://example/g2").read(new StringReader(sb.toString()), null, "TTL") ;
+        dsTDB = TDBFactory.createDataset() ;
+        dsTDB.getDefaultModel().add(dsMem.getDefaultModel()) ;
+        dsTDB.getNamedModel("http://example/g1").add(dsMem.getNamedModel("http://example/g1")) ;
+        dsTDB.getNamedModel("http://example/g2").add(dsMem.getNamedModel("http://example/g2")) ;
+    }
+
+    @Test public void count_01()    { test("SELECT (count(*) AS ?c) { ?s ?p ?o }") ; }
+    @Test public void count_02()    { test("SELECT (count(*) AS ?c) { ?s :p ?o }") ; }
+    @Test public void count_03()    { test("SELECT (count(*) AS ?c) { :a ?p ?o }") ; }
+    @Test public void count_04()    { test("SELECT (count(*) AS ?c) { ?s :unknown ?o }") ; }
+    @Test public void count_05()    { test("SELECT (count(?o) AS ?c) (count(?z) AS ?z0) { ?s :p ?o }") ; }
+    @Test public void count_06()    { test("SELECT (count(DISTINCT ?o) AS ?c) { ?s :p ?o }") ; }
+    @Test public void count_07()    { test("SELECT (count(DISTINCT ?s) AS ?c) { ?s :p ?o }") ; }
+    @Test public void count_08()    { test("SELECT (count(DISTINCT *) AS ?c) (count(*) AS ?c2) { ?s ?p ?o }") ; }
+    @Test public void count_09()    { test("SELECT (count(*) AS ?c) { GRAPH ?g { ?s ?p ?o } }") ; }
+    @Test public void count_10()    { test("SELECT (count(*) AS ?c) { GRAPH :g2 { ?s :q ?o } }") ; }
+    @Test public void count_11()    { test("SELECT (count(DISTINCT ?g) AS ?c) { GRAPH ?g { ?s ?p ?o } }") ; }
+    @Test public void count_12()    { test("SELECT (count(*) AS ?c) { ?s :r ?s }") ; }
+    @Test public void count_13()    { test("SELECT (count(*) AS ?c) { ?s :p ?o } HAVING (count(*) > 5)") ; }
+    @Test public void count_14()    { test("SELECT (count(*) AS ?c) { GRAPH :unknown { ?s ?p ?o } }") ; }
+
+    @Test public void distinct_01() { test("SELECT DISTINCT ?p { ?s ?p ?o }") ; }
+    @Test public void distinct_02() { test("SELECT DISTINCT ?s { ?s ?p ?o }") ; }
+    @Test public void distinct_03() { test("SELECT DISTINCT ?o { ?s ?p ?o }") ; }
+    @Test public void distinct_04() { test("SELECT DISTINCT ?o { ?s :p ?o }") ; }
+    @Test public void distinct_05() { test("SELECT DISTINCT ?s { ?s :p ?o }") ; }
+    @Test public void distinct_06() { test("SELECT DISTINCT ?g { GRAPH ?g { ?s ?p ?o } }") ; }
+    @Test public void distinct_07() { test("SELECT DISTINCT ?p { GRAPH ?g { ?s ?p ?o } }") ; }
+    @Test public void distinct_08() { test("SELECT DISTINCT ?p { GRAPH :g1 { ?s ?p ?o } }") ; }
+    @Test public void distinct_09() { test("SELECT DISTINCT ?s { ?s ?p ?s }") ; }
+    @Test public void distinct_10() { test("SELECT DISTINCT ?s { ?s :unknown ?o }") ; }
+    @Test public void distinct_11() { test("SELECT DISTINCT ?z { ?s :p ?o }") ; }
+
+    @Test public void union_01() {
+        testTDB("SELECT DISTINCT ?p { GRAPH <urn:x-arq:UnionGraph> { ?s ?p ?o } }",
+                "SELECT DISTINCT ?p { GRAPH ?g { ?s ?p ?o } }") ;
+    }
+
+    @Test public void union_02() {
+        testTDB("SELECT (count(*) AS ?c) { GRAPH <urn:x-arq:UnionGraph> { ?s ?p ?o } }",
+                "SELECT (count(*) AS ?c) { SELECT DISTINCT ?s ?p ?o { GRAPH ?g { ?s ?p ?o } } }") ;
+    }
+
+    @Test public void switchOff() {
+        Query query = QueryFactory.create("PREFIX : <http://example/> SELECT DISTINCT ?p { ?s ?p ?o }") ;
+        try ( QueryExecution qExec1 = QueryExecutionFactory.create(query, dsTDB) ;
+              QueryExecution qExec2 = QueryExecutionFactory.create(query, dsTDB) ) {
+            qExec2.getContext().set(TDB.symIndexPushdown, false) ;
+            compare(query.toString(), qExec1, qExec2) ;
+        }
+    }
+
+    private static void test(String queryString) {
+        Query query = QueryFactory.create("PREFIX : <http://example/> "+queryString) ;
+        try ( QueryExecution qExec1 = QueryExecutionFactory.create(query, dsMem) ;
+              QueryExecution qExec2 = QueryExecutionFactory.create(query, dsTDB) ) {
+            compare(queryString, qExec1, qExec2) ;
+        }
+    }
+
+    private static void testTDB(String queryString1, String queryString2) {
+        try ( QueryExecution qExec1 = QueryExecutionFactory.create(queryString1, dsTDB) ;
+              QueryExecution qExec2 = QueryExecutionFactory.create(queryString2, dsTDB) ) {
+            compare(queryString1, qExec1, qExec2) ;
+        }
+    }
+
+    private static void compare(String label, QueryExecution qExec1, QueryExecution qExec2) {
+        ResultSetRewindable rs1 = ResultSetFactory.makeRewindable(qExec1.execSelect()) ;
+        ResultSetRewindable rs2 = ResultSetFactory.makeRewindable(qExec2.execSelect()) ;
+        boolean b = ResultSetCompare.equalsByTerm(rs1, rs2) ;
+        if ( ! b ) {
+            rs1.reset() ;
+            rs2.reset() ;
+            ResultSetFormatter.out(rs1) ;
+            ResultSetFormatter.out(rs2) ;
+        }
+        assertTrue(label, b) ;
+    }
+}
@@ -0,0 +1,102 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.jena.tdb.solver;
+
+import java.io.StringReader ;
+
+import org.apache.jena.atlas.junit.BaseTest ;
+import org.apache.jena.atlas.lib.StrUtils ;
+import org.apache.jena.query.* ;
+import org.apache.jena.sparql.resultset.ResultSetCompare ;
+import org.apache.jena.tdb.TDB ;
+import org.apache.jena.tdb.TDBFactory ;
+import org.junit.BeforeClass ;
+import org.junit.Test ;
+
+/** Operators working on NodeIds give the same answers as working on nodes. */
+public class TestLateMaterializationTDB extends BaseTest
+{
+    static String data = StrUtils.strjoinNL
+        ("PREFIX : <http://example/>",
+         ":a :p :x . :a :p :y . :a :p 1 . :a :p 2 .",
+         ":b :p :x . :b :p 'abc' . :b :p 'abc'@en . :b :q :a .",
+         ":c :p _:b1 . :c :q :b . :c :q 2 .",
+         ":x :r :a . :y :r :c .") ;
+
+    static Dataset dsMem ;
+    static Dataset dsTDB ;
+
+    @BeforeClass static public void beforeClass() {
+        dsMem = DatasetFactory.createMem() ;
+        dsMem.getDefaultModel().read(new StringReader(data), null, "TTL") ;
+        dsTDB = TDBFactory.createDataset() ;
+        dsTDB.getDefaultModel().add(dsMem.getDefaultModel()) ;
+        // Small blocks to cross block boundaries.
+        dsTDB.getContext().set(TDB.symMaterializeBlockSize, 3) ;
+    }
+
+    @Test public void distinct_01()     { test("SELECT DISTINCT ?s { ?s ?p ?o }") ; }
+    @Test public void distinct_02()     { test("SELECT DISTINCT ?o { ?s ?p ?o }") ; }
+    @Test public void distinct_03()     { test("SELECT DISTINCT ?s ?z { ?s ?p ?o OPTIONAL { ?o :r ?z } }") ; }
+    @Test public void distinct_04()     { test("SELECT DISTINCT ?o { { ?s :p ?o } UNION { BIND(:x AS ?o) } UNION { BIND('new' AS ?o) } }") ; }
+
+    @Test public void join_01()         { test("SELECT * { { ?s :p ?o } { ?o :r ?z } }") ; }
+    @Test public void join_02()         { test("SELECT * { { ?s :p ?o } { SELECT ?o { ?o :r ?z } } }") ; }
+    @Test public void join_03()         { test("SELECT * { { ?s :p ?o } { ?s :q ?v } }") ; }
+    @Test public void join_04()         { test("SELECT * { { ?s :p ?o } { VALUES ?o { :x 'abc' 1 'other' } } }") ; }
+    @Test public void join_05()         { test("SELECT * { { ?s :p ?o OPTIONAL { ?o :r ?z } } { ?s2 :r ?z } }") ; }
+    @Test public void join_06()         { test("SELECT * { { ?s :p ?o } { BIND(:a AS ?w) } }") ; }
+
+    @Test public void minus_01()        { test("SELECT * { ?s :p ?o MINUS { ?o :r ?z } }") ; }
+    @Test public void minus_02()        { test("SELECT * { ?s :p ?o MINUS { ?s :q ?v } }") ; }
+    @Test public void minus_03()        { test("SELECT * { ?s :p ?o MINUS { ?x :r ?y } }") ; }
+    @Test public void minus_04()        { test("SELECT * { ?s :p ?o MINUS { VALUES ?o { :x 'abc' 'other' } } }") ; }
+
+    @Test public void group_01()        { test("SELECT ?s (count(*) AS ?c) { ?s :p ?o } GROUP BY ?s") ; }
+    @Test public void group_02()        { test("SELECT ?o (count(?s) AS ?c) { ?s ?p ?o } GROUP BY ?o") ; }
+    @Test public void group_03()        { test("SELECT ?s (sample(?o) AS ?x) (count(DISTINCT ?o) AS ?c) { ?s :p ?o FILTER(isIRI(?o)) } GROUP BY ?s") ; }
+    @Test public void group_04()        { test("SELECT (count(*) AS ?c) { ?s :unknown ?o }") ; }
+    @Test public void group_05()        { test("SELECT ?s (count(*) AS ?c) { ?s :unknown ?o } GROUP BY ?s") ; }
+
+    @Test public void filter_01()       { test("SELECT * { ?s :p ?o FILTER(sameTerm(?o, :x)) }") ; }
+    @Test public void filter_02()       { test("SELECT * { ?s :p ?o FILTER(?o = :x) }") ; }
+    @Test public void filter_03()       { test("SELECT * { ?s :p ?o FILTER(?o != :x) }") ; }
+    @Test public void filter_04()       { test("SELECT * { ?s :p ?o FILTER(sameTerm(?o, 1)) }") ; }
+    @Test public void filter_05()       { test("SELECT * { ?s :p ?o . ?s2 :p ?o2 FILTER(sameTerm(?o, ?o2)) }") ; }
+    @Test public void filter_06()       { test("SELECT * { ?s :p ?o FILTER(sameTerm(?o, :unknown)) }") ; }
+    @Test public void filter_07()       { test("SELECT * { ?s :p ?o OPTIONAL { ?o :r ?z } FILTER(?z = :a) }") ; }
+    @Test public void filter_08()       { test("SELECT * { ?s :p ?o OPTIONAL { ?o :r ?z } FILTER(?z != :a) }") ; }
+
+    private static void test(String queryString) {
+        Query query = QueryFactory.create("PREFIX : <http://example/> "+queryString) ;
+        try ( QueryExecution qExec1 = QueryExecutionFactory.create(query, dsMem) ;
+              QueryExecution qExec2 = QueryExecutionFactory.create(query, dsTDB) ) {
+            ResultSetRewindable rs1 = ResultSetFactory.makeRewindable(qExec1.execSelect()) ;
+            ResultSetRewindable rs2 = ResultSetFactory.makeRewindable(qExec2.execSelect()) ;
+            boolean b = ResultSetCompare.equalsByTerm(rs1, rs2) ;
+            if ( ! b ) {
+                rs1.reset() ;
+                rs2.reset() ;
+                ResultSetFormatter.out(rs1) ;
+                ResultSetFormatter.out(rs2) ;
+            }
+            assertTrue(queryString, b) ;
+        }
+    }
+}
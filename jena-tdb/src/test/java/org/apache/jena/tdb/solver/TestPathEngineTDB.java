@@ -0,0 +1,123 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.jena.tdb.solver;
+
+import java.io.StringReader ;
+
+import org.apache.jena.atlas.junit.BaseTest ;
+import org.apache.jena.atlas.lib.StrUtils ;
+import org.apache.jena.query.* ;
+import org.apache.jena.shared.PrefixMapping ;
+import org.apache.jena.shared.impl.PrefixMappingImpl ;
+import org.apache.jena.sparql.path.PathParser ;
+import org.apache.jena.sparql.resultset.ResultSetCompare ;
+import org.apache.jena.tdb.TDBFactory ;
+import org.junit.BeforeClass ;
+import org.junit.Test ;
+
+/** Transitive path evaluation on NodeIds gives the same answers as the general path engine. */
+public class TestPathEngineTDB extends BaseTest
+{
+    static String data = StrUtils.strjoinNL
+        ("PREFIX : <http://example/>",
+         ":a :p :b . :b :p :c . :c :p :a .",
+         ":c :p :d . :d :p :e .",
+         ":x :p :y . :y :q :z .",
+         ":a :q 1 . :b :q \"1\" .",
+         ":z :r :z .") ;
+
+    static Dataset dsMem ;
+    static Dataset dsTDB ;
+
+    @BeforeClass static public void beforeClass() {
+        dsMem = DatasetFactory.createMem() ;
+        dsMem.getDefaultModel().read(new StringReader(data), null, "TTL") ;
+        dsMem.getNamedModel("http://example/g").read(new StringReader(data), null, "TTL") ;
+        dsTDB = TDBFactory.createDataset() ;
+        dsTDB.getDefaultModel().add(dsMem.getDefaultModel()) ;
+        dsTDB.getNamedModel("http://example/g").add(dsMem.getNamedModel("http://example/g")) ;
+    }
+
+    @Test public void analyse_01()  { analyse(":p*", true) ; }
+    @Test public void analyse_02()  { analyse(":p+", true) ; }
+    @Test public void analyse_03()  { analyse("^:p*", true) ; }
+    @Test public void analyse_04()  { analyse("(^:p)+", true) ; }
+    @Test public void analyse_05()  { analyse(":p", false) ; }
+    @Test public void analyse_06()  { analyse(":p?", false) ; }
+    @Test public void analyse_07()  { analyse("(:p/:q)*", false) ; }
+    @Test public void analyse_08()  { analyse(":p{*}", false) ; }
+
+    @Test public void path_01()     { test("SELECT * { :a :p* ?x }") ; }
+    @Test public void path_02()     { test("SELECT * { :a :p+ ?x }") ; }
+    @Test public void path_03()     { test("SELECT * { ?x :p* :e }") ; }
+    @Test public void path_04()     { test("SELECT * { ?x :p+ :a }") ; }
+    @Test public void path_05()     { test("SELECT * { :e ^:p* ?x }") ; }
+    @Test public void path_06()     { test("SELECT * { :a ^:p+ ?x }") ; }
+    @Test public void path_07()     { test("SELECT * { :x :p+ :y }") ; }
+    @Test public void path_08()     { test("SELECT * { :a :p+ :a }") ; }
+    @Test public void path_09()     { test("SELECT * { :e :p+ :a }") ; }
+    // Zero length paths from nodes not in the data.
+    @Test public void path_10()     { test("SELECT * { :unknown :p* ?x }") ; }
+    @Test public void path_11()     { test("SELECT * { :unknown :p* :unknown }") ; }
+    @Test public void path_12()     { test("SELECT * { :unknown :p+ ?x }") ; }
+    @Test public void path_13()     { test("SELECT * { :a :unknown* ?x }") ; }
+    // Values
+    @Test public void path_14()     { test("SELECT * { ?x :q* 1 }") ; }
+    // Driven by a pattern
+    @Test public void path_15()     { test("SELECT * { ?s :q ?o . ?s :p* ?x }") ; }
+    @Test public void path_16()     { test("SELECT * { ?s :p ?o . ?x :p+ ?s }") ; }
+    @Test public void path_17()     { test("SELECT * { ?s :p ?o . ?s :p+ ?o }") ; }
+    // Unbound at both ends.
+    @Test public void path_18()     { test("SELECT * { ?s :p+ ?o }") ; }
+    @Test public void path_19()     { test("SELECT * { ?s :r* ?s }") ; }
+    // Named graphs and union graph.
+    @Test public void path_20()     { test("SELECT * { GRAPH :g { :a :p+ ?x } }") ; }
+    @Test public void path_21()     { test("SELECT * { GRAPH ?g { ?x :p* :d } }") ; }
+    @Test public void path_22()     { test("SELECT * { :a :p+ ?x }", "SELECT * { GRAPH <urn:x-arq:UnionGraph> { :a :p+ ?x } }") ; }
+    @Test public void path_23()     { test("SELECT * { GRAPH :unknown { :a :p+ ?x } }") ; }
+
+    private static void analyse(String pathStr, boolean expected) {
+        PrefixMapping pmap = new PrefixMappingImpl() ;
+        pmap.setNsPrefix("", "http://example/") ;
+        boolean b = PathEngineTDB.analyse(PathParser.parse(pathStr, pmap)) != null ;
+        assertEquals(pathStr, expected, b) ;
+    }
+
+    private static void test(String queryString) {
+        test(queryString, queryString) ;
+    }
+
+    private static void test(String queryStringMem, String queryString) {
+        Query query1 = QueryFactory.create("PREFIX : <http://example/> "+queryStringMem) ;
+        Query query2 = QueryFactory.create("PREFIX : <http://example/> "+queryString) ;
+        try ( QueryExecution qExec1 = QueryExecutionFactory.create(query1, dsMem) ;
+              QueryExecution qExec2 = QueryExecutionFactory.create(query2, dsTDB) ) {
+            ResultSetRewindable rs1 = ResultSetFactory.makeRewindable(qExec1.execSelect()) ;
+            ResultSetRewindable rs2 = ResultSetFactory.makeRewindable(qExec2.execSelect()) ;
+            boolean b = ResultSetCompare.equalsByTerm(rs1, rs2) ;
+            if ( ! b ) {
+                rs1.reset() ;
+                rs2.reset() ;
+                ResultSetFormatter.out(rs1) ;
+                ResultSetFormatter.out(rs2) ;
+            }
+            assertTrue(queryString, b) ;
+        }
+    }
+}
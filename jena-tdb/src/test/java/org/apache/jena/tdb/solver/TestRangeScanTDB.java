@@ -0,0 +1,113 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.jena.tdb.solver;
+
+import java.io.StringReader ;
+
+import org.apache.jena.atlas.junit.BaseTest ;
+import org.apache.jena.atlas.lib.StrUtils ;
+import org.apache.jena.query.* ;
+import org.apache.jena.sparql.core.Var ;
+import org.apache.jena.sparql.expr.ExprList ;
+import org.apache.jena.sparql.resultset.ResultSetCompare ;
+import org.apache.jena.sparql.util.ExprUtils ;
+import org.apache.jena.tdb.TDBFactory ;
+import org.apache.jena.tdb.store.IntegerNode ;
+import org.junit.BeforeClass ;
+import org.junit.Test ;
+
+/** Range filters executed as index range scans give the same answers as filtering. */
+public class TestRangeScanTDB extends BaseTest
+{
+    static String data = StrUtils.strjoinNL
+        ("PREFIX : <http://example/>",
+         "PREFIX xsd: <http://www.w3.org/2001/XMLSchema#>",
+         ":a :p 1 . :a :p 30 . :a :p 31 . :a :p -5 . :a :p 0 . :a :p -36028797018963968 .",
+         ":b :p '30'^^xsd:int . :b :p '40'^^xsd:byte . :b :p 99999999999999999999 . :b :p -99999999999999999999 .",
+         ":c :p 30.5 . :c :p 29.9 . :c :p '31.5e0'^^xsd:double . :c :p '32'^^xsd:float .",
+         ":d :p 'abc' . :d :p :x . :d :p true . :d :p '2015-01-01'^^xsd:date .",
+         ":e :q 35 .") ;
+
+    static Dataset dsMem ;
+    static Dataset dsTDB ;
+
+    @BeforeClass static public void beforeClass() {
+        dsMem = DatasetFactory.createMem() ;
+        dsMem.getDefaultModel().read(new StringReader(data), null, "TTL") ;
+        dsMem.getNamedModel("http://example/g").read(new StringReader(data), null, "TTL") ;
+        dsTDB = TDBFactory.createDataset() ;
+        dsTDB.getDefaultModel().add(dsMem.getDefaultModel()) ;
+        dsTDB.getNamedModel("http://example/g").add(dsMem.getNamedModel("http://example/g")) ;
+    }
+
+    @Test public void analyse_01()  { analyse("?o > 30", 31, Long.MAX_VALUE) ; }
+    @Test public void analyse_02()  { analyse("30 > ?o", Long.MIN_VALUE, 29) ; }
+    @Test public void analyse_03()  { analyse("?o >= 10 && ?o < 20", 10, 19) ; }
+    @Test public void analyse_04()  { analyse("?o = 7", 7, 7) ; }
+    @Test public void analyse_05()  { assertNull(RangeScanTDB.analyse(Var.alloc("o"), exprs("?o > 30.5"))) ; }
+    @Test public void analyse_06()  { assertNull(RangeScanTDB.analyse(Var.alloc("o"), exprs("?s > 30"))) ; }
+
+    @Test public void range_01()    { test("SELECT * { ?s :p ?o FILTER(?o > 30) }") ; }
+    @Test public void range_02()    { test("SELECT * { ?s :p ?o FILTER(?o >= 30) }") ; }
+    @Test public void range_03()    { test("SELECT * { ?s :p ?o FILTER(?o < 30) }") ; }
+    @Test public void range_04()    { test("SELECT * { ?s :p ?o FILTER(?o <= 0) }") ; }
+    @Test public void range_05()    { test("SELECT * { ?s :p ?o FILTER(?o = 30) }") ; }
+    @Test public void range_06()    { test("SELECT * { ?s :p ?o FILTER(?o > -10 && ?o < 31) }") ; }
+    @Test public void range_07()    { test("SELECT * { ?s :p ?o FILTER(?o > 10 && ?o < 5) }") ; }
+    @Test public void range_08()    { test("SELECT * { ?s :p ?o FILTER(30 < ?o) }") ; }
+    @Test public void range_09()    { test("SELECT * { ?s :p ?o FILTER(?o > 30 && ?s != :a) }") ; }
+    @Test public void range_10()    { test("SELECT * { ?s :p ?o FILTER(?o > 99999999999999999998) }") ; }
+    @Test public void range_11()    { test("SELECT * { ?s :p ?o FILTER(?o < -36028797018963967) }") ; }
+    @Test public void range_12()    { test("SELECT * { ?s :unknown ?o FILTER(?o > 30) }") ; }
+    // Driven by a binding.
+    @Test public void range_13()    { test("SELECT * { ?s :q ?v . { ?s :p ?o FILTER(?o > 30) } }") ; }
+    @Test public void range_14()    { test("SELECT * { VALUES ?o { 31 1 } ?s :p ?o FILTER(?o > 30) }") ; }
+    // Named graphs.
+    @Test public void range_15()    { test("SELECT * { GRAPH :g { ?s :p ?o FILTER(?o > 30) } }") ; }
+    @Test public void range_16()    { test("SELECT * { GRAPH ?g { ?s :p ?o FILTER(?o > 30) } }") ; }
+    @Test public void range_17()    { test("SELECT * { GRAPH :unknown { ?s :p ?o FILTER(?o > 30) } }") ; }
+
+    private static ExprList exprs(String exprString) {
+        return new ExprList(ExprUtils.parse(exprString)) ;
+    }
+
+    private static void analyse(String exprString, long lo, long hi) {
+        RangeScanTDB.Range range = RangeScanTDB.analyse(Var.alloc("o"), exprs(exprString)) ;
+        assertNotNull(range) ;
+        assertEquals(Math.max(lo, IntegerNode.MIN), range.lo) ;
+        assertEquals(Math.min(hi, IntegerNode.MAX), range.hi) ;
+    }
+
+    private static void test(String queryString) {
+        Query query = QueryFactory.create("PREFIX : <http://example/> "+queryString) ;
+        try ( QueryExecution qExec1 = QueryExecutionFactory.create(query, dsMem) ;
+              QueryExecution qExec2 = QueryExecutionFactory.create(query, dsTDB) ) {
+            ResultSetRewindable rs1 = ResultSetFactory.makeRewindable(qExec1.execSelect()) ;
+            ResultSetRewindable rs2 = ResultSetFactory.makeRewindable(qExec2.execSelect()) ;
+            boolean b = ResultSetCompare.equalsByValue(rs1, rs2) ;
+            if ( ! b ) {
+                rs1.reset() ;
+                rs2.reset() ;
+                ResultSetFormatter.out(rs1) ;
+                ResultSetFormatter.out(rs2) ;
+            }
+            assertTrue(queryString, b) ;
+        }
+    }
+}
@@ -35,6 +35,7 @@ import org.junit.runners.Suite ;
     , TestDatasetTDBPersist.class
     , TestDatasetTDB.class
     , TestLoader.class
+    , TestLoaderBatchTDB.class
     // The script suite
     , TestSuiteGraphTDB.class
     , Test_SPARQL_TDB.class
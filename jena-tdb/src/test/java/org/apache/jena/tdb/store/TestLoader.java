@@ -36,6 +36,9 @@ import org.apache.jena.tdb.TDBLoader ;
 import org.apache.jena.tdb.base.file.Location ;
 import org.apache.jena.tdb.store.DatasetGraphTDB ;
 import org.apache.jena.tdb.store.GraphTDB ;
+import org.apache.jena.tdb.store.bulkloader.BulkLoader ;
+import org.apache.jena.tdb.store.bulkloader.LoaderNodeTupleTable ;
+import org.apache.jena.tdb.store.nodetupletable.NodeTupleTable ;
 import org.apache.jena.tdb.sys.TDBMaker ;
 import org.junit.AfterClass ;
 import org.junit.BeforeClass ;
@@ -65,6 +68,25 @@ public class TestLoader extends BaseTest {
         return TDBMaker.createDatasetGraphTDB(Location.mem(), null) ;
     }
 
+    @Test
+    public void load_incremental_01() {
+        // Loading into an empty table keeps the indexes, so the table can be read.
+        DatasetGraphTDB dsg = fresh() ;
+        NodeTupleTable ntt = dsg.getQuadTable().getNodeTupleTable() ;
+        LoaderNodeTupleTable loader = new LoaderNodeTupleTable(ntt, "quads", BulkLoader.createLoadMonitor(dsg, "quads", false), true) ;
+        loader.loadStart() ;
+        loader.loadDataStart() ;
+        for ( int i = 0 ; i < ntt.getTupleTable().numIndexes() ; i++ )
+            assertNotNull(ntt.getTupleTable().getIndex(i)) ;
+        loader.load(g, s, p, o) ;
+        assertTrue(dsg.find(Node.ANY, Node.ANY, Node.ANY, o).hasNext()) ;
+        loader.loadDataFinish() ;
+        loader.loadIndexStart() ;
+        loader.loadIndexFinish() ;
+        loader.loadFinish() ;
+        assertEquals(1, dsg.getGraph(g).size()) ;
+    }
+
     @Test
     public void load_dataset_01() {
         DatasetGraphTDB dsg = fresh() ;
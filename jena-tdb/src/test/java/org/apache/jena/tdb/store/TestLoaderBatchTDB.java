@@ -0,0 +1,134 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.jena.tdb.store;
+
+import java.io.StringReader ;
+import java.util.List ;
+
+import org.apache.jena.atlas.iterator.Iter ;
+import org.apache.jena.atlas.junit.BaseTest ;
+import org.apache.jena.atlas.lib.StrUtils ;
+import org.apache.jena.graph.Node ;
+import org.apache.jena.graph.NodeFactory ;
+import org.apache.jena.query.ReadWrite ;
+import org.apache.jena.riot.Lang ;
+import org.apache.jena.riot.RDFDataMgr ;
+import org.apache.jena.sparql.core.DatasetGraph ;
+import org.apache.jena.sparql.core.DatasetGraphFactory ;
+import org.apache.jena.sparql.core.Quad ;
+import org.apache.jena.sparql.sse.SSE ;
+import org.apache.jena.tdb.TDBFactory ;
+import org.apache.jena.tdb.store.bulkloader.LoaderBatchTDB ;
+import org.apache.jena.tdb.transaction.DatasetGraphTransaction ;
+import org.junit.Test ;
+
+public class TestLoaderBatchTDB extends BaseTest
+{
+    private static final Node g = NodeFactory.createURI("http://example/g") ;
+    private static final Node p = NodeFactory.createURI("http://example/p") ;
+
+    static String data = StrUtils.strjoinNL
+        ("PREFIX : <http://example/>",
+         ":s :p 1 , 2 , 3 , 'abc' , :o .",
+         ":s :p 1 .",
+         ":o :q :s .",
+         ":g { :s :p 1 , 2 . :x :p :s . }",
+         ":g2 { :s :p 1 . _:b :p _:b . }") ;
+
+    @Test public void batch_load_01()   { test(data, 1000) ; }
+    @Test public void batch_load_02()   { test(data, 1) ; }
+    @Test public void batch_load_03()   { test(data, 3) ; }
+
+    // Load into a dataset that already has some of the data.
+    @Test public void batch_load_04() {
+        DatasetGraphTransaction dsg = (DatasetGraphTransaction)TDBFactory.createDatasetGraph() ;
+        dsg.begin(ReadWrite.WRITE) ;
+        dsg.add(SSE.parseQuad("(_ :s :p 1)")) ;
+        dsg.add(SSE.parseQuad("(:g :x :p :s)")) ;
+        LoaderBatchTDB loader = load(dsg, null, data, 2) ;
+        dsg.commit() ;
+        dsg.end() ;
+        assertEquals(12, loader.getCount()) ;
+        assertEquals(9, loader.getAddedCount()) ;
+        check(dsg, data) ;
+    }
+
+    // Load into a named graph.
+    @Test public void batch_load_05() {
+        DatasetGraphTransaction dsg = (DatasetGraphTransaction)TDBFactory.createDatasetGraph() ;
+        dsg.begin(ReadWrite.WRITE) ;
+        load(dsg, g, "PREFIX : <http://example/> :s :p 1 , 2 . :a :p :b .", 2) ;
+        dsg.commit() ;
+        dsg.end() ;
+        dsg.begin(ReadWrite.READ) ;
+        try {
+            assertTrue(dsg.getDefaultGraph().isEmpty()) ;
+            assertEquals(3, dsg.getGraph(g).size()) ;
+            List<Quad> x = Iter.toList(dsg.find(null, null, p, null)) ;
+            assertEquals(3, x.size()) ;
+            assertEquals("http://example/", dsg.getGraph(g).getPrefixMapping().getNsPrefixURI("")) ;
+        } finally { dsg.end() ; }
+    }
+
+    // Abort discards the load.
+    @Test public void batch_load_06() {
+        DatasetGraphTransaction dsg = (DatasetGraphTransaction)TDBFactory.createDatasetGraph() ;
+        dsg.begin(ReadWrite.WRITE) ;
+        load(dsg, null, data, 2) ;
+        dsg.abort() ;
+        dsg.end() ;
+        dsg.begin(ReadWrite.READ) ;
+        try {
+            assertTrue(dsg.isEmpty()) ;
+        } finally { dsg.end() ; }
+    }
+
+    private static void test(String trig, int batchSize) {
+        DatasetGraphTransaction dsg = (DatasetGraphTransaction)TDBFactory.createDatasetGraph() ;
+        dsg.begin(ReadWrite.WRITE) ;
+        LoaderBatchTDB loader = load(dsg, null, trig, batchSize) ;
+        dsg.commit() ;
+        dsg.end() ;
+        assertEquals(12, loader.getCount()) ;
+        assertEquals(11, loader.getAddedCount()) ;
+        check(dsg, trig) ;
+    }
+
+    private static LoaderBatchTDB load(DatasetGraphTransaction dsg, Node graphName, String trig, int batchSize) {
+        LoaderBatchTDB loader = new LoaderBatchTDB(dsg.get(), graphName, batchSize) ;
+        loader.startBulk() ;
+        RDFDataMgr.parse(loader, new StringReader(trig), null, Lang.TRIG) ;
+        loader.finishBulk() ;
+        return loader ;
+    }
+
+    private static void check(DatasetGraphTransaction dsg, String trig) {
+        DatasetGraph expected = DatasetGraphFactory.createMem() ;
+        RDFDataMgr.read(expected, new StringReader(trig), null, Lang.TRIG) ;
+        dsg.begin(ReadWrite.READ) ;
+        try {
+            assertTrue(expected.getDefaultGraph().isIsomorphicWith(dsg.getDefaultGraph())) ;
+            for ( Node gn : Iter.toList(expected.listGraphNodes()) )
+                assertTrue(expected.getGraph(gn).isIsomorphicWith(dsg.getGraph(gn))) ;
+            // Access by other indexes.
+            Node s = NodeFactory.createURI("http://example/s") ;
+            assertEquals(Iter.count(expected.find(null, null, p, null)), Iter.count(dsg.find(null, null, p, null))) ;
+            assertEquals(Iter.count(expected.find(null, null, null, s)), Iter.count(dsg.find(null, null, null, s))) ;
+        } finally { dsg.end() ; }
+    }
+}
@@ -284,6 +284,46 @@ public class TestTupleIndexRecordDirect extends BaseTest
         assertFalse(iter.hasNext()) ;
    }
 
+    @Test public void TupleIndexRecordFindRange_1()
+    {
+        TupleIndexRecord index = create("POS") ;
+        add(index, n1, n2, n3) ;
+        add(index, n1, n2, n4) ;
+        add(index, n1, n2, n5) ;
+        add(index, n1, n3, n4) ;
+
+        Tuple<NodeId> tuple2 = createTuple(null, n2, null) ;
+        Iterator<Tuple<NodeId>> iter = index.findRange(tuple2, n4, n5) ;
+        Set<Tuple<NodeId>> x = Iter.toSet(iter) ;
+        assertEquals(2, x.size()) ;
+        assertTrue(x.contains(createTuple(n1, n2, n4))) ;
+        assertTrue(x.contains(createTuple(n1, n2, n5))) ;
+    }
+
+    @Test public void TupleIndexRecordFindRange_2()
+    {
+        TupleIndexRecord index = create("POS") ;
+        add(index, n1, n2, n3) ;
+        add(index, n1, n2, new NodeId(-2)) ;
+        add(index, n1, n3, n4) ;
+
+        // Unsigned order : -2 is the largest.
+        Tuple<NodeId> tuple2 = createTuple(null, n2, null) ;
+        Iterator<Tuple<NodeId>> iter = index.findRange(tuple2, n4, new NodeId(-1)) ;
+        Set<Tuple<NodeId>> x = Iter.toSet(iter) ;
+        assertEquals(1, x.size()) ;
+        assertTrue(x.contains(createTuple(n1, n2, new NodeId(-2)))) ;
+    }
+
+    @Test public void TupleIndexRecordFindRange_3()
+    {
+        TupleIndexRecord index = create("POS") ;
+        add(index, n1, n2, n3) ;
+        // Not a prefix of POS.
+        Tuple<NodeId> tuple2 = createTuple(n1, null, null) ;
+        assertNull(index.findRange(tuple2, n1, n2)) ;
+    }
+
     @Test public void TupleIndexRecordFindNot_4()
     {
         TupleIndexRecord index = create("SPO") ;